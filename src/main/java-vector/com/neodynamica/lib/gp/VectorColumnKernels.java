@@ -0,0 +1,172 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.prog.op.MathOp;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD column kernels using the incubating Vector API.
+ * <p>
+ * ADD, SUB, MUL, DIV, MIN, MAX, ABS, NEG, SQR and SQRT are evaluated with the preferred vector
+ * species of the running CPU (e.g. 4 doubles per instruction with AVX2). The remaining tail of each
+ * column is finished with a scalar loop, and every other operator uses the scalar kernels.
+ * <p>
+ * This class is only compiled by the 'vector' profile (JDK 17+) and is loaded reflectively by
+ * {@link ColumnKernels#simd()}.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+final class VectorColumnKernels extends ColumnKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    VectorColumnKernels() {
+    }
+
+    @Override
+    void unary(MathOp op, double[] a, double[] out, int n) {
+        int bound = SPECIES.loopBound(n);
+
+        switch (op) {
+            case ABS:
+                for (int i = 0; i < bound; i += SPECIES.length()) {
+                    DoubleVector.fromArray(SPECIES, a, i).abs().intoArray(out, i);
+                }
+                break;
+            case NEG:
+                for (int i = 0; i < bound; i += SPECIES.length()) {
+                    DoubleVector.fromArray(SPECIES, a, i).neg().intoArray(out, i);
+                }
+                break;
+            case SQR:
+                for (int i = 0; i < bound; i += SPECIES.length()) {
+                    DoubleVector va = DoubleVector.fromArray(SPECIES, a, i);
+                    va.mul(va).intoArray(out, i);
+                }
+                break;
+            case SQRT:
+                for (int i = 0; i < bound; i += SPECIES.length()) {
+                    DoubleVector.fromArray(SPECIES, a, i)
+                            .lanewise(VectorOperators.SQRT)
+                            .intoArray(out, i);
+                }
+                break;
+            default:
+                super.unary(op, a, out, n);
+                return;
+        }
+
+        unaryTail(op, a, out, bound, n);
+    }
+
+    @Override
+    void binary(MathOp op, double[] a, double[] b, double[] out, int n) {
+        int bound = SPECIES.loopBound(n);
+
+        switch (op) {
+            case ADD:
+                for (int i = 0; i < bound; i += SPECIES.length()) {
+                    DoubleVector.fromArray(SPECIES, a, i)
+                            .add(DoubleVector.fromArray(SPECIES, b, i))
+                            .intoArray(out, i);
+                }
+                break;
+            case SUB:
+                for (int i = 0; i < bound; i += SPECIES.length()) {
+                    DoubleVector.fromArray(SPECIES, a, i)
+                            .sub(DoubleVector.fromArray(SPECIES, b, i))
+                            .intoArray(out, i);
+                }
+                break;
+            case MUL:
+                for (int i = 0; i < bound; i += SPECIES.length()) {
+                    DoubleVector.fromArray(SPECIES, a, i)
+                            .mul(DoubleVector.fromArray(SPECIES, b, i))
+                            .intoArray(out, i);
+                }
+                break;
+            case DIV:
+                for (int i = 0; i < bound; i += SPECIES.length()) {
+                    DoubleVector.fromArray(SPECIES, a, i)
+                            .div(DoubleVector.fromArray(SPECIES, b, i))
+                            .intoArray(out, i);
+                }
+                break;
+            case MIN:
+                for (int i = 0; i < bound; i += SPECIES.length()) {
+                    DoubleVector.fromArray(SPECIES, a, i)
+                            .min(DoubleVector.fromArray(SPECIES, b, i))
+                            .intoArray(out, i);
+                }
+                break;
+            case MAX:
+                for (int i = 0; i < bound; i += SPECIES.length()) {
+                    DoubleVector.fromArray(SPECIES, a, i)
+                            .max(DoubleVector.fromArray(SPECIES, b, i))
+                            .intoArray(out, i);
+                }
+                break;
+            default:
+                super.binary(op, a, b, out, n);
+                return;
+        }
+
+        binaryTail(op, a, b, out, bound, n);
+    }
+
+    /**
+     * Finish the rows after the last full vector.
+     */
+    private static void unaryTail(MathOp op, double[] a, double[] out, int from, int n) {
+        for (int i = from; i < n; i++) {
+            switch (op) {
+                case ABS:
+                    out[i] = Math.abs(a[i]);
+                    break;
+                case NEG:
+                    out[i] = -a[i];
+                    break;
+                case SQR:
+                    out[i] = a[i] * a[i];
+                    break;
+                default:
+                    out[i] = Math.sqrt(a[i]);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Finish the rows after the last full vector.
+     */
+    private static void binaryTail(MathOp op, double[] a, double[] b, double[] out, int from,
+            int n) {
+        for (int i = from; i < n; i++) {
+            switch (op) {
+                case ADD:
+                    out[i] = a[i] + b[i];
+                    break;
+                case SUB:
+                    out[i] = a[i] - b[i];
+                    break;
+                case MUL:
+                    out[i] = a[i] * b[i];
+                    break;
+                case DIV:
+                    out[i] = a[i] / b[i];
+                    break;
+                case MIN:
+                    out[i] = Math.min(a[i], b[i]);
+                    break;
+                default:
+                    out[i] = Math.max(a[i], b[i]);
+                    break;
+            }
+        }
+    }
+}
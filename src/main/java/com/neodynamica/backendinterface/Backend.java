@@ -1,5 +1,7 @@
 package com.neodynamica.backendinterface;
 
+import com.neodynamica.lib.gp.Checkpoint;
+import com.neodynamica.lib.gp.IslandWorker;
 import com.neodynamica.lib.gp.RunState;
 import com.neodynamica.lib.gp.SymbolicRegression;
 import com.neodynamica.lib.parameter.SearchParameter;
@@ -16,6 +18,8 @@ import java.beans.PropertyChangeSupport;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.Random;
+import java.util.concurrent.Executor;
 
 public class Backend implements BackendInterface {
 
@@ -34,6 +38,26 @@ public class Backend implements BackendInterface {
     private SearchParameter searchParameters;
     private Dataset dataset;
 
+    /**
+     * Connection to the coordinator of a distributed search, null for a stand-alone search
+     */
+    private IslandWorker islandWorker;
+
+    /**
+     * True while waiting for a RunManager to start this search
+     */
+    private volatile boolean queued;
+
+    /**
+     * Why a RunManager couldn't start this search, null if it hasn't failed
+     */
+    private volatile Exception startFailure;
+
+    /**
+     * What a task of this search threw on the shared evaluation pool, null if none has failed
+     */
+    private volatile Throwable runFailure;
+
     /**
      * index in 'generations' of the next generation which hasn't been read by frontend used in
      * getNextGeneration()
@@ -56,6 +80,17 @@ public class Backend implements BackendInterface {
         support = new PropertyChangeSupport(this);
     }
 
+    /**
+     * Initialise with the given search parameters rather than the defaults, as a ParameterSweep
+     * does for each of its runs.
+     *
+     * @param searchParameters Parameters, copied
+     */
+    public Backend(SearchParameter searchParameters) throws SearchParameterException {
+        this.searchParameters = new SearchParameter(searchParameters);
+        support = new PropertyChangeSupport(this);
+    }
+
     // run state methods
     public void start() throws SearchParameterException, IOException {
         updateDataSet();
@@ -70,7 +105,10 @@ public class Backend implements BackendInterface {
             RandomRegistry.setRandom(new LCG64ShiftRandom.ThreadLocal());
         }
 
+        closeHistory();
         symbolicRegression = new SymbolicRegression(this, searchParameters, dataset);
+        symbolicRegression.setIslandWorker(islandWorker);
+        islandWorker = null; //the connection is closed when this run ends
         symbolicRegression.run();
 
         //reset duration, record start time
@@ -78,6 +116,132 @@ public class Backend implements BackendInterface {
         lastStartOrResumeTime = System.currentTimeMillis();
     }
 
+    /**
+     * Start this search from a checkpoint written by an earlier search, possibly in another
+     * process, in place of start(). The parameters are those of the checkpointed search, and its
+     * data file must still be at the same path. The search resumes from the saved population and
+     * parameters, and a seeded search from the saved state of its random engine.
+     *
+     * @param checkpointFilePath Checkpoint file, as set by checkpointFilePath
+     */
+    public void resumeFrom(String checkpointFilePath) throws SearchParameterException, IOException {
+        Checkpoint checkpoint = Checkpoint.read(checkpointFilePath);
+        searchParameters = checkpoint.getSearchParameter();
+        updateDataSet();
+
+        closeHistory();
+        symbolicRegression = new SymbolicRegression(this, searchParameters, dataset);
+        symbolicRegression.resumeFrom(checkpoint);
+
+        //the random engine is restored after setting up, the search draws from it once started
+        Random random = checkpoint.getRandom();
+        if (random != null) {
+            RandomRegistry.setRandom(random);
+        } else {
+            RandomRegistry.setRandom(new LCG64ShiftRandom.ThreadLocal());
+        }
+
+        //reset duration, record start time before the first generation can arrive
+        durationAtLastPauseOrStop = 0;
+        lastStartOrResumeTime = System.currentTimeMillis();
+        symbolicRegression.run();
+    }
+
+    /**
+     * Start this search as one of several sharing the process, as a RunManager does. Unlike
+     * start(), the seed is given to this search's own random engine rather than the
+     * RandomRegistry, so concurrent searches don't reseed each other.
+     *
+     * @param evaluationExecutor Pool shared by every search for fitness evaluation
+     */
+    void start(Executor evaluationExecutor) throws SearchParameterException, IOException {
+        queued = false;
+        try {
+            updateDataSet();
+
+            Random random;
+            try {
+                random = new LCG64ShiftRandom.ThreadSafe(searchParameters.getSeed());
+            } catch (SearchParameterException e) {
+                //unseeded searches keep the RandomRegistry's thread local engines
+                random = null;
+            }
+
+            closeHistory();
+        symbolicRegression = new SymbolicRegression(this, searchParameters, dataset);
+            symbolicRegression.setExecution(evaluationExecutor, random);
+
+            //reset duration, record start time before the first generation can arrive
+            durationAtLastPauseOrStop = 0;
+            lastStartOrResumeTime = System.currentTimeMillis();
+            symbolicRegression.run();
+        } catch (SearchParameterException | IOException | RuntimeException e) {
+            startFailure = e;
+            throw e;
+        }
+    }
+
+    /**
+     * Record a task of this search which failed on the shared evaluation pool and stop the search,
+     * which then reports RunState.ERROR. The search isn't waited for, as it may be waiting for the
+     * pool thread reporting the failure.
+     *
+     * @param failure What the task threw
+     */
+    void evaluationFailed(Throwable failure) {
+        if (runFailure == null) {
+            runFailure = failure;
+        }
+        final SymbolicRegression regression = symbolicRegression;
+        if (regression != null) {
+            regression.cancel();
+        }
+    }
+
+    /**
+     * Check whether this search has been started, by start() or a RunManager
+     */
+    boolean isStarted() {
+        return symbolicRegression != null || startFailure != null;
+    }
+
+    /**
+     * Mark this search as waiting for a RunManager to start it
+     */
+    void setQueued(boolean queued) {
+        this.queued = queued;
+    }
+
+    /**
+     * Get the reason a RunManager couldn't start this search.
+     *
+     * @return The exception thrown while starting, or null if it hasn't failed
+     */
+    public Exception getStartFailure() {
+        return startFailure;
+    }
+
+    /**
+     * Get what made this search fail while it ran.
+     *
+     * @return What a task of the search threw on the shared evaluation pool, or null if none
+     * has failed
+     */
+    public Throwable getRunFailure() {
+        return runFailure;
+    }
+
+    /**
+     * Join a distributed island search run by an IslandCoordinator. The next call to start() runs
+     * as one of its workers, exchanging migrants and reporting each generation to it.
+     *
+     * @param host Host the coordinator runs on
+     * @param port Port the coordinator listens on
+     */
+    public void connectToCoordinator(String host, int port) throws IOException {
+        islandWorker = new IslandWorker(host, port);
+    }
+
     public void pause() throws InvalidRunStateException {
         if (RunState.ENDED.equals(getRunState())) {
             throw new InvalidRunStateException("Cannot pause - symbolic regression has ended.");
@@ -125,41 +289,68 @@ public class Backend implements BackendInterface {
     }
 
     public RunState getRunState() {
+        if (startFailure != null || runFailure != null) {
+            return RunState.ERROR;
+        }
         if (symbolicRegression == null) {
-            return RunState.PAUSED;
+            return queued ? RunState.QUEUED : RunState.PAUSED;
         }
 
         return symbolicRegression.getRunState();
     }
 
     // getters for generations
+
+    /**
+     * Get the nth generationBean of the search. Returns null if the history retention policy
+     * dropped it.
+     */
     public GenerationBean getGeneration(int n) {
-        return symbolicRegression.getGenerationBeans().get(n);
+        return symbolicRegression.getGenerationHistory().get(n);
     }
 
     /**
      * Get the next unread generationBean if one is available. Returns null if there are no new
-     * generationBeans since the last one was retrieved this way.
+     * generationBeans since the last one was retrieved this way. Generations dropped by the
+     * history retention policy before being read are skipped.
      */
     public GenerationBean getNextGeneration() {
         //check if there's a new generation to get
-        if (symbolicRegression.getGenerationBeans().size() <= nextUnreadGeneration) {
-            return null;
-        } else {
+        while (symbolicRegression.getGenerationHistory().size() > nextUnreadGeneration) {
             int temp = nextUnreadGeneration;
             //increment the counter so the next element is returned next time
             nextUnreadGeneration++;
-            return symbolicRegression.getGenerationBeans().get(temp);
+            GenerationBean generation = symbolicRegression.getGenerationHistory().get(temp);
+            if (generation != null) {
+                return generation;
+            }
         }
+        return null;
+    }
+
+    /**
+     * Get the reason the last search stopped writing checkpoints. Each GenerationBean after the
+     * failure also reports it.
+     *
+     * @return The exception which stopped checkpointing, or null if it hasn't failed, the search
+     * isn't checkpointed or hasn't started
+     */
+    public IOException getCheckpointFailure() {
+        return symbolicRegression != null ? symbolicRegression.getCheckpointFailure() : null;
     }
 
     public GenerationBean getLatestGeneration() {
-        if (symbolicRegression.getGenerationBeans().size() == 0) {
-            return null;
-        }
+        return symbolicRegression.getGenerationHistory().getLatest();
+    }
 
-        return symbolicRegression.getGenerationBeans()
-                .get(symbolicRegression.getGenerationBeans().size() - 1);
+    /**
+     * Delete the on-disk generation history of the last search, if any. Its older generations
+     * can't be read after this.
+     */
+    void closeHistory() {
+        if (symbolicRegression != null) {
+            symbolicRegression.getGenerationHistory().close();
+        }
     }
 
     // observer pattern methods
@@ -183,6 +374,15 @@ public class Backend implements BackendInterface {
     }
 
     // Parameter Getters
+    /**
+     * Get a copy of the search parameters this search will run with.
+     *
+     * @return Search parameters
+     */
+    public SearchParameter getSearchParameters() throws SearchParameterException {
+        return new SearchParameter(searchParameters);
+    }
+
     public String getConfigFilePath() {
         return configFilePath;
     }
@@ -315,6 +515,98 @@ public class Backend implements BackendInterface {
         return searchParameters.getTimeLimit();
     }
 
+    public String getEvaluationMode() throws SearchParameterException {
+        return searchParameters.getEvaluationMode();
+    }
+
+    public int getFitnessCacheSize() throws SearchParameterException {
+        return searchParameters.getFitnessCacheSize();
+    }
+
+    public int getSubtreeCacheMemory() throws SearchParameterException {
+        return searchParameters.getSubtreeCacheMemory();
+    }
+
+    public int getEarlyAbortChunkSize() throws SearchParameterException {
+        return searchParameters.getEarlyAbortChunkSize();
+    }
+
+    public String getSamplingMode() throws SearchParameterException {
+        return searchParameters.getSamplingMode();
+    }
+
+    public int getSampleSize() throws SearchParameterException {
+        return searchParameters.getSampleSize();
+    }
+
+    public int getIslandCount() throws SearchParameterException {
+        return searchParameters.getIslandCount();
+    }
+
+    public int getMigrationInterval() throws SearchParameterException {
+        return searchParameters.getMigrationInterval();
+    }
+
+    public int getMigrationSize() throws SearchParameterException {
+        return searchParameters.getMigrationSize();
+    }
+
+    public String getMigrationTopology() throws SearchParameterException {
+        return searchParameters.getMigrationTopology();
+    }
+
+    public int getConstantOptimisationInterval() throws SearchParameterException {
+        return searchParameters.getConstantOptimisationInterval();
+    }
+
+    public int getConstantOptimisationElites() throws SearchParameterException {
+        return searchParameters.getConstantOptimisationElites();
+    }
+
+    public int getConstantOptimisationTime() throws SearchParameterException {
+        return searchParameters.getConstantOptimisationTime();
+    }
+
+    public Boolean getLinearScaling() throws SearchParameterException {
+        return searchParameters.getLinearScaling();
+    }
+
+    public Boolean getIntervalScreen() throws SearchParameterException {
+        return searchParameters.getIntervalScreen();
+    }
+
+    public Boolean getOnlineSimplification() throws SearchParameterException {
+        return searchParameters.getOnlineSimplification();
+    }
+
+    public String getGenomeEncoding() throws SearchParameterException {
+        return searchParameters.getGenomeEncoding();
+    }
+
+    public int getCheckpointInterval() throws SearchParameterException {
+        return searchParameters.getCheckpointInterval();
+    }
+
+    public String getCheckpointFilePath() throws SearchParameterException {
+        return searchParameters.getCheckpointFilePath();
+    }
+
+    public int getHistoryFullGenerations() throws SearchParameterException {
+        return searchParameters.getHistoryFullGenerations();
+    }
+
+    public int getHistorySampleInterval() throws SearchParameterException {
+        return searchParameters.getHistorySampleInterval();
+    }
+
+    public Boolean getHistoryKeepNewBest() throws SearchParameterException {
+        return searchParameters.getHistoryKeepNewBest();
+    }
+
+    public int getHistoryPopulationGenerations() throws SearchParameterException {
+        return searchParameters.getHistoryPopulationGenerations();
+    }
+
     // Parameter Setters
     public void setConfigFilePath(String configFilePath)
             throws SearchParameterException, IOException, InvalidRunStateException {
@@ -480,6 +772,168 @@ public class Backend implements BackendInterface {
         searchParameters.setTimeLimit(timeLimit);
     }
 
+    public void setEvaluationMode(String evaluationMode)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        EvaluationModeValidator.validate(evaluationMode);
+        searchParameters.setEvaluationMode(evaluationMode);
+    }
+
+    public void setFitnessCacheSize(int fitnessCacheSize)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        FitnessCacheSizeValidator.validate(Integer.toString(fitnessCacheSize));
+        searchParameters.setFitnessCacheSize(fitnessCacheSize);
+    }
+
+    public void setSubtreeCacheMemory(int subtreeCacheMemory)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        SubtreeCacheMemoryValidator.validate(Integer.toString(subtreeCacheMemory));
+        searchParameters.setSubtreeCacheMemory(subtreeCacheMemory);
+    }
+
+    public void setEarlyAbortChunkSize(int earlyAbortChunkSize)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        EarlyAbortChunkSizeValidator.validate(Integer.toString(earlyAbortChunkSize));
+        searchParameters.setEarlyAbortChunkSize(earlyAbortChunkSize);
+    }
+
+    public void setSamplingMode(String samplingMode)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        SamplingModeValidator.validate(samplingMode);
+        searchParameters.setSamplingMode(samplingMode);
+    }
+
+    public void setSampleSize(int sampleSize)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        SampleSizeValidator.validate(Integer.toString(sampleSize));
+        searchParameters.setSampleSize(sampleSize);
+    }
+
+    public void setIslandCount(int islandCount)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        IslandCountValidator.validate(Integer.toString(islandCount));
+        searchParameters.setIslandCount(islandCount);
+    }
+
+    public void setMigrationInterval(int migrationInterval)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        MigrationIntervalValidator.validate(Integer.toString(migrationInterval));
+        searchParameters.setMigrationInterval(migrationInterval);
+    }
+
+    public void setMigrationSize(int migrationSize)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        MigrationSizeValidator.validate(Integer.toString(migrationSize));
+        searchParameters.setMigrationSize(migrationSize);
+    }
+
+    public void setMigrationTopology(String migrationTopology)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        MigrationTopologyValidator.validate(migrationTopology);
+        searchParameters.setMigrationTopology(migrationTopology);
+    }
+
+    public void setConstantOptimisationInterval(int constantOptimisationInterval)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        ConstantOptimisationIntervalValidator.validate(Integer.toString(constantOptimisationInterval));
+        searchParameters.setConstantOptimisationInterval(constantOptimisationInterval);
+    }
+
+    public void setConstantOptimisationElites(int constantOptimisationElites)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        ConstantOptimisationElitesValidator.validate(Integer.toString(constantOptimisationElites));
+        searchParameters.setConstantOptimisationElites(constantOptimisationElites);
+    }
+
+    public void setConstantOptimisationTime(int constantOptimisationTime)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        ConstantOptimisationTimeValidator.validate(Integer.toString(constantOptimisationTime));
+        searchParameters.setConstantOptimisationTime(constantOptimisationTime);
+    }
+
+    public void setLinearScaling(Boolean linearScaling)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        LinearScalingValidator.validate(linearScaling);
+        searchParameters.setLinearScaling(linearScaling);
+    }
+
+    public void setIntervalScreen(Boolean intervalScreen)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        IntervalScreenValidator.validate(intervalScreen);
+        searchParameters.setIntervalScreen(intervalScreen);
+    }
+
+    public void setOnlineSimplification(Boolean onlineSimplification)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        OnlineSimplificationValidator.validate(onlineSimplification);
+        searchParameters.setOnlineSimplification(onlineSimplification);
+    }
+
+    public void setGenomeEncoding(String genomeEncoding)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        GenomeEncodingValidator.validate(genomeEncoding);
+        searchParameters.setGenomeEncoding(genomeEncoding);
+    }
+
+    public void setCheckpointInterval(int checkpointInterval)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        CheckpointIntervalValidator.validate(Integer.toString(checkpointInterval));
+        searchParameters.setCheckpointInterval(checkpointInterval);
+    }
+
+    public void setCheckpointFilePath(String checkpointFilePath)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        CheckpointFilePathValidator.validate(checkpointFilePath);
+        searchParameters.setCheckpointFilePath(checkpointFilePath);
+    }
+
+    public void setHistoryFullGenerations(int historyFullGenerations)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        HistoryFullGenerationsValidator.validate(Integer.toString(historyFullGenerations));
+        searchParameters.setHistoryFullGenerations(historyFullGenerations);
+    }
+
+    public void setHistorySampleInterval(int historySampleInterval)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        HistorySampleIntervalValidator.validate(Integer.toString(historySampleInterval));
+        searchParameters.setHistorySampleInterval(historySampleInterval);
+    }
+
+    public void setHistoryKeepNewBest(Boolean historyKeepNewBest)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        HistoryKeepNewBestValidator.validate(historyKeepNewBest);
+        searchParameters.setHistoryKeepNewBest(historyKeepNewBest);
+    }
+
+    public void setHistoryPopulationGenerations(int historyPopulationGenerations)
+            throws SearchParameterException, InvalidRunStateException {
+        checkRunStateAllowsParameterChanges();
+        HistoryPopulationGenerationsValidator.validate(
+                Integer.toString(historyPopulationGenerations));
+        searchParameters.setHistoryPopulationGenerations(historyPopulationGenerations);
+    }
+
     public void setSeed(long seed)
             throws SearchParameterException, InvalidRunStateException {
         checkRunStateAllowsParameterChanges();
@@ -531,12 +985,23 @@ public class Backend implements BackendInterface {
      * predictions
      * @throws IOException - thrown if there are issues writing the file
      * @throws InvalidRunStateException - thrown if this method is called before the symbolic
-     * regression has actually run and generated any solutions/datasets to predict with.
+     * regression has actually run and generated any solutions/datasets to predict with, or if the
+     * history retention policy has dropped the generation.
      */
     public void generateBestSolutionPredictionsFile(String newFileName, int generationIndex)
             throws IOException, InvalidRunStateException {
+        if (symbolicRegression == null) {
+            throw new InvalidRunStateException(
+                    "Can't generate predictions before search has started running");
+        }
+
         //use the specified generation's best solution for predictions
-        writePredictionFile(newFileName, getGeneration(generationIndex));
+        GenerationBean generation = getGeneration(generationIndex);
+        if (generation == null) {
+            throw new InvalidRunStateException("Can't generate predictions from generation "
+                    + generationIndex + ", it is no longer held by the generation history");
+        }
+        writePredictionFile(newFileName, generation);
     }
 
     /**
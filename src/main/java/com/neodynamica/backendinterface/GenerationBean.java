@@ -3,9 +3,14 @@ package com.neodynamica.backendinterface;
 import io.jenetics.Phenotype;
 import io.jenetics.ext.moea.ParetoFront;
 import io.jenetics.ext.moea.Vec;
+import io.jenetics.ext.util.Tree;
 import io.jenetics.ext.util.TreeFormatter;
+import io.jenetics.ext.util.TreeNode;
 import io.jenetics.prog.ProgramGene;
+import io.jenetics.prog.op.Const;
 import io.jenetics.prog.op.MathExpr;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
 import io.jenetics.util.ISeq;
 
 import java.io.Serializable;
@@ -22,12 +27,51 @@ public class GenerationBean<T> implements Serializable {
     private T fitnessStandardDeviation;
     private boolean newBest = false; //true if there's a new best solution this generation
     private String[] inputVariableLabels;
+    private long fitnessCacheHits; //evaluations answered from the fitness cache this generation
+    private long fitnessCacheMisses; //evaluations that had to be calculated this generation
+    private long subtreeCacheHits; //subtree output columns reused this generation
+    private long subtreeCacheMisses; //subtree output columns calculated this generation
+    private long abortedEvaluations; //evaluations stopped early this generation
+    private long evaluatedRows; //dataset rows evaluated this generation with early abort enabled
+    private long skippedRows; //dataset rows skipped by early abort this generation
+    private long intervalRejections; //programs rejected by the interval screen this generation
+    private long simplifiedNodes; //nodes removed from offspring by online simplification this generation
+    private long checkpointNanos; //engine thread time spent capturing a checkpoint this generation
+    private long checkpointBytes; //size of the last checkpoint written to disk
+    private long checkpointWriteNanos; //time the last checkpoint took to write, off the engine thread
+    private long skippedCheckpoints; //checkpoints replaced by newer ones before being written
+    private String checkpointFailure; //why checkpoints stopped being written, null while they are
+    private long droppedGenerations; //older generations dropped by the history retention policy so far
+    private long droppedPopulations; //older populations dropped by the history retention policy so far
+    private long savedHistoryBytes; //encoded size of everything the history retention policy dropped so far
+    private String historyFailure; //why older generations stopped being written to disk, null while they are
+    private double[] islandBestFitness; //best fitness of each island, null without islands
+    private double[] islandAverageFitness; //average fitness of each island, null without islands
+    private double scalingIntercept = 0; //linear scaling applied to the best gene's output
+    private double scalingSlope = 1;
 
     public GenerationBean() {
     }
 
     public String getBestSolutionParenthesesString() {
-        return new MathExpr(bestGene).simplify().toString();
+        return new MathExpr(getBestSolution()).simplify().toString();
+    }
+
+    /**
+     * Returns the best solution of this generation, including its linear scaling if any
+     *
+     * @return The best gene, or scalingIntercept + scalingSlope * bestGene when scaled
+     */
+    public Tree<Op<Double>, ?> getBestSolution() {
+        if (scalingIntercept == 0 && scalingSlope == 1) {
+            return bestGene;
+        }
+
+        return TreeNode.<Op<Double>>of(MathOp.ADD)
+                .attach(Const.of(scalingIntercept))
+                .attach(TreeNode.<Op<Double>>of(MathOp.MUL)
+                        .attach(Const.of(scalingSlope))
+                        .attach(TreeNode.ofTree(bestGene)));
     }
 
     /**
@@ -36,7 +80,7 @@ public class GenerationBean<T> implements Serializable {
      * @return A multiline String of the Tree representation of this generation's best solution
      */
     public String getBestSolutionTree() {
-        return TreeFormatter.TREE.format(bestGene);
+        return TreeFormatter.TREE.format(getBestSolution());
     }
 
     /**
@@ -44,7 +88,7 @@ public class GenerationBean<T> implements Serializable {
      * @return A multiline String of the Tree representation of this generation's best solution
      */
     public String getBestSimplifiedSolutionTree() {
-        return TreeFormatter.TREE.format(new MathExpr(bestGene).simplify().toTree());
+        return TreeFormatter.TREE.format(new MathExpr(getBestSolution()).simplify().toTree());
     }
 
     /**
@@ -61,7 +105,7 @@ public class GenerationBean<T> implements Serializable {
      * to the solution
      */
     public Double predictWithBestSolution(Double... inputRow) {
-        return getBestGene().eval(inputRow);
+        return scalingIntercept + scalingSlope * getBestGene().eval(inputRow);
     }
 
     /* Generic getters and setters */
@@ -145,6 +189,261 @@ public class GenerationBean<T> implements Serializable {
         this.inputVariableLabels = inputVariableLabels;
     }
 
+    public long getFitnessCacheHits() {
+        return fitnessCacheHits;
+    }
+
+    public void setFitnessCacheHits(long fitnessCacheHits) {
+        this.fitnessCacheHits = fitnessCacheHits;
+    }
+
+    public long getFitnessCacheMisses() {
+        return fitnessCacheMisses;
+    }
+
+    public void setFitnessCacheMisses(long fitnessCacheMisses) {
+        this.fitnessCacheMisses = fitnessCacheMisses;
+    }
+
+    /**
+     * Returns the fraction of this generation's fitness evaluations answered from the fitness
+     * cache
+     *
+     * @return Hit ratio between 0 and 1, or 0 if nothing was evaluated or the cache is disabled
+     */
+    public double getFitnessCacheHitRatio() {
+        long lookups = fitnessCacheHits + fitnessCacheMisses;
+        return lookups == 0 ? 0 : (double) fitnessCacheHits / lookups;
+    }
+
+    public long getSubtreeCacheHits() {
+        return subtreeCacheHits;
+    }
+
+    public void setSubtreeCacheHits(long subtreeCacheHits) {
+        this.subtreeCacheHits = subtreeCacheHits;
+    }
+
+    public long getSubtreeCacheMisses() {
+        return subtreeCacheMisses;
+    }
+
+    public void setSubtreeCacheMisses(long subtreeCacheMisses) {
+        this.subtreeCacheMisses = subtreeCacheMisses;
+    }
+
+    /**
+     * Returns the fraction of this generation's subtree output columns which were reused rather
+     * than calculated
+     *
+     * @return Reuse ratio between 0 and 1, or 0 if the subtree cache is disabled
+     */
+    public double getSubtreeReuseRatio() {
+        long lookups = subtreeCacheHits + subtreeCacheMisses;
+        return lookups == 0 ? 0 : (double) subtreeCacheHits / lookups;
+    }
+
+    public long getAbortedEvaluations() {
+        return abortedEvaluations;
+    }
+
+    public void setAbortedEvaluations(long abortedEvaluations) {
+        this.abortedEvaluations = abortedEvaluations;
+    }
+
+    public long getEvaluatedRows() {
+        return evaluatedRows;
+    }
+
+    public void setEvaluatedRows(long evaluatedRows) {
+        this.evaluatedRows = evaluatedRows;
+    }
+
+    public long getSkippedRows() {
+        return skippedRows;
+    }
+
+    public void setSkippedRows(long skippedRows) {
+        this.skippedRows = skippedRows;
+    }
+
+    /**
+     * Returns the fraction of dataset rows which early abort didn't need to evaluate this
+     * generation
+     *
+     * @return Saved fraction between 0 and 1, or 0 if early abort is disabled
+     */
+    public double getEarlyAbortSavings() {
+        long rows = evaluatedRows + skippedRows;
+        return rows == 0 ? 0 : (double) skippedRows / rows;
+    }
+
+    public long getIntervalRejections() {
+        return intervalRejections;
+    }
+
+    public void setIntervalRejections(long intervalRejections) {
+        this.intervalRejections = intervalRejections;
+    }
+
+    public long getSimplifiedNodes() {
+        return simplifiedNodes;
+    }
+
+    public void setSimplifiedNodes(long simplifiedNodes) {
+        this.simplifiedNodes = simplifiedNodes;
+    }
+
+    public long getCheckpointNanos() {
+        return checkpointNanos;
+    }
+
+    public void setCheckpointNanos(long checkpointNanos) {
+        this.checkpointNanos = checkpointNanos;
+    }
+
+    public long getCheckpointBytes() {
+        return checkpointBytes;
+    }
+
+    public void setCheckpointBytes(long checkpointBytes) {
+        this.checkpointBytes = checkpointBytes;
+    }
+
+    public long getCheckpointWriteNanos() {
+        return checkpointWriteNanos;
+    }
+
+    public void setCheckpointWriteNanos(long checkpointWriteNanos) {
+        this.checkpointWriteNanos = checkpointWriteNanos;
+    }
+
+    public long getSkippedCheckpoints() {
+        return skippedCheckpoints;
+    }
+
+    public void setSkippedCheckpoints(long skippedCheckpoints) {
+        this.skippedCheckpoints = skippedCheckpoints;
+    }
+
+    public String getCheckpointFailure() {
+        return checkpointFailure;
+    }
+
+    public void setCheckpointFailure(String checkpointFailure) {
+        this.checkpointFailure = checkpointFailure;
+    }
+
+    public long getDroppedGenerations() {
+        return droppedGenerations;
+    }
+
+    public void setDroppedGenerations(long droppedGenerations) {
+        this.droppedGenerations = droppedGenerations;
+    }
+
+    public long getDroppedPopulations() {
+        return droppedPopulations;
+    }
+
+    public void setDroppedPopulations(long droppedPopulations) {
+        this.droppedPopulations = droppedPopulations;
+    }
+
+    public long getSavedHistoryBytes() {
+        return savedHistoryBytes;
+    }
+
+    public void setSavedHistoryBytes(long savedHistoryBytes) {
+        this.savedHistoryBytes = savedHistoryBytes;
+    }
+
+    public String getHistoryFailure() {
+        return historyFailure;
+    }
+
+    public void setHistoryFailure(String historyFailure) {
+        this.historyFailure = historyFailure;
+    }
+
+    public double[] getIslandBestFitness() {
+        return islandBestFitness;
+    }
+
+    public void setIslandBestFitness(double[] islandBestFitness) {
+        this.islandBestFitness = islandBestFitness;
+    }
+
+    public double[] getIslandAverageFitness() {
+        return islandAverageFitness;
+    }
+
+    public void setIslandAverageFitness(double[] islandAverageFitness) {
+        this.islandAverageFitness = islandAverageFitness;
+    }
+
+    public double getScalingIntercept() {
+        return scalingIntercept;
+    }
+
+    public double getScalingSlope() {
+        return scalingSlope;
+    }
+
+    /**
+     * Set the linear scaling applied to the best gene's output, as fitted when linear scaling is
+     * enabled
+     *
+     * @param intercept Added to the scaled output
+     * @param slope Multiplies the best gene's output
+     */
+    public void setLinearScaling(double intercept, double slope) {
+        this.scalingIntercept = intercept;
+        this.scalingSlope = slope;
+    }
+
+    /**
+     * Returns a copy of this generation without its population, as kept by a generation history
+     * once the population is old enough to drop
+     *
+     * @return Copy sharing every other field with this generation
+     */
+    public GenerationBean<T> withoutPopulation() {
+        GenerationBean<T> copy = new GenerationBean<>();
+        copy.index = index;
+        copy.bestFitness = bestFitness;
+        copy.medianFitness = medianFitness;
+        copy.averageFitness = averageFitness;
+        copy.worstFitness = worstFitness;
+        copy.bestGene = bestGene;
+        copy.fitnessStandardDeviation = fitnessStandardDeviation;
+        copy.newBest = newBest;
+        copy.inputVariableLabels = inputVariableLabels;
+        copy.fitnessCacheHits = fitnessCacheHits;
+        copy.fitnessCacheMisses = fitnessCacheMisses;
+        copy.subtreeCacheHits = subtreeCacheHits;
+        copy.subtreeCacheMisses = subtreeCacheMisses;
+        copy.abortedEvaluations = abortedEvaluations;
+        copy.evaluatedRows = evaluatedRows;
+        copy.skippedRows = skippedRows;
+        copy.intervalRejections = intervalRejections;
+        copy.simplifiedNodes = simplifiedNodes;
+        copy.checkpointNanos = checkpointNanos;
+        copy.checkpointBytes = checkpointBytes;
+        copy.checkpointWriteNanos = checkpointWriteNanos;
+        copy.skippedCheckpoints = skippedCheckpoints;
+        copy.checkpointFailure = checkpointFailure;
+        copy.droppedGenerations = droppedGenerations;
+        copy.droppedPopulations = droppedPopulations;
+        copy.savedHistoryBytes = savedHistoryBytes;
+        copy.historyFailure = historyFailure;
+        copy.islandBestFitness = islandBestFitness;
+        copy.islandAverageFitness = islandAverageFitness;
+        copy.scalingIntercept = scalingIntercept;
+        copy.scalingSlope = scalingSlope;
+        return copy;
+    }
+
     public ParetoFront<Vec<double[]>> getParetoFront() {
         // @TODO: handle error if population type is different
 
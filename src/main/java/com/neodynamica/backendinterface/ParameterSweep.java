@@ -0,0 +1,348 @@
+package com.neodynamica.backendinterface;
+
+import com.neodynamica.lib.parameter.SearchParameter;
+import com.neodynamica.lib.parameter.SearchParameterException;
+import com.neodynamica.lib.parameter.SweepSpace;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Tunes search parameters by running many configurations in parallel and pruning the poor ones
+ * early with successive halving.
+ * <p>
+ * Every configuration first runs for a small generation budget. The best 1/reduction of them, by
+ * median error over their repeats, run again with reduction times the budget, and so on until the
+ * survivors run for the full maxGenerations. Each run is seeded, so a configuration's runs are
+ * reproducible, and all runs share one {@link RunManager}.
+ * <p>
+ * For every run the time to reach the target error (if one is set) and the time of its last
+ * improvement are recorded, so the ranked results show how quickly each configuration gets there
+ * as well as how far.
+ */
+public class ParameterSweep {
+
+    private final SearchParameter base;
+    private final List<Map<String, String>> configurations;
+
+    private int repeats = 1;
+    private int reduction = 3;
+    private int minGenerations = 1;
+    private Double targetError;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private BiConsumer<Integer, Integer> rungListener;
+
+    /**
+     * Initialise values
+     *
+     * @param base Parameters shared by every configuration, including the dataset and the full
+     * generation budget maxGenerations
+     * @param configurations Parameter values to try, each applied over the base parameters
+     */
+    public ParameterSweep(SearchParameter base, List<Map<String, String>> configurations)
+            throws SearchParameterException {
+        if (base.getMultiObjectiveOptimisation()) {
+            throw new SearchParameterException("Parameter sweeps rank single objective searches");
+        }
+        if (configurations.isEmpty()) {
+            throw new SearchParameterException("Parameter sweep has no configurations");
+        }
+        this.base = new SearchParameter(base);
+        this.configurations = configurations;
+    }
+
+    /**
+     * Set the number of runs of each configuration, with consecutive seeds.
+     */
+    public void setRepeats(int repeats) {
+        this.repeats = Math.max(1, repeats);
+    }
+
+    /**
+     * Set how many times fewer configurations each rung keeps, and how many times longer they run.
+     */
+    public void setReduction(int reduction) {
+        this.reduction = Math.max(2, reduction);
+    }
+
+    /**
+     * Set the smallest generation budget of the first rung.
+     */
+    public void setMinGenerations(int minGenerations) {
+        this.minGenerations = Math.max(1, minGenerations);
+    }
+
+    /**
+     * Set the error whose time to reach is reported, or null to report only the time to each run's
+     * best.
+     */
+    public void setTargetError(Double targetError) {
+        this.targetError = targetError;
+    }
+
+    /**
+     * Set the number of threads evaluating fitness, which is also the number of runs at once.
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Set a listener told the generation budget and number of configurations of each rung as it
+     * starts.
+     */
+    public void setRungListener(BiConsumer<Integer, Integer> rungListener) {
+        this.rungListener = rungListener;
+    }
+
+    /**
+     * Run the sweep.
+     *
+     * @return Result of every configuration, best first: those which reached later rungs rank
+     * above those pruned earlier, then by median error
+     */
+    public List<Result> run() throws SearchParameterException, InterruptedException {
+        final int maxGenerations = this.base.getMaxGenerations();
+        long seed;
+        try {
+            seed = this.base.getSeed();
+        } catch (SearchParameterException e) {
+            seed = 1;
+        }
+
+        // As many halvings as the configurations allow without going below the minimum budget
+        int rungs = 0;
+        while (Math.pow(this.reduction, rungs + 1) <= this.configurations.size()
+                && maxGenerations / Math.pow(this.reduction, rungs + 1) >= this.minGenerations) {
+            rungs++;
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (Map<String, String> configuration : this.configurations) {
+            results.add(new Result(configuration, this.repeats));
+        }
+
+        List<Result> survivors = new ArrayList<>(results);
+        try (RunManager manager = new RunManager(this.threads, this.threads)) {
+            for (int rung = 0; rung <= rungs; rung++) {
+                final int budget = (int) Math.max(this.minGenerations,
+                        Math.round(maxGenerations / Math.pow(this.reduction, rungs - rung)));
+                if (this.rungListener != null) {
+                    this.rungListener.accept(budget, survivors.size());
+                }
+
+                List<Trial> trials = new ArrayList<>();
+                for (Result result : survivors) {
+                    result.reset(budget);
+                    for (int repeat = 0; repeat < this.repeats; repeat++) {
+                        trials.add(this.submit(manager, result, repeat, seed + repeat, budget));
+                    }
+                }
+                manager.awaitAll();
+                for (Trial trial : trials) {
+                    trial.record();
+                }
+
+                survivors.sort(Result.RANK);
+                if (rung < rungs) {
+                    survivors = new ArrayList<>(survivors.subList(0,
+                            Math.max(1, survivors.size() / this.reduction)));
+                }
+            }
+        }
+
+        results.sort(Comparator.comparingInt(Result::getGenerations).reversed()
+                .thenComparing(Result.RANK));
+        return results;
+    }
+
+    private Trial submit(RunManager manager, Result result, int repeat, long seed, int budget)
+            throws SearchParameterException {
+        SearchParameter parameters = new SearchParameter(this.base);
+        SweepSpace.apply(parameters, result.getConfiguration());
+        parameters.setMaxGenerations(budget);
+        parameters.setSeed(seed);
+
+        Backend job = new Backend(parameters);
+        Trial trial = new Trial(job, result, repeat, this.targetError);
+        job.addPropertyChangeListener(event -> {
+            if ("generation".equals(event.getPropertyName())) {
+                trial.generation();
+            }
+        });
+        try {
+            manager.submit(job);
+        } catch (InvalidRunStateException e) {
+            // A new Backend is never started, and the manager is only closed after the last rung
+            throw new IllegalStateException(e);
+        }
+        return trial;
+    }
+
+    /**
+     * Format results as a table, one row per configuration in the given order.
+     *
+     * @param results Results of a sweep
+     * @return Table, with a header row
+     */
+    public static String toTable(List<Result> results) {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%4s %8s %14s %14s %8s %16s %14s  %s%n", "RANK", "GENS",
+                "MEDIAN ERROR", "BEST ERROR", "REACHED", "TO TARGET (ms)", "TO BEST (ms)",
+                "CONFIGURATION"));
+        int rank = 1;
+        for (Result result : results) {
+            table.append(String.format("%4d %8d %14.6g %14.6g %8s %16s %14.0f  %s%n", rank++,
+                    result.getGenerations(), result.getMedianError(), result.getBestError(),
+                    result.getReached() + "/" + result.getRuns(),
+                    Double.isNaN(result.getMeanTimeToTarget()) ? "-"
+                            : String.format("%.0f", result.getMeanTimeToTarget()),
+                    result.getMeanTimeToBest(), result.getConfiguration()));
+        }
+        return table.toString();
+    }
+
+    /**
+     * Outcome of one configuration, at the last rung it ran in
+     */
+    public static final class Result {
+
+        /**
+         * Lower median error first, configurations without any finite error last
+         */
+        static final Comparator<Result> RANK = Comparator.comparingDouble(
+                (Result result) -> Double.isNaN(result.getMedianError())
+                        ? Double.POSITIVE_INFINITY : result.getMedianError());
+
+        private final Map<String, String> configuration;
+        private final double[] errors;
+        private final long[] timesToTarget;
+        private final long[] timesToBest;
+        private int generations;
+
+        private Result(Map<String, String> configuration, int repeats) {
+            this.configuration = Collections.unmodifiableMap(configuration);
+            this.errors = new double[repeats];
+            this.timesToTarget = new long[repeats];
+            this.timesToBest = new long[repeats];
+        }
+
+        private void reset(int generations) {
+            this.generations = generations;
+            Arrays.fill(this.errors, Double.NaN);
+            Arrays.fill(this.timesToTarget, -1);
+            Arrays.fill(this.timesToBest, -1);
+        }
+
+        public Map<String, String> getConfiguration() {
+            return this.configuration;
+        }
+
+        /**
+         * Get the generation budget of the last rung this configuration ran in.
+         */
+        public int getGenerations() {
+            return this.generations;
+        }
+
+        public int getRuns() {
+            return this.errors.length;
+        }
+
+        /**
+         * Get the median best error of the runs, NaN if none produced a generation.
+         */
+        public double getMedianError() {
+            double[] finite = Arrays.stream(this.errors).filter(e -> !Double.isNaN(e)).sorted()
+                    .toArray();
+            return finite.length == 0 ? Double.NaN : finite[finite.length / 2];
+        }
+
+        /**
+         * Get the lowest best error of the runs, NaN if none produced a generation.
+         */
+        public double getBestError() {
+            return Arrays.stream(this.errors).filter(e -> !Double.isNaN(e)).min()
+                    .orElse(Double.NaN);
+        }
+
+        /**
+         * Get the number of runs which reached the target error.
+         */
+        public int getReached() {
+            return (int) Arrays.stream(this.timesToTarget).filter(t -> t >= 0).count();
+        }
+
+        /**
+         * Get the mean time in milliseconds the runs which reached the target error took to reach
+         * it, NaN if none did.
+         */
+        public double getMeanTimeToTarget() {
+            return Arrays.stream(this.timesToTarget).filter(t -> t >= 0).average()
+                    .orElse(Double.NaN);
+        }
+
+        /**
+         * Get the mean time in milliseconds to the last improvement of each run.
+         */
+        public double getMeanTimeToBest() {
+            return Arrays.stream(this.timesToBest).filter(t -> t >= 0).average()
+                    .orElse(Double.NaN);
+        }
+    }
+
+    /**
+     * One seeded run of a configuration, following its best error as generations arrive
+     */
+    private static final class Trial {
+
+        private final Backend job;
+        private final Result result;
+        private final int repeat;
+        private final Double targetError;
+
+        private double best = Double.POSITIVE_INFINITY;
+        private long timeToBest = -1;
+        private long timeToTarget = -1;
+
+        private Trial(Backend job, Result result, int repeat, Double targetError) {
+            this.job = job;
+            this.result = result;
+            this.repeat = repeat;
+            this.targetError = targetError;
+        }
+
+        /**
+         * Called on the run's engine thread after each generation
+         */
+        private synchronized void generation() {
+            GenerationBean<?> generation = this.job.getLatestGeneration();
+            if (generation == null || !(generation.getBestFitness() instanceof Double)) {
+                return;
+            }
+
+            double error = (Double) generation.getBestFitness();
+            long time = this.job.getCurrentDuration();
+            if (error < this.best) {
+                this.best = error;
+                this.timeToBest = time;
+            }
+            if (this.targetError != null && this.timeToTarget < 0 && error <= this.targetError) {
+                this.timeToTarget = time;
+            }
+        }
+
+        private synchronized void record() {
+            this.result.errors[this.repeat] = this.timeToBest < 0 ? Double.NaN : this.best;
+            this.result.timesToTarget[this.repeat] = this.timeToTarget;
+            this.result.timesToBest[this.repeat] = this.timeToBest;
+            // Only the best error is kept, so the run's generations can go
+            this.job.closeHistory();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.neodynamica.backendinterface;
+
+import com.neodynamica.lib.gp.FairExecutor;
+import com.neodynamica.lib.gp.RunState;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs many searches in one process, so a batch of searches (one per target column or
+ * configuration, say) pays JVM start up once.
+ * <p>
+ * Each job is a configured {@link Backend}, and is read through the usual BackendInterface: its
+ * RunState, generations and property change events. Up to maxConcurrentRuns jobs evolve at once
+ * (a paused job keeps its slot) and the rest wait as {@link RunState#QUEUED}, starting in
+ * submission order as running jobs end.
+ * <p>
+ * Fitness evaluation of every job runs on one {@link FairExecutor}, which shares its workers
+ * equally between the jobs waiting for evaluation. Seeded jobs stay reproducible: each has its own
+ * random engine, and its engine steps run on its own thread.
+ */
+public class RunManager implements AutoCloseable {
+
+    private final FairExecutor pool;
+    private final int maxConcurrentRuns;
+
+    private final List<Backend> jobs = new ArrayList<>();
+    private final ArrayDeque<Backend> queue = new ArrayDeque<>();
+    private int running;
+    private boolean closed;
+
+    /**
+     * Initialise values
+     *
+     * @param workerThreads Number of threads evaluating fitness, shared by all jobs
+     * @param maxConcurrentRuns Maximum number of jobs evolving at once
+     */
+    public RunManager(int workerThreads, int maxConcurrentRuns) {
+        if (maxConcurrentRuns < 1) {
+            throw new IllegalArgumentException(
+                    "maxConcurrentRuns must be at least 1: " + maxConcurrentRuns);
+        }
+        this.pool = new FairExecutor(workerThreads);
+        this.maxConcurrentRuns = maxConcurrentRuns;
+    }
+
+    /**
+     * Initialise values, with one worker thread per processor and as many concurrent jobs
+     */
+    public RunManager() {
+        this(Runtime.getRuntime().availableProcessors(),
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Queue a search to run. Its parameters and dataset must be set, and it must not have been
+     * started.
+     *
+     * @param job Configured search
+     * @return Index of the job, for {@link #getJob(int)}
+     */
+    public synchronized int submit(Backend job) throws InvalidRunStateException {
+        if (this.closed) {
+            throw new InvalidRunStateException("Cannot submit - run manager has been closed");
+        }
+        if (job.isStarted() || RunState.QUEUED.equals(job.getRunState())) {
+            throw new InvalidRunStateException("Cannot submit - search has already been started");
+        }
+
+        job.addPropertyChangeListener(event -> {
+            if ("evolutionEnded".equals(event.getPropertyName())) {
+                this.ended();
+            }
+        });
+        job.setQueued(true);
+        this.jobs.add(job);
+        this.queue.addLast(job);
+        this.startQueued();
+        return this.jobs.size() - 1;
+    }
+
+    /**
+     * Get a submitted job.
+     *
+     * @param index Index returned by submit
+     * @return The job's search
+     */
+    public synchronized Backend getJob(int index) {
+        return this.jobs.get(index);
+    }
+
+    /**
+     * Get every submitted job, in submission order.
+     *
+     * @return Searches
+     */
+    public synchronized List<Backend> getJobs() {
+        return Collections.unmodifiableList(new ArrayList<>(this.jobs));
+    }
+
+    /**
+     * Get the run state of a job: QUEUED until it is started, ERROR if it couldn't be.
+     *
+     * @param index Index returned by submit
+     * @return Run state
+     */
+    public RunState getRunState(int index) {
+        return this.getJob(index).getRunState();
+    }
+
+    /**
+     * Remove a job which hasn't started from the queue, or stop a running one.
+     *
+     * @param index Index returned by submit
+     */
+    public void cancel(int index) throws InvalidRunStateException {
+        final Backend job;
+        synchronized (this) {
+            job = this.jobs.get(index);
+            if (this.queue.remove(job)) {
+                job.setQueued(false);
+                return;
+            }
+        }
+        // Stopping waits for the engine thread, whose end event needs this lock
+        job.stop();
+    }
+
+    /**
+     * Wait until every submitted job has ended or failed to start.
+     *
+     * @throws InterruptedException if the calling thread has been interrupted
+     */
+    public synchronized void awaitAll() throws InterruptedException {
+        while (this.running > 0 || !this.queue.isEmpty()) {
+            this.wait();
+        }
+    }
+
+    /**
+     * Get the number of jobs evolving now.
+     *
+     * @return Number of running jobs
+     */
+    public synchronized int getRunning() {
+        return this.running;
+    }
+
+    /**
+     * Get the number of jobs waiting to start.
+     *
+     * @return Number of queued jobs
+     */
+    public synchronized int getQueued() {
+        return this.queue.size();
+    }
+
+    /**
+     * Stop accepting jobs, drop those still queued, stop those running and release the worker
+     * threads.
+     */
+    @Override
+    public void close() {
+        final List<Backend> started = new ArrayList<>();
+        synchronized (this) {
+            this.closed = true;
+            for (Backend job : this.queue) {
+                job.setQueued(false);
+            }
+            this.queue.clear();
+            for (Backend job : this.jobs) {
+                if (job.isStarted() && !RunState.ENDED.equals(job.getRunState())
+                        && !RunState.ERROR.equals(job.getRunState())) {
+                    started.add(job);
+                }
+            }
+        }
+
+        // Outside the lock, as stopping waits for each engine thread to report its end
+        for (Backend job : started) {
+            try {
+                job.stop();
+            } catch (InvalidRunStateException e) {
+                // Already ended
+            }
+        }
+        this.pool.close();
+    }
+
+    private synchronized void ended() {
+        this.running--;
+        this.startQueued();
+        this.notifyAll();
+    }
+
+    /**
+     * Start queued jobs while there are free slots. A job which fails to start keeps the exception
+     * as its start failure and reports RunState.ERROR.
+     */
+    private synchronized void startQueued() {
+        while (this.running < this.maxConcurrentRuns && !this.queue.isEmpty()) {
+            Backend job = this.queue.pollFirst();
+            try {
+                job.start(this.pool.newQueue(job::evaluationFailed));
+                this.running++;
+            } catch (Exception e) {
+                // Recorded by the job; carry on with the rest of the queue
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+/**
+ * An error kernel bound to the expected outputs of the rows a Regression scores, made by {@link
+ * ErrorKernel#bind(Double[])}.
+ * <p>
+ * The interpreted Regression passes boxed outputs, building a new expected array for every program.
+ * Rather than unboxing both arrays per program, the expected outputs are unboxed here once, and the
+ * program output is unboxed into a buffer of the calling thread, shared by every bound kernel and
+ * reallocated whenever it isn't exactly as long as the rows.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+final class BoundErrorKernel implements ErrorKernel {
+
+    private final ErrorKernel kernel;
+    private final double[] expected;
+
+    /**
+     * Unboxed program output, one buffer per thread
+     */
+    private static final ThreadLocal<double[]> CALCULATED =
+            ThreadLocal.withInitial(() -> new double[0]);
+
+    /**
+     * Initialise values
+     *
+     * @param kernel Kernel calculating the error
+     * @param expected Expected output for each row
+     */
+    BoundErrorKernel(ErrorKernel kernel, Double[] expected) {
+        this.kernel = kernel;
+        this.expected = ErrorFunction.unbox(expected);
+    }
+
+    @Override
+    public double error(double[] calculated, double[] expected) {
+        return this.kernel.error(calculated, expected);
+    }
+
+    /**
+     * Calculate the error of a program's outputs against the bound expected outputs.
+     *
+     * @param calculated Program output for each row
+     * @param expected Expected output for each row, those of the bound rows
+     * @return Error
+     * @throws IllegalArgumentException if the arrays have different lengths
+     */
+    @Override
+    public double error(Double[] calculated, Double[] expected) {
+        if (expected.length != this.expected.length) {
+            throw new IllegalArgumentException(String.format(
+                    "Expected result has %d rows, but the kernel is bound to %d",
+                    expected.length, this.expected.length));
+        }
+        if (calculated.length != this.expected.length) {
+            // The kernel reports the mismatch
+            return this.kernel.error(ErrorFunction.unbox(calculated), this.expected);
+        }
+
+        double[] unboxed = CALCULATED.get();
+        if (unboxed.length != this.expected.length) {
+            unboxed = new double[this.expected.length];
+            CALCULATED.set(unboxed);
+        }
+        for (int i = 0; i < unboxed.length; i++) {
+            unboxed[i] = calculated[i];
+        }
+        return this.kernel.error(unboxed, this.expected);
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.ext.util.Tree;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Var;
+
+/**
+ * Canonical string form of program trees, used as a cache key.
+ * <p>
+ * Operators are written by name, variables by index and constants by the exact bits of their value
+ * (not their possibly rounded name), so two programs have the same canonical form exactly when they
+ * compute the same function in the same way.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+final class CanonicalForm {
+
+    private static final Double[] NO_ARGS = new Double[0];
+
+    private CanonicalForm() {
+    }
+
+    /**
+     * Get the canonical form of a program tree.
+     *
+     * @param program Program tree
+     * @return Canonical form
+     */
+    static String of(Tree<? extends Op<Double>, ?> program) {
+        StringBuilder form = new StringBuilder();
+        append(program, form);
+        return form.toString();
+    }
+
+    private static void append(Tree<? extends Op<Double>, ?> node, StringBuilder form) {
+        Op<Double> op = node.getValue();
+
+        if (node.childCount() == 0) {
+            form.append(leaf(op));
+            return;
+        }
+
+        form.append(op.name()).append('(');
+        for (int i = 0; i < node.childCount(); i++) {
+            if (i > 0) {
+                form.append(',');
+            }
+            append(node.childAt(i), form);
+        }
+        form.append(')');
+    }
+
+    private static String leaf(Op<Double> op) {
+        if (op instanceof Var) {
+            return "$" + ((Var<Double>) op).index();
+        }
+        if (op.arity() == 0) {
+            // Const or EphemeralConst
+            return "#" + Long.toHexString(Double.doubleToLongBits(op.apply(NO_ARGS)));
+        }
+        return op.name();
+    }
+}
@@ -0,0 +1,320 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.lib.parameter.SearchParameter;
+import com.neodynamica.lib.parameter.SearchParameterException;
+import com.neodynamica.lib.parameter.io.SearchParameterParser;
+import com.neodynamica.lib.parameter.io.SearchParameterWriter;
+import io.jenetics.Phenotype;
+import io.jenetics.ext.util.Tree;
+import io.jenetics.prog.ProgramGene;
+import io.jenetics.prog.op.Op;
+import io.jenetics.util.ISeq;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Everything needed to carry on a search from the end of one generation, in this or another
+ * process: the population with its fitness, the best program so far, the state of the random
+ * engine of a seeded run and the search parameters.
+ * <p>
+ * The file is written with DataOutput (big-endian):
+ * <pre>
+ * int magic, int version
+ * long generation
+ * int length, length x byte   search parameters, as the properties of a config file
+ * int length, length x byte   serialized random engine, length 0 for an unseeded run
+ * double best fitness, byte 1 and program, or byte 0 without a best program
+ * int size, size x (double fitness, long generation born, program)
+ * </pre>
+ * Programs are written as in the {@link IslandProtocol}, so only programs of MathOps, variables
+ * and constants can be checkpointed. The random engine is read back with only the classes of
+ * java.util.Random and the jenetics engines allowed, so a file can't make this process create
+ * objects of any other class.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public final class Checkpoint {
+
+    static final int MAGIC = 0x4E444331; // "NDC1"
+    static final int VERSION = 1;
+
+    private final long generation;
+    private final SearchParameter searchParameter;
+    private final byte[] randomState;
+    private final double bestFitness;
+    private final Tree<Op<Double>, ?> best;
+    private final Tree<Op<Double>, ?>[] programs;
+    private final double[] fitness;
+    private final long[] births;
+
+    private Checkpoint(long generation, SearchParameter searchParameter, byte[] randomState,
+            double bestFitness, Tree<Op<Double>, ?> best,
+            Tree<Op<Double>, ?>[] programs, double[] fitness, long[] births) {
+        this.generation = generation;
+        this.searchParameter = searchParameter;
+        this.randomState = randomState;
+        this.bestFitness = bestFitness;
+        this.best = best;
+        this.programs = programs;
+        this.fitness = fitness;
+        this.births = births;
+    }
+
+    /**
+     * Capture a generation. Only references are copied, as programs are immutable, so this is
+     * cheap enough to call on the engine thread; the programs are encoded when written.
+     *
+     * @param generation Generation just completed
+     * @param population Population at the end of the generation
+     * @param bestFitness Best fitness found so far
+     * @param best Best program found so far, or null
+     * @param searchParameter Parameters of the search, which mustn't change while it runs
+     * @param random Random engine of a seeded search, whose state is copied now, or null
+     * @return Checkpoint
+     */
+    static Checkpoint of(long generation, ISeq<Phenotype<ProgramGene<Double>, Double>> population,
+            double bestFitness, Tree<Op<Double>, ?> best,
+            SearchParameter searchParameter, Random random) {
+        @SuppressWarnings("unchecked")
+        Tree<Op<Double>, ?>[] programs = new Tree[population.size()];
+        double[] fitness = new double[population.size()];
+        long[] births = new long[population.size()];
+        for (int i = 0; i < population.size(); i++) {
+            Phenotype<ProgramGene<Double>, Double> solution = population.get(i);
+            programs[i] = solution.getGenotype().getGene();
+            fitness[i] = solution.getFitness();
+            births[i] = solution.getGeneration();
+        }
+
+        return new Checkpoint(generation, searchParameter,
+                random != null ? serialize(random) : new byte[0],
+                bestFitness, best, programs, fitness, births);
+    }
+
+    /**
+     * Read a checkpoint file.
+     *
+     * @param path File written by a CheckpointWriter
+     * @return Checkpoint
+     * @throws IOException if the file can't be read or isn't a checkpoint
+     * @throws SearchParameterException if its search parameters are invalid
+     */
+    public static Checkpoint read(String path) throws IOException, SearchParameterException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a checkpoint file: '" + path + "'");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported checkpoint version: " + version);
+            }
+
+            long generation = in.readLong();
+
+            Properties config = new Properties();
+            config.load(new ByteArrayInputStream(readBytes(in)));
+            SearchParameter searchParameter = new SearchParameterParser().parse(config)
+                    .getSearchParameterObject();
+
+            byte[] randomState = readBytes(in);
+
+            double bestFitness = in.readDouble();
+            Tree<Op<Double>, ?> best = in.readByte() != 0
+                    ? IslandProtocol.readProgram(in)
+                    : null;
+
+            int size = in.readInt();
+            if (size < 0) {
+                throw new IOException("Invalid population size: " + size);
+            }
+            @SuppressWarnings("unchecked")
+            Tree<Op<Double>, ?>[] programs = new Tree[size];
+            double[] fitness = new double[size];
+            long[] births = new long[size];
+            for (int i = 0; i < size; i++) {
+                fitness[i] = in.readDouble();
+                births[i] = in.readLong();
+                programs[i] = IslandProtocol.readProgram(in);
+            }
+
+            return new Checkpoint(generation, searchParameter, randomState, bestFitness, best,
+                    programs, fitness, births);
+        }
+    }
+
+    /**
+     * Write this checkpoint.
+     *
+     * @param out Destination
+     * @throws IOException if writing fails or a program can't be represented
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(this.generation);
+
+        ByteArrayOutputStream config = new ByteArrayOutputStream();
+        SearchParameterWriter.toProperties(this.searchParameter).store(config, null);
+        writeBytes(out, config.toByteArray());
+        writeBytes(out, this.randomState);
+
+        out.writeDouble(this.bestFitness);
+        if (this.best != null) {
+            out.writeByte(1);
+            writeProgram(this.best, out);
+        } else {
+            out.writeByte(0);
+        }
+
+        out.writeInt(this.programs.length);
+        for (int i = 0; i < this.programs.length; i++) {
+            out.writeDouble(this.fitness[i]);
+            out.writeLong(this.births[i]);
+            writeProgram(this.programs[i], out);
+        }
+    }
+
+    /**
+     * Get the generation this checkpoint was taken after.
+     */
+    public long getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Get the parameters of the checkpointed search.
+     */
+    public SearchParameter getSearchParameter() {
+        return this.searchParameter;
+    }
+
+    /**
+     * Get a copy of the random engine of the checkpointed search, in the state it was in after the
+     * generation.
+     *
+     * @return Random engine, or null if the search wasn't seeded
+     * @throws IOException if the engine can't be restored in this process, or isn't a
+     * java.util.Random or jenetics engine
+     */
+    public Random getRandom() throws IOException {
+        if (this.randomState.length == 0) {
+            return null;
+        }
+        try (ObjectInputStream in = new RandomInputStream(this.randomState)) {
+            return (Random) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Checkpointed random engine can't be restored", e);
+        }
+    }
+
+    public double getBestFitness() {
+        return this.bestFitness;
+    }
+
+    /**
+     * @return Best program found so far, or null if there was none
+     */
+    public Tree<Op<Double>, ?> getBest() {
+        return this.best;
+    }
+
+    /**
+     * @return Number of programs in the population
+     */
+    public int size() {
+        return this.programs.length;
+    }
+
+    public Tree<Op<Double>, ?> getProgram(int index) {
+        return this.programs[index];
+    }
+
+    public double getFitness(int index) {
+        return this.fitness[index];
+    }
+
+    /**
+     * @return Generation the program at the index was created in
+     */
+    public long getBirth(int index) {
+        return this.births[index];
+    }
+
+    private static void writeProgram(Tree<Op<Double>, ?> program, DataOutputStream out)
+            throws IOException {
+        if (!IslandProtocol.isWritable(program)) {
+            throw new IOException("Program can't be checkpointed: " + program);
+        }
+        IslandProtocol.writeProgram(program, out);
+    }
+
+    private static byte[] serialize(Random random) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(random);
+        } catch (IOException e) {
+            // Every Random is Serializable, though a subclass may hold a field which isn't
+            throw new IllegalStateException("Random engine can't be checkpointed", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads a serialized random engine, refusing every class but those the engines are made of
+     * before an object of it is created.
+     */
+    private static final class RandomInputStream extends ObjectInputStream {
+
+        private static final String ENGINE_PACKAGE = "io.jenetics.prngine.";
+
+        RandomInputStream(byte[] bytes) throws IOException {
+            super(new ByteArrayInputStream(bytes));
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass description)
+                throws IOException, ClassNotFoundException {
+            String name = description.getName();
+            if (!name.equals(Random.class.getName())
+                    && !name.startsWith(ENGINE_PACKAGE)
+                    // Flags and state arrays held by the engines
+                    && !name.equals(Boolean.class.getName())
+                    && !name.matches("\\[+[ZBCSIJFD]")) {
+                throw new InvalidClassException(name, "Not a random engine class");
+            }
+            return super.resolveClass(description);
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid checkpoint field length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
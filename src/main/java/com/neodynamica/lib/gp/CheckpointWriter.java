@@ -0,0 +1,167 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes checkpoints of a search on a thread of its own, so the engine thread only pays for
+ * capturing them.
+ * <p>
+ * At most one checkpoint waits while another is written: offering a new one replaces the one
+ * waiting, which is counted as skipped, so a slow disk costs neither memory nor engine time. Each
+ * checkpoint is written to a temporary file, synced to disk and moved over the last one, so the
+ * file always holds a whole checkpoint even if the process dies while writing.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public final class CheckpointWriter implements AutoCloseable {
+
+    private final Path path;
+    private final Path temporary;
+    private final Thread thread;
+
+    private Checkpoint waiting;
+    private boolean closed;
+
+    private long skipped;
+    private long lastBytes;
+    private long lastWriteNanos;
+    private IOException failure;
+
+    /**
+     * Initialise values and start the writing thread
+     *
+     * @param path File checkpoints are written to
+     */
+    public CheckpointWriter(String path) {
+        this.path = Paths.get(path).toAbsolutePath();
+        this.temporary = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+        this.thread = new Thread(this::work, "checkpoint-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queue a checkpoint to be written, replacing any still waiting.
+     *
+     * @param checkpoint Checkpoint
+     */
+    public synchronized void offer(Checkpoint checkpoint) {
+        if (this.closed || this.failure != null) {
+            return;
+        }
+        if (this.waiting != null) {
+            this.skipped++;
+        }
+        this.waiting = checkpoint;
+        this.notifyAll();
+    }
+
+    /**
+     * Get the number of checkpoints replaced before being written since the last call.
+     *
+     * @return Number of skipped checkpoints
+     */
+    public synchronized long takeSkipped() {
+        long taken = this.skipped;
+        this.skipped = 0;
+        return taken;
+    }
+
+    /**
+     * @return Size in bytes of the last checkpoint written, 0 if none has been
+     */
+    public synchronized long getLastBytes() {
+        return this.lastBytes;
+    }
+
+    /**
+     * @return Time in nanoseconds the last checkpoint took to encode, write and sync
+     */
+    public synchronized long getLastWriteNanos() {
+        return this.lastWriteNanos;
+    }
+
+    /**
+     * Get the reason checkpoints stopped being written.
+     *
+     * @return The exception which stopped the writer, or null if it hasn't failed
+     */
+    public synchronized IOException getFailure() {
+        return this.failure;
+    }
+
+    /**
+     * Write the checkpoint waiting, if any, and stop the writing thread.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        synchronized (this) {
+            this.closed = true;
+            this.notifyAll();
+        }
+        this.thread.join();
+    }
+
+    private void work() {
+        while (true) {
+            final Checkpoint checkpoint;
+            synchronized (this) {
+                while (this.waiting == null && !this.closed) {
+                    try {
+                        this.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (this.waiting == null) {
+                    return;
+                }
+                checkpoint = this.waiting;
+                this.waiting = null;
+            }
+
+            final long start = System.nanoTime();
+            try {
+                final long bytes;
+                try (FileOutputStream file = new FileOutputStream(this.temporary.toFile());
+                        DataOutputStream out = new DataOutputStream(
+                                new BufferedOutputStream(file, 1 << 16))) {
+                    checkpoint.write(out);
+                    out.flush();
+                    file.getFD().sync();
+                    bytes = out.size();
+                }
+                try {
+                    Files.move(this.temporary, this.path, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(this.temporary, this.path, StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                synchronized (this) {
+                    this.lastBytes = bytes;
+                    this.lastWriteNanos = System.nanoTime() - start;
+                }
+            } catch (IOException e) {
+                // A checkpoint which can't be written now won't be later, keep the last good one
+                synchronized (this) {
+                    this.failure = e;
+                    this.waiting = null;
+                }
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.prog.op.MathOp;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Column-at-a-time implementations of each MathOp.
+ * <p>
+ * Each operator is applied to the first n elements of its operand columns, writing into an
+ * output column. The operator is selected once per column rather than once per row, leaving a
+ * tight primitive loop the JIT is able to unroll and vectorize. The output column may be the same
+ * array as an operand column.
+ * <p>
+ * These are the portable scalar kernels. {@link #simd()} provides SIMD kernels for the most common
+ * operators when the Vector API is available, falling back to these otherwise.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+class ColumnKernels {
+
+    /**
+     * Name of the Vector API implementation, compiled from src/main/java-vector by the 'vector'
+     * profile on JDK 17+
+     */
+    private static final String VECTOR_KERNELS = "com.neodynamica.lib.gp.VectorColumnKernels";
+
+    private static final ColumnKernels SCALAR = new ColumnKernels();
+
+    /**
+     * Operators with a column kernel
+     */
+    private static final Set<MathOp> SUPPORTED = EnumSet.of(
+            MathOp.ABS, MathOp.NEG, MathOp.SQR, MathOp.SQRT, MathOp.RINT, MathOp.CEIL,
+            MathOp.FLOOR, MathOp.SIGNUM, MathOp.CBRT, MathOp.EXP, MathOp.LOG, MathOp.LOG10,
+            MathOp.SIN, MathOp.COS, MathOp.TAN, MathOp.ASIN, MathOp.ACOS, MathOp.ATAN,
+            MathOp.SINH, MathOp.COSH, MathOp.TANH,
+            MathOp.ADD, MathOp.SUB, MathOp.MUL, MathOp.DIV, MathOp.MOD, MathOp.MIN, MathOp.MAX,
+            MathOp.POW, MathOp.HYPOT);
+
+    private static volatile ColumnKernels simd;
+
+    ColumnKernels() {
+    }
+
+    /**
+     * Get the portable scalar kernels.
+     *
+     * @return Scalar kernels
+     */
+    static ColumnKernels scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * Get the SIMD kernels backed by jdk.incubator.vector.
+     * <p>
+     * The Vector API implementation is only present when built with the 'vector' profile and only
+     * usable when run with <code>--add-modules jdk.incubator.vector</code>. In any other case the
+     * scalar kernels are returned.
+     *
+     * @return SIMD kernels, or the scalar kernels if the Vector API isn't available
+     */
+    static ColumnKernels simd() {
+        ColumnKernels kernels = simd;
+
+        if (kernels == null) {
+            try {
+                kernels = (ColumnKernels) Class.forName(VECTOR_KERNELS)
+                        .getDeclaredConstructor()
+                        .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Class not built, incubator module not resolved, or running on a pre-17 JVM
+                kernels = SCALAR;
+            }
+            simd = kernels;
+        }
+
+        return kernels;
+    }
+
+    /**
+     * Check whether an operator has a column kernel, in these and every other kernels.
+     *
+     * @param op Operator to check
+     * @return True if {@link #unary} or {@link #binary} accepts it
+     */
+    static boolean supports(MathOp op) {
+        return SUPPORTED.contains(op);
+    }
+
+    /**
+     * Apply a unary operator to a column.
+     *
+     * @param op Operator to apply
+     * @param a Operand column
+     * @param out Output column
+     * @param n Number of elements to process
+     */
+    void unary(MathOp op, double[] a, double[] out, int n) {
+        switch (op) {
+            case ABS:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.abs(a[i]);
+                }
+                break;
+            case NEG:
+                for (int i = 0; i < n; i++) {
+                    out[i] = -a[i];
+                }
+                break;
+            case SQR:
+                for (int i = 0; i < n; i++) {
+                    out[i] = a[i] * a[i];
+                }
+                break;
+            case SQRT:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.sqrt(a[i]);
+                }
+                break;
+            case RINT:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.rint(a[i]);
+                }
+                break;
+            case CEIL:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.ceil(a[i]);
+                }
+                break;
+            case FLOOR:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.floor(a[i]);
+                }
+                break;
+            case SIGNUM:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.signum(a[i]);
+                }
+                break;
+            case CBRT:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.cbrt(a[i]);
+                }
+                break;
+            case EXP:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.exp(a[i]);
+                }
+                break;
+            case LOG:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.log(a[i]);
+                }
+                break;
+            case LOG10:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.log10(a[i]);
+                }
+                break;
+            case SIN:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.sin(a[i]);
+                }
+                break;
+            case COS:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.cos(a[i]);
+                }
+                break;
+            case TAN:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.tan(a[i]);
+                }
+                break;
+            case ASIN:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.asin(a[i]);
+                }
+                break;
+            case ACOS:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.acos(a[i]);
+                }
+                break;
+            case ATAN:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.atan(a[i]);
+                }
+                break;
+            case SINH:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.sinh(a[i]);
+                }
+                break;
+            case COSH:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.cosh(a[i]);
+                }
+                break;
+            case TANH:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.tanh(a[i]);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Not a unary operator: " + op);
+        }
+    }
+
+    /**
+     * Apply a binary operator to a pair of columns.
+     *
+     * @param op Operator to apply
+     * @param a Left operand column
+     * @param b Right operand column
+     * @param out Output column
+     * @param n Number of elements to process
+     */
+    void binary(MathOp op, double[] a, double[] b, double[] out, int n) {
+        switch (op) {
+            case ADD:
+                for (int i = 0; i < n; i++) {
+                    out[i] = a[i] + b[i];
+                }
+                break;
+            case SUB:
+                for (int i = 0; i < n; i++) {
+                    out[i] = a[i] - b[i];
+                }
+                break;
+            case MUL:
+                for (int i = 0; i < n; i++) {
+                    out[i] = a[i] * b[i];
+                }
+                break;
+            case DIV:
+                for (int i = 0; i < n; i++) {
+                    out[i] = a[i] / b[i];
+                }
+                break;
+            case MOD:
+                for (int i = 0; i < n; i++) {
+                    out[i] = a[i] % b[i];
+                }
+                break;
+            case MIN:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.min(a[i], b[i]);
+                }
+                break;
+            case MAX:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.max(a[i], b[i]);
+                }
+                break;
+            case POW:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.pow(a[i], b[i]);
+                }
+                break;
+            case HYPOT:
+                for (int i = 0; i < n; i++) {
+                    out[i] = Math.hypot(a[i], b[i]);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Not a binary operator: " + op);
+        }
+    }
+}
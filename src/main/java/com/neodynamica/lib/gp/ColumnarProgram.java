@@ -0,0 +1,350 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.ext.util.Tree;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Var;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A program tree flattened into post-order, evaluated one column at a time.
+ * <p>
+ * Instead of walking the tree once per row, every node is evaluated once over the whole dataset:
+ * variables read their input column, constants are broadcast and operators run a
+ * {@link ColumnKernels} loop over their operand columns. Intermediate results live in caller
+ * supplied scratch columns, one per stack slot, so evaluation allocates nothing per row.
+ * <p>
+ * Only MathOp operators with a column kernel, variables and constants can be flattened; anything
+ * else (e.g. a solution skeleton) makes {@link #compile(Tree)} return null, so the caller can fall
+ * back to the interpreter.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public final class ColumnarProgram {
+
+    private static final Double[] NO_ARGS = new Double[0];
+
+    /**
+     * Evaluation stack of each thread, reused between programs
+     */
+    private static final ThreadLocal<double[][]> STACK =
+            ThreadLocal.withInitial(() -> new double[0][]);
+
+    /**
+     * Broadcast constants of the cached evaluation of each thread, by slot: two per tree level, so
+     * the constant children of every operator on the path being evaluated are held at once
+     */
+    private static final ThreadLocal<double[][]> CONSTANTS =
+            ThreadLocal.withInitial(() -> new double[0][]);
+
+    /**
+     * Operator of each instruction, null for variables and constants
+     */
+    private final MathOp[] ops;
+
+    /**
+     * Input column index of each variable instruction, -1 otherwise
+     */
+    private final int[] vars;
+
+    /**
+     * Value of each constant instruction
+     */
+    private final double[] constants;
+
+    /**
+     * Number of instructions in the subtree ending at each instruction
+     */
+    private final int[] sizes;
+
+    /**
+     * Key of the subtree ending at each instruction, null unless compiled for use with a
+     * SubtreeCache
+     */
+    private final SubtreeCache.Key[] keys;
+
+    /**
+     * Maximum number of columns on the evaluation stack at once
+     */
+    private final int stackSize;
+
+    private ColumnarProgram(MathOp[] ops, int[] vars, double[] constants, int[] sizes,
+            SubtreeCache.Key[] keys, int stackSize) {
+        this.ops = ops;
+        this.vars = vars;
+        this.constants = constants;
+        this.sizes = sizes;
+        this.keys = keys;
+        this.stackSize = stackSize;
+    }
+
+    /**
+     * Flatten a program tree into post-order instructions.
+     *
+     * @param program Program to flatten
+     * @return Columnar program, or null if the program contains an operation which can't be
+     * evaluated column-wise
+     */
+    public static ColumnarProgram compile(Tree<? extends Op<Double>, ?> program) {
+        return compile(program, false);
+    }
+
+    /**
+     * Flatten a program tree into post-order instructions.
+     *
+     * @param program Program to flatten
+     * @param keyed True to also build the key of every subtree, as required by
+     * {@link #eval(double[][], int, ColumnKernels, SubtreeCache)}
+     * @return Columnar program, or null if the program contains an operation which can't be
+     * evaluated column-wise
+     */
+    static ColumnarProgram compile(Tree<? extends Op<Double>, ?> program, boolean keyed) {
+        List<Tree<? extends Op<Double>, ?>> postOrder = new ArrayList<>();
+        if (!flatten(program, postOrder)) {
+            return null;
+        }
+
+        int size = postOrder.size();
+        MathOp[] ops = new MathOp[size];
+        int[] vars = new int[size];
+        double[] constants = new double[size];
+        int[] sizes = new int[size];
+        SubtreeCache.Key[] keys = keyed ? new SubtreeCache.Key[size] : null;
+
+        int depth = 0;
+        int stackSize = 0;
+        for (int i = 0; i < size; i++) {
+            Op<Double> op = postOrder.get(i).getValue();
+            vars[i] = -1;
+            sizes[i] = 1;
+            for (int child = i - 1, c = 0; c < op.arity(); c++) {
+                sizes[i] += sizes[child];
+                child -= sizes[child];
+            }
+
+            if (op instanceof Var) {
+                vars[i] = ((Var<Double>) op).index();
+                depth++;
+            } else if (op.arity() == 0) {
+                // Const or EphemeralConst - read the value once
+                constants[i] = op.apply(NO_ARGS);
+                depth++;
+            } else {
+                ops[i] = (MathOp) op;
+                depth -= op.arity() - 1;
+            }
+            if (keyed) {
+                keys[i] = key(op, vars[i], constants[i], keys, sizes, i);
+            }
+            stackSize = Math.max(stackSize, depth);
+        }
+
+        return new ColumnarProgram(ops, vars, constants, sizes, keys, stackSize);
+    }
+
+    /**
+     * Number of scratch columns required by {@link #eval(double[][], int, double[][])}
+     *
+     * @return Stack size
+     */
+    public int getStackSize() {
+        return this.stackSize;
+    }
+
+    /**
+     * Evaluate the program over the first n rows.
+     * <p>
+     * The returned column is either one of the scratch columns or, for a program consisting of a
+     * single variable, an input column. It must be treated as read-only and is only valid until the
+     * scratch columns are reused.
+     *
+     * @param columns Input columns, indexed by Var index
+     * @param n Number of rows to evaluate
+     * @param scratch At least {@link #getStackSize()} columns, each at least n long
+     * @return Column holding the program output for each row
+     */
+    public double[] eval(double[][] columns, int n, double[][] scratch) {
+        return eval(columns, n, scratch, ColumnKernels.scalar());
+    }
+
+    /**
+     * Evaluate the program over the first n rows with the given operator kernels.
+     *
+     * @see #eval(double[][], int, double[][])
+     */
+    double[] eval(double[][] columns, int n, double[][] scratch, ColumnKernels kernels) {
+        double[][] stack = STACK.get();
+        if (stack.length < this.stackSize) {
+            stack = new double[this.stackSize][];
+            STACK.set(stack);
+        }
+        int sp = 0;
+
+        for (int i = 0; i < this.ops.length; i++) {
+            MathOp op = this.ops[i];
+
+            if (op == null) {
+                if (this.vars[i] >= 0) {
+                    stack[sp] = columns[this.vars[i]];
+                } else {
+                    double[] out = scratch[sp];
+                    double value = this.constants[i];
+                    for (int r = 0; r < n; r++) {
+                        out[r] = value;
+                    }
+                    stack[sp] = out;
+                }
+                sp++;
+            } else if (op.arity() == 1) {
+                // Results at stack slot p always go in scratch[p], so no live column is clobbered
+                kernels.unary(op, stack[sp - 1], scratch[sp - 1], n);
+                stack[sp - 1] = scratch[sp - 1];
+            } else {
+                sp--;
+                kernels.binary(op, stack[sp - 1], stack[sp], scratch[sp - 1], n);
+                stack[sp - 1] = scratch[sp - 1];
+            }
+        }
+
+        // The thread keeps its stack, but not the columns it pointed to
+        double[] output = stack[0];
+        Arrays.fill(stack, 0, this.stackSize, null);
+        return output;
+    }
+
+    /**
+     * Evaluate the program over the first n rows, reusing the output of every subtree found in the
+     * given cache and caching the output of every subtree calculated.
+     * <p>
+     * The program must have been compiled with keys. The returned column may be shared with other
+     * programs and must be treated as read-only. For a program consisting of a single constant, it
+     * is only valid until the thread's next evaluation with a cache.
+     *
+     * @param columns Input columns, indexed by Var index
+     * @param n Number of rows to evaluate
+     * @param kernels Operator kernels used to evaluate each node
+     * @param cache Cache of subtree output columns, each n long
+     * @return Column holding the program output for each row
+     */
+    double[] eval(double[][] columns, int n, ColumnKernels kernels, SubtreeCache cache) {
+        return evalSubtree(this.ops.length - 1, 0, columns, n, kernels, cache);
+    }
+
+    /**
+     * Evaluate the subtree ending at instruction i, top down so a cached subtree skips all of its
+     * descendants. A constant is broadcast into the given slot of the thread's constant columns:
+     * the children of the node at level d take slots 2d + 2 and 2d + 3, so no constant is
+     * overwritten while it is still needed.
+     */
+    private double[] evalSubtree(int i, int slot, double[][] columns, int n, ColumnKernels kernels,
+            SubtreeCache cache) {
+        if (this.vars[i] >= 0) {
+            return columns[this.vars[i]];
+        }
+
+        MathOp op = this.ops[i];
+        if (op == null) {
+            // Broadcasting a constant is cheaper than looking it up
+            double[] out = constantColumn(slot, n);
+            Arrays.fill(out, 0, n, this.constants[i]);
+            return out;
+        }
+
+        double[] out = cache.get(this.keys[i]);
+        if (out != null) {
+            return out;
+        }
+
+        // Cached columns outlive this evaluation, so they can't be scratch columns
+        out = new double[n];
+
+        // Slots of the next level down, as the slot of level d is 2d or 2d + 1
+        int children = (slot & ~1) + 2;
+        if (op.arity() == 1) {
+            kernels.unary(op, evalSubtree(i - 1, children, columns, n, kernels, cache), out, n);
+        } else {
+            int right = i - 1;
+            int left = right - this.sizes[right];
+            kernels.binary(op,
+                    evalSubtree(left, children, columns, n, kernels, cache),
+                    evalSubtree(right, children + 1, columns, n, kernels, cache),
+                    out, n);
+        }
+
+        cache.put(this.keys[i], out);
+        return out;
+    }
+
+    /**
+     * Get the thread's constant column of a slot, exactly n long as a single constant program
+     * returns it as its output.
+     */
+    private static double[] constantColumn(int slot, int n) {
+        double[][] constants = CONSTANTS.get();
+        if (constants.length <= slot) {
+            constants = Arrays.copyOf(constants, Math.max(slot + 1, 2 * constants.length));
+            CONSTANTS.set(constants);
+        }
+        if (constants[slot] == null || constants[slot].length != n) {
+            constants[slot] = new double[n];
+        }
+        return constants[slot];
+    }
+
+    /**
+     * Build the key of instruction i from the keys of its children.
+     */
+    private static SubtreeCache.Key key(Op<Double> op, int var, double constant,
+            SubtreeCache.Key[] keys, int[] sizes, int i) {
+        if (var >= 0) {
+            return SubtreeCache.Key.variable(var);
+        }
+        if (op.arity() == 0) {
+            return SubtreeCache.Key.constant(constant);
+        }
+
+        SubtreeCache.Key[] children = new SubtreeCache.Key[op.arity()];
+
+        // Children end at i - 1 (last child), preceded by each earlier sibling's subtree
+        for (int child = i - 1, c = children.length - 1; c >= 0; c--) {
+            children[c] = keys[child];
+            child -= sizes[child];
+        }
+
+        return SubtreeCache.Key.operator(op, children);
+    }
+
+    /**
+     * Append the nodes of the given tree in post-order.
+     *
+     * @return false if the tree contains a node which can't be evaluated column-wise
+     */
+    private static boolean flatten(Tree<? extends Op<Double>, ?> node,
+            List<Tree<? extends Op<Double>, ?>> postOrder) {
+        Op<Double> op = node.getValue();
+
+        if (op.arity() != node.childCount()) {
+            return false;
+        }
+        if (op.arity() > 0 && (!(op instanceof MathOp) || op.arity() > 2
+                || !ColumnKernels.supports((MathOp) op))) {
+            return false;
+        }
+
+        for (int i = 0; i < node.childCount(); i++) {
+            if (!flatten(node.childAt(i), postOrder)) {
+                return false;
+            }
+        }
+        postOrder.add(node);
+
+        return true;
+    }
+}
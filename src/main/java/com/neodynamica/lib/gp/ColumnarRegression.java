@@ -0,0 +1,162 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.lib.sample.Dataset;
+import io.jenetics.ext.util.Tree;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.regression.Regression;
+
+import java.util.Arrays;
+
+/**
+ * Computes the regression error of a program with {@link ColumnarProgram}, evaluating each node
+ * once over whole dataset columns.
+ * <p>
+ * Scratch columns are kept per thread and reused between programs, so concurrent fitness
+ * evaluation doesn't share buffers. When a {@link SubtreeCache} is given, subtree outputs are
+ * shared between programs instead. Programs which can't be evaluated column-wise are passed to
+ * the interpreted Regression instead.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class ColumnarRegression {
+
+    private final Regression<Double> interpreter;
+    private final double[][] columns;
+    private final double[] expected;
+    private final ErrorKernel errorKernel;
+    private final ColumnKernels kernels;
+    private final SubtreeCache subtreeCache;
+    private final EarlyAbort earlyAbort;
+
+    /**
+     * Input columns split into chunks of the early abort chunk size, null without early abort
+     */
+    private final double[][][] chunks;
+
+    /**
+     * Scratch columns of each thread, shared by every instance so evaluation pools don't keep a
+     * set per regression. Grown to the largest stack needed, and reallocated when a regression of
+     * another row count is evaluated on the thread
+     */
+    private static final ThreadLocal<double[][]> SCRATCH =
+            ThreadLocal.withInitial(() -> new double[0][]);
+
+    /**
+     * Initialise values
+     *
+     * @param interpreter Interpreted regression, used for programs which can't be evaluated
+     * column-wise
+     * @param dataset Dataset containing set of inputs/output values
+     * @param errorKernel Error function of the run
+     */
+    public ColumnarRegression(Regression<Double> interpreter, Dataset dataset,
+            ErrorKernel errorKernel) {
+        this(interpreter, dataset, errorKernel, ColumnKernels.scalar(), null, null);
+    }
+
+    /**
+     * Initialise values
+     *
+     * @param interpreter Interpreted regression, used for programs which can't be evaluated
+     * column-wise
+     * @param dataset Dataset containing set of inputs/output values
+     * @param errorKernel Error function of the run
+     * @param kernels Operator kernels used to evaluate each node
+     * @param subtreeCache Cache of subtree outputs shared by every program, or null for none
+     * @param earlyAbort Incremental error calculation used to abort hopeless programs, or null to
+     * always evaluate every row. Not used together with a subtree cache, whose columns always cover
+     * every row
+     */
+    ColumnarRegression(Regression<Double> interpreter, Dataset dataset, ErrorKernel errorKernel,
+            ColumnKernels kernels, SubtreeCache subtreeCache, EarlyAbort earlyAbort) {
+        this.interpreter = interpreter;
+        this.columns = dataset.toInputColumns();
+        this.expected = dataset.toOutputColumn();
+        this.errorKernel = errorKernel;
+        this.kernels = kernels;
+        this.subtreeCache = subtreeCache;
+        this.earlyAbort = subtreeCache == null ? earlyAbort : null;
+        this.chunks = this.earlyAbort == null ? null : chunk(this.columns, earlyAbort.getChunkSize());
+    }
+
+    /**
+     * Calculate the error of a program over every row of the dataset.
+     *
+     * @param program Program to evaluate
+     * @return Error, according to the error function of the run
+     */
+    public double error(Tree<Op<Double>, ?> program) {
+        ColumnarProgram columnar = ColumnarProgram.compile(program, this.subtreeCache != null);
+
+        if (this.earlyAbort != null) {
+            if (columnar == null) {
+                return this.earlyAbort.error(program);
+            }
+            double[][] scratch = scratch(columnar.getStackSize());
+            return this.earlyAbort.error(program, (from, to, out) -> {
+                double[][] chunk = this.chunks[from / this.earlyAbort.getChunkSize()];
+                double[] output = columnar.eval(chunk, to - from, scratch, this.kernels);
+                System.arraycopy(output, 0, out, 0, to - from);
+            });
+        }
+
+        if (columnar == null) {
+            return this.interpreter.error(program);
+        }
+
+        int n = this.expected.length;
+        double[] output = this.subtreeCache == null
+                ? columnar.eval(this.columns, n, scratch(columnar.getStackSize()), this.kernels)
+                : columnar.eval(this.columns, n, this.kernels, this.subtreeCache);
+
+        return this.errorKernel.error(output, this.expected);
+    }
+
+    /**
+     * Split every column into chunks of the given size.
+     *
+     * @return [chunk][column][row within chunk]
+     */
+    private static double[][][] chunk(double[][] columns, int chunkSize) {
+        int rows = columns.length == 0 ? 0 : columns[0].length;
+        int count = (rows + chunkSize - 1) / chunkSize;
+        double[][][] chunks = new double[count][columns.length][];
+
+        for (int c = 0; c < count; c++) {
+            int from = c * chunkSize;
+            for (int j = 0; j < columns.length; j++) {
+                chunks[c][j] = Arrays.copyOfRange(columns[j], from, Math.min(rows, from + chunkSize));
+            }
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Get this thread's scratch columns, growing them if the program needs more stack slots. The
+     * output is one of them and is scored against the expected column, so they are exactly as long
+     * as the rows.
+     */
+    private double[][] scratch(int stackSize) {
+        final int rows = this.expected.length;
+        double[][] columns = SCRATCH.get();
+
+        if (columns.length < stackSize || (columns.length > 0 && columns[0].length != rows)) {
+            // Columns of another row count are dropped, those of this one kept
+            int kept = columns.length > 0 && columns[0].length == rows ? columns.length : 0;
+            double[][] grown = new double[Math.max(stackSize, kept)][];
+            System.arraycopy(columns, 0, grown, 0, kept);
+            for (int i = kept; i < grown.length; i++) {
+                grown[i] = new double[rows];
+            }
+            SCRATCH.set(grown);
+            columns = grown;
+        }
+
+        return columns;
+    }
+}
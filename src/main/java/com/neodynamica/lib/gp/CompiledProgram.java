@@ -0,0 +1,206 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.ext.util.Tree;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Var;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A program tree compiled into a chain of MethodHandles with a primitive
+ * <code>double eval(double[] row)</code> entry point.
+ * <p>
+ * Compilation removes the virtual Op.apply call and Double[] allocation made for every node of
+ * every row by the interpreter. Only MathOp operators, variables and constants can be compiled;
+ * anything else (e.g. a solution skeleton) makes {@link #compile(Tree)} return null, so the caller
+ * can fall back to the interpreter.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public final class CompiledProgram {
+
+    private static final MethodType ROW = MethodType.methodType(double.class, double[].class);
+    private static final MethodType UNARY = MethodType.methodType(double.class, double.class);
+    private static final MethodType BINARY = MethodType
+            .methodType(double.class, double.class, double.class);
+
+    private static final Double[] NO_ARGS = new Double[0];
+
+    /**
+     * (double[], int)double - reads a single input variable from a row
+     */
+    private static final MethodHandle ROW_ELEMENT = MethodHandles
+            .arrayElementGetter(double[].class);
+
+    /**
+     * Primitive implementation of each supported operator
+     */
+    private static final Map<MathOp, MethodHandle> KERNELS = new EnumMap<>(MathOp.class);
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+            KERNELS.put(MathOp.ADD, lookup.findStatic(CompiledProgram.class, "add", BINARY));
+            KERNELS.put(MathOp.SUB, lookup.findStatic(CompiledProgram.class, "sub", BINARY));
+            KERNELS.put(MathOp.MUL, lookup.findStatic(CompiledProgram.class, "mul", BINARY));
+            KERNELS.put(MathOp.DIV, lookup.findStatic(CompiledProgram.class, "div", BINARY));
+            KERNELS.put(MathOp.MOD, lookup.findStatic(CompiledProgram.class, "mod", BINARY));
+            KERNELS.put(MathOp.NEG, lookup.findStatic(CompiledProgram.class, "neg", UNARY));
+            KERNELS.put(MathOp.SQR, lookup.findStatic(CompiledProgram.class, "sqr", UNARY));
+
+            KERNELS.put(MathOp.POW, lookup.findStatic(Math.class, "pow", BINARY));
+            KERNELS.put(MathOp.HYPOT, lookup.findStatic(Math.class, "hypot", BINARY));
+            KERNELS.put(MathOp.MIN, lookup.findStatic(Math.class, "min", BINARY));
+            KERNELS.put(MathOp.MAX, lookup.findStatic(Math.class, "max", BINARY));
+
+            KERNELS.put(MathOp.ABS, lookup.findStatic(Math.class, "abs", UNARY));
+            KERNELS.put(MathOp.RINT, lookup.findStatic(Math.class, "rint", UNARY));
+            KERNELS.put(MathOp.CEIL, lookup.findStatic(Math.class, "ceil", UNARY));
+            KERNELS.put(MathOp.FLOOR, lookup.findStatic(Math.class, "floor", UNARY));
+            KERNELS.put(MathOp.SIGNUM, lookup.findStatic(Math.class, "signum", UNARY));
+            KERNELS.put(MathOp.SQRT, lookup.findStatic(Math.class, "sqrt", UNARY));
+            KERNELS.put(MathOp.CBRT, lookup.findStatic(Math.class, "cbrt", UNARY));
+            KERNELS.put(MathOp.EXP, lookup.findStatic(Math.class, "exp", UNARY));
+            KERNELS.put(MathOp.LOG, lookup.findStatic(Math.class, "log", UNARY));
+            KERNELS.put(MathOp.LOG10, lookup.findStatic(Math.class, "log10", UNARY));
+            KERNELS.put(MathOp.SIN, lookup.findStatic(Math.class, "sin", UNARY));
+            KERNELS.put(MathOp.COS, lookup.findStatic(Math.class, "cos", UNARY));
+            KERNELS.put(MathOp.TAN, lookup.findStatic(Math.class, "tan", UNARY));
+            KERNELS.put(MathOp.ASIN, lookup.findStatic(Math.class, "asin", UNARY));
+            KERNELS.put(MathOp.ACOS, lookup.findStatic(Math.class, "acos", UNARY));
+            KERNELS.put(MathOp.ATAN, lookup.findStatic(Math.class, "atan", UNARY));
+            KERNELS.put(MathOp.SINH, lookup.findStatic(Math.class, "sinh", UNARY));
+            KERNELS.put(MathOp.COSH, lookup.findStatic(Math.class, "cosh", UNARY));
+            KERNELS.put(MathOp.TANH, lookup.findStatic(Math.class, "tanh", UNARY));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final MethodHandle handle;
+
+    private CompiledProgram(MethodHandle handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * Compile a program tree.
+     *
+     * @param program Program to compile
+     * @return Compiled program, or null if the program contains an operation which can't be
+     * compiled
+     */
+    public static CompiledProgram compile(Tree<? extends Op<Double>, ?> program) {
+        MethodHandle handle = compileNode(program);
+        return handle == null ? null : new CompiledProgram(handle);
+    }
+
+    /**
+     * Evaluate the program for a single row of input values.
+     *
+     * @param row Input variable values, indexed by Var index
+     * @return Program output
+     */
+    public double eval(double[] row) {
+        try {
+            return (double) this.handle.invokeExact(row);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            // The kernels are plain arithmetic and declare no checked exceptions
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /**
+     * Evaluate the program for every row.
+     *
+     * @param rows Input rows
+     * @param out Array receiving the output for each row, must be at least rows.length long
+     */
+    public void eval(double[][] rows, double[] out) {
+        for (int i = 0; i < rows.length; i++) {
+            out[i] = eval(rows[i]);
+        }
+    }
+
+    /**
+     * Recursively build a (double[])double handle for the given node.
+     *
+     * @return handle, or null if the subtree can't be compiled
+     */
+    private static MethodHandle compileNode(Tree<? extends Op<Double>, ?> node) {
+        Op<Double> op = node.getValue();
+
+        if (op instanceof Var) {
+            return MethodHandles.insertArguments(ROW_ELEMENT, 1, ((Var<Double>) op).index());
+        }
+
+        if (op.arity() == 0) {
+            // Const or EphemeralConst - fold the value into the handle
+            double value = op.apply(NO_ARGS);
+            return MethodHandles.dropArguments(
+                    MethodHandles.constant(double.class, value), 0, double[].class);
+        }
+
+        if (!(op instanceof MathOp) || !KERNELS.containsKey(op)
+                || op.arity() != node.childCount()) {
+            return null;
+        }
+
+        MethodHandle[] children = new MethodHandle[node.childCount()];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = compileNode(node.childAt(i));
+            if (children[i] == null) {
+                return null;
+            }
+        }
+
+        // (double...)double  ->  (double[]...)double  ->  (double[])double
+        MethodHandle combined = MethodHandles.filterArguments(KERNELS.get(op), 0, children);
+        return MethodHandles.permuteArguments(combined, ROW, new int[children.length]);
+    }
+
+    /* ================================================
+     * Kernels for operators without a java.lang.Math equivalent
+     * ================================================
+     */
+
+    private static double add(double a, double b) {
+        return a + b;
+    }
+
+    private static double sub(double a, double b) {
+        return a - b;
+    }
+
+    private static double mul(double a, double b) {
+        return a * b;
+    }
+
+    private static double div(double a, double b) {
+        return a / b;
+    }
+
+    private static double mod(double a, double b) {
+        return a % b;
+    }
+
+    private static double neg(double a) {
+        return -a;
+    }
+
+    private static double sqr(double a) {
+        return a * a;
+    }
+}
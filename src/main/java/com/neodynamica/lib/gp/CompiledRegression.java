@@ -0,0 +1,89 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.lib.sample.Dataset;
+import io.jenetics.ext.util.Tree;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.regression.Regression;
+
+/**
+ * Computes the regression error of a program by compiling it with {@link CompiledProgram} and
+ * running the compiled form over primitive dataset rows.
+ * <p>
+ * Programs which can't be compiled are passed to the interpreted Regression instead, so both
+ * paths always produce an error for every program.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class CompiledRegression {
+
+    private final Regression<Double> interpreter;
+    private final double[][] rows;
+    private final double[] expected;
+    private final ErrorKernel errorKernel;
+    private final EarlyAbort earlyAbort;
+
+    /**
+     * Initialise values
+     *
+     * @param interpreter Interpreted regression, used for programs which can't be compiled
+     * @param dataset Dataset containing set of inputs/output values
+     * @param errorKernel Error function of the run
+     */
+    public CompiledRegression(Regression<Double> interpreter, Dataset dataset,
+            ErrorKernel errorKernel) {
+        this(interpreter, dataset, errorKernel, null);
+    }
+
+    /**
+     * Initialise values
+     *
+     * @param interpreter Interpreted regression, used for programs which can't be compiled
+     * @param dataset Dataset containing set of inputs/output values
+     * @param errorKernel Error function of the run
+     * @param earlyAbort Incremental error calculation used to abort hopeless programs, or null to
+     * always evaluate every row
+     */
+    public CompiledRegression(Regression<Double> interpreter, Dataset dataset,
+            ErrorKernel errorKernel, EarlyAbort earlyAbort) {
+        this.interpreter = interpreter;
+        this.rows = dataset.toInputRows();
+        this.expected = dataset.toOutputColumn();
+        this.errorKernel = errorKernel;
+        this.earlyAbort = earlyAbort;
+    }
+
+    /**
+     * Calculate the error of a program over every row of the dataset.
+     *
+     * @param program Program to evaluate
+     * @return Error, according to the error function of the run
+     */
+    public double error(Tree<Op<Double>, ?> program) {
+        // Each phenotype is only evaluated once, so compiling here compiles each program once
+        CompiledProgram compiled = CompiledProgram.compile(program);
+
+        if (this.earlyAbort != null) {
+            if (compiled == null) {
+                return this.earlyAbort.error(program);
+            }
+            return this.earlyAbort.error(program, (from, to, out) -> {
+                for (int i = from; i < to; i++) {
+                    out[i - from] = compiled.eval(this.rows[i]);
+                }
+            });
+        }
+
+        if (compiled == null) {
+            return this.interpreter.error(program);
+        }
+
+        double[] calculated = new double[this.rows.length];
+        compiled.eval(this.rows, calculated);
+
+        return this.errorKernel.error(calculated, this.expected);
+    }
+}
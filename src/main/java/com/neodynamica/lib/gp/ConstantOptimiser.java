@@ -0,0 +1,203 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.ext.util.Tree;
+import io.jenetics.ext.util.TreeNode;
+import io.jenetics.prog.op.Const;
+import io.jenetics.prog.op.EphemeralConst;
+import io.jenetics.prog.op.Op;
+import org.apache.commons.math3.exception.TooManyEvaluationsException;
+import org.apache.commons.math3.optim.InitialGuess;
+import org.apache.commons.math3.optim.MaxEval;
+import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
+import org.apache.commons.math3.optim.nonlinear.scalar.ObjectiveFunction;
+import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.NelderMeadSimplex;
+import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.SimplexOptimizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Tunes the numeric constants of a program by local search, keeping its structure.
+ * <p>
+ * The constants are optimised together with the Nelder-Mead simplex method of commons-math3. It
+ * only needs error values, so it works with every error function. The search stops when the simplex
+ * converges, after a number of evaluations per constant, or at a deadline, whichever comes first.
+ * The best constants seen are kept in every case.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class ConstantOptimiser {
+
+    /**
+     * Error evaluations allowed per constant of a program
+     */
+    static final int EVALUATIONS_PER_CONSTANT = 100;
+
+    private static final Double[] NO_ARGS = new Double[0];
+
+    private final Function<Tree<Op<Double>, ?>, Double> error;
+
+    /**
+     * Initialise values
+     *
+     * @param error Error of a program, lower is better
+     */
+    public ConstantOptimiser(Function<Tree<Op<Double>, ?>, Double> error) {
+        this.error = error;
+    }
+
+    /**
+     * Optimise the constants of a program.
+     *
+     * @param program Program to optimise
+     * @param deadline System.nanoTime() after which the search stops, Long.MAX_VALUE for none
+     * @return Program with the best constants found, or null if the program has no constants or
+     * none better than its own were found
+     */
+    public Refined optimise(Tree<Op<Double>, ?> program, long deadline) {
+        final List<Double> constants = new ArrayList<>();
+        collectConstants(program, constants);
+        if (constants.isEmpty()) {
+            return null;
+        }
+
+        final double[] start = new double[constants.size()];
+        final double[] steps = new double[constants.size()];
+        for (int i = 0; i < start.length; i++) {
+            start[i] = constants.get(i);
+            steps[i] = Math.max(0.1 * Math.abs(start[i]), 0.1);
+        }
+
+        final Search search = new Search(program, deadline);
+        final double initialError = search.value(start);
+        if (initialError == Double.MAX_VALUE) {
+            return null;
+        }
+
+        try {
+            new SimplexOptimizer(1e-10, 1e-12).optimize(
+                    new MaxEval(EVALUATIONS_PER_CONSTANT * start.length),
+                    new ObjectiveFunction(search::value),
+                    GoalType.MINIMIZE,
+                    new InitialGuess(start),
+                    new NelderMeadSimplex(steps));
+        } catch (TooManyEvaluationsException | DeadlineReached e) {
+            // Out of budget, keep the best constants seen so far
+        }
+
+        if (search.bestError >= initialError) {
+            return null;
+        }
+        return new Refined(withConstants(program, search.bestPoint, new int[]{0}),
+                search.bestError);
+    }
+
+    /**
+     * Check whether a node is a numeric constant which can be tuned.
+     */
+    static boolean isConstant(Op<Double> op) {
+        return op instanceof Const || op instanceof EphemeralConst;
+    }
+
+    private static void collectConstants(Tree<? extends Op<Double>, ?> node, List<Double> constants) {
+        if (isConstant(node.getValue())) {
+            constants.add(node.getValue().apply(NO_ARGS));
+        }
+        for (int i = 0; i < node.childCount(); i++) {
+            collectConstants(node.childAt(i), constants);
+        }
+    }
+
+    /**
+     * Copy a program, replacing its constants in pre-order with the given values.
+     */
+    static TreeNode<Op<Double>> withConstants(Tree<? extends Op<Double>, ?> node, double[] values,
+            int[] next) {
+        final TreeNode<Op<Double>> copy = isConstant(node.getValue())
+                ? TreeNode.of(Const.of(values[next[0]++]))
+                : TreeNode.of(node.getValue());
+        for (int i = 0; i < node.childCount(); i++) {
+            copy.attach(withConstants(node.childAt(i), values, next));
+        }
+        return copy;
+    }
+
+    /**
+     * Objective of one optimisation, remembering the best point evaluated.
+     */
+    private final class Search {
+
+        private final Tree<Op<Double>, ?> program;
+        private final long deadline;
+        private double[] bestPoint;
+        private double bestError = Double.MAX_VALUE;
+
+        private Search(Tree<Op<Double>, ?> program, long deadline) {
+            this.program = program;
+            this.deadline = deadline;
+        }
+
+        private double value(double[] point) {
+            if (this.bestPoint != null && this.deadline != Long.MAX_VALUE
+                    && System.nanoTime() - this.deadline > 0) {
+                throw new DeadlineReached();
+            }
+
+            double value = ConstantOptimiser.this.error.apply(withConstants(this.program, point,
+                    new int[]{0}));
+            // The simplex can't order NaN, so treat unusable constants as the worst possible
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                value = Double.MAX_VALUE;
+            }
+
+            if (value < this.bestError) {
+                this.bestError = value;
+                this.bestPoint = point.clone();
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Thrown from the objective to stop a search at its deadline.
+     */
+    private static final class DeadlineReached extends RuntimeException {
+
+        private DeadlineReached() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * A program with optimised constants and its error.
+     */
+    public static final class Refined {
+
+        private final TreeNode<Op<Double>> program;
+        private final double error;
+
+        private Refined(TreeNode<Op<Double>> program, double error) {
+            this.program = program;
+            this.error = error;
+        }
+
+        /**
+         * @return Program with the optimised constants
+         */
+        public TreeNode<Op<Double>> getProgram() {
+            return this.program;
+        }
+
+        /**
+         * @return Error of the program with the optimised constants
+         */
+        public double getError() {
+            return this.error;
+        }
+    }
+}
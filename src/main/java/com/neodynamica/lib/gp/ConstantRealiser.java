@@ -0,0 +1,89 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.Alterer;
+import io.jenetics.AltererResult;
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.ext.util.Tree;
+import io.jenetics.prog.ProgramGene;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Var;
+import io.jenetics.util.Factory;
+
+/**
+ * Draws the values of a program's ephemeral constants up front.
+ * <p>
+ * An EphemeralConst put into a program by growth or mutation has no value until it is first read,
+ * and then draws one from the RandomRegistry of the reading thread. Left alone, that is an
+ * evaluation thread, so the values drawn depend on how evaluations happen to be scheduled. Reading
+ * every constant of a new program on the engine thread, in tree order, makes a seeded search draw
+ * the same values however many threads evaluate it.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+final class ConstantRealiser {
+
+    private static final Double[] NO_ARGS = new Double[0];
+
+    private ConstantRealiser() {
+    }
+
+    /**
+     * Read the value of every constant of a program.
+     *
+     * @param program Program tree
+     */
+    static void realise(Tree<? extends Op<Double>, ?> program) {
+        Op<Double> op = program.getValue();
+        if (op instanceof Var) {
+            return;
+        }
+        if (op.arity() == 0) {
+            // Const or EphemeralConst - the first read draws the value
+            op.apply(NO_ARGS);
+            return;
+        }
+
+        for (int i = 0; i < program.childCount(); i++) {
+            realise(program.childAt(i));
+        }
+    }
+
+    /**
+     * Wrap a genotype factory so the constants of every new genotype are drawn as it is created,
+     * such as those of the initial population.
+     *
+     * @param factory Genotype factory of an engine
+     * @return Factory of genotypes with drawn constants
+     */
+    static Factory<Genotype<ProgramGene<Double>>> factory(
+            Factory<Genotype<ProgramGene<Double>>> factory) {
+        return () -> {
+            Genotype<ProgramGene<Double>> genotype = factory.newInstance();
+            realise(genotype.getGene());
+            return genotype;
+        };
+    }
+
+    /**
+     * Make an Alterer drawing the constants of the new offspring of each generation, to run after
+     * the engine's other alterers. It alters no programs.
+     *
+     * @param <C> Fitness type of the engine
+     * @return Alterer to run after the engine's other alterers
+     */
+    static <C extends Comparable<? super C>> Alterer<ProgramGene<Double>, C> alterer() {
+        return (population, generation) -> {
+            for (Phenotype<ProgramGene<Double>, C> individual : population) {
+                if (!individual.isEvaluated()) {
+                    realise(individual.getGenotype().getGene());
+                }
+            }
+            return AltererResult.of(population.asISeq(), 0);
+        };
+    }
+}
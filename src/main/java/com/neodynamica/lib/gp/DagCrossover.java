@@ -0,0 +1,57 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.Crossover;
+import io.jenetics.util.MSeq;
+import io.jenetics.util.RandomRegistry;
+
+import java.util.Random;
+
+/**
+ * Subtree crossover of DAG programs: a random subtree of each parent is swapped with one of the
+ * other. The swapped subtrees are shared rather than copied, so each offspring only allocates the
+ * path from its root to the swapped subtree. An offspring which would grow beyond the size limit
+ * keeps its parent's program.
+ *
+ * @param <C> Fitness type
+ * @version 1.0
+ * @since 2.0
+ */
+public class DagCrossover<C extends Comparable<? super C>> extends Crossover<DagProgramGene, C> {
+
+    /**
+     * Initialise values
+     *
+     * @param probability Probability of a pair of individuals being crossed
+     */
+    public DagCrossover(double probability) {
+        super(probability);
+    }
+
+    @Override
+    protected int crossover(MSeq<DagProgramGene> that, MSeq<DagProgramGene> other) {
+        final Random random = RandomRegistry.getRandom();
+        final DagProgramGene mother = that.get(0);
+        final DagProgramGene father = other.get(0);
+        final int motherIndex = random.nextInt(mother.getAllele().size());
+        final int fatherIndex = random.nextInt(father.getAllele().size());
+        final ProgramDag dag = mother.getDag();
+
+        int altered = 0;
+        ProgramDag.Node daughter = dag.replace(mother.getAllele(), motherIndex,
+                father.getAllele().nodeAt(fatherIndex));
+        if (daughter.size() <= mother.getMaxSize()) {
+            that.set(0, mother.newInstance(daughter));
+            altered++;
+        }
+        ProgramDag.Node son = dag.replace(father.getAllele(), fatherIndex,
+                mother.getAllele().nodeAt(motherIndex));
+        if (son.size() <= father.getMaxSize()) {
+            other.set(0, father.newInstance(son));
+            altered++;
+        }
+        return altered;
+    }
+}
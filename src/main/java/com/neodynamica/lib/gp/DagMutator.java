@@ -0,0 +1,37 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.Mutator;
+
+import java.util.Random;
+
+/**
+ * Subtree mutation of DAG programs: a random subtree is replaced with a newly grown one. Only the
+ * nodes on the path from the root to the replaced subtree are new, the rest are shared with the
+ * parent. A mutation which would grow the program beyond the size limit is dropped.
+ *
+ * @param <C> Fitness type
+ * @version 1.0
+ * @since 2.0
+ */
+public class DagMutator<C extends Comparable<? super C>> extends Mutator<DagProgramGene, C> {
+
+    /**
+     * Initialise values
+     *
+     * @param probability Probability of a program being mutated
+     */
+    public DagMutator(double probability) {
+        super(probability);
+    }
+
+    @Override
+    protected DagProgramGene mutate(DagProgramGene gene, Random random) {
+        final ProgramDag.Node program = gene.getAllele();
+        final ProgramDag.Node mutated = gene.getDag().replace(program,
+                random.nextInt(program.size()), gene.grow(random));
+        return mutated.size() <= gene.getMaxSize() ? gene.newInstance(mutated) : gene;
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.AbstractChromosome;
+import io.jenetics.Chromosome;
+import io.jenetics.util.ISeq;
+
+/**
+ * Chromosome of a single {@link DagProgramGene}, so a genotype holds one program of a
+ * {@link ProgramDag}.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public final class DagProgramChromosome extends AbstractChromosome<DagProgramGene> {
+
+    private DagProgramChromosome(ISeq<DagProgramGene> genes) {
+        super(genes);
+    }
+
+    /**
+     * Create a chromosome holding a gene.
+     *
+     * @param gene Gene of the chromosome
+     * @return New chromosome
+     */
+    public static DagProgramChromosome of(DagProgramGene gene) {
+        return new DagProgramChromosome(ISeq.of(gene));
+    }
+
+    @Override
+    public Chromosome<DagProgramGene> newInstance() {
+        return of(this.getGene().newInstance());
+    }
+
+    @Override
+    public Chromosome<DagProgramGene> newInstance(ISeq<DagProgramGene> genes) {
+        return new DagProgramChromosome(genes);
+    }
+}
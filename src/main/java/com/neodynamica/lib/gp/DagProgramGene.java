@@ -0,0 +1,130 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.Gene;
+import io.jenetics.prog.op.Const;
+import io.jenetics.prog.op.EphemeralConst;
+import io.jenetics.prog.op.Op;
+import io.jenetics.util.RandomRegistry;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Gene holding a whole program as a node of a {@link ProgramDag}, with the store, operators,
+ * terminals and limits new programs of the search are built from. Every gene of a search shares
+ * one store, so equal subtrees of different programs are held once.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public final class DagProgramGene implements Gene<ProgramDag.Node, DagProgramGene> {
+
+    private static final Double[] NO_ARGS = new Double[0];
+
+    private final ProgramDag dag;
+    private final ProgramDag.Node program;
+    private final List<Op<Double>> operators;
+    private final List<Op<Double>> terminals;
+    private final int depth;
+    private final int maxSize;
+
+    private DagProgramGene(ProgramDag dag, ProgramDag.Node program, List<Op<Double>> operators,
+            List<Op<Double>> terminals, int depth, int maxSize) {
+        this.dag = dag;
+        this.program = program;
+        this.operators = operators;
+        this.terminals = terminals;
+        this.depth = depth;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Create a gene holding a random program.
+     *
+     * @param dag Store holding the programs of the search
+     * @param operators Operators programs are built from
+     * @param terminals Variables and constants programs are built from
+     * @param depth Maximum depth of new programs and subtrees grown by mutation
+     * @param maxSize Maximum number of nodes of a valid program
+     * @return New gene
+     */
+    public static DagProgramGene of(ProgramDag dag, List<Op<Double>> operators,
+            List<Op<Double>> terminals, int depth, int maxSize) {
+        final DagProgramGene gene = new DagProgramGene(dag, null, operators, terminals, depth,
+                maxSize);
+        return gene.newInstance(gene.grow(RandomRegistry.getRandom()));
+    }
+
+    @Override
+    public ProgramDag.Node getAllele() {
+        return this.program;
+    }
+
+    /**
+     * @return Store holding the programs of the search
+     */
+    public ProgramDag getDag() {
+        return this.dag;
+    }
+
+    /**
+     * @return Maximum number of nodes of a valid program
+     */
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Grow a random program with this gene's operators and terminals, in its store.
+     *
+     * @param random Source of randomness
+     * @return Root node of the new program
+     */
+    ProgramDag.Node grow(Random random) {
+        return this.grow(this.depth, random);
+    }
+
+    private ProgramDag.Node grow(int depth, Random random) {
+        final int choices = this.operators.size() + this.terminals.size();
+        final int choice = depth > 0 ? random.nextInt(choices) : choices;
+        if (choice < this.operators.size()) {
+            final Op<Double> op = this.operators.get(choice);
+            final ProgramDag.Node[] children = new ProgramDag.Node[op.arity()];
+            for (int i = 0; i < children.length; i++) {
+                children[i] = this.grow(depth - 1, random);
+            }
+            return this.dag.node(op, children);
+        }
+
+        final Op<Double> terminal = this.terminals.get(random.nextInt(this.terminals.size()));
+        // Constants are drawn here, on the engine thread, and stored by value so equal ones are
+        // shared
+        return this.dag.node(terminal instanceof EphemeralConst
+                ? Const.of(terminal.get().apply(NO_ARGS))
+                : terminal);
+    }
+
+    @Override
+    public DagProgramGene newInstance() {
+        return this.newInstance(this.grow(RandomRegistry.getRandom()));
+    }
+
+    @Override
+    public DagProgramGene newInstance(ProgramDag.Node program) {
+        return new DagProgramGene(this.dag, program, this.operators, this.terminals, this.depth,
+                this.maxSize);
+    }
+
+    @Override
+    public boolean isValid() {
+        return this.program.size() <= this.maxSize;
+    }
+
+    @Override
+    public String toString() {
+        return this.program.toString();
+    }
+}
@@ -0,0 +1,326 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.lib.sample.Dataset;
+import io.jenetics.ext.util.Tree;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Program;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Incremental error calculation which stops evaluating a program once it can no longer compete.
+ * <p>
+ * For the sum based error functions (MSE, RMSE, MAE and WC) the error accumulated over the first
+ * rows never exceeds the error over all rows. Rows are therefore evaluated in chunks, and as soon
+ * as the accumulated error exceeds the threshold (the worst exact fitness of the previous
+ * generation) evaluation stops. The accumulated error is returned as a lower bound of the real
+ * error: it is still worse than every individual which was fully evaluated, so selection ranks it
+ * correctly against them.
+ * <p>
+ * Programs whose error is a lower bound are remembered by identity, so their bounds are not used to
+ * raise the threshold and are never stored in the {@link FitnessCache}.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class EarlyAbort {
+
+    /**
+     * Writes the predictions of a program for rows [from, to) into out[0, to - from)
+     */
+    @FunctionalInterface
+    interface ChunkEvaluator {
+
+        void eval(int from, int to, double[] out);
+    }
+
+    private enum Accumulation {
+        SQUARED, ROOT_SQUARED, ABSOLUTE, WORST
+    }
+
+    private final int chunkSize;
+    private final Accumulation accumulation;
+    private final double[] expected;
+    private final Double[][] inputRows;
+
+    private volatile double threshold = Double.POSITIVE_INFINITY;
+
+    /**
+     * Programs whose last error was a lower bound
+     */
+    private final Set<Identity> lowerBounds;
+
+    private final LongAdder aborted = new LongAdder();
+    private final LongAdder evaluatedRows = new LongAdder();
+    private final LongAdder skippedRows = new LongAdder();
+
+    /**
+     * Initialise values
+     *
+     * @param chunkSize Number of rows evaluated between threshold checks
+     * @param errorFunction Name of the ErrorFunction, which must be supported
+     * @param dataset Dataset containing set of inputs/output values
+     */
+    public EarlyAbort(int chunkSize, String errorFunction, Dataset dataset) {
+        this.chunkSize = chunkSize;
+        this.accumulation = accumulationOf(errorFunction);
+        this.expected = dataset.toOutputColumn();
+        this.inputRows = dataset.getInputValues();
+        this.lowerBounds = ConcurrentHashMap.newKeySet();
+
+        if (this.accumulation == null) {
+            throw new IllegalArgumentException(
+                    "Early abort is not supported for error function: " + errorFunction);
+        }
+    }
+
+    private EarlyAbort(EarlyAbort previous, Dataset dataset) {
+        this.chunkSize = previous.chunkSize;
+        this.accumulation = previous.accumulation;
+        this.expected = dataset.toOutputColumn();
+        this.inputRows = dataset.getInputValues();
+        this.lowerBounds = previous.lowerBounds;
+        this.threshold = previous.threshold;
+    }
+
+    /**
+     * Continue early abort on different rows, such as the next sample of the dataset. The
+     * threshold and the known lower bounds carry over, statistics start from zero.
+     *
+     * @param dataset Dataset containing set of inputs/output values
+     * @return Early abort over the new rows
+     */
+    public EarlyAbort withDataset(Dataset dataset) {
+        return new EarlyAbort(this, dataset);
+    }
+
+    /**
+     * Check whether an error function can be calculated incrementally.
+     *
+     * @param errorFunction Name of the ErrorFunction
+     * @return True if the error function is MSE, RMSE, MAE or WC
+     */
+    public static boolean supports(String errorFunction) {
+        return accumulationOf(errorFunction) != null;
+    }
+
+    /**
+     * Check whether the last error calculated for a program was a lower bound.
+     *
+     * @param program Program, the same object that was evaluated
+     * @return True if evaluation of the program was aborted
+     */
+    public boolean isLowerBound(Object program) {
+        return !this.lowerBounds.isEmpty() && this.lowerBounds.contains(new Identity(program));
+    }
+
+    /**
+     * Calculate the error of a program by interpreting it row by row.
+     *
+     * @param program Program to evaluate
+     * @return Error, or a lower bound of it if evaluation was aborted
+     */
+    public double error(Tree<Op<Double>, ?> program) {
+        return error(program, (from, to, out) -> {
+            for (int i = from; i < to; i++) {
+                out[i - from] = Program.eval(program, this.inputRows[i]);
+            }
+        });
+    }
+
+    /**
+     * Calculate the error of a program from its predictions, chunk by chunk.
+     *
+     * @param program Program being evaluated, remembered by identity if its error is a lower bound
+     * @param predictions Evaluates the program for a chunk of rows; chunks always start at a
+     * multiple of the chunk size
+     * @return Error, or a lower bound of it if evaluation was aborted
+     */
+    double error(Object program, ChunkEvaluator predictions) {
+        final int n = this.expected.length;
+        final double threshold = this.threshold;
+        final double[] chunk = new double[Math.min(this.chunkSize, n)];
+
+        double accumulated = 0.0D;
+
+        for (int from = 0; from < n; from += this.chunkSize) {
+            int to = Math.min(n, from + this.chunkSize);
+            predictions.eval(from, to, chunk);
+
+            for (int i = from; i < to; i++) {
+                double difference = this.expected[i] - chunk[i - from];
+
+                switch (this.accumulation) {
+                    case SQUARED:
+                    case ROOT_SQUARED:
+                        accumulated += difference * difference;
+                        break;
+                    case ABSOLUTE:
+                        accumulated += Math.abs(difference);
+                        break;
+                    default:
+                        if (Math.abs(difference) > accumulated) {
+                            accumulated = Math.abs(difference);
+                        }
+                        break;
+                }
+            }
+
+            double bound = finish(accumulated, n);
+            if (to < n && bound > threshold) {
+                this.aborted.increment();
+                this.evaluatedRows.add(to);
+                this.skippedRows.add(n - to);
+                this.lowerBounds.add(new Identity(program));
+                return bound;
+            }
+        }
+
+        // A program aborted on earlier rows may be evaluated in full on the next sample
+        if (!this.lowerBounds.isEmpty()) {
+            this.lowerBounds.remove(new Identity(program));
+        }
+
+        this.evaluatedRows.add(n);
+        return finish(accumulated, n);
+    }
+
+    /**
+     * Turn the accumulated error into the error function's value, as calculated by ErrorFunction.
+     */
+    private double finish(double accumulated, int n) {
+        switch (this.accumulation) {
+            case SQUARED:
+                return n > 0 ? accumulated / n : accumulated;
+            case ROOT_SQUARED:
+                return Math.sqrt(n > 0 ? accumulated / n : accumulated);
+            case ABSOLUTE:
+                return n > 0 ? accumulated / n : accumulated;
+            default:
+                return accumulated;
+        }
+    }
+
+    /**
+     * Update the threshold from the fitness of the generation just completed: the worst finite
+     * fitness which is not a lower bound.
+     *
+     * @param programs Program of every individual in the population, as evaluated
+     * @param fitness Fitness of every individual, in the same order
+     */
+    public void updateThreshold(List<?> programs, List<Double> fitness) {
+        Set<Identity> current = new HashSet<>();
+        double worst = Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < programs.size(); i++) {
+            Identity program = new Identity(programs.get(i));
+            double value = fitness.get(i);
+            current.add(program);
+            if (!Double.isNaN(value) && !Double.isInfinite(value)
+                    && !this.lowerBounds.contains(program) && value > worst) {
+                worst = value;
+            }
+        }
+
+        // Forget lower bounds of individuals which have left the population
+        this.lowerBounds.retainAll(current);
+
+        if (worst != Double.NEGATIVE_INFINITY) {
+            this.threshold = worst;
+        }
+    }
+
+    /**
+     * Get the number of rows evaluated between threshold checks.
+     *
+     * @return Chunk size
+     */
+    public int getChunkSize() {
+        return this.chunkSize;
+    }
+
+    /**
+     * Get the current threshold.
+     *
+     * @return Error above which evaluation is aborted
+     */
+    public double getThreshold() {
+        return this.threshold;
+    }
+
+    /**
+     * Get the number of aborted evaluations since the last call, and reset the count.
+     *
+     * @return Number of aborted evaluations
+     */
+    public long takeAborted() {
+        return this.aborted.sumThenReset();
+    }
+
+    /**
+     * Get the number of rows evaluated since the last call, and reset the count.
+     *
+     * @return Number of rows evaluated
+     */
+    public long takeEvaluatedRows() {
+        return this.evaluatedRows.sumThenReset();
+    }
+
+    /**
+     * Get the number of rows skipped by aborted evaluations since the last call, and reset the
+     * count.
+     *
+     * @return Number of rows skipped
+     */
+    public long takeSkippedRows() {
+        return this.skippedRows.sumThenReset();
+    }
+
+    /**
+     * Identity of a program, programs with the same structure are still told apart.
+     */
+    private static final class Identity {
+
+        private final Object program;
+
+        Identity(Object program) {
+            this.program = program;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.program);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Identity && ((Identity) other).program == this.program;
+        }
+    }
+
+    private static Accumulation accumulationOf(String errorFunction) {
+        switch (errorFunction) {
+            case "MSE":
+            case "MeanSquaredError":
+                return Accumulation.SQUARED;
+            case "RMSE":
+            case "RootMeanSquaredError":
+                return Accumulation.ROOT_SQUARED;
+            case "MAE":
+            case "MeanAbsoluteError":
+                return Accumulation.ABSOLUTE;
+            case "WC":
+            case "WorstCase":
+                return Accumulation.WORST;
+            default:
+                return null;
+        }
+    }
+}
@@ -3,199 +3,237 @@
  */
 package com.neodynamica.lib.gp;
 
-import org.apache.commons.math3.stat.correlation.PearsonsCorrelation;
-
-import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
 public class ErrorFunction {
 
-    private static String errorFunction;
-
-    static void setErrorType(String error) {
-        errorFunction = error;
-    }
+    /**
+     * Buffer of {@link #unbox(Double[], int)} holding program outputs
+     */
+    static final int CALCULATED = 0;
 
-    static double mse(Double[] calculated, Double[] expected) {
-        if (expected.length != calculated.length) {
-            throw new IllegalArgumentException(String
-                    .format("Expected result and calculated results have different length: %d != %d",
-                            expected.length, calculated.length));
-        } else {
-            double result = 0.0D;
+    /**
+     * Buffer of {@link #unbox(Double[], int)} holding expected outputs
+     */
+    static final int EXPECTED = 1;
 
-            for (int i = 0; i < expected.length; ++i) {
-                result += (expected[i] - calculated[i]) * (expected[i] - calculated[i]);
-            }
+    /**
+     * Unboxed arguments of the Double[] overloads, per thread, reused while the row count stays
+     * the same
+     */
+    private static final ThreadLocal<double[][]> UNBOXED =
+            ThreadLocal.withInitial(() -> new double[][]{new double[0], new double[0]});
 
-            if (expected.length > 0) {
-                result /= expected.length;
-            }
+    /**
+     * Resolve an error function once, for a run to hold and call for every program it scores.
+     *
+     * @param errorFunction Error function name or abbreviation
+     * @param linearScaling Score programs after the least squares fit of an intercept and slope to
+     * their output. Only affects the error functions for which {@link
+     * #supportsLinearScaling(String)} is true
+     * @return Kernel calculating the error function, which checks the lengths of its arguments
+     * @throws IllegalArgumentException if the error function isn't supported
+     */
+    static ErrorKernel kernel(String errorFunction, boolean linearScaling) {
+        switch (errorFunction) {
+            case "MAE":
+            case "MeanAbsoluteError":
+                return checked(ErrorKernels::mae);
+            case "MSE":
+            case "MeanSquaredError":
+                return checked(linearScaling ? ErrorKernels::scaledMse : ErrorKernels::mse);
+            case "RMSE":
+            case "RootMeanSquaredError":
+                return linearScaling
+                        ? checked((calculated, expected) ->
+                                Math.sqrt(ErrorKernels.scaledMse(calculated, expected)))
+                        : checked(ErrorKernels::rmse);
+            case "RGF":
+            case "R2GoodnessOfFit":
+                return checked(ErrorKernels::rgf);
+            case "WC":
+            case "WorstCase":
+                return checked(ErrorKernels::wc);
+            case "PCC":
+            case "PearsonsCorrelationCoefficient":
+                return checked(ErrorKernels::pcc);
+            case "MED":
+            case "MedianAbsoluteError":
+                return checked(ErrorKernels::med);
+            case "IQAE":
+            case "InterquartileAbsoluteError":
+                return checked(ErrorKernels::iqae);
+            default:
+                throw new IllegalArgumentException("Invalid error function name: " + errorFunction);
+        }
+    }
 
-            return result;
+    /**
+     * Check whether an error function can be calculated after linear scaling
+     *
+     * @param error Error function name or abbreviation
+     * @return True for the squared errors, whose optimal scaling has a closed form
+     */
+    static boolean supportsLinearScaling(String error) {
+        switch (error) {
+            case "MSE":
+            case "MeanSquaredError":
+            case "RMSE":
+            case "RootMeanSquaredError":
+                return true;
+            default:
+                return false;
         }
     }
 
+    static double mse(Double[] calculated, Double[] expected) {
+        return mse(unbox(calculated, CALCULATED), unbox(expected, EXPECTED));
+    }
+
+    static double mse(double[] calculated, double[] expected) {
+        checkLengths(calculated, expected);
+        return ErrorKernels.mse(calculated, expected);
+    }
+
     static double rmse(Double[] calculated, Double[] expected) {
         return Math.sqrt(mse(calculated, expected));
     }
 
-    static double mae(Double[] calculated, Double[] expected) {
-        if (expected.length != calculated.length) {
-            throw new IllegalArgumentException(String
-                    .format("Expected result and calculated results have different length: %d != %d",
-                            expected.length, calculated.length));
-        } else {
-            double result = 0.0D;
+    static double scaledMse(Double[] calculated, Double[] expected) {
+        return scaledMse(unbox(calculated, CALCULATED), unbox(expected, EXPECTED));
+    }
 
-            for (int i = 0; i < expected.length; ++i) {
-                result += Math.abs(expected[i] - calculated[i]);
-            }
+    /**
+     * Mean squared error of a + b * calculated, where a and b minimise it.
+     */
+    static double scaledMse(double[] calculated, double[] expected) {
+        checkLengths(calculated, expected);
+        return ErrorKernels.scaledMse(calculated, expected);
+    }
 
-            if (expected.length > 0) {
-                result /= expected.length;
-            }
+    /**
+     * Intercept a and slope b minimising the squared error of a + b * calculated.
+     *
+     * @return {a, b}
+     */
+    static double[] scaling(Double[] calculated, Double[] expected) {
+        double meanCalculated = 0.0D;
+        double meanExpected = 0.0D;
+        double calculatedVariance = 0.0D;
+        double covariance = 0.0D;
+
+        for (int i = 0; i < expected.length; ++i) {
+            double dc = calculated[i] - meanCalculated;
+            meanCalculated += dc / (i + 1);
+            meanExpected += (expected[i] - meanExpected) / (i + 1);
+            calculatedVariance += dc * (calculated[i] - meanCalculated);
+            covariance += dc * (expected[i] - meanExpected);
+        }
 
-            return result;
+        double slope = calculatedVariance > 0 ? covariance / calculatedVariance : 0.0D;
+        if (Double.isNaN(slope) || Double.isInfinite(slope)) {
+            return new double[]{0.0D, 1.0D};
         }
+        return new double[]{meanExpected - slope * meanCalculated, slope};
     }
 
-    static double rgf(Double[] calculated, Double[] expected) {
-        if (expected.length != calculated.length) {
-            throw new IllegalArgumentException(String
-                    .format("Expected result and calculated results have different length: %d != %d",
-                            expected.length, calculated.length));
-        } else {
-
-            double averageExpectedError = Arrays.stream(expected)
-                    .mapToDouble(
-                            targetValue -> targetValue
-                    ).average().orElse(Double.NaN);
+    static double mae(Double[] calculated, Double[] expected) {
+        return mae(unbox(calculated, CALCULATED), unbox(expected, EXPECTED));
+    }
 
-            double SStot = Arrays.stream(expected)
-                    .mapToDouble(
-                            targetValue -> Math.pow(targetValue - averageExpectedError, 2)
-                    ).sum();
+    static double mae(double[] calculated, double[] expected) {
+        checkLengths(calculated, expected);
+        return ErrorKernels.mae(calculated, expected);
+    }
 
-            double SSres = Arrays.stream(expected)
-                    .mapToDouble(
-                            targetValue -> Math.pow(targetValue - calculated[1], 2)
-                    ).sum();
+    static double rgf(Double[] calculated, Double[] expected) {
+        return rgf(unbox(calculated, CALCULATED), unbox(expected, EXPECTED));
+    }
 
-            return 1 - (SSres / SStot);
-        }
+    static double rgf(double[] calculated, double[] expected) {
+        checkLengths(calculated, expected);
+        return ErrorKernels.rgf(calculated, expected);
     }
 
     static double wc(Double[] calculated, Double[] expected) {
-        if (expected.length != calculated.length) {
-            throw new IllegalArgumentException(String
-                    .format("Expected result and calculated results have different length: %d != %d",
-                            expected.length, calculated.length));
-        } else {
-
-            double result = 0.0D;
-
-            for (int i = 0; i < expected.length; ++i) {
-                if (Math.abs(calculated[i] - expected[i]) > result) {
-                    result = Math.abs(calculated[i] - expected[i]);
-                }
-            }
+        return wc(unbox(calculated, CALCULATED), unbox(expected, EXPECTED));
+    }
 
-            return result;
-        }
+    static double wc(double[] calculated, double[] expected) {
+        checkLengths(calculated, expected);
+        return ErrorKernels.wc(calculated, expected);
     }
 
     static double pcc(Double[] calculated, Double[] expected) {
-        if (expected.length != calculated.length) {
-            throw new IllegalArgumentException(String
-                    .format("Expected result and calculated results have different length: %d != %d",
-                            expected.length, calculated.length));
-        } else {
-            PearsonsCorrelation pearsonsCorrelation = new PearsonsCorrelation();
+        return pcc(unbox(calculated, CALCULATED), unbox(expected, EXPECTED));
+    }
 
-            return pearsonsCorrelation.correlation(
-                    Arrays.stream(expected).mapToDouble(r -> r).toArray(),
-                    Arrays.stream(calculated).mapToDouble(r -> r).toArray()
-            );
-        }
+    static double pcc(double[] calculated, double[] expected) {
+        checkLengths(calculated, expected);
+        return ErrorKernels.pcc(calculated, expected);
     }
 
     static double med(Double[] calculated, Double[] expected) {
-        if (expected.length != calculated.length) {
-            throw new IllegalArgumentException(String
-                    .format("Expected result and calculated results have different length: %d != %d",
-                            expected.length, calculated.length));
-        } else {
+        return med(unbox(calculated, CALCULATED), unbox(expected, EXPECTED));
+    }
+
+    static double med(double[] calculated, double[] expected) {
+        checkLengths(calculated, expected);
+        return ErrorKernels.med(calculated, expected);
+    }
 
-            // Calculate all absolute errors
-            double[] absoluteErrors = new double[expected.length];
-            for (int i = 0; i < expected.length; ++i) {
-                absoluteErrors[i] = Math.abs(calculated[i] - expected[i]);
-            }
+    static double iqae(Double[] calculated, Double[] expected) {
+        return iqae(unbox(calculated, CALCULATED), unbox(expected, EXPECTED));
+    }
 
-            // Sort ASC order
-            Arrays.sort(absoluteErrors);
+    static double iqae(double[] calculated, double[] expected) {
+        checkLengths(calculated, expected);
+        return ErrorKernels.iqae(calculated, expected);
+    }
 
-            return absoluteErrors[expected.length / 2];
-        }
+    private static ErrorKernel checked(ErrorKernel kernel) {
+        return (calculated, expected) -> {
+            checkLengths(calculated, expected);
+            return kernel.error(calculated, expected);
+        };
     }
 
-    static double iqae(Double[] calculated, Double[] expected) {
+    private static void checkLengths(double[] calculated, double[] expected) {
         if (expected.length != calculated.length) {
             throw new IllegalArgumentException(String
                     .format("Expected result and calculated results have different length: %d != %d",
                             expected.length, calculated.length));
-        } else {
-
-            // Calculate all absolute errors
-            double[] absoluteErrors = new double[expected.length];
-            for (int i = 0; i < expected.length; ++i) {
-                absoluteErrors[i] = Math.abs(calculated[i] - expected[i]);
-            }
-
-            // Sort ASC order
-            Arrays.sort(absoluteErrors);
-
-            return Arrays.stream(
-                    Arrays.copyOfRange(
-                            absoluteErrors,
-                            absoluteErrors.length / 4,
-                            absoluteErrors.length - (absoluteErrors.length / 4)
-                    )
-            ).boxed().mapToDouble(val -> val).average().orElse(Double.NaN);
         }
     }
 
-    static double calculateError(Double[] calculated, Double[] expected) {
-        switch (errorFunction) {
-            case "MAE":
-            case "MeanAbsoluteError":
-                return mae(calculated, expected);
-            case "MSE":
-            case "MeanSquaredError":
-                return mse(calculated, expected);
-            case "RMSE":
-            case "RootMeanSquaredError":
-                return rmse(calculated, expected);
-            case "RGF":
-            case "R2GoodnessOfFit":
-                return rgf(calculated, expected);
-            case "WC":
-            case "WorstCase":
-                return wc(calculated, expected);
-            case "PCC":
-            case "PearsonsCorrelationCoefficient":
-                return pcc(calculated, expected);
-            case "MED":
-            case "MedianAbsoluteError":
-                return med(calculated, expected);
-            case "IQAE":
-            case "InterquartileAbsoluteError":
-                return iqae(calculated, expected);
-            default:
-                throw new IllegalArgumentException("Invalid error function name: " + errorFunction);
+    /**
+     * Unbox values into a buffer of the calling thread, which is overwritten by the thread's next
+     * call for the same buffer.
+     *
+     * @param values Values to unbox
+     * @param buffer {@link #CALCULATED} or {@link #EXPECTED}
+     * @return Unboxed values, exactly as long as the given values
+     */
+    static double[] unbox(Double[] values, int buffer) {
+        double[][] buffers = UNBOXED.get();
+        double[] unboxed = buffers[buffer];
+        if (unboxed.length != values.length) {
+            unboxed = new double[values.length];
+            buffers[buffer] = unboxed;
+        }
+        for (int i = 0; i < values.length; i++) {
+            unboxed[i] = values[i];
+        }
+        return unboxed;
+    }
+
+    static double[] unbox(Double[] values) {
+        double[] unboxed = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            unboxed[i] = values[i];
         }
+        return unboxed;
     }
 
     /**
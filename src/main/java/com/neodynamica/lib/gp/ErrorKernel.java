@@ -0,0 +1,54 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+/**
+ * The error function of a run, resolved once from its name by {@link
+ * ErrorFunction#kernel(String, boolean)}. Each run holds its own kernel, so runs in the same JVM
+ * can use different error functions, and scoring a program doesn't look the function up again.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+@FunctionalInterface
+public interface ErrorKernel {
+
+    /**
+     * Calculate the error of a program's outputs.
+     *
+     * @param calculated Program output for each row
+     * @param expected Expected output for each row
+     * @return Error
+     * @throws IllegalArgumentException if the arrays have different lengths
+     */
+    double error(double[] calculated, double[] expected);
+
+    /**
+     * Calculate the error of a program's outputs, as passed by the interpreted Regression. Both
+     * arrays are unboxed on every call; a kernel from {@link #bind(Double[])} only unboxes the
+     * program output.
+     *
+     * @param calculated Program output for each row
+     * @param expected Expected output for each row
+     * @return Error
+     * @throws IllegalArgumentException if the arrays have different lengths
+     */
+    default double error(Double[] calculated, Double[] expected) {
+        return this.error(ErrorFunction.unbox(calculated, ErrorFunction.CALCULATED),
+                ErrorFunction.unbox(expected, ErrorFunction.EXPECTED));
+    }
+
+    /**
+     * Bind this kernel to the expected outputs of the rows a Regression scores. The bound kernel
+     * unboxes them once, and the program output of each call into a buffer of the calling thread,
+     * so the interpreted Regression allocates no primitive arrays per program. The expected outputs
+     * it is then called with must be those of the same rows, and are only checked for their length.
+     *
+     * @param expected Expected output for each row
+     * @return Kernel calculating the same error against the given outputs
+     */
+    default ErrorKernel bind(Double[] expected) {
+        return new BoundErrorKernel(this, expected);
+    }
+}
@@ -0,0 +1,278 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import java.util.Arrays;
+
+/**
+ * Allocation free error kernels over primitive arrays.
+ * <p>
+ * Each kernel makes a single pass over the outputs, keeping running sums (and, where a mean is
+ * needed, running means and co-moments, which stay accurate where sums of squares would cancel).
+ * The order statistics (median and interquartile mean) select their ranks in linear time instead
+ * of sorting, in a scratch buffer reused by each thread. Kernels do not check their arguments: both
+ * arrays must have the same length, which {@link ErrorFunction} checks once before calling them.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public final class ErrorKernels {
+
+    /**
+     * Absolute errors for the order statistics, one buffer per thread, grown as needed
+     */
+    private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[0]);
+
+    private ErrorKernels() {
+    }
+
+    /**
+     * Mean squared error, or 0 for no rows.
+     */
+    public static double mse(double[] calculated, double[] expected) {
+        double sum = 0.0D;
+        for (int i = 0; i < expected.length; ++i) {
+            double residual = expected[i] - calculated[i];
+            sum += residual * residual;
+        }
+        return expected.length > 0 ? sum / expected.length : sum;
+    }
+
+    /**
+     * Root mean squared error, or 0 for no rows.
+     */
+    public static double rmse(double[] calculated, double[] expected) {
+        return Math.sqrt(mse(calculated, expected));
+    }
+
+    /**
+     * Mean squared error of a + b * calculated, where a and b minimise it, or 0 for no rows.
+     */
+    public static double scaledMse(double[] calculated, double[] expected) {
+        if (expected.length == 0) {
+            return 0.0D;
+        }
+
+        double meanCalculated = 0.0D;
+        double meanExpected = 0.0D;
+        double calculatedVariance = 0.0D; // sums of squared deviations and of their products
+        double expectedVariance = 0.0D;
+        double covariance = 0.0D;
+
+        for (int i = 0; i < expected.length; ++i) {
+            double dc = calculated[i] - meanCalculated;
+            double de = expected[i] - meanExpected;
+            meanCalculated += dc / (i + 1);
+            meanExpected += de / (i + 1);
+            calculatedVariance += dc * (calculated[i] - meanCalculated);
+            expectedVariance += de * (expected[i] - meanExpected);
+            covariance += dc * (expected[i] - meanExpected);
+        }
+
+        // A constant output can only be scaled to the mean
+        double residual = calculatedVariance > 0
+                ? expectedVariance - covariance * covariance / calculatedVariance
+                : expectedVariance;
+
+        return Math.max(0.0D, residual) / expected.length;
+    }
+
+    /**
+     * Mean absolute error, or 0 for no rows.
+     */
+    public static double mae(double[] calculated, double[] expected) {
+        double sum = 0.0D;
+        for (int i = 0; i < expected.length; ++i) {
+            sum += Math.abs(expected[i] - calculated[i]);
+        }
+        return expected.length > 0 ? sum / expected.length : sum;
+    }
+
+    /**
+     * Coefficient of determination R², 1 - SSres / SStot. NaN for no rows, and infinite or NaN
+     * when expected is constant.
+     */
+    public static double rgf(double[] calculated, double[] expected) {
+        double meanExpected = 0.0D;
+        double totalSquares = 0.0D;
+        double residualSquares = 0.0D;
+
+        for (int i = 0; i < expected.length; ++i) {
+            double de = expected[i] - meanExpected;
+            meanExpected += de / (i + 1);
+            totalSquares += de * (expected[i] - meanExpected);
+            double residual = expected[i] - calculated[i];
+            residualSquares += residual * residual;
+        }
+
+        return expected.length > 0 ? 1 - residualSquares / totalSquares : Double.NaN;
+    }
+
+    /**
+     * Largest absolute error, or 0 for no rows.
+     */
+    public static double wc(double[] calculated, double[] expected) {
+        double worst = 0.0D;
+        for (int i = 0; i < expected.length; ++i) {
+            double error = Math.abs(calculated[i] - expected[i]);
+            if (error > worst) {
+                worst = error;
+            }
+        }
+        return worst;
+    }
+
+    /**
+     * Pearson's correlation coefficient of calculated and expected. NaN for fewer than two rows or
+     * when either is constant.
+     */
+    public static double pcc(double[] calculated, double[] expected) {
+        if (expected.length < 2) {
+            return Double.NaN;
+        }
+
+        double meanCalculated = 0.0D;
+        double meanExpected = 0.0D;
+        double calculatedVariance = 0.0D;
+        double expectedVariance = 0.0D;
+        double covariance = 0.0D;
+
+        for (int i = 0; i < expected.length; ++i) {
+            double dc = calculated[i] - meanCalculated;
+            double de = expected[i] - meanExpected;
+            meanCalculated += dc / (i + 1);
+            meanExpected += de / (i + 1);
+            calculatedVariance += dc * (calculated[i] - meanCalculated);
+            expectedVariance += de * (expected[i] - meanExpected);
+            covariance += dc * (expected[i] - meanExpected);
+        }
+
+        double correlation = covariance / Math.sqrt(calculatedVariance * expectedVariance);
+        // Rounding can push a perfect correlation just outside [-1, 1]
+        return Math.max(-1.0D, Math.min(1.0D, correlation));
+    }
+
+    /**
+     * Median absolute error, the upper median for an even number of rows. NaN for no rows.
+     */
+    public static double med(double[] calculated, double[] expected) {
+        final double[] errors = scratch(expected.length);
+        final int defined = absoluteErrors(calculated, expected, errors);
+        final int rank = expected.length / 2;
+
+        // NaN errors sort after every other value
+        return rank < defined ? select(errors, 0, defined - 1, rank) : Double.NaN;
+    }
+
+    /**
+     * Interquartile mean absolute error, the mean of the middle half of the sorted absolute
+     * errors. NaN when there is no middle half.
+     */
+    public static double iqae(double[] calculated, double[] expected) {
+        final int from = expected.length / 4;
+        final int to = expected.length - (expected.length / 4);
+        if (from >= to) {
+            return Double.NaN;
+        }
+
+        final double[] errors = scratch(expected.length);
+        final int defined = absoluteErrors(calculated, expected, errors);
+        if (to > defined) {
+            return Double.NaN;
+        }
+
+        // Selecting the lowest and highest ranks of the middle half leaves the rest of it between
+        select(errors, 0, defined - 1, from);
+        if (to - 1 > from) {
+            select(errors, from + 1, defined - 1, to - 1);
+        }
+
+        double sum = 0.0D;
+        for (int i = from; i < to; i++) {
+            sum += errors[i];
+        }
+        return sum / (to - from);
+    }
+
+    /**
+     * Write the absolute errors to a buffer, those which are NaN at the end.
+     *
+     * @return Number of errors which are not NaN, at the start of the buffer
+     */
+    private static int absoluteErrors(double[] calculated, double[] expected, double[] errors) {
+        int defined = 0;
+        int undefined = expected.length;
+        for (int i = 0; i < expected.length; ++i) {
+            double error = Math.abs(calculated[i] - expected[i]);
+            if (Double.isNaN(error)) {
+                errors[--undefined] = error;
+            } else {
+                errors[defined++] = error;
+            }
+        }
+        return defined;
+    }
+
+    /**
+     * Partially order values[left..right] so the value at index k is the one sorting would put
+     * there, with nothing larger before it and nothing smaller after it. Quickselect with a median
+     * of three pivot and three way partitioning, so runs of equal errors are settled at once; if
+     * the pivots are poor for too long the range is sorted instead, bounding the worst case.
+     *
+     * @return The value at index k
+     */
+    static double select(double[] values, int left, int right, int k) {
+        int budget = 2 * (32 - Integer.numberOfLeadingZeros(right - left + 1));
+        while (left < right) {
+            if (budget-- == 0) {
+                Arrays.sort(values, left, right + 1);
+                break;
+            }
+
+            final double pivot = medianOfThree(values[left], values[(left + right) >>> 1],
+                    values[right]);
+
+            // values[left..lower) < pivot, values[lower..i) == pivot, values(upper..right] > pivot
+            int lower = left;
+            int upper = right;
+            int i = left;
+            while (i <= upper) {
+                double value = values[i];
+                if (value < pivot) {
+                    values[i++] = values[lower];
+                    values[lower++] = value;
+                } else if (value > pivot) {
+                    values[i] = values[upper];
+                    values[upper--] = value;
+                } else {
+                    i++;
+                }
+            }
+
+            if (k < lower) {
+                right = lower - 1;
+            } else if (k > upper) {
+                left = upper + 1;
+            } else {
+                return pivot;
+            }
+        }
+        return values[k];
+    }
+
+    private static double medianOfThree(double a, double b, double c) {
+        return a < b
+                ? (b < c ? b : Math.max(a, c))
+                : (a < c ? a : Math.max(b, c));
+    }
+
+    private static double[] scratch(int length) {
+        double[] scratch = SCRATCH.get();
+        if (scratch.length < length) {
+            scratch = new double[length];
+            SCRATCH.set(scratch);
+        }
+        return scratch;
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+/**
+ * Strategy used to evaluate candidate programs against the dataset during fitness calculation
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public enum EvaluationMode {
+    /**
+     * Walk the program tree for every row, via the Jenetics Regression problem
+     */
+    INTERPRETED,
+    /**
+     * Compile each program into a MethodHandle chain with a primitive double entry point
+     */
+    COMPILED,
+    /**
+     * Evaluate each node of the program once over whole dataset columns
+     */
+    VECTORIZED,
+    /**
+     * As VECTORIZED, using Vector API SIMD kernels for common operators when available
+     */
+    SIMD,
+    /**
+     * Flatten each program into a LinearProgram and run it on a primitive stack machine over
+     * double rows, scoring it with the primitive error functions, so no wrapper objects are made
+     */
+    PRIMITIVE,
+}
@@ -0,0 +1,182 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * A fixed pool of worker threads shared by several searches, scheduling their tasks fairly.
+ * <p>
+ * Each search submits its tasks to its own queue from {@link #newQueue()}. Workers take one task
+ * at a time from the queues with work waiting, in turn, so a search which submits a large
+ * generation at once can't hold up the evaluation of the others: every search waiting for
+ * evaluation gets an equal share of the workers.
+ * <p>
+ * Workers read the process-wide RandomRegistry, which every search shares, so tasks of a seeded
+ * search must not draw random numbers: the order they run in depends on the other searches. A
+ * search draws on its own engine thread instead, including the values of new programs' ephemeral
+ * constants (see {@link ConstantRealiser}).
+ * <p>
+ * Whatever a task throws, its worker carries on with the next task; the failure is passed to the
+ * handler of the task's queue.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class FairExecutor implements AutoCloseable {
+
+    private final Object lock = new Object();
+
+    /**
+     * Queues with tasks waiting, in the order they are served
+     */
+    private final ArrayDeque<TaskQueue> ready = new ArrayDeque<>();
+
+    private final Thread[] workers;
+    private boolean shutdown;
+
+    /**
+     * Initialise values
+     *
+     * @param threads Number of worker threads
+     */
+    public FairExecutor(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("FairExecutor needs at least one thread: " + threads);
+        }
+
+        this.workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            this.workers[i] = new Thread(this::work, "run-worker-" + i);
+            this.workers[i].setDaemon(true);
+            this.workers[i].start();
+        }
+    }
+
+    /**
+     * Create the queue of one search. Failed tasks are reported to the uncaught exception handler
+     * of the worker which ran them.
+     *
+     * @return Executor whose tasks share the workers equally with those of the other queues
+     */
+    public Executor newQueue() {
+        return new TaskQueue(null);
+    }
+
+    /**
+     * Create the queue of one search, reporting failed tasks to the search.
+     *
+     * @param failed Told what a task of the queue threw, on the worker which ran it
+     * @return Executor whose tasks share the workers equally with those of the other queues
+     */
+    public Executor newQueue(Consumer<? super Throwable> failed) {
+        return new TaskQueue(failed);
+    }
+
+    /**
+     * Get the number of worker threads.
+     *
+     * @return Number of worker threads
+     */
+    public int getThreads() {
+        return this.workers.length;
+    }
+
+    /**
+     * Stop the workers once the tasks already submitted have run. Later tasks are rejected.
+     */
+    @Override
+    public void close() {
+        synchronized (this.lock) {
+            this.shutdown = true;
+            this.lock.notifyAll();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            final TaskQueue queue;
+            final Runnable task;
+            synchronized (this.lock) {
+                while (this.ready.isEmpty() && !this.shutdown) {
+                    try {
+                        this.lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (this.ready.isEmpty()) {
+                    return;
+                }
+
+                // Take one task and send its queue to the back of the line
+                queue = this.ready.pollFirst();
+                task = queue.tasks.pollFirst();
+                if (queue.tasks.isEmpty()) {
+                    queue.waiting = false;
+                } else {
+                    this.ready.addLast(queue);
+                }
+            }
+
+            try {
+                task.run();
+            } catch (Throwable e) {
+                queue.failed(e);
+            }
+        }
+    }
+
+    /**
+     * Tasks of one search
+     */
+    private final class TaskQueue implements Executor {
+
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private final Consumer<? super Throwable> failed;
+
+        /**
+         * True while this queue is in the ready line
+         */
+        private boolean waiting;
+
+        TaskQueue(Consumer<? super Throwable> failed) {
+            this.failed = failed;
+        }
+
+        /**
+         * Report a failed task, keeping the worker alive whatever the handler throws.
+         */
+        void failed(Throwable failure) {
+            try {
+                if (this.failed != null) {
+                    this.failed.accept(failure);
+                } else {
+                    Thread current = Thread.currentThread();
+                    current.getUncaughtExceptionHandler().uncaughtException(current, failure);
+                }
+            } catch (Throwable e) {
+                // Nowhere left to report it
+            }
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            synchronized (FairExecutor.this.lock) {
+                if (FairExecutor.this.shutdown) {
+                    throw new RejectedExecutionException("FairExecutor has been closed");
+                }
+                this.tasks.addLast(task);
+                if (!this.waiting) {
+                    this.waiting = true;
+                    FairExecutor.this.ready.addLast(this);
+                }
+                FairExecutor.this.lock.notify();
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.ext.util.Tree;
+import io.jenetics.prog.op.Op;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded, thread-safe cache of program errors.
+ * <p>
+ * Programs are keyed by their {@link CanonicalForm}, prefixed with the ErrorFunction the error was
+ * calculated with. Two programs with the same key always have the same error, so a cached value can
+ * be returned instead of evaluating the program against the dataset again.
+ * <p>
+ * Entries are spread over stripes by key hash, each its own access ordered map behind its own lock,
+ * so evaluation threads rarely wait on each other. The least recently used entry of a stripe is
+ * evicted once that stripe is full; the stripes share the capacity between them.
+ * <p>
+ * Hits and misses are counted until {@link #takeHits()} and {@link #takeMisses()} are called, so
+ * they can be reported per generation.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class FitnessCache {
+
+    // Upper bound on the number of stripes, a small cache gets one stripe per entry at most
+    private static final int STRIPES = 16;
+
+    private final String errorFunction;
+    private final Map<String, Double>[] stripes;
+    private final EarlyAbort earlyAbort;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Initialise values
+     *
+     * @param capacity Maximum number of cached errors
+     * @param errorFunction Name of the ErrorFunction the cached errors are calculated with
+     */
+    public FitnessCache(int capacity, String errorFunction) {
+        this(capacity, errorFunction, null);
+    }
+
+    /**
+     * Initialise values
+     *
+     * @param capacity Maximum number of cached errors
+     * @param errorFunction Name of the ErrorFunction the cached errors are calculated with
+     * @param earlyAbort Early abort used by the wrapped fitness function, or null for none
+     */
+    public FitnessCache(int capacity, String errorFunction, EarlyAbort earlyAbort) {
+        this.errorFunction = errorFunction;
+        this.earlyAbort = earlyAbort;
+
+        int count = Math.max(1, Math.min(STRIPES, capacity));
+        @SuppressWarnings("unchecked")
+        Map<String, Double>[] stripes = new Map[count];
+        for (int i = 0; i < count; i++) {
+            // Spread the remainder so the stripes add up to exactly the capacity
+            int stripeCapacity = capacity / count + (i < capacity % count ? 1 : 0);
+            stripes[i] = new LinkedHashMap<String, Double>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Double> eldest) {
+                    return size() > stripeCapacity;
+                }
+            };
+        }
+        this.stripes = stripes;
+    }
+
+    /**
+     * Wrap a fitness function so results are looked up in, and stored into, this cache.
+     *
+     * @param fitness Function calculating the error of a program
+     * @return Caching fitness function
+     */
+    public Function<Tree<Op<Double>, ?>, Double> wrap(Function<Tree<Op<Double>, ?>, Double> fitness) {
+        return program -> error(program, fitness);
+    }
+
+    /**
+     * Wrap a fitness function of programs held some other way than as trees, such as
+     * LinearPrograms, so results are looked up in, and stored into, this cache by the program's
+     * tree.
+     *
+     * @param fitness Function calculating the error of a program
+     * @param treeOf Gets the tree of a program, which the cache key is built from
+     * @param <P> Type of the programs
+     * @return Caching fitness function
+     */
+    public <P> Function<P, Double> wrap(Function<P, Double> fitness,
+            Function<? super P, ? extends Tree<? extends Op<Double>, ?>> treeOf) {
+        return program -> error(program, key(treeOf.apply(program)), fitness);
+    }
+
+    /**
+     * Get the error of a program, calculating and caching it if it isn't cached yet.
+     *
+     * @param program Program to evaluate
+     * @param fitness Function calculating the error of a program
+     * @return Error of the program
+     */
+    public double error(Tree<Op<Double>, ?> program, Function<Tree<Op<Double>, ?>, Double> fitness) {
+        return error(program, key(program), fitness);
+    }
+
+    /**
+     * Get the error of a program under its cache key, calculating and caching it if it isn't
+     * cached yet.
+     */
+    private <P> double error(P program, String key, Function<P, Double> fitness) {
+        Map<String, Double> stripe = stripe(key);
+
+        Double error;
+        synchronized (stripe) {
+            error = stripe.get(key);
+        }
+
+        // An error above the early abort threshold would be a lower bound if evaluated now, so
+        // evaluate it rather than let the result depend on what happens to still be cached
+        if (error != null
+                && (this.earlyAbort == null || error <= this.earlyAbort.getThreshold())) {
+            this.hits.increment();
+            return error;
+        }
+
+        // Evaluate outside the lock, a duplicate evaluation on a race is cheaper than blocking
+        this.misses.increment();
+        error = fitness.apply(program);
+
+        // A lower bound from an aborted evaluation isn't the program's error
+        if (this.earlyAbort != null && this.earlyAbort.isLowerBound(program)) {
+            return error;
+        }
+
+        synchronized (stripe) {
+            stripe.put(key, error);
+        }
+
+        return error;
+    }
+
+    /**
+     * Get the number of cache hits since the last call, and reset the count.
+     *
+     * @return Number of cache hits
+     */
+    public long takeHits() {
+        return this.hits.sumThenReset();
+    }
+
+    /**
+     * Get the number of cache misses since the last call, and reset the count.
+     *
+     * @return Number of cache misses
+     */
+    public long takeMisses() {
+        return this.misses.sumThenReset();
+    }
+
+    /**
+     * Get the stripe holding a key.
+     */
+    private Map<String, Double> stripe(String key) {
+        // Mix the high bits in, String hashes of similar keys differ mostly in the low bits
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return this.stripes[Math.floorMod(hash, this.stripes.length)];
+    }
+
+    /**
+     * Build the cache key of a program.
+     */
+    String key(Tree<? extends Op<Double>, ?> program) {
+        return this.errorFunction + ':' + CanonicalForm.of(program);
+    }
+}
@@ -0,0 +1,703 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.backendinterface.GenerationBean;
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.ext.moea.Vec;
+import io.jenetics.ext.util.Tree;
+import io.jenetics.prog.ProgramGene;
+import io.jenetics.prog.op.Op;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.MSeq;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The GenerationBeans of a search, by index in the order they were added, with a flat heap
+ * footprint however long the search runs.
+ * <p>
+ * The most recent beans are kept as they are in a small in-memory tail. Older ones are encoded
+ * and appended to a temporary data file, mapped into memory in fixed-size segments, and a second
+ * mapped file holds the position of each record, so any generation is read back with one lookup.
+ * Nothing already written is rewritten, and the operating system pages the files in and out as
+ * they are read.
+ * <p>
+ * Programs are written as in the {@link IslandProtocol}, and a best program unchanged since an
+ * earlier record refers back to it rather than being written again. A bean holding a program the
+ * protocol can't represent, such as one built on a solution skeleton, stays on the heap instead.
+ * <p>
+ * A retention policy decides what is kept once generations leave the last fullGenerations: only
+ * every sampleInterval-th generation, and with keepNewBest every generation which found a new best
+ * solution; the others are read back as null. Populations older than populationGenerations are
+ * dropped, keeping the rest of their generation. The number of generations and populations
+ * dropped, and their encoded size, are reported on each GenerationBean added.
+ * <p>
+ * If the files can't be written, such as when the disk is full, every later bean stays in memory
+ * and reports why on its historyFailure.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public final class GenerationHistory {
+
+    // Index entry of a generation dropped by the retention policy
+    private static final long DROPPED = Long.MIN_VALUE;
+
+    private static final int SEGMENT_BYTES = 1 << 24;
+    private static final int INDEX_SEGMENT_BYTES = 1 << 20;
+
+    private static final byte NONE = 0;
+    private static final byte INLINE = 1;
+    private static final byte EARLIER = 2;
+    private static final byte DOUBLE = 1;
+    private static final byte VEC = 2;
+
+    private final Function<Tree<Op<Double>, ?>, Genotype<ProgramGene<Double>>> decoder;
+    private final int fullGenerations;
+    private final int sampleInterval;
+    private final boolean keepNewBest;
+    private final int populationGenerations;
+    private final int tailSize;
+    private final File directory;
+
+    private final List<GenerationBean> tail = new ArrayList<>();
+    private final List<GenerationBean> held = new ArrayList<>();
+    private final RecordBuffer buffer = new RecordBuffer();
+    private final DataOutputStream out = new DataOutputStream(this.buffer);
+    private final byte[] entry = new byte[Long.BYTES];
+
+    private MappedLog data;
+    private MappedLog index;
+    private int size;
+    private int spilled;
+    private String[] inputVariableLabels;
+    private IOException failure;
+    private boolean closed;
+
+    private long droppedGenerations;
+    private long droppedPopulations;
+    private long savedBytes;
+
+    // The program written most recently, which the next record can refer back to
+    private Object lastProgram;
+    private int lastProgramRecord;
+    private int lastProgramOffset;
+
+    /**
+     * Initialise values, keeping every generation. No file is created until the tail first
+     * overflows.
+     *
+     * @param decoder Turns a program read back into a genotype of the search
+     * @param tailSize Number of recent generations kept in memory, at least 1
+     */
+    public GenerationHistory(Function<Tree<Op<Double>, ?>, Genotype<ProgramGene<Double>>> decoder,
+            int tailSize) {
+        this(decoder, tailSize, 1, false, 0);
+    }
+
+    /**
+     * Initialise values with a retention policy. No file is created until the tail first
+     * overflows.
+     *
+     * @param decoder Turns a program read back into a genotype of the search
+     * @param fullGenerations Number of recent generations kept in memory in full, at least 1
+     * @param sampleInterval Keep only older generations whose index is a multiple of this, 1 for all
+     * @param keepNewBest Keep older generations which found a new best solution whatever their index
+     * @param populationGenerations Number of recent generations which keep their population, 0 for
+     * all. Generations are kept in memory for this long if it is more than fullGenerations.
+     */
+    public GenerationHistory(Function<Tree<Op<Double>, ?>, Genotype<ProgramGene<Double>>> decoder,
+            int fullGenerations, int sampleInterval, boolean keepNewBest,
+            int populationGenerations) {
+        this(decoder, fullGenerations, sampleInterval, keepNewBest, populationGenerations, null);
+    }
+
+    /**
+     * Initialise values with a retention policy, writing the files in the given directory.
+     *
+     * @param directory Directory of the files, null for the default temporary-file directory
+     * @see #GenerationHistory(Function, int, int, boolean, int)
+     */
+    GenerationHistory(Function<Tree<Op<Double>, ?>, Genotype<ProgramGene<Double>>> decoder,
+            int fullGenerations, int sampleInterval, boolean keepNewBest,
+            int populationGenerations, File directory) {
+        this.decoder = decoder;
+        this.fullGenerations = Math.max(1, fullGenerations);
+        this.sampleInterval = Math.max(1, sampleInterval);
+        this.keepNewBest = keepNewBest;
+        this.populationGenerations = Math.max(0, populationGenerations);
+        this.tailSize = Math.max(this.fullGenerations, this.populationGenerations);
+        this.directory = directory;
+    }
+
+    /**
+     * Add the bean of the generation just completed, after setting what the retention policy has
+     * dropped so far on it. The oldest bean in memory is written out if the tail is full, and if
+     * writing has failed, the failure is set on the bean too.
+     *
+     * @param generationBean Bean of the next generation, which mustn't change after being added
+     */
+    public synchronized void add(GenerationBean generationBean) {
+        if (this.closed) {
+            throw new IllegalStateException("Generation history is closed");
+        }
+        this.inputVariableLabels = generationBean.getInputVariableLabels();
+        this.tail.add(generationBean);
+        this.size++;
+
+        // The generation leaving the last fullGenerations is only kept if the policy retains it
+        final int last = this.tail.size() - 1;
+        final int aged = last - this.fullGenerations;
+        if (aged >= 0 && this.tail.get(aged) != null && !this.retains(this.tail.get(aged))) {
+            this.savedBytes += this.measure(this.tail.get(aged));
+            this.droppedGenerations++;
+            this.tail.set(aged, null);
+        }
+
+        // Readers may still hold the bean, so it is replaced by a copy rather than changed
+        final int old = last - this.populationGenerations;
+        if (this.populationGenerations > 0 && old >= 0 && this.tail.get(old) != null
+                && this.tail.get(old).getPopulation() != null) {
+            this.savedBytes += this.measurePopulation(this.tail.get(old).getPopulation());
+            this.droppedPopulations++;
+            this.tail.set(old, this.tail.get(old).withoutPopulation());
+        }
+
+        generationBean.setDroppedGenerations(this.droppedGenerations);
+        generationBean.setDroppedPopulations(this.droppedPopulations);
+        generationBean.setSavedHistoryBytes(this.savedBytes);
+
+        // Once writing has failed every bean stays in memory, as they did before there was a log
+        if (this.tail.size() > this.tailSize && this.failure == null) {
+            try {
+                this.spill(this.tail.get(0));
+                this.tail.remove(0);
+            } catch (IOException e) {
+                this.failure = e;
+            }
+        }
+        if (this.failure != null) {
+            generationBean.setHistoryFailure(this.failure.toString());
+        }
+    }
+
+    /**
+     * Get the bean of a generation.
+     *
+     * @param n Index of the bean, in the order added
+     * @return The bean as added if still in memory, otherwise an equal copy read back, or null
+     * if the retention policy dropped it
+     * @throws IndexOutOfBoundsException if no bean has that index
+     */
+    public synchronized GenerationBean get(int n) {
+        if (n < 0 || n >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + n + ", Size: " + this.size);
+        }
+        if (n >= this.spilled) {
+            return this.tail.get(n - this.spilled);
+        }
+        if (this.closed) {
+            throw new IllegalStateException("Generation history is closed");
+        }
+
+        long position = this.position(n);
+        if (position == DROPPED) {
+            return null;
+        } else if (position < 0) {
+            return this.held.get((int) -(position + 1));
+        }
+        try {
+            return this.decode(n, position);
+        } catch (IOException e) {
+            // The record was written by this history, so it can only fail to read if damaged
+            throw new IllegalStateException("Generation " + n + " can't be read back", e);
+        }
+    }
+
+    /**
+     * @return Bean of the most recent generation, or null if none has been added
+     */
+    public synchronized GenerationBean getLatest() {
+        return this.size == 0 ? null : this.tail.get(this.tail.size() - 1);
+    }
+
+    /**
+     * @return Number of generations added
+     */
+    public synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * @return Bytes written to the data file, which hold every generation no longer in memory
+     */
+    public synchronized long getStoredBytes() {
+        return this.data == null ? 0 : this.data.getEnd();
+    }
+
+    /**
+     * @return Number of generations the retention policy has dropped
+     */
+    public synchronized long getDroppedGenerations() {
+        return this.droppedGenerations;
+    }
+
+    /**
+     * @return Number of populations the retention policy has dropped from generations it kept
+     */
+    public synchronized long getDroppedPopulations() {
+        return this.droppedPopulations;
+    }
+
+    /**
+     * @return Encoded size in bytes of the generations and populations the retention policy has
+     * dropped, which would otherwise have been held in memory or written out
+     */
+    public synchronized long getSavedBytes() {
+        return this.savedBytes;
+    }
+
+    /**
+     * Get the reason generations stopped being written out.
+     *
+     * @return The exception which stopped writing, or null if it hasn't failed
+     */
+    public synchronized IOException getFailure() {
+        return this.failure;
+    }
+
+    /**
+     * Delete the files. Generations still in memory can still be read, older ones can't.
+     */
+    public synchronized void close() {
+        this.closed = true;
+        this.held.clear();
+        if (this.data != null) {
+            this.data.delete();
+            this.index.delete();
+            this.data = null;
+            this.index = null;
+        }
+    }
+
+    private void spill(GenerationBean generationBean) throws IOException {
+        if (this.data == null) {
+            this.data = new MappedLog(
+                    File.createTempFile("generations", ".log", this.directory), SEGMENT_BYTES);
+            this.index = new MappedLog(
+                    File.createTempFile("generations", ".idx", this.directory),
+                    INDEX_SEGMENT_BYTES);
+        }
+
+        long position;
+        if (generationBean == null) {
+            position = DROPPED;
+        } else if (this.encode(generationBean)) {
+            byte[] record = this.buffer.array();
+            int length = this.buffer.size();
+            record[0] = (byte) (length >>> 24);
+            record[1] = (byte) (length >>> 16);
+            record[2] = (byte) (length >>> 8);
+            record[3] = (byte) length;
+            position = this.data.append(record, length);
+        } else {
+            // The best program may have been noted before the bean was found unwritable
+            this.lastProgram = null;
+            this.held.add(generationBean);
+            position = -this.held.size();
+        }
+
+        for (int i = 0; i < Long.BYTES; i++) {
+            this.entry[i] = (byte) (position >>> (56 - 8 * i));
+        }
+        this.index.append(this.entry, Long.BYTES);
+        this.spilled++;
+    }
+
+    private boolean retains(GenerationBean generationBean) {
+        return generationBean.getIndex() % this.sampleInterval == 0
+                || this.keepNewBest && generationBean.isNewBest();
+    }
+
+    /**
+     * @return Encoded size of a generation, 0 if it can't be encoded
+     */
+    private int measure(GenerationBean generationBean) {
+        final Object lastProgram = this.lastProgram;
+        final int lastProgramRecord = this.lastProgramRecord;
+        final int lastProgramOffset = this.lastProgramOffset;
+        try {
+            return this.encode(generationBean) ? this.buffer.size() : 0;
+        } catch (IOException e) {
+            return 0;
+        } finally {
+            // Nothing measured is written, so later records mustn't refer back to it
+            this.lastProgram = lastProgram;
+            this.lastProgramRecord = lastProgramRecord;
+            this.lastProgramOffset = lastProgramOffset;
+        }
+    }
+
+    private int measurePopulation(ISeq<? extends Phenotype<ProgramGene<Double>, ?>> population) {
+        this.buffer.reset();
+        try {
+            return this.writePopulation(population) ? this.buffer.size() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private long position(int n) {
+        return this.index.read(n * (long) Long.BYTES, Long.BYTES).getLong();
+    }
+
+    /**
+     * Encode a bean into the buffer, after 4 bytes left for its length.
+     *
+     * @return False if the bean holds something which can't be written
+     */
+    private boolean encode(GenerationBean<?> generationBean) throws IOException {
+        final int record = this.spilled;
+        this.buffer.reset();
+        this.out.writeInt(0);
+
+        this.out.writeLong(generationBean.getIndex());
+        if (!this.writeFitness(generationBean.getBestFitness())
+                || !this.writeFitness(generationBean.getMedianFitness())
+                || !this.writeFitness(generationBean.getAverageFitness())
+                || !this.writeFitness(generationBean.getWorstFitness())
+                || !this.writeFitness(generationBean.getFitnessStandardDeviation())) {
+            return false;
+        }
+        this.out.writeBoolean(generationBean.isNewBest());
+
+        this.out.writeLong(generationBean.getFitnessCacheHits());
+        this.out.writeLong(generationBean.getFitnessCacheMisses());
+        this.out.writeLong(generationBean.getSubtreeCacheHits());
+        this.out.writeLong(generationBean.getSubtreeCacheMisses());
+        this.out.writeLong(generationBean.getAbortedEvaluations());
+        this.out.writeLong(generationBean.getEvaluatedRows());
+        this.out.writeLong(generationBean.getSkippedRows());
+        this.out.writeLong(generationBean.getIntervalRejections());
+        this.out.writeLong(generationBean.getSimplifiedNodes());
+        this.out.writeLong(generationBean.getCheckpointNanos());
+        this.out.writeLong(generationBean.getCheckpointBytes());
+        this.out.writeLong(generationBean.getCheckpointWriteNanos());
+        this.out.writeLong(generationBean.getSkippedCheckpoints());
+        this.writeText(generationBean.getCheckpointFailure());
+        this.writeText(generationBean.getHistoryFailure());
+        this.out.writeLong(generationBean.getDroppedGenerations());
+        this.out.writeLong(generationBean.getDroppedPopulations());
+        this.out.writeLong(generationBean.getSavedHistoryBytes());
+        this.writeDoubles(generationBean.getIslandBestFitness());
+        this.writeDoubles(generationBean.getIslandAverageFitness());
+        this.out.writeDouble(generationBean.getScalingIntercept());
+        this.out.writeDouble(generationBean.getScalingSlope());
+
+        final ProgramGene<Double> best = generationBean.getBestGene();
+        if (best == null) {
+            this.out.writeByte(NONE);
+        } else if (best == this.lastProgram) {
+            this.out.writeByte(EARLIER);
+            this.out.writeInt(this.lastProgramRecord);
+            this.out.writeInt(this.lastProgramOffset);
+        } else {
+            if (!IslandProtocol.isWritable(best)) {
+                return false;
+            }
+            this.out.writeByte(INLINE);
+            this.lastProgram = best;
+            this.lastProgramRecord = record;
+            this.lastProgramOffset = this.buffer.size();
+            IslandProtocol.writeProgram(best, this.out);
+        }
+
+        return this.writePopulation(generationBean.getPopulation());
+    }
+
+    private boolean writePopulation(
+            ISeq<? extends Phenotype<ProgramGene<Double>, ?>> population) throws IOException {
+        if (population == null) {
+            this.out.writeInt(-1);
+            return true;
+        }
+
+        this.out.writeInt(population.size());
+        for (Phenotype<ProgramGene<Double>, ?> solution : population) {
+            final ProgramGene<Double> program = solution.getGenotype().getGene();
+            if (!this.writeFitness(solution.getFitness()) || !IslandProtocol.isWritable(program)) {
+                return false;
+            }
+            this.out.writeLong(solution.getGeneration());
+            IslandProtocol.writeProgram(program, this.out);
+        }
+        return true;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private GenerationBean decode(int n, long position) throws IOException {
+        DataInputStream in = this.input(position);
+        int length = in.readInt();
+        in = new DataInputStream(new BufferInput(this.data.read(position + 4, length - 4)));
+
+        GenerationBean generationBean = new GenerationBean();
+        generationBean.setIndex(in.readLong());
+        generationBean.setBestFitness(readFitness(in));
+        generationBean.setMedianFitness(readFitness(in));
+        generationBean.setAverageFitness(readFitness(in));
+        generationBean.setWorstFitness(readFitness(in));
+        generationBean.setFitnessStandardDeviation(readFitness(in));
+        generationBean.setNewBest(in.readBoolean());
+        generationBean.setInputVariableLabels(this.inputVariableLabels);
+
+        generationBean.setFitnessCacheHits(in.readLong());
+        generationBean.setFitnessCacheMisses(in.readLong());
+        generationBean.setSubtreeCacheHits(in.readLong());
+        generationBean.setSubtreeCacheMisses(in.readLong());
+        generationBean.setAbortedEvaluations(in.readLong());
+        generationBean.setEvaluatedRows(in.readLong());
+        generationBean.setSkippedRows(in.readLong());
+        generationBean.setIntervalRejections(in.readLong());
+        generationBean.setSimplifiedNodes(in.readLong());
+        generationBean.setCheckpointNanos(in.readLong());
+        generationBean.setCheckpointBytes(in.readLong());
+        generationBean.setCheckpointWriteNanos(in.readLong());
+        generationBean.setSkippedCheckpoints(in.readLong());
+        generationBean.setCheckpointFailure(readText(in));
+        generationBean.setHistoryFailure(readText(in));
+        generationBean.setDroppedGenerations(in.readLong());
+        generationBean.setDroppedPopulations(in.readLong());
+        generationBean.setSavedHistoryBytes(in.readLong());
+        generationBean.setIslandBestFitness(readDoubles(in));
+        generationBean.setIslandAverageFitness(readDoubles(in));
+        double intercept = in.readDouble();
+        generationBean.setLinearScaling(intercept, in.readDouble());
+
+        switch (in.readByte()) {
+            case INLINE:
+                generationBean.setBestGene(this.decodeProgram(in));
+                break;
+            case EARLIER:
+                int record = in.readInt();
+                int offset = in.readInt();
+                if (record < 0 || record >= n) {
+                    throw new IOException("Invalid program reference: " + record);
+                }
+                generationBean.setBestGene(
+                        this.decodeProgram(this.input(this.position(record) + offset)));
+                break;
+            default:
+                break;
+        }
+
+        int size = in.readInt();
+        if (size >= 0) {
+            MSeq<Phenotype> population = MSeq.ofLength(size);
+            for (int i = 0; i < size; i++) {
+                Comparable fitness = readFitness(in);
+                long birth = in.readLong();
+                population.set(i, Phenotype.of(
+                        this.decoder.apply(IslandProtocol.readProgram(in)), birth, fitness));
+            }
+            generationBean.setPopulation(population.toISeq());
+        }
+        return generationBean;
+    }
+
+    private ProgramGene<Double> decodeProgram(DataInputStream in) throws IOException {
+        return this.decoder.apply(IslandProtocol.readProgram(in)).getGene();
+    }
+
+    /**
+     * @return Stream of everything in the data file from the position on
+     */
+    private DataInputStream input(long position) {
+        return new DataInputStream(new BufferInput(this.data.read(position, -1)));
+    }
+
+    private boolean writeFitness(Object fitness) throws IOException {
+        if (fitness == null) {
+            this.out.writeByte(NONE);
+        } else if (fitness instanceof Double) {
+            this.out.writeByte(DOUBLE);
+            this.out.writeDouble((Double) fitness);
+        } else if (fitness instanceof Vec && ((Vec<?>) fitness).data() instanceof double[]) {
+            this.out.writeByte(VEC);
+            this.writeDoubles((double[]) ((Vec<?>) fitness).data());
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static Comparable<?> readFitness(DataInputStream in) throws IOException {
+        switch (in.readByte()) {
+            case NONE:
+                return null;
+            case DOUBLE:
+                return in.readDouble();
+            case VEC:
+                return Vec.of(readDoubles(in));
+            default:
+                throw new IOException("Invalid fitness type");
+        }
+    }
+
+    private void writeDoubles(double[] values) throws IOException {
+        if (values == null) {
+            this.out.writeInt(-1);
+            return;
+        }
+        this.out.writeInt(values.length);
+        for (double value : values) {
+            this.out.writeDouble(value);
+        }
+    }
+
+    private static double[] readDoubles(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = in.readDouble();
+        }
+        return values;
+    }
+
+    private void writeText(String text) throws IOException {
+        this.out.writeBoolean(text != null);
+        if (text != null) {
+            this.out.writeUTF(text);
+        }
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * A file written only at its end, mapped in segments at least as large as any one write so a
+     * write never straddles two. The file is only open while a segment is being mapped.
+     */
+    private static final class MappedLog {
+
+        private final File file;
+        private final int segmentBytes;
+        private final List<MappedByteBuffer> segments = new ArrayList<>();
+        private long[] starts = new long[8];
+
+        private MappedLog(File file, int segmentBytes) {
+            this.file = file;
+            this.segmentBytes = segmentBytes;
+            file.deleteOnExit();
+        }
+
+        /**
+         * @return Position the bytes were written at
+         */
+        private long append(byte[] bytes, int length) throws IOException {
+            int last = this.segments.size() - 1;
+            if (last < 0 || this.segments.get(last).remaining() < length) {
+                long start = last < 0
+                        ? 0
+                        : this.starts[last] + this.segments.get(last).capacity();
+                try (RandomAccessFile file = new RandomAccessFile(this.file, "rw")) {
+                    this.segments.add(file.getChannel().map(FileChannel.MapMode.READ_WRITE, start,
+                            Math.max(this.segmentBytes, length)));
+                }
+                last++;
+                if (last == this.starts.length) {
+                    this.starts = Arrays.copyOf(this.starts, last * 2);
+                }
+                this.starts[last] = start;
+            }
+
+            MappedByteBuffer segment = this.segments.get(last);
+            long position = this.starts[last] + segment.position();
+            segment.put(bytes, 0, length);
+            return position;
+        }
+
+        /**
+         * @param length Number of bytes, or -1 for the rest of the segment
+         * @return View of bytes written earlier
+         */
+        private ByteBuffer read(long position, int length) {
+            int i = Arrays.binarySearch(this.starts, 0, this.segments.size(), position);
+            if (i < 0) {
+                i = -i - 2;
+            }
+            ByteBuffer view = this.segments.get(i).duplicate();
+            int start = (int) (position - this.starts[i]);
+            view.limit(length < 0 ? view.position() : start + length);
+            view.position(start);
+            return view.slice();
+        }
+
+        /**
+         * @return Position of the next write
+         */
+        private long getEnd() {
+            int last = this.segments.size() - 1;
+            return last < 0 ? 0 : this.starts[last] + this.segments.get(last).position();
+        }
+
+        private void delete() {
+            // The mappings are released once no longer referenced
+            this.segments.clear();
+            this.file.delete();
+        }
+    }
+
+    /**
+     * Byte array stream whose array can be changed in place once written
+     */
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+
+        private byte[] array() {
+            return this.buf;
+        }
+    }
+
+    private static final class BufferInput extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private BufferInput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!this.buffer.hasRemaining()) {
+                return length == 0 ? 0 : -1;
+            }
+            length = Math.min(length, this.buffer.remaining());
+            this.buffer.get(bytes, offset, length);
+            return length;
+        }
+    }
+}
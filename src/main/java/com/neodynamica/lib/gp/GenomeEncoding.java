@@ -0,0 +1,29 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+/**
+ * How programs are stored and varied during the search
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public enum GenomeEncoding {
+    /**
+     * Program trees of nodes, varied by the Jenetics mutator and single node crossover
+     */
+    TREE,
+    /**
+     * Post-order instruction arrays evaluated by a stack machine, varied by subtree splices. Only
+     * used for single objective, single island runs without a solution skeleton; other runs fall
+     * back to TREE
+     */
+    LINEAR,
+    /**
+     * Program trees hash-consed into one {@link ProgramDag}, so equal subtrees are held once, varied
+     * by subtree mutation and crossover which share every unchanged node with the parents. Only
+     * used for single objective, single island runs; other runs fall back to TREE
+     */
+    DAG,
+}
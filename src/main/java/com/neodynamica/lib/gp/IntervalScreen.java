@@ -0,0 +1,270 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.lib.sample.Dataset;
+import io.jenetics.ext.util.Tree;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Var;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Rejects programs whose output may be undefined, without evaluating them on any row.
+ * <p>
+ * The range of every node is bounded with interval arithmetic, starting from the minimum and
+ * maximum of each input column. A program is rejected when an operator's argument range reaches
+ * outside its domain: a divisor or modulus range holding 0, a negative square root, a logarithm
+ * of a range reaching 0 or below, an arc sine or cosine beyond [-1, 1], or a power of a range
+ * reaching below 0. Such a program produces NaN or Infinity on some input in the ranges, though
+ * not necessarily on a dataset row. Operators the screen doesn't know are assumed to be defined
+ * everywhere, with an unbounded output.
+ * <p>
+ * Rejections are counted until {@link #takeRejections()} is called, so the count covers one
+ * generation.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class IntervalScreen {
+
+    private static final Double[] NO_ARGS = new Double[0];
+    private static final double[] UNBOUNDED = {Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+
+    private final double[][] inputRanges;
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * Initialise values
+     *
+     * @param dataset Dataset whose input ranges bound the variables
+     */
+    public IntervalScreen(Dataset dataset) {
+        this.inputRanges = dataset.toInputRanges();
+    }
+
+    /**
+     * Wrap a fitness function so rejected programs score the worst possible error instead of
+     * being evaluated.
+     *
+     * @param fitness Fitness function to screen programs for
+     * @return Screened fitness function
+     */
+    public Function<Tree<Op<Double>, ?>, Double> wrap(Function<Tree<Op<Double>, ?>, Double> fitness) {
+        return program -> {
+            if (!this.accepts(program)) {
+                this.rejections.increment();
+                return Double.POSITIVE_INFINITY;
+            }
+            return fitness.apply(program);
+        };
+    }
+
+    /**
+     * Wrap a fitness function of programs held some other way than as trees, such as
+     * LinearPrograms, like {@link #wrap(Function)}.
+     *
+     * @param fitness Fitness function to screen programs for
+     * @param treeOf Gets the tree of a program, whose ranges are checked
+     * @param <P> Type of the programs
+     * @return Screened fitness function
+     */
+    public <P> Function<P, Double> wrap(Function<P, Double> fitness,
+            Function<? super P, ? extends Tree<? extends Op<Double>, ?>> treeOf) {
+        return program -> {
+            if (!this.accepts(treeOf.apply(program))) {
+                this.rejections.increment();
+                return Double.POSITIVE_INFINITY;
+            }
+            return fitness.apply(program);
+        };
+    }
+
+    /**
+     * Wrap a fitness function like {@link #wrap(Function)}, without counting rejections, for
+     * programs which are not members of the population, such as the trial programs of constant
+     * optimisation.
+     *
+     * @param fitness Fitness function to screen programs for
+     * @return Screened fitness function
+     */
+    public Function<Tree<Op<Double>, ?>, Double> screen(
+            Function<Tree<Op<Double>, ?>, Double> fitness) {
+        return program -> this.accepts(program) ? fitness.apply(program) : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Check whether a program is defined over the whole input ranges.
+     *
+     * @param program Program tree
+     * @return False if some operator's argument range reaches outside its domain
+     */
+    public boolean accepts(Tree<? extends Op<Double>, ?> program) {
+        return this.range(program) != null;
+    }
+
+    /**
+     * Returns the number of programs rejected since the last call, and resets it
+     *
+     * @return Number of rejected programs
+     */
+    public long takeRejections() {
+        return this.rejections.sumThenReset();
+    }
+
+    /**
+     * Bound the output of a node.
+     *
+     * @return {min, max}, or null if the node may be undefined
+     */
+    double[] range(Tree<? extends Op<Double>, ?> node) {
+        final Op<Double> op = node.getValue();
+        if (op instanceof Var) {
+            int index = ((Var<Double>) op).index();
+            return index < this.inputRanges.length ? this.inputRanges[index] : UNBOUNDED;
+        }
+        if (op.arity() == 0) {
+            double value = op.apply(NO_ARGS);
+            return bounds(value, value);
+        }
+
+        final double[][] args = new double[node.childCount()][];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = this.range(node.childAt(i));
+            if (args[i] == null) {
+                return null;
+            }
+        }
+
+        if (!(op instanceof MathOp)) {
+            return UNBOUNDED;
+        }
+
+        final double[] a = args[0];
+        final double[] b = args.length > 1 ? args[1] : null;
+        switch ((MathOp) op) {
+            case ADD:
+                return bounds(a[0] + b[0], a[1] + b[1]);
+            case SUB:
+                return bounds(a[0] - b[1], a[1] - b[0]);
+            case MUL:
+                return bounds(a[0] * b[0], a[0] * b[1], a[1] * b[0], a[1] * b[1]);
+            case DIV:
+                if (contains(b, 0)) {
+                    return null;
+                }
+                return bounds(a[0] / b[0], a[0] / b[1], a[1] / b[0], a[1] / b[1]);
+            case MOD:
+                if (contains(b, 0)) {
+                    return null;
+                }
+                // The remainder takes the sign of the dividend and is smaller than the divisor
+                double divisor = Math.max(Math.abs(b[0]), Math.abs(b[1]));
+                return bounds(a[0] < 0 ? -divisor : 0, a[1] > 0 ? divisor : 0);
+            case POW:
+                if (b[0] == b[1] && isInteger(b[0])) {
+                    // A whole exponent is defined for negative bases, and only 0 ^ -k is not
+                    double k = b[0];
+                    if (k < 0 && contains(a, 0)) {
+                        return null;
+                    }
+                    return k % 2 == 0
+                            ? bounds(Math.pow(closestToZero(a), k),
+                                    Math.pow(furthestFromZero(a), k))
+                            : bounds(Math.pow(a[0], k), Math.pow(a[1], k));
+                }
+                if (a[0] < 0 || (a[0] == 0 && b[0] < 0)) {
+                    return null;
+                }
+                return bounds(Math.pow(a[0], b[0]), Math.pow(a[0], b[1]),
+                        Math.pow(a[1], b[0]), Math.pow(a[1], b[1]));
+            case HYPOT:
+                return bounds(Math.hypot(closestToZero(a), closestToZero(b)),
+                        Math.hypot(furthestFromZero(a), furthestFromZero(b)));
+            case MAX:
+                return bounds(Math.max(a[0], b[0]), Math.max(a[1], b[1]));
+            case MIN:
+                return bounds(Math.min(a[0], b[0]), Math.min(a[1], b[1]));
+            case NEG:
+                return bounds(-a[1], -a[0]);
+            case ABS:
+                return bounds(Math.abs(closestToZero(a)), furthestFromZero(a));
+            case SQR:
+                return bounds(closestToZero(a) * closestToZero(a),
+                        furthestFromZero(a) * furthestFromZero(a));
+            case SQRT:
+                return a[0] < 0 ? null : bounds(Math.sqrt(a[0]), Math.sqrt(a[1]));
+            case LOG:
+                return a[0] <= 0 ? null : bounds(Math.log(a[0]), Math.log(a[1]));
+            case LOG10:
+                return a[0] <= 0 ? null : bounds(Math.log10(a[0]), Math.log10(a[1]));
+            case ASIN:
+                return a[0] < -1 || a[1] > 1 ? null : bounds(Math.asin(a[0]), Math.asin(a[1]));
+            case ACOS:
+                return a[0] < -1 || a[1] > 1 ? null : bounds(Math.acos(a[1]), Math.acos(a[0]));
+            // Monotone increasing over the whole real line
+            case RINT:
+                return bounds(Math.rint(a[0]), Math.rint(a[1]));
+            case CEIL:
+                return bounds(Math.ceil(a[0]), Math.ceil(a[1]));
+            case FLOOR:
+                return bounds(Math.floor(a[0]), Math.floor(a[1]));
+            case SIGNUM:
+                return bounds(Math.signum(a[0]), Math.signum(a[1]));
+            case CBRT:
+                return bounds(Math.cbrt(a[0]), Math.cbrt(a[1]));
+            case EXP:
+                return bounds(Math.exp(a[0]), Math.exp(a[1]));
+            case ATAN:
+                return bounds(Math.atan(a[0]), Math.atan(a[1]));
+            case SINH:
+                return bounds(Math.sinh(a[0]), Math.sinh(a[1]));
+            case TANH:
+                return bounds(Math.tanh(a[0]), Math.tanh(a[1]));
+            case COSH:
+                return bounds(Math.cosh(closestToZero(a)), Math.cosh(furthestFromZero(a)));
+            case SIN:
+            case COS:
+                return new double[]{-1, 1};
+            case TAN:
+            default:
+                return UNBOUNDED;
+        }
+    }
+
+    private static boolean isInteger(double value) {
+        return !Double.isInfinite(value) && value == Math.rint(value);
+    }
+
+    private static boolean contains(double[] range, double value) {
+        return range[0] <= value && value <= range[1];
+    }
+
+    private static double closestToZero(double[] range) {
+        return contains(range, 0) ? 0 : Math.min(Math.abs(range[0]), Math.abs(range[1]));
+    }
+
+    private static double furthestFromZero(double[] range) {
+        return Math.max(Math.abs(range[0]), Math.abs(range[1]));
+    }
+
+    /**
+     * Range spanning the given values. Values that are NaN, such as Infinity - Infinity, leave the
+     * range unbounded.
+     */
+    private static double[] bounds(double... values) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : values) {
+            if (Double.isNaN(value)) {
+                return UNBOUNDED;
+            }
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        return new double[]{min, max};
+    }
+}
@@ -0,0 +1,381 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.backendinterface.GenerationBean;
+import io.jenetics.ext.util.Tree;
+import io.jenetics.prog.op.Op;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Hub of a distributed island model: accepts a fixed number of {@link IslandWorker}s, routes the
+ * migrants each sends to other workers according to a {@link MigrationTopology}, and merges the
+ * statistics they report into one GenerationBean per generation.
+ * <p>
+ * A new overall best program is also forwarded to every other worker, so the best solution found
+ * anywhere spreads without waiting for the topology. Unless given another address, the coordinator
+ * only listens on the loopback interface, so workers on other hosts must be allowed explicitly.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class IslandCoordinator implements Closeable {
+
+    /**
+     * Time a connecting client has to say HELLO before it is dropped
+     */
+    static final int HANDSHAKE_TIMEOUT_MILLIS = 10000;
+
+    private final ServerSocket server;
+    private final int workerCount;
+    private final MigrationTopology topology;
+    private final int maxProgramSize;
+    private final List<Connection> workers = new ArrayList<>();
+
+    private volatile Consumer<GenerationBean<Double>> listener = generation -> {
+    };
+
+    // Reports received per generation, until every worker still running has sent one
+    private final TreeMap<Long, Merge> pending = new TreeMap<>();
+    private double publishedBest = Double.MAX_VALUE;
+    private double bestFitness = Double.MAX_VALUE;
+    private Tree<Op<Double>, ?> bestProgram;
+
+    /**
+     * Start listening for workers.
+     *
+     * @param port Port to listen on, 0 for any free port
+     * @param workerCount Number of workers taking part in the search
+     * @param topology Which workers the migrants of a worker are sent to
+     */
+    public IslandCoordinator(int port, int workerCount, MigrationTopology topology)
+            throws IOException {
+        this(port, workerCount, topology, IslandProtocol.MAX_PROGRAM_SIZE);
+    }
+
+    /**
+     * Start listening for workers on the loopback interface.
+     *
+     * @param port Port to listen on, 0 for any free port
+     * @param workerCount Number of workers taking part in the search
+     * @param topology Which workers the migrants of a worker are sent to
+     * @param maxProgramSize Largest program accepted from a worker, the maxSolutionNodes of the
+     * search
+     */
+    public IslandCoordinator(int port, int workerCount, MigrationTopology topology,
+            int maxProgramSize) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port, workerCount, topology, maxProgramSize);
+    }
+
+    /**
+     * Start listening for workers.
+     *
+     * @param address Address to listen on, such as the loopback address for workers on this host
+     * only, or the wildcard address for any interface
+     * @param port Port to listen on, 0 for any free port
+     * @param workerCount Number of workers taking part in the search
+     * @param topology Which workers the migrants of a worker are sent to
+     * @param maxProgramSize Largest program accepted from a worker, the maxSolutionNodes of the
+     * search
+     */
+    public IslandCoordinator(InetAddress address, int port, int workerCount,
+            MigrationTopology topology, int maxProgramSize) throws IOException {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("At least one worker is required");
+        }
+
+        this.server = new ServerSocket(port, 0, address);
+        this.workerCount = workerCount;
+        this.topology = topology;
+        this.maxProgramSize = maxProgramSize;
+    }
+
+    /**
+     * @return Port the coordinator listens on
+     */
+    public int getPort() {
+        return this.server.getLocalPort();
+    }
+
+    /**
+     * Set what is told about each generation once every running worker has reported it.
+     *
+     * @param listener Receives the merged statistics of a generation
+     */
+    public void setListener(Consumer<GenerationBean<Double>> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return Best fitness reported by any worker so far
+     */
+    public synchronized double getBestFitness() {
+        return this.bestFitness;
+    }
+
+    /**
+     * @return Best program reported by any worker so far, or null if none yet
+     */
+    public synchronized Tree<Op<Double>, ?> getBestProgram() {
+        return this.bestProgram;
+    }
+
+    /**
+     * Accept every worker, then relay between them until all have finished or disconnected.
+     */
+    public void run() throws IOException, InterruptedException {
+        List<Thread> readers = new ArrayList<>();
+        while (this.workers.size() < this.workerCount) {
+            Socket socket = this.server.accept();
+            try {
+                // A client which connects and says nothing mustn't hold up the search
+                socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+                socket.setTcpNoDelay(true);
+                Connection worker = new Connection(this.workers.size(), socket);
+
+                if (worker.in.readByte() != IslandProtocol.HELLO
+                        || worker.in.readInt() != IslandProtocol.MAGIC) {
+                    socket.close();
+                    continue;
+                }
+                socket.setSoTimeout(0);
+                this.workers.add(worker);
+            } catch (IOException e) {
+                // Not a worker, or gone before saying HELLO; keep waiting for the others
+                socket.close();
+            }
+        }
+
+        // Only admit workers once all have connected, so no migrant is sent to a missing worker
+        for (Connection worker : this.workers) {
+            synchronized (worker) {
+                worker.out.writeByte(IslandProtocol.WELCOME);
+                worker.out.writeInt(worker.index);
+                worker.out.writeInt(this.workerCount);
+                worker.out.flush();
+            }
+
+            Thread reader = new Thread(() -> this.receive(worker), "island-coordinator-" + worker.index);
+            reader.setDaemon(true);
+            reader.start();
+            readers.add(reader);
+        }
+
+        for (Thread reader : readers) {
+            reader.join();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.server.close();
+        for (Connection worker : this.workers) {
+            worker.socket.close();
+        }
+    }
+
+    /**
+     * Handle the messages of one worker until it finishes.
+     */
+    private void receive(Connection worker) {
+        try {
+            boolean done = false;
+            while (!done) {
+                byte type = worker.in.readByte();
+                switch (type) {
+                    case IslandProtocol.MIGRANTS:
+                        long generation = worker.in.readLong();
+                        int count = worker.in.readInt();
+                        List<Tree<Op<Double>, ?>> migrants = new ArrayList<>(count);
+                        for (int i = 0; i < count; i++) {
+                            migrants.add(IslandProtocol.readProgram(worker.in,
+                                    this.maxProgramSize));
+                        }
+                        this.route(worker.index, generation, migrants);
+                        break;
+                    case IslandProtocol.BEST:
+                        long bestGeneration = worker.in.readLong();
+                        double fitness = worker.in.readDouble();
+                        Tree<Op<Double>, ?> program = IslandProtocol.readProgram(worker.in,
+                                this.maxProgramSize);
+                        if (this.offerBest(fitness, program)) {
+                            List<Tree<Op<Double>, ?>> best = new ArrayList<>();
+                            best.add(program);
+                            for (Connection other : this.workers) {
+                                if (other != worker) {
+                                    this.send(other, bestGeneration, best);
+                                }
+                            }
+                        }
+                        break;
+                    case IslandProtocol.STATS:
+                        this.merge(worker, worker.in.readLong(), worker.in.readDouble(),
+                                worker.in.readDouble(), worker.in.readDouble());
+                        break;
+                    case IslandProtocol.DONE:
+                        done = true;
+                        break;
+                    default:
+                        throw new IOException("Unexpected message type: " + type);
+                }
+            }
+        } catch (IOException e) {
+            // Worker disconnected, the search carries on without it
+        } finally {
+            this.finished(worker);
+        }
+    }
+
+    /**
+     * Send migrants of one worker on to the workers its topology connects it to.
+     */
+    private void route(int from, long generation, List<Tree<Op<Double>, ?>> migrants) {
+        int count = this.workers.size();
+        if (count < 2) {
+            return;
+        }
+
+        switch (this.topology) {
+            case RANDOM:
+                int target = ThreadLocalRandom.current().nextInt(count - 1);
+                this.send(this.workers.get(target >= from ? target + 1 : target), generation, migrants);
+                break;
+            case FULLY_CONNECTED:
+                for (Connection worker : this.workers) {
+                    if (worker.index != from) {
+                        this.send(worker, generation, migrants);
+                    }
+                }
+                break;
+            case RING:
+            default:
+                this.send(this.workers.get((from + 1) % count), generation, migrants);
+                break;
+        }
+    }
+
+    private void send(Connection worker, long generation, List<Tree<Op<Double>, ?>> migrants) {
+        try {
+            // Encode first, so a slow worker holds its own lock for a single write only
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            DataOutputStream message = new DataOutputStream(buffer);
+            message.writeByte(IslandProtocol.MIGRANTS);
+            message.writeLong(generation);
+            message.writeInt(migrants.size());
+            for (Tree<Op<Double>, ?> migrant : migrants) {
+                IslandProtocol.writeProgram(migrant, message);
+            }
+
+            synchronized (worker) {
+                buffer.writeTo(worker.out);
+                worker.out.flush();
+            }
+        } catch (IOException e) {
+            // Worker disconnected, its reader thread will notice
+        }
+    }
+
+    private synchronized boolean offerBest(double fitness, Tree<Op<Double>, ?> program) {
+        if (fitness < this.bestFitness) {
+            this.bestFitness = fitness;
+            this.bestProgram = program;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void merge(Connection worker, long generation, double best,
+            double average, double worst) {
+        worker.reported = generation;
+        this.pending.computeIfAbsent(generation, g -> new Merge()).add(best, average, worst);
+        this.publish();
+    }
+
+    private synchronized void finished(Connection worker) {
+        worker.finished = true;
+        this.publish();
+    }
+
+    /**
+     * Tell the listener about every generation all running workers have reported, in order.
+     * Each worker reports its generations in order, so one which has reported a later generation
+     * has nothing more to say about an earlier one.
+     */
+    private void publish() {
+        while (!this.pending.isEmpty()) {
+            Map.Entry<Long, Merge> first = this.pending.firstEntry();
+            Merge merge = first.getValue();
+            // Workers which have finished won't report further generations
+            for (Connection worker : this.workers) {
+                if (!worker.finished && worker.reported < first.getKey()) {
+                    return;
+                }
+            }
+            this.pending.remove(first.getKey());
+
+            GenerationBean<Double> generation = new GenerationBean<>();
+            generation.setIndex(first.getKey());
+            generation.setBestFitness(merge.best);
+            generation.setAverageFitness(merge.averageSum / merge.reports);
+            generation.setWorstFitness(merge.worst);
+            generation.setNewBest(merge.best < this.publishedBest);
+            this.publishedBest = Math.min(this.publishedBest, merge.best);
+            this.listener.accept(generation);
+        }
+    }
+
+    /**
+     * Statistics of one generation, merged over the workers that reported it.
+     */
+    private static final class Merge {
+
+        private int reports;
+        private double best = Double.MAX_VALUE;
+        private double averageSum;
+        private double worst = -Double.MAX_VALUE;
+
+        private void add(double best, double average, double worst) {
+            this.reports++;
+            this.best = Math.min(this.best, best);
+            this.averageSum += average;
+            this.worst = Math.max(this.worst, worst);
+        }
+    }
+
+    /**
+     * Socket and streams of one worker.
+     */
+    private static final class Connection {
+
+        private final int index;
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private long reported; // last generation reported, guarded by the coordinator
+        private boolean finished;
+
+        private Connection(int index, Socket socket) throws IOException {
+            this.index = index;
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.Gene;
+import io.jenetics.Genotype;
+import io.jenetics.Optimize;
+import io.jenetics.Phenotype;
+import io.jenetics.engine.Engine;
+import io.jenetics.engine.EvolutionDurations;
+import io.jenetics.engine.EvolutionInit;
+import io.jenetics.engine.EvolutionResult;
+import io.jenetics.engine.EvolutionStart;
+import io.jenetics.engine.EvolutionStream;
+import io.jenetics.engine.EvolutionStreamable;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.RandomRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Island model: several sub-populations evolved by their own Engine, exchanging their best
+ * individuals every few generations.
+ * <p>
+ * Each step evolves every island by one generation on the island executor, then, every
+ * migrationInterval generations, copies the migrationSize best individuals of each island to the
+ * islands chosen by the {@link MigrationTopology}, where they replace the worst individuals. The
+ * result of a step holds the populations of all islands one after the other, in island order, so
+ * the stream behaves like that of a single Engine and {@link #islands(ISeq)} can split a result's
+ * population back into its islands.
+ * <p>
+ * With a {@link RemoteMigration} the islands also exchange their best individuals with islands in
+ * other processes, on the same migration schedule.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class IslandEngine<G extends Gene<?, G>, C extends Comparable<? super C>>
+        implements Function<EvolutionStart<G, C>, EvolutionResult<G, C>>, EvolutionStreamable<G, C> {
+
+    private final List<Engine<G, C>> engines;
+    private final MigrationTopology topology;
+    private final int migrationInterval;
+    private final int migrationSize;
+    private final Executor executor;
+    private final Optimize optimize;
+    private final RemoteMigration<G, C> remote;
+
+    /**
+     * Initialise values
+     *
+     * @param engines One engine per island, all optimising in the same direction
+     * @param topology Which islands migrants are sent to
+     * @param migrationInterval Number of generations between migrations
+     * @param migrationSize Number of individuals each island sends per migration, 0 for none
+     * @param executor Runs the evolution of each island, use Runnable::run for seeded runs
+     */
+    public IslandEngine(List<Engine<G, C>> engines, MigrationTopology topology,
+            int migrationInterval, int migrationSize, Executor executor) {
+        this(engines, topology, migrationInterval, migrationSize, executor, null);
+    }
+
+    /**
+     * Initialise values
+     *
+     * @param engines One engine per island, all optimising in the same direction
+     * @param topology Which islands migrants are sent to
+     * @param migrationInterval Number of generations between migrations
+     * @param migrationSize Number of individuals each island sends per migration, 0 for none
+     * @param executor Runs the evolution of each island, use Runnable::run for seeded runs
+     * @param remote Exchanges migrants with islands in other processes, or null for none
+     */
+    public IslandEngine(List<Engine<G, C>> engines, MigrationTopology topology,
+            int migrationInterval, int migrationSize, Executor executor,
+            RemoteMigration<G, C> remote) {
+        if (engines.isEmpty()) {
+            throw new IllegalArgumentException("At least one island is required");
+        }
+
+        this.engines = new ArrayList<>(engines);
+        this.topology = topology;
+        this.migrationInterval = Math.max(1, migrationInterval);
+        this.migrationSize = migrationSize;
+        this.executor = executor;
+        this.optimize = engines.get(0).getOptimize();
+        this.remote = remote;
+    }
+
+    /**
+     * Evolve every island by one generation.
+     *
+     * @param start Merged population of all islands, as produced by the previous step, or an
+     * initial population which is dealt out to the islands
+     * @return Merged result of all islands
+     */
+    @Override
+    public EvolutionResult<G, C> apply(EvolutionStart<G, C> start) {
+        final long started = System.nanoTime();
+        List<ISeq<Phenotype<G, C>>> populations = islands(start.getPopulation());
+        if (this.remote != null) {
+            populations = arrive(populations, this.remote.immigrate(), start.getGeneration());
+        }
+
+        final List<CompletableFuture<EvolutionResult<G, C>>> evolving = new ArrayList<>();
+        for (int i = 0; i < this.engines.size(); i++) {
+            final Engine<G, C> engine = this.engines.get(i);
+            final EvolutionStart<G, C> islandStart = EvolutionStart.of(
+                    fill(populations.get(i), engine, start.getGeneration()), start.getGeneration());
+            evolving.add(CompletableFuture.supplyAsync(() -> engine.evolve(islandStart),
+                    this.executor));
+        }
+
+        final List<EvolutionResult<G, C>> results = new ArrayList<>();
+        for (CompletableFuture<EvolutionResult<G, C>> result : evolving) {
+            results.add(result.join());
+        }
+
+        final long generation = results.get(0).getGeneration();
+        List<ISeq<Phenotype<G, C>>> evolved = new ArrayList<>();
+        for (EvolutionResult<G, C> result : results) {
+            evolved.add(result.getPopulation());
+        }
+
+        if (this.migrationSize > 0 && this.engines.size() > 1
+                && generation % this.migrationInterval == 0) {
+            evolved = migrate(evolved);
+        }
+
+        if (this.remote != null && this.migrationSize > 0
+                && generation % this.migrationInterval == 0) {
+            List<Phenotype<G, C>> emigrants = new ArrayList<>();
+            for (ISeq<Phenotype<G, C>> island : evolved) {
+                emigrants.addAll(island.asList());
+            }
+            emigrants.sort(bestFirst());
+            this.remote.emigrate(generation, ISeq.of(
+                    emigrants.subList(0, Math.min(this.migrationSize, emigrants.size()))));
+        }
+
+        ISeq<Phenotype<G, C>> population = ISeq.empty();
+        int killCount = 0;
+        int invalidCount = 0;
+        int alterCount = 0;
+        EvolutionDurations steps = EvolutionDurations.ZERO;
+        for (int i = 0; i < results.size(); i++) {
+            population = population.append(evolved.get(i));
+            killCount += results.get(i).getKillCount();
+            invalidCount += results.get(i).getInvalidCount();
+            alterCount += results.get(i).getAlterCount();
+            steps = steps.plus(results.get(i).getDurations());
+        }
+
+        // Each step takes as long as on all islands together, the generation as long as it took
+        // here, migration included, as islands may evolve at the same time
+        final EvolutionDurations durations = EvolutionDurations.of(
+                steps.getOffspringSelectionDuration(),
+                steps.getSurvivorsSelectionDuration(),
+                steps.getOffspringAlterDuration(),
+                steps.getOffspringFilterDuration(),
+                steps.getSurvivorFilterDuration(),
+                steps.getEvaluationDuration(),
+                Duration.ofNanos(System.nanoTime() - started));
+
+        return EvolutionResult.of(this.optimize, population, generation,
+                durations, killCount, invalidCount, alterCount);
+    }
+
+    /**
+     * Split a merged population into the populations of the islands. A population which isn't
+     * the size of all islands together, such as an initial population, is dealt out round robin.
+     *
+     * @param population Merged population
+     * @return Population of each island, in island order
+     */
+    public List<ISeq<Phenotype<G, C>>> islands(ISeq<Phenotype<G, C>> population) {
+        final List<ISeq<Phenotype<G, C>>> islands = new ArrayList<>();
+
+        int total = 0;
+        for (Engine<G, C> engine : this.engines) {
+            total += engine.getPopulationSize();
+        }
+
+        if (population.size() == total) {
+            int from = 0;
+            for (Engine<G, C> engine : this.engines) {
+                islands.add(population.subSeq(from, from + engine.getPopulationSize()));
+                from += engine.getPopulationSize();
+            }
+        } else {
+            for (int i = 0; i < this.engines.size(); i++) {
+                List<Phenotype<G, C>> island = new ArrayList<>();
+                for (int j = i; j < population.size(); j += this.engines.size()) {
+                    island.add(population.get(j));
+                }
+                islands.add(ISeq.of(island));
+            }
+        }
+
+        return islands;
+    }
+
+    /**
+     * Top up an island's population with new individuals, as an Engine stream does for its
+     * initial population.
+     */
+    private static <G extends Gene<?, G>, C extends Comparable<? super C>> ISeq<Phenotype<G, C>> fill(
+            ISeq<Phenotype<G, C>> population, Engine<G, C> engine, long generation) {
+        if (population.size() >= engine.getPopulationSize()) {
+            return population;
+        }
+
+        return population.append(ISeq.of(
+                () -> Phenotype.<G, C>of(engine.getGenotypeFactory().newInstance(), generation),
+                engine.getPopulationSize() - population.size()));
+    }
+
+    /**
+     * Send the best individuals of each island to its neighbours, replacing their worst.
+     */
+    private List<ISeq<Phenotype<G, C>>> migrate(List<ISeq<Phenotype<G, C>>> islands) {
+        final Comparator<Phenotype<G, C>> bestFirst = bestFirst();
+        final int count = islands.size();
+        final Random random = RandomRegistry.getRandom();
+
+        final List<List<Phenotype<G, C>>> sorted = new ArrayList<>();
+        final List<List<Phenotype<G, C>>> incoming = new ArrayList<>();
+        for (ISeq<Phenotype<G, C>> island : islands) {
+            List<Phenotype<G, C>> members = new ArrayList<>(island.asList());
+            members.sort(bestFirst);
+            sorted.add(members);
+            incoming.add(new ArrayList<>());
+        }
+
+        for (int i = 0; i < count; i++) {
+            List<Phenotype<G, C>> migrants =
+                    sorted.get(i).subList(0, Math.min(this.migrationSize, sorted.get(i).size()));
+
+            switch (this.topology) {
+                case RANDOM:
+                    int target = random.nextInt(count - 1);
+                    incoming.get(target >= i ? target + 1 : target).addAll(migrants);
+                    break;
+                case FULLY_CONNECTED:
+                    for (int j = 0; j < count; j++) {
+                        if (j != i) {
+                            incoming.get(j).addAll(migrants);
+                        }
+                    }
+                    break;
+                case RING:
+                default:
+                    incoming.get((i + 1) % count).addAll(migrants);
+                    break;
+            }
+        }
+
+        final List<ISeq<Phenotype<G, C>>> migrated = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            List<Phenotype<G, C>> arrivals = incoming.get(i);
+            arrivals.sort(bestFirst);
+            migrated.add(replaceWorst(sorted.get(i), arrivals));
+        }
+
+        return migrated;
+    }
+
+    /**
+     * Deal individuals received from remote islands out to the islands, round robin.
+     */
+    private List<ISeq<Phenotype<G, C>>> arrive(List<ISeq<Phenotype<G, C>>> islands,
+            ISeq<Genotype<G>> arrivals, long generation) {
+        if (arrivals.isEmpty()) {
+            return islands;
+        }
+
+        final List<ISeq<Phenotype<G, C>>> arrived = new ArrayList<>();
+        for (int i = 0; i < islands.size(); i++) {
+            List<Phenotype<G, C>> members = new ArrayList<>(islands.get(i).asList());
+            members.sort(bestFirst());
+
+            List<Phenotype<G, C>> newcomers = new ArrayList<>();
+            for (int j = i; j < arrivals.size(); j += islands.size()) {
+                newcomers.add(Phenotype.of(arrivals.get(j), generation));
+            }
+            arrived.add(replaceWorst(members, newcomers));
+        }
+        return arrived;
+    }
+
+    /**
+     * Replace the worst members of an island, sorted best first, with arrivals. Arrivals never take
+     * over more than half of an island, so it keeps its own lineage.
+     */
+    private static <G extends Gene<?, G>, C extends Comparable<? super C>> ISeq<Phenotype<G, C>> replaceWorst(
+            List<Phenotype<G, C>> members, List<Phenotype<G, C>> arrivals) {
+        int replaced = Math.min(arrivals.size(), members.size() / 2);
+        for (int j = 0; j < replaced; j++) {
+            members.set(members.size() - 1 - j, arrivals.get(j));
+        }
+        return ISeq.of(members);
+    }
+
+    private Comparator<Phenotype<G, C>> bestFirst() {
+        return (a, b) -> this.optimize.compare(b.getFitness(), a.getFitness());
+    }
+
+    @Override
+    public EvolutionStream<G, C> stream(Supplier<EvolutionStart<G, C>> start) {
+        return EvolutionStream.of(start, this);
+    }
+
+    @Override
+    public EvolutionStream<G, C> stream(EvolutionInit<G> init) {
+        return stream(() -> EvolutionStart.of(
+                init.getPopulation().map(genotype -> Phenotype.<G, C>of(genotype, init.getGeneration())),
+                init.getGeneration()));
+    }
+}
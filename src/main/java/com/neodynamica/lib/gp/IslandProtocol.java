@@ -0,0 +1,226 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.ext.util.Tree;
+import io.jenetics.ext.util.TreeNode;
+import io.jenetics.prog.op.Const;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Var;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Predicate;
+
+/**
+ * Binary protocol spoken between an {@link IslandCoordinator} and its {@link IslandWorker}s.
+ * <p>
+ * Every message is a type byte followed by its fields, written with DataOutput (big-endian):
+ * <pre>
+ * HELLO     worker to coordinator  int magic
+ * WELCOME   coordinator to worker  int worker index, int worker count
+ * MIGRANTS  both directions        long generation, int count, count x program
+ * BEST      worker to coordinator  long generation, double fitness, program
+ * STATS     worker to coordinator  long generation, double best, double mean, double worst
+ * DONE      worker to coordinator  (no fields)
+ * </pre>
+ * A program is its node count followed by its nodes in pre-order. A node is a MathOp (byte 0, byte
+ * ordinal), a variable (byte 1, short index, UTF name) or a constant (byte 2, double value). Only
+ * programs built from these can be sent, which excludes solution skeletons. A reader rejects
+ * programs larger than the search allows before reading their nodes, and reads and writes nodes
+ * without recursion, as a program may be as deep as it is large.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+final class IslandProtocol {
+
+    static final int MAGIC = 0x4E444131; // "NDA1"
+
+    static final byte HELLO = 1;
+    static final byte WELCOME = 2;
+    static final byte MIGRANTS = 3;
+    static final byte BEST = 4;
+    static final byte STATS = 5;
+    static final byte DONE = 6;
+
+    /**
+     * Largest program accepted by an end that doesn't know the search's maxSolutionNodes
+     */
+    static final int MAX_PROGRAM_SIZE = 1 << 16;
+
+    private static final byte OP = 0;
+    private static final byte VAR = 1;
+    private static final byte CONST = 2;
+
+    private static final MathOp[] MATH_OPS = MathOp.values();
+    private static final Double[] NO_ARGS = new Double[0];
+
+    private IslandProtocol() {
+    }
+
+    /**
+     * Check whether a program only holds nodes the protocol can represent.
+     *
+     * @param program Program tree
+     * @return True if the program can be written
+     */
+    static boolean isWritable(Tree<? extends Op<Double>, ?> program) {
+        Op<Double> op = program.getValue();
+        if (!(op instanceof MathOp) && !(op instanceof Var) && op.arity() != 0) {
+            return false;
+        }
+
+        for (int i = 0; i < program.childCount(); i++) {
+            if (!isWritable(program.childAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write a program, which must be writable.
+     *
+     * @param program Program tree
+     * @param out Destination
+     */
+    static void writeProgram(Tree<? extends Op<Double>, ?> program, DataOutput out)
+            throws IOException {
+        int size = 0;
+        Deque<Tree<? extends Op<Double>, ?>> pending = new ArrayDeque<>();
+        pending.push(program);
+        while (!pending.isEmpty()) {
+            Tree<? extends Op<Double>, ?> node = pending.pop();
+            size++;
+            for (int i = 0; i < node.childCount(); i++) {
+                pending.push(node.childAt(i));
+            }
+        }
+        out.writeInt(size);
+
+        // Children are pushed last first, so they are written in pre-order
+        pending.push(program);
+        while (!pending.isEmpty()) {
+            Tree<? extends Op<Double>, ?> node = pending.pop();
+            writeNode(node.getValue(), out);
+            for (int i = node.childCount() - 1; i >= 0; i--) {
+                pending.push(node.childAt(i));
+            }
+        }
+    }
+
+    private static void writeNode(Op<Double> op, DataOutput out) throws IOException {
+        if (op instanceof MathOp) {
+            out.writeByte(OP);
+            out.writeByte(((MathOp) op).ordinal());
+        } else if (op instanceof Var) {
+            out.writeByte(VAR);
+            out.writeShort(((Var<Double>) op).index());
+            out.writeUTF(op.name());
+        } else {
+            // Const or EphemeralConst
+            out.writeByte(CONST);
+            out.writeDouble(op.apply(NO_ARGS));
+        }
+    }
+
+    /**
+     * Read a program written by {@link #writeProgram(Tree, DataOutput)}, of at most
+     * {@link #MAX_PROGRAM_SIZE} nodes.
+     *
+     * @param in Source
+     * @return Program tree
+     */
+    static TreeNode<Op<Double>> readProgram(DataInput in) throws IOException {
+        return readProgram(in, MAX_PROGRAM_SIZE);
+    }
+
+    /**
+     * Read a program written by {@link #writeProgram(Tree, DataOutput)}.
+     *
+     * @param in Source
+     * @param maxSize Largest number of nodes accepted
+     * @return Program tree
+     */
+    static TreeNode<Op<Double>> readProgram(DataInput in, int maxSize) throws IOException {
+        return readProgram(in, maxSize, op -> true);
+    }
+
+    /**
+     * Read a program written by {@link #writeProgram(Tree, DataOutput)}, checking each node as it
+     * is read. A program holding a node which isn't accepted is still read to its end, so the
+     * message it is part of can be read on and discarded.
+     *
+     * @param in Source
+     * @param maxSize Largest number of nodes accepted
+     * @param accepted Whether a node may be part of a program
+     * @return Program tree, or null if it holds a node which isn't accepted
+     */
+    static TreeNode<Op<Double>> readProgram(DataInput in, int maxSize,
+            Predicate<? super Op<Double>> accepted) throws IOException {
+        int size = in.readInt();
+        if (size <= 0 || size > maxSize) {
+            throw new IOException("Invalid program size: " + size + ", at most " + maxSize
+                    + " nodes are allowed");
+        }
+
+        TreeNode<Op<Double>> program = null;
+        boolean rejected = false;
+        // Operators still missing children, the innermost on top
+        Deque<TreeNode<Op<Double>>> open = new ArrayDeque<>();
+        for (int i = 0; i < size; i++) {
+            Op<Double> op = readNode(in);
+            rejected |= !accepted.test(op);
+
+            TreeNode<Op<Double>> node = TreeNode.of(op);
+            if (program == null) {
+                program = node;
+            } else if (open.isEmpty()) {
+                throw new IOException("Program has more nodes than its size");
+            } else {
+                TreeNode<Op<Double>> parent = open.peek();
+                parent.attach(node);
+                if (parent.childCount() == parent.getValue().arity()) {
+                    open.pop();
+                }
+            }
+            if (op.arity() > 0) {
+                open.push(node);
+            }
+        }
+        if (!open.isEmpty()) {
+            throw new IOException("Program size does not match its nodes");
+        }
+        return rejected ? null : program;
+    }
+
+    private static Op<Double> readNode(DataInput in) throws IOException {
+        byte kind = in.readByte();
+        switch (kind) {
+            case OP:
+                int ordinal = in.readUnsignedByte();
+                if (ordinal >= MATH_OPS.length) {
+                    throw new IOException("Unknown operator: " + ordinal);
+                }
+                return MATH_OPS[ordinal];
+            case VAR:
+                int index = in.readUnsignedShort();
+                String name = in.readUTF();
+                try {
+                    return Var.of(name, index);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid variable: " + name, e);
+                }
+            case CONST:
+                return Const.of(in.readDouble());
+            default:
+                throw new IOException("Unknown node kind: " + kind);
+        }
+    }
+}
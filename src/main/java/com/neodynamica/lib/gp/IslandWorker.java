@@ -0,0 +1,270 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.backendinterface.GenerationBean;
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.ext.util.Tree;
+import io.jenetics.prog.ProgramGene;
+import io.jenetics.prog.op.Const;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Var;
+import io.jenetics.util.ISeq;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Connection of one search process to an {@link IslandCoordinator}, making its islands part of a
+ * distributed island model.
+ * <p>
+ * Migrants are sent as they are produced and received on a background thread, so a worker never
+ * waits for the others: received migrants join the next generation to start. Statistics of every
+ * generation and each new best program are reported to the coordinator.
+ * <p>
+ * Received programs are only accepted once the search has said what its programs are made of: a
+ * message holding a program with an operator the search doesn't use, or a variable it doesn't
+ * have, is discarded whole. At most {@link #MAX_WAITING} migrants wait for the next generation,
+ * the oldest being dropped first.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class IslandWorker implements RemoteMigration<ProgramGene<Double>, Double>, Closeable {
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final int index;
+    private final int workerCount;
+
+    /**
+     * Most received migrants kept waiting for the next generation to start
+     */
+    static final int MAX_WAITING = 1024;
+
+    private final BlockingQueue<Tree<Op<Double>, ?>> received =
+            new LinkedBlockingQueue<>(MAX_WAITING);
+    private volatile Function<Tree<Op<Double>, ?>, Genotype<ProgramGene<Double>>> decoder;
+    private volatile int maxProgramSize = IslandProtocol.MAX_PROGRAM_SIZE;
+    // Nothing is accepted until the search has set its decoder
+    private volatile Predicate<Op<Double>> accepted = op -> false;
+    private boolean closed;
+
+    /**
+     * Connect to a coordinator and wait to be admitted.
+     *
+     * @param host Host the coordinator runs on
+     * @param port Port the coordinator listens on
+     */
+    public IslandWorker(String host, int port) throws IOException {
+        this.socket = new Socket(host, port);
+        this.socket.setTcpNoDelay(true);
+        this.in = new DataInputStream(new BufferedInputStream(this.socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(this.socket.getOutputStream()));
+
+        this.out.writeByte(IslandProtocol.HELLO);
+        this.out.writeInt(IslandProtocol.MAGIC);
+        this.out.flush();
+
+        if (this.in.readByte() != IslandProtocol.WELCOME) {
+            this.socket.close();
+            throw new IOException("Coordinator did not admit this worker");
+        }
+        this.index = this.in.readInt();
+        this.workerCount = this.in.readInt();
+
+        Thread reader = new Thread(this::receive, "island-worker-" + this.index);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Set how received programs are turned into genotypes of this process's search, and what they
+     * may be made of. Programs received before a decoder is set are discarded.
+     *
+     * @param decoder Builds a genotype around a program tree
+     * @param maxProgramSize Largest program accepted, the maxSolutionNodes of the search
+     * @param operators Operators of the search, the only ones accepted
+     * @param variableCount Number of input variables of the search's dataset
+     */
+    public void setDecoder(Function<Tree<Op<Double>, ?>, Genotype<ProgramGene<Double>>> decoder,
+            int maxProgramSize, ISeq<? extends Op<Double>> operators, int variableCount) {
+        final Set<Op<Double>> known = new HashSet<>(operators.asList());
+        this.maxProgramSize = maxProgramSize;
+        this.decoder = decoder;
+        // Set last, as the reader takes seeing it to mean the size limit is set too
+        this.accepted = op -> op instanceof Var
+                ? ((Var<Double>) op).index() < variableCount
+                : op instanceof Const || known.contains(op);
+    }
+
+    /**
+     * @return Index of this worker among the coordinator's workers
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * @return Number of workers taking part in the search
+     */
+    public int getWorkerCount() {
+        return this.workerCount;
+    }
+
+    @Override
+    public synchronized void emigrate(long generation,
+            ISeq<Phenotype<ProgramGene<Double>, Double>> emigrants) {
+        List<ProgramGene<Double>> programs = new ArrayList<>();
+        for (Phenotype<ProgramGene<Double>, Double> emigrant : emigrants) {
+            ProgramGene<Double> program = emigrant.getGenotype().getGene();
+            if (IslandProtocol.isWritable(program)) {
+                programs.add(program);
+            }
+        }
+        if (programs.isEmpty() || this.closed) {
+            return;
+        }
+
+        try {
+            this.out.writeByte(IslandProtocol.MIGRANTS);
+            this.out.writeLong(generation);
+            this.out.writeInt(programs.size());
+            for (ProgramGene<Double> program : programs) {
+                IslandProtocol.writeProgram(program, this.out);
+            }
+            this.out.flush();
+        } catch (IOException e) {
+            // Coordinator went away, carry on as a stand-alone search
+            this.closed = true;
+        }
+    }
+
+    @Override
+    public ISeq<Genotype<ProgramGene<Double>>> immigrate() {
+        final Function<Tree<Op<Double>, ?>, Genotype<ProgramGene<Double>>> decode = this.decoder;
+        if (decode == null) {
+            return ISeq.empty();
+        }
+
+        List<Genotype<ProgramGene<Double>>> immigrants = new ArrayList<>();
+        Tree<Op<Double>, ?> program;
+        while ((program = this.received.poll()) != null) {
+            immigrants.add(decode.apply(program));
+        }
+        return ISeq.of(immigrants);
+    }
+
+    /**
+     * Report a finished generation to the coordinator.
+     *
+     * @param generation Statistics of the generation, holding the all-time best of this worker
+     */
+    public synchronized void report(GenerationBean<Double> generation) {
+        if (this.closed) {
+            return;
+        }
+
+        try {
+            ProgramGene<Double> best = generation.getBestGene();
+            if (generation.isNewBest() && best != null && IslandProtocol.isWritable(best)) {
+                this.out.writeByte(IslandProtocol.BEST);
+                this.out.writeLong(generation.getIndex());
+                this.out.writeDouble(generation.getBestFitness());
+                IslandProtocol.writeProgram(best, this.out);
+            }
+
+            this.out.writeByte(IslandProtocol.STATS);
+            this.out.writeLong(generation.getIndex());
+            this.out.writeDouble(generation.getBestFitness());
+            this.out.writeDouble(generation.getAverageFitness());
+            this.out.writeDouble(generation.getWorstFitness());
+            this.out.flush();
+        } catch (IOException e) {
+            this.closed = true;
+        }
+    }
+
+    /**
+     * Tell the coordinator this worker's search has ended and disconnect.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (!this.closed) {
+                this.out.writeByte(IslandProtocol.DONE);
+                this.out.flush();
+            }
+        } finally {
+            this.closed = true;
+            this.socket.close();
+        }
+    }
+
+    /**
+     * Queue migrants sent by the coordinator until the connection closes.
+     */
+    private void receive() {
+        try {
+            while (true) {
+                byte type = this.in.readByte();
+                if (type != IslandProtocol.MIGRANTS) {
+                    throw new IOException("Unexpected message type: " + type);
+                }
+
+                this.in.readLong(); // generation
+                int count = this.in.readInt();
+                final Predicate<Op<Double>> accepted = this.accepted;
+                final int maxSize = this.maxProgramSize;
+
+                // The whole message is read before any of it is kept, so one bad program
+                // discards it all
+                Deque<Tree<Op<Double>, ?>> migrants = new ArrayDeque<>();
+                boolean rejected = false;
+                for (int i = 0; i < count; i++) {
+                    Tree<Op<Double>, ?> program = IslandProtocol.readProgram(this.in, maxSize,
+                            accepted);
+                    rejected |= program == null;
+                    if (!rejected) {
+                        if (migrants.size() == MAX_WAITING) {
+                            migrants.poll();
+                        }
+                        migrants.add(program);
+                    }
+                }
+                if (rejected) {
+                    continue;
+                }
+
+                for (Tree<Op<Double>, ?> migrant : migrants) {
+                    while (!this.received.offer(migrant)) {
+                        this.received.poll();
+                    }
+                }
+            }
+        } catch (EOFException e) {
+            // Coordinator closed the connection
+        } catch (IOException e) {
+            // Connection lost, keep evolving without migrants
+        }
+    }
+}
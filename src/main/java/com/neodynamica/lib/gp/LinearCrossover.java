@@ -0,0 +1,53 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.Crossover;
+import io.jenetics.util.MSeq;
+import io.jenetics.util.RandomRegistry;
+
+import java.util.Random;
+
+/**
+ * Subtree crossover of linear programs: a random subtree of each parent is swapped with one of the
+ * other, as two array splices. An offspring which would grow beyond the size limit keeps its
+ * parent's program.
+ *
+ * @param <C> Fitness type
+ * @version 1.0
+ * @since 2.0
+ */
+public class LinearCrossover<C extends Comparable<? super C>> extends Crossover<LinearProgramGene, C> {
+
+    /**
+     * Initialise values
+     *
+     * @param probability Probability of a pair of individuals being crossed
+     */
+    public LinearCrossover(double probability) {
+        super(probability);
+    }
+
+    @Override
+    protected int crossover(MSeq<LinearProgramGene> that, MSeq<LinearProgramGene> other) {
+        final Random random = RandomRegistry.getRandom();
+        final LinearProgramGene mother = that.get(0);
+        final LinearProgramGene father = other.get(0);
+        final int motherEnd = random.nextInt(mother.getAllele().size());
+        final int fatherEnd = random.nextInt(father.getAllele().size());
+
+        int altered = 0;
+        LinearProgram daughter = mother.getAllele().splice(motherEnd, father.getAllele(), fatherEnd);
+        if (daughter.size() <= mother.getMaxSize()) {
+            that.set(0, mother.newInstance(daughter));
+            altered++;
+        }
+        LinearProgram son = father.getAllele().splice(fatherEnd, mother.getAllele(), motherEnd);
+        if (son.size() <= father.getMaxSize()) {
+            other.set(0, father.newInstance(son));
+            altered++;
+        }
+        return altered;
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.Mutator;
+
+import java.util.Random;
+
+/**
+ * Subtree mutation of linear programs: a random subtree is replaced with a newly grown one, as an
+ * array splice. A mutation which would grow the program beyond the size limit is dropped.
+ *
+ * @param <C> Fitness type
+ * @version 1.0
+ * @since 2.0
+ */
+public class LinearMutator<C extends Comparable<? super C>> extends Mutator<LinearProgramGene, C> {
+
+    /**
+     * Initialise values
+     *
+     * @param probability Probability of a program being mutated
+     */
+    public LinearMutator(double probability) {
+        super(probability);
+    }
+
+    @Override
+    protected LinearProgramGene mutate(LinearProgramGene gene, Random random) {
+        final LinearProgram program = gene.getAllele();
+        final LinearProgram grown = gene.grow(random);
+        final LinearProgram mutated = program.splice(random.nextInt(program.size()), grown,
+                grown.size() - 1);
+        return mutated.size() <= gene.getMaxSize() ? gene.newInstance(mutated) : gene;
+    }
+}
@@ -0,0 +1,477 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.ext.util.Tree;
+import io.jenetics.ext.util.TreeNode;
+import io.jenetics.prog.op.Const;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Var;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A program held as a flat post-order array of instructions with a constant pool, evaluated by a
+ * stack machine.
+ * <p>
+ * Each instruction is one int: the low bits hold the opcode, a constant, a variable or a MathOp,
+ * and the high bits the operand, the constant pool or input variable index. The size of the
+ * subtree ending at each instruction is precomputed, so a subtree is a contiguous slice of the
+ * array and crossover and mutation are array splices, without any node objects. Programs are
+ * immutable; every splice builds a new program.
+ * <p>
+ * Only MathOp operators, variables and constants can be encoded; anything else (e.g. a solution
+ * skeleton) makes {@link #compile(Tree)} return null. {@link #toTree()} turns a program back into
+ * a tree, for reporting it like any other solution.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public final class LinearProgram {
+
+    private static final int CONSTANT = 0;
+    private static final int VARIABLE = 1;
+    private static final int FIRST_OPERATOR = 2;
+    private static final int OPCODE_BITS = 8;
+    private static final int OPCODE_MASK = (1 << OPCODE_BITS) - 1;
+
+    private static final MathOp[] OPERATORS = MathOp.values();
+    private static final Double[] NO_ARGS = new Double[0];
+
+    /**
+     * Opcode and operand of each instruction, in post-order
+     */
+    private final int[] code;
+
+    /**
+     * Value of each constant, indexed by the operand of constant instructions
+     */
+    private final double[] constants;
+
+    /**
+     * Name of each input variable, indexed by the operand of variable instructions
+     */
+    private final String[] variables;
+
+    /**
+     * Number of instructions in the subtree ending at each instruction
+     */
+    private final int[] extents;
+
+    /**
+     * Maximum number of values on the evaluation stack at once
+     */
+    private final int stackSize;
+
+    private LinearProgram(int[] code, double[] constants, String[] variables) {
+        this.code = code;
+        this.constants = constants;
+        this.variables = variables;
+        this.extents = new int[code.length];
+
+        int depth = 0;
+        int stackSize = 0;
+        for (int i = 0; i < code.length; i++) {
+            int arity = arity(code[i]);
+            this.extents[i] = 1;
+            for (int child = i - 1, c = 0; c < arity; c++) {
+                this.extents[i] += this.extents[child];
+                child -= this.extents[child];
+            }
+            depth -= arity - 1;
+            stackSize = Math.max(stackSize, depth);
+        }
+        this.stackSize = stackSize;
+    }
+
+    /**
+     * Encode a program tree.
+     *
+     * @param program Program to encode
+     * @return Linear program, or null if the program contains an operation which can't be encoded
+     */
+    public static LinearProgram compile(Tree<? extends Op<Double>, ?> program) {
+        final Builder builder = new Builder(new String[0]);
+        return builder.append(program) ? builder.build() : null;
+    }
+
+    /**
+     * Grow a random program, choosing between operators and terminals at every level above the
+     * maximum depth, as the Jenetics grow method does.
+     *
+     * @param operators MathOp operators to choose from
+     * @param terminals Variables and constants to choose from; an EphemeralConst gets a new value
+     * each time it is chosen
+     * @param depth Maximum depth of the program
+     * @param random Source of randomness
+     * @return Random program
+     */
+    public static LinearProgram random(List<MathOp> operators, List<Op<Double>> terminals,
+            int depth, Random random) {
+        final Builder builder = new Builder(new String[0]);
+        builder.grow(operators, terminals, depth, random);
+        return builder.build();
+    }
+
+    /**
+     * Check whether every operator given can be encoded.
+     *
+     * @param operators Operators to check
+     * @return True if all of them are supported MathOps
+     */
+    public static boolean supports(List<? extends Op<Double>> operators) {
+        for (Op<Double> op : operators) {
+            if (!(op instanceof MathOp) || (op.arity() > 0 && !isSupported((MathOp) op))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Number of instructions, which is the number of nodes of the program tree
+     */
+    public int size() {
+        return this.code.length;
+    }
+
+    /**
+     * Number of stack slots required by {@link #eval(double[], double[])}.
+     *
+     * @return Stack size
+     */
+    public int getStackSize() {
+        return this.stackSize;
+    }
+
+    /**
+     * Get the size of a subtree. The subtree ending at instruction i starts at
+     * i - getExtent(i) + 1.
+     *
+     * @param end Index of the last instruction of the subtree, its root
+     * @return Number of instructions in the subtree
+     */
+    public int getExtent(int end) {
+        return this.extents[end];
+    }
+
+    /**
+     * Evaluate the program for a single row of input values.
+     *
+     * @param row Input variable values, indexed by Var index
+     * @param stack Scratch space of at least {@link #getStackSize()} values
+     * @return Program output
+     */
+    public double eval(double[] row, double[] stack) {
+        int top = -1;
+        for (int instruction : this.code) {
+            int opcode = instruction & OPCODE_MASK;
+            if (opcode == CONSTANT) {
+                stack[++top] = this.constants[instruction >>> OPCODE_BITS];
+            } else if (opcode == VARIABLE) {
+                stack[++top] = row[instruction >>> OPCODE_BITS];
+            } else {
+                MathOp op = OPERATORS[opcode - FIRST_OPERATOR];
+                if (op.arity() == 1) {
+                    stack[top] = unary(op, stack[top]);
+                } else {
+                    double b = stack[top--];
+                    stack[top] = binary(op, stack[top], b);
+                }
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Evaluate the program for every row.
+     *
+     * @param rows Input rows
+     * @param out Array receiving the output for each row, must be at least rows.length long
+     */
+    public void eval(double[][] rows, double[] out) {
+        final double[] stack = new double[this.stackSize];
+        for (int i = 0; i < rows.length; i++) {
+            out[i] = this.eval(rows[i], stack);
+        }
+    }
+
+    /**
+     * Build a program with one subtree replaced by a subtree of another program, as crossover and
+     * mutation do.
+     *
+     * @param end Index of the root instruction of the subtree to replace
+     * @param donor Program holding the replacement
+     * @param donorEnd Index of the root instruction of the replacement in the donor
+     * @return New program
+     */
+    public LinearProgram splice(int end, LinearProgram donor, int donorEnd) {
+        final int start = end - this.extents[end] + 1;
+        final int donorStart = donorEnd - donor.extents[donorEnd] + 1;
+
+        final Builder builder = new Builder(
+                this.variables.length >= donor.variables.length ? this.variables : donor.variables);
+        builder.copy(this, 0, start);
+        builder.copy(donor, donorStart, donorEnd + 1);
+        builder.copy(this, end + 1, this.code.length);
+        return builder.build();
+    }
+
+    /**
+     * Decode the program into a tree, such as for building a ProgramGene.
+     *
+     * @return Program tree
+     */
+    public TreeNode<Op<Double>> toTree() {
+        final List<TreeNode<Op<Double>>> stack = new ArrayList<>();
+        for (int instruction : this.code) {
+            int opcode = instruction & OPCODE_MASK;
+            int operand = instruction >>> OPCODE_BITS;
+            if (opcode == CONSTANT) {
+                stack.add(TreeNode.of(Const.of(this.constants[operand])));
+            } else if (opcode == VARIABLE) {
+                stack.add(TreeNode.of(Var.of(this.variables[operand], operand)));
+            } else {
+                MathOp op = OPERATORS[opcode - FIRST_OPERATOR];
+                TreeNode<Op<Double>> node = TreeNode.of(op);
+                List<TreeNode<Op<Double>>> arguments = stack.subList(stack.size() - op.arity(),
+                        stack.size());
+                for (TreeNode<Op<Double>> argument : arguments) {
+                    node.attach(argument);
+                }
+                arguments.clear();
+                stack.add(node);
+            }
+        }
+        return stack.get(0);
+    }
+
+    @Override
+    public String toString() {
+        return this.toTree().toParenthesesString();
+    }
+
+    private static int arity(int instruction) {
+        int opcode = instruction & OPCODE_MASK;
+        return opcode < FIRST_OPERATOR ? 0 : OPERATORS[opcode - FIRST_OPERATOR].arity();
+    }
+
+    private static boolean isSupported(MathOp op) {
+        switch (op) {
+            case ADD:
+            case SUB:
+            case MUL:
+            case DIV:
+            case MOD:
+            case POW:
+            case HYPOT:
+            case MIN:
+            case MAX:
+            case NEG:
+            case ABS:
+            case SQR:
+            case RINT:
+            case CEIL:
+            case FLOOR:
+            case SIGNUM:
+            case SQRT:
+            case CBRT:
+            case EXP:
+            case LOG:
+            case LOG10:
+            case SIN:
+            case COS:
+            case TAN:
+            case ASIN:
+            case ACOS:
+            case ATAN:
+            case SINH:
+            case COSH:
+            case TANH:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static double unary(MathOp op, double a) {
+        switch (op) {
+            case NEG:
+                return -a;
+            case ABS:
+                return Math.abs(a);
+            case SQR:
+                return a * a;
+            case RINT:
+                return Math.rint(a);
+            case CEIL:
+                return Math.ceil(a);
+            case FLOOR:
+                return Math.floor(a);
+            case SIGNUM:
+                return Math.signum(a);
+            case SQRT:
+                return Math.sqrt(a);
+            case CBRT:
+                return Math.cbrt(a);
+            case EXP:
+                return Math.exp(a);
+            case LOG:
+                return Math.log(a);
+            case LOG10:
+                return Math.log10(a);
+            case SIN:
+                return Math.sin(a);
+            case COS:
+                return Math.cos(a);
+            case TAN:
+                return Math.tan(a);
+            case ASIN:
+                return Math.asin(a);
+            case ACOS:
+                return Math.acos(a);
+            case ATAN:
+                return Math.atan(a);
+            case SINH:
+                return Math.sinh(a);
+            case COSH:
+                return Math.cosh(a);
+            case TANH:
+            default:
+                return Math.tanh(a);
+        }
+    }
+
+    private static double binary(MathOp op, double a, double b) {
+        switch (op) {
+            case ADD:
+                return a + b;
+            case SUB:
+                return a - b;
+            case MUL:
+                return a * b;
+            case DIV:
+                return a / b;
+            case MOD:
+                return a % b;
+            case POW:
+                return Math.pow(a, b);
+            case HYPOT:
+                return Math.hypot(a, b);
+            case MIN:
+                return Math.min(a, b);
+            case MAX:
+            default:
+                return Math.max(a, b);
+        }
+    }
+
+    /**
+     * Appends instructions to a new program, growing its arrays as required.
+     */
+    private static final class Builder {
+
+        private int[] code = new int[16];
+        private double[] constants = new double[8];
+        private String[] variables;
+        private int size;
+        private int constantCount;
+
+        private Builder(String[] variables) {
+            this.variables = variables;
+        }
+
+        private boolean append(Tree<? extends Op<Double>, ?> node) {
+            final Op<Double> op = node.getValue();
+            for (int i = 0; i < node.childCount(); i++) {
+                if (!this.append(node.childAt(i))) {
+                    return false;
+                }
+            }
+
+            if (op instanceof Var) {
+                this.variable(((Var<Double>) op).index(), op.name());
+            } else if (op.arity() == 0) {
+                // Const or EphemeralConst - read the value once
+                this.constant(op.apply(NO_ARGS));
+            } else if (op instanceof MathOp && isSupported((MathOp) op)
+                    && op.arity() == node.childCount()) {
+                this.instruction(FIRST_OPERATOR + ((MathOp) op).ordinal());
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        private void grow(List<MathOp> operators, List<Op<Double>> terminals, int depth,
+                Random random) {
+            final int choices = operators.size() + terminals.size();
+            final int choice = depth > 0 ? random.nextInt(choices) : choices;
+            if (choice < operators.size()) {
+                MathOp op = operators.get(choice);
+                for (int i = 0; i < op.arity(); i++) {
+                    this.grow(operators, terminals, depth - 1, random);
+                }
+                this.instruction(FIRST_OPERATOR + op.ordinal());
+                return;
+            }
+
+            Op<Double> terminal = terminals.get(random.nextInt(terminals.size()));
+            if (terminal instanceof Var) {
+                this.variable(((Var<Double>) terminal).index(), terminal.name());
+            } else {
+                // A fresh EphemeralConst draws a new value
+                this.constant(terminal.get().apply(NO_ARGS));
+            }
+        }
+
+        private void copy(LinearProgram program, int from, int to) {
+            for (int i = from; i < to; i++) {
+                int instruction = program.code[i];
+                int operand = instruction >>> OPCODE_BITS;
+                if ((instruction & OPCODE_MASK) == CONSTANT) {
+                    this.constant(program.constants[operand]);
+                } else if ((instruction & OPCODE_MASK) == VARIABLE) {
+                    this.variable(operand, program.variables[operand]);
+                } else {
+                    this.instruction(instruction);
+                }
+            }
+        }
+
+        private void variable(int index, String name) {
+            // The names may be shared with other programs, so they are copied before changing
+            if (index >= this.variables.length || this.variables[index] == null) {
+                this.variables = Arrays.copyOf(this.variables,
+                        Math.max(this.variables.length, index + 1));
+                this.variables[index] = name;
+            }
+            this.instruction(VARIABLE | index << OPCODE_BITS);
+        }
+
+        private void constant(double value) {
+            if (this.constantCount == this.constants.length) {
+                this.constants = Arrays.copyOf(this.constants, this.constantCount * 2);
+            }
+            this.constants[this.constantCount] = value;
+            this.instruction(CONSTANT | this.constantCount++ << OPCODE_BITS);
+        }
+
+        private void instruction(int instruction) {
+            if (this.size == this.code.length) {
+                this.code = Arrays.copyOf(this.code, this.size * 2);
+            }
+            this.code[this.size++] = instruction;
+        }
+
+        private LinearProgram build() {
+            return new LinearProgram(Arrays.copyOf(this.code, this.size),
+                    Arrays.copyOf(this.constants, this.constantCount), this.variables);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.AbstractChromosome;
+import io.jenetics.Chromosome;
+import io.jenetics.util.ISeq;
+
+/**
+ * Chromosome of a single {@link LinearProgramGene}, so a genotype holds one linear program.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public final class LinearProgramChromosome extends AbstractChromosome<LinearProgramGene> {
+
+    private LinearProgramChromosome(ISeq<LinearProgramGene> genes) {
+        super(genes);
+    }
+
+    /**
+     * Create a chromosome holding a gene.
+     *
+     * @param gene Gene of the chromosome
+     * @return New chromosome
+     */
+    public static LinearProgramChromosome of(LinearProgramGene gene) {
+        return new LinearProgramChromosome(ISeq.of(gene));
+    }
+
+    @Override
+    public Chromosome<LinearProgramGene> newInstance() {
+        return of(this.getGene().newInstance());
+    }
+
+    @Override
+    public Chromosome<LinearProgramGene> newInstance(ISeq<LinearProgramGene> genes) {
+        return new LinearProgramChromosome(genes);
+    }
+}
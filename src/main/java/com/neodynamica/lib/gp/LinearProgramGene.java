@@ -0,0 +1,96 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.Gene;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import io.jenetics.util.RandomRegistry;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Gene holding a whole {@link LinearProgram}, with the operators, terminals and limits new
+ * programs of the search are built from.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public final class LinearProgramGene implements Gene<LinearProgram, LinearProgramGene> {
+
+    private final LinearProgram program;
+    private final List<MathOp> operators;
+    private final List<Op<Double>> terminals;
+    private final int depth;
+    private final int maxSize;
+
+    private LinearProgramGene(LinearProgram program, List<MathOp> operators,
+            List<Op<Double>> terminals, int depth, int maxSize) {
+        this.program = program;
+        this.operators = operators;
+        this.terminals = terminals;
+        this.depth = depth;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Create a gene holding a random program.
+     *
+     * @param operators MathOp operators programs are built from
+     * @param terminals Variables and constants programs are built from
+     * @param depth Maximum depth of new programs and subtrees grown by mutation
+     * @param maxSize Maximum number of nodes of a valid program
+     * @return New gene
+     */
+    public static LinearProgramGene of(List<MathOp> operators, List<Op<Double>> terminals,
+            int depth, int maxSize) {
+        return new LinearProgramGene(
+                LinearProgram.random(operators, terminals, depth, RandomRegistry.getRandom()),
+                operators, terminals, depth, maxSize);
+    }
+
+    @Override
+    public LinearProgram getAllele() {
+        return this.program;
+    }
+
+    /**
+     * @return Maximum number of nodes of a valid program
+     */
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Grow a random program with this gene's operators and terminals.
+     *
+     * @param random Source of randomness
+     * @return New program
+     */
+    LinearProgram grow(Random random) {
+        return LinearProgram.random(this.operators, this.terminals, this.depth, random);
+    }
+
+    @Override
+    public LinearProgramGene newInstance() {
+        return this.newInstance(this.grow(RandomRegistry.getRandom()));
+    }
+
+    @Override
+    public LinearProgramGene newInstance(LinearProgram program) {
+        return new LinearProgramGene(program, this.operators, this.terminals, this.depth,
+                this.maxSize);
+    }
+
+    @Override
+    public boolean isValid() {
+        return this.program.size() <= this.maxSize;
+    }
+
+    @Override
+    public String toString() {
+        return this.program.toString();
+    }
+}
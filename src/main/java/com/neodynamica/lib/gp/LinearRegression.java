@@ -0,0 +1,145 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.lib.sample.Dataset;
+import io.jenetics.ext.util.Tree;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.regression.Regression;
+
+/**
+ * Regression error of programs evaluated as {@link LinearProgram}s, entirely over primitives.
+ * <p>
+ * Rows, program outputs and expected values are double arrays, operators run on the primitive
+ * stack machine of LinearProgram and the error is calculated by the run's primitive error kernel.
+ * Each thread reuses its own output and stack buffers, shared by every instance, so scoring a
+ * program allocates no wrapper objects and no arrays per row.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class LinearRegression {
+
+    private final Regression<Double> interpreter;
+    private final double[][] rows;
+    private final double[] expected;
+    private final ErrorKernel errorKernel;
+    private final EarlyAbort earlyAbort;
+
+    /**
+     * Program output of each thread, reallocated when a regression of another row count is
+     * evaluated on the thread
+     */
+    private static final ThreadLocal<double[]> OUTPUT = ThreadLocal.withInitial(() -> new double[0]);
+
+    /**
+     * Stack of each thread, grown to the largest a program has needed
+     */
+    private static final ThreadLocal<double[]> STACK = ThreadLocal.withInitial(() -> new double[0]);
+
+    /**
+     * Initialise values
+     *
+     * @param dataset Dataset containing set of inputs/output values
+     * @param errorKernel Error function of the run
+     */
+    public LinearRegression(Dataset dataset, ErrorKernel errorKernel) {
+        this(null, dataset, errorKernel, null);
+    }
+
+    /**
+     * Initialise values
+     *
+     * @param interpreter Interpreted regression, used for programs which can't be encoded, or null
+     * if every program is a LinearProgram
+     * @param dataset Dataset containing set of inputs/output values
+     * @param errorKernel Error function of the run
+     * @param earlyAbort Incremental error calculation used to abort hopeless programs, or null to
+     * always evaluate every row
+     */
+    public LinearRegression(Regression<Double> interpreter, Dataset dataset,
+            ErrorKernel errorKernel, EarlyAbort earlyAbort) {
+        this.interpreter = interpreter;
+        this.rows = dataset.toInputRows();
+        this.expected = dataset.toOutputColumn();
+        this.errorKernel = errorKernel;
+        this.earlyAbort = earlyAbort;
+    }
+
+    /**
+     * Calculate the error of a program tree over every row of the dataset.
+     *
+     * @param program Program to evaluate
+     * @return Error, according to the error function of the run
+     */
+    public double error(Tree<Op<Double>, ?> program) {
+        // Each phenotype is only evaluated once, so encoding here encodes each program once
+        LinearProgram linear = LinearProgram.compile(program);
+        if (linear != null) {
+            return this.error(program, linear);
+        }
+        return this.earlyAbort != null
+                ? this.earlyAbort.error(program)
+                : this.interpreter.error(program);
+    }
+
+    /**
+     * Calculate the error of a program over every row of the dataset.
+     *
+     * @param program Program to evaluate
+     * @return Error, according to the error function of the run
+     */
+    public double error(LinearProgram program) {
+        return this.error(program, program);
+    }
+
+    /**
+     * Calculate the error of a program over every row of the dataset.
+     *
+     * @param evaluated Program as passed to the fitness function, which early abort remembers
+     * @param program Program to evaluate
+     */
+    private double error(Object evaluated, LinearProgram program) {
+        final double[] stack = stack(program.getStackSize());
+
+        if (this.earlyAbort != null) {
+            return this.earlyAbort.error(evaluated, (from, to, out) -> {
+                for (int i = from; i < to; i++) {
+                    out[i - from] = program.eval(this.rows[i], stack);
+                }
+            });
+        }
+
+        final double[] calculated = this.output();
+        for (int i = 0; i < this.rows.length; i++) {
+            calculated[i] = program.eval(this.rows[i], stack);
+        }
+        return this.errorKernel.error(calculated, this.expected);
+    }
+
+    /**
+     * Get this thread's output buffer, exactly as long as the rows, as it is scored against the
+     * expected outputs.
+     */
+    private double[] output() {
+        double[] output = OUTPUT.get();
+        if (output.length != this.rows.length) {
+            output = new double[this.rows.length];
+            OUTPUT.set(output);
+        }
+        return output;
+    }
+
+    /**
+     * Get this thread's stack, growing it if the program needs more slots.
+     */
+    private static double[] stack(int stackSize) {
+        double[] stack = STACK.get();
+        if (stack.length < stackSize) {
+            stack = new double[stackSize];
+            STACK.set(stack);
+        }
+        return stack;
+    }
+}
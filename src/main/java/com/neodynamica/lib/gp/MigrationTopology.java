@@ -0,0 +1,25 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+/**
+ * Which islands send migrants to which when an island model is used
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public enum MigrationTopology {
+    /**
+     * Each island sends its migrants to the next island, the last island to the first
+     */
+    RING,
+    /**
+     * Each island sends its migrants to another island chosen at random each migration
+     */
+    RANDOM,
+    /**
+     * Each island sends its migrants to every other island
+     */
+    FULLY_CONNECTED,
+}
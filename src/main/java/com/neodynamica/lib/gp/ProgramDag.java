@@ -0,0 +1,231 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.ext.util.Tree;
+import io.jenetics.ext.util.TreeNode;
+import io.jenetics.prog.op.Op;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+
+/**
+ * Genome store holding programs as a shared, immutable DAG of hash-consed subtrees.
+ * <p>
+ * Every distinct subtree is held once: {@link #node(Op, Node...)} returns the existing node when
+ * one with the same operator and children is already stored. Because children are themselves
+ * unique, two nodes are equal exactly when they are the same object, so comparing programs or
+ * looking them up is a constant time check against their cached hash and identity. Offspring built
+ * with {@link #replace(Node, int, Node)} only allocate the nodes on the path from the root to the
+ * replaced subtree, and share everything else with their parents.
+ * <p>
+ * The intern table holds its nodes weakly, so subtrees no program refers to any more are evicted
+ * by the garbage collector. Nodes implement {@link Tree}, so they can be scored by the same fitness
+ * functions as a ProgramGene; as a subtree may have many parents, {@link Node#getParent()} is
+ * always empty. A search with {@link GenomeEncoding#DAG} evolves the programs of one store, each held
+ * by a {@link DagProgramGene}.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class ProgramDag {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    // Values are weak too, as a strong value would keep its own key reachable
+    private final Map<Node, WeakReference<Node>> nodes = new WeakHashMap<>();
+
+    /**
+     * Get the stored node with the given operator and children, storing it if new.
+     *
+     * @param op Operator of the node
+     * @param children Children of the node, from this store
+     * @return Shared node
+     */
+    public Node node(Op<Double> op, Node... children) {
+        final Node probe = new Node(op, children.length == 0 ? NO_CHILDREN : children.clone());
+        synchronized (this.nodes) {
+            final WeakReference<Node> stored = this.nodes.get(probe);
+            final Node existing = stored != null ? stored.get() : null;
+            if (existing != null) {
+                return existing;
+            }
+            this.nodes.put(probe, new WeakReference<>(probe));
+            return probe;
+        }
+    }
+
+    /**
+     * Store a program, sharing the subtrees it has in common with stored programs.
+     *
+     * @param program Program tree, such as a ProgramGene
+     * @return Shared root node of the program
+     */
+    public Node intern(Tree<? extends Op<Double>, ?> program) {
+        final Node[] children = new Node[program.childCount()];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = this.intern(program.childAt(i));
+        }
+        return this.node(program.getValue(), children);
+    }
+
+    /**
+     * Build a program with one of its subtrees replaced, as crossover and mutation do. Only the
+     * nodes from the root down to the replaced subtree are new; all others are shared with the
+     * original and the replacement.
+     *
+     * @param program Program to copy
+     * @param index Pre-order index of the subtree to replace, 0 for the root
+     * @param replacement Subtree put in its place, from this store
+     * @return Shared root node of the new program
+     */
+    public Node replace(Node program, int index, Node replacement) {
+        if (index < 0 || index >= program.size) {
+            throw new IndexOutOfBoundsException("No node " + index + " in a program of size "
+                    + program.size);
+        }
+        if (index == 0) {
+            return replacement;
+        }
+
+        // Descend to the child holding the index, using the cached subtree sizes
+        int offset = 1;
+        final Node[] children = program.children.clone();
+        for (int i = 0; i < children.length; i++) {
+            if (index < offset + children[i].size) {
+                children[i] = this.replace(children[i], index - offset, replacement);
+                break;
+            }
+            offset += children[i].size;
+        }
+        return this.node(program.op, children);
+    }
+
+    /**
+     * @return Number of distinct subtrees currently stored
+     */
+    public int size() {
+        synchronized (this.nodes) {
+            return this.nodes.size();
+        }
+    }
+
+    /**
+     * An immutable, shared program node.
+     */
+    public static final class Node implements Tree<Op<Double>, Node> {
+
+        private final Op<Double> op;
+        private final Node[] children;
+        private final int hash;
+        private final int size;
+
+        private Node(Op<Double> op, Node[] children) {
+            this.op = op;
+            this.children = children;
+
+            int hash = op.hashCode();
+            int size = 1;
+            for (Node child : children) {
+                hash = 31 * hash + child.hash;
+                size += child.size;
+            }
+            this.hash = hash;
+            this.size = size;
+        }
+
+        @Override
+        public Op<Double> getValue() {
+            return this.op;
+        }
+
+        @Override
+        public Optional<Node> getParent() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Node childAt(int index) {
+            return this.children[index];
+        }
+
+        @Override
+        public int childCount() {
+            return this.children.length;
+        }
+
+        @Override
+        public int size() {
+            return this.size;
+        }
+
+        /**
+         * Get a subtree of this program.
+         *
+         * @param index Pre-order index of the subtree, 0 for this node
+         * @return Subtree at the index
+         */
+        public Node nodeAt(int index) {
+            Node node = this;
+            while (index > 0) {
+                index--;
+                for (Node child : node.children) {
+                    if (index < child.size) {
+                        node = child;
+                        break;
+                    }
+                    index -= child.size;
+                }
+            }
+            return node;
+        }
+
+        /**
+         * Copy this program into a tree of its own, such as for building a ProgramGene.
+         *
+         * @return Unshared copy of the program
+         */
+        public TreeNode<Op<Double>> toTree() {
+            return TreeNode.ofTree(this);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        /**
+         * Nodes are equal when their operators are equal and their children are the same nodes,
+         * which for nodes of one store means they are the same node.
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Node)) {
+                return false;
+            }
+
+            final Node other = (Node) obj;
+            if (this.hash != other.hash || this.children.length != other.children.length
+                    || !this.op.equals(other.op)) {
+                return false;
+            }
+            for (int i = 0; i < this.children.length; i++) {
+                if (this.children[i] != other.children[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return Tree.toString(this);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.Alterer;
+import io.jenetics.AltererResult;
+import io.jenetics.Gene;
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.ext.util.Tree;
+import io.jenetics.ext.util.TreeNode;
+import io.jenetics.prog.ProgramGene;
+import io.jenetics.prog.op.Const;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import io.jenetics.util.ISeq;
+import io.jenetics.util.Seq;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Rewrites programs into smaller equivalent ones, to keep offspring from growing with code that
+ * doesn't change their output.
+ * <p>
+ * A single bottom-up pass folds operators whose arguments are all constants, removes identities
+ * (x + 0, x - 0, x * 1, x / 1, -(-x)) and cancels equal subtrees (x - x, x / x). The pass visits
+ * each node once, and equal subtrees are only compared when their sizes match, so the cost per
+ * program is bounded by its size times its depth. Cancellation assumes x is finite and, for x / x,
+ * non-zero, the same assumption any algebraic simplification makes; screening or fitness still
+ * rejects programs which are undefined elsewhere. Folds producing NaN or Infinity are left alone,
+ * so an undefined program stays undefined.
+ * <p>
+ * Removed nodes are counted until {@link #takeRemovedNodes()} is called, so the count covers one
+ * generation.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class ProgramSimplifier {
+
+    private static final Double[] NO_ARGS = new Double[0];
+
+    private final LongAdder removedNodes = new LongAdder();
+
+    /**
+     * Simplify a program.
+     *
+     * @param program Program to simplify
+     * @return Simplified copy of the program, which may be the same size as the original
+     */
+    public TreeNode<Op<Double>> simplify(Tree<? extends Op<Double>, ?> program) {
+        final Op<Double> op = program.getValue();
+        final int arity = program.childCount();
+        if (arity == 0) {
+            return TreeNode.of(op);
+        }
+
+        final TreeNode<Op<Double>> node = TreeNode.of(op);
+        boolean constantArguments = true;
+        for (int i = 0; i < arity; i++) {
+            TreeNode<Op<Double>> child = this.simplify(program.childAt(i));
+            constantArguments &= ConstantOptimiser.isConstant(child.getValue());
+            node.attach(child);
+        }
+
+        // Only the math operators are known to be pure functions of their arguments
+        if (!(op instanceof MathOp)) {
+            return node;
+        }
+
+        if (constantArguments) {
+            final Double[] args = new Double[arity];
+            for (int i = 0; i < arity; i++) {
+                args[i] = node.childAt(i).getValue().apply(NO_ARGS);
+            }
+            final double value = op.apply(args);
+            if (!Double.isNaN(value) && !Double.isInfinite(value)) {
+                return TreeNode.of(Const.of(value));
+            }
+            return node;
+        }
+
+        final TreeNode<Op<Double>> a = node.childAt(0);
+        final TreeNode<Op<Double>> b = arity > 1 ? node.childAt(1) : null;
+        switch ((MathOp) op) {
+            case ADD:
+                if (isValue(b, 0)) {
+                    return a.detach();
+                }
+                if (isValue(a, 0)) {
+                    return b.detach();
+                }
+                break;
+            case SUB:
+                if (isValue(b, 0)) {
+                    return a.detach();
+                }
+                if (a.size() == b.size() && a.equals(b)) {
+                    return TreeNode.of(Const.of(0.0));
+                }
+                break;
+            case MUL:
+                if (isValue(b, 1)) {
+                    return a.detach();
+                }
+                if (isValue(a, 1)) {
+                    return b.detach();
+                }
+                break;
+            case DIV:
+                if (isValue(b, 1)) {
+                    return a.detach();
+                }
+                if (a.size() == b.size() && a.equals(b)) {
+                    return TreeNode.of(Const.of(1.0));
+                }
+                break;
+            case NEG:
+                if (a.getValue() == MathOp.NEG) {
+                    return a.childAt(0).detach();
+                }
+                break;
+            default:
+                break;
+        }
+        return node;
+    }
+
+    /**
+     * Make an Alterer simplifying the new offspring of each generation. Programs which shrink are
+     * replaced by their simplified form, to be evaluated like any other offspring; evaluated
+     * individuals are left alone, as they were simplified when they were new.
+     *
+     * @param decoder Builds a genotype around a program tree
+     * @param <C> Fitness type of the engine
+     * @return Alterer to run after the engine's other alterers
+     */
+    public <C extends Comparable<? super C>> Alterer<ProgramGene<Double>, C> alterer(
+            Function<Tree<Op<Double>, ?>, Genotype<ProgramGene<Double>>> decoder) {
+        return this.alterer(gene -> gene, decoder);
+    }
+
+    /**
+     * Make an Alterer simplifying the new offspring of each generation of an engine whose genes
+     * hold programs some other way, such as {@link DagProgramGene}.
+     *
+     * @param programOf Gets the program a gene holds
+     * @param decoder Builds a genotype around a program tree
+     * @param <G> Gene type of the engine
+     * @param <C> Fitness type of the engine
+     * @return Alterer to run after the engine's other alterers
+     */
+    public <G extends Gene<?, G>, C extends Comparable<? super C>> Alterer<G, C> alterer(
+            Function<? super G, ? extends Tree<? extends Op<Double>, ?>> programOf,
+            Function<Tree<Op<Double>, ?>, Genotype<G>> decoder) {
+        return (population, generation) -> this.alter(population, generation, programOf, decoder);
+    }
+
+    /**
+     * Returns the number of nodes removed since the last call, and resets it
+     *
+     * @return Number of removed nodes
+     */
+    public long takeRemovedNodes() {
+        return this.removedNodes.sumThenReset();
+    }
+
+    private <G extends Gene<?, G>, C extends Comparable<? super C>> AltererResult<G, C> alter(
+            Seq<Phenotype<G, C>> population, long generation,
+            Function<? super G, ? extends Tree<? extends Op<Double>, ?>> programOf,
+            Function<Tree<Op<Double>, ?>, Genotype<G>> decoder) {
+        int simplified = 0;
+        long removed = 0;
+        final List<Phenotype<G, C>> offspring = new ArrayList<>(population.asList());
+        for (int i = 0; i < offspring.size(); i++) {
+            if (offspring.get(i).isEvaluated()) {
+                continue;
+            }
+
+            final Tree<? extends Op<Double>, ?> program =
+                    programOf.apply(offspring.get(i).getGenotype().getGene());
+            final TreeNode<Op<Double>> simpler = this.simplify(program);
+            if (simpler.size() < program.size()) {
+                removed += program.size() - simpler.size();
+                offspring.set(i, Phenotype.of(decoder.apply(simpler), generation));
+                simplified++;
+            }
+        }
+
+        this.removedNodes.add(removed);
+        return AltererResult.of(ISeq.of(offspring), simplified);
+    }
+
+    private static boolean isValue(Tree<? extends Op<Double>, ?> node, double value) {
+        return ConstantOptimiser.isConstant(node.getValue())
+                && node.getValue().apply(NO_ARGS) == value;
+    }
+}
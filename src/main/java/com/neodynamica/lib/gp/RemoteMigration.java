@@ -0,0 +1,35 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.Gene;
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.util.ISeq;
+
+/**
+ * Exchange of migrants between the islands of this process and islands evolved elsewhere, such as
+ * in other processes of a distributed search.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public interface RemoteMigration<G extends Gene<?, G>, C extends Comparable<? super C>> {
+
+    /**
+     * Send the best individuals of this process's islands to the remote islands.
+     *
+     * @param generation Generation the individuals belong to
+     * @param emigrants Individuals to send, best first
+     */
+    void emigrate(long generation, ISeq<Phenotype<G, C>> emigrants);
+
+    /**
+     * Take the individuals received from remote islands since the last call. They are evaluated
+     * again by the receiving island, so fitness never has to be trusted across processes.
+     *
+     * @return Received individuals, possibly none
+     */
+    ISeq<Genotype<G>> immigrate();
+}
@@ -17,4 +17,8 @@ public enum RunState {
     STOPPED,
     PAUSED,
     RESUMED,
+    /**
+     * Waiting for a RunManager to start it
+     */
+    QUEUED,
 }
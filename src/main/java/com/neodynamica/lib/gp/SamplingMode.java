@@ -0,0 +1,31 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+/**
+ * Strategy used to choose the dataset rows programs are scored on in each generation
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public enum SamplingMode {
+    /**
+     * Score every program on every row
+     */
+    NONE,
+    /**
+     * Score each generation on a new random sample of sampleSize rows
+     */
+    RANDOM,
+    /**
+     * Split the dataset into interleaved slices of about sampleSize rows (every k-th row) and score
+     * each generation on the next slice, so every row is used once every k generations
+     */
+    INTERLEAVED,
+    /**
+     * Start with a random sample of sampleSize rows and grow it linearly, keeping the rows already
+     * chosen, until the last generation is scored on every row
+     */
+    PROGRESSIVE,
+}
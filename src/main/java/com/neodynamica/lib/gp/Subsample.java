@@ -0,0 +1,157 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.lib.sample.Dataset;
+import io.jenetics.Gene;
+import io.jenetics.Phenotype;
+import io.jenetics.engine.Evaluator;
+import io.jenetics.util.RandomRegistry;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chooses the rows of the dataset programs are scored on in each generation.
+ * <p>
+ * Scoring on a sample makes the cost of a generation depend on the sample size instead of the
+ * dataset size, at the price of a noisier fitness. Random choices are drawn from the
+ * RandomRegistry, so seeded runs stay reproducible. An engine's evaluator wrapped by
+ * {@link #rescoring(Evaluator)} scores its whole population again whenever the sample changes, so
+ * every individual of a generation is scored on the same rows.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class Subsample {
+
+    private final SamplingMode mode;
+    private final Dataset dataset;
+    private final int sampleSize;
+    private final long maxGenerations;
+
+    /**
+     * Random order of every row, PROGRESSIVE samples are a growing prefix of it
+     */
+    private int[] order;
+
+    /**
+     * Number of samples chosen so far
+     */
+    private volatile long samples;
+
+    /**
+     * Initialise values
+     *
+     * @param mode How rows are chosen
+     * @param dataset Full dataset
+     * @param sampleSize Number of rows in each sample, the initial number for PROGRESSIVE
+     * @param maxGenerations Generation in which PROGRESSIVE samples reach the full dataset
+     */
+    public Subsample(SamplingMode mode, Dataset dataset, int sampleSize, long maxGenerations) {
+        this.mode = mode;
+        this.dataset = dataset;
+        this.sampleSize = Math.max(1, sampleSize);
+        this.maxGenerations = Math.max(1, maxGenerations);
+    }
+
+    /**
+     * Check whether programs are scored on fewer rows than the full dataset.
+     *
+     * @return False if every generation uses the full dataset
+     */
+    public boolean isActive() {
+        return this.mode != SamplingMode.NONE && this.sampleSize < this.dataset.size();
+    }
+
+    /**
+     * Choose the rows for a generation.
+     *
+     * @param generation Generation the sample is for, starting at 1
+     * @return Dataset holding the chosen rows, or the full dataset if sampling is inactive
+     */
+    public Dataset select(long generation) {
+        if (!isActive()) {
+            return this.dataset;
+        }
+        this.samples++;
+
+        final int n = this.dataset.size();
+        int[] rows;
+
+        switch (this.mode) {
+            case INTERLEAVED:
+                // Slice s holds rows s, s + k, s + 2k, ...
+                int slices = (n + this.sampleSize - 1) / this.sampleSize;
+                int slice = (int) ((generation - 1) % slices);
+                rows = new int[(n - slice + slices - 1) / slices];
+                for (int i = 0; i < rows.length; i++) {
+                    rows[i] = slice + i * slices;
+                }
+                break;
+            case PROGRESSIVE:
+                if (this.order == null) {
+                    this.order = shuffle(identity(n), n);
+                }
+                double progress = Math.min(1.0,
+                        (generation - 1) / (double) Math.max(1, this.maxGenerations - 1));
+                int size = (int) Math.min(n, this.sampleSize + Math.round(progress * (n - this.sampleSize)));
+                rows = Arrays.copyOf(this.order, size);
+                Arrays.sort(rows);
+                break;
+            case RANDOM:
+            default:
+                rows = Arrays.copyOf(shuffle(identity(n), this.sampleSize), this.sampleSize);
+                Arrays.sort(rows);
+                break;
+        }
+
+        return this.dataset.subset(rows);
+    }
+
+    /**
+     * Wrap an engine's evaluator so its population is scored again in full once a new sample has
+     * been chosen. Otherwise survivors keep their fitness on an earlier sample, and selection, the
+     * steady fitness limit and the best of a generation compare errors on different rows.
+     *
+     * @param evaluator Evaluator scoring programs on the current sample
+     * @param <G> Gene type of the engine
+     * @return Evaluator scoring every individual on the current sample
+     */
+    public <G extends Gene<?, G>> Evaluator<G, Double> rescoring(Evaluator<G, Double> evaluator) {
+        final AtomicLong scored = new AtomicLong();
+        return population -> {
+            final long sample = this.samples;
+            if (scored.getAndSet(sample) == sample) {
+                return evaluator.eval(population);
+            }
+            return evaluator.eval(population.map(individual -> individual.isEvaluated()
+                    ? Phenotype.<G, Double>of(individual.getGenotype(), individual.getGeneration())
+                    : individual));
+        };
+    }
+
+    private static int[] identity(int n) {
+        int[] rows = new int[n];
+        for (int i = 0; i < n; i++) {
+            rows[i] = i;
+        }
+        return rows;
+    }
+
+    /**
+     * Partial Fisher-Yates shuffle, leaving a uniform random sample in the first count places.
+     */
+    private static int[] shuffle(int[] rows, int count) {
+        Random random = RandomRegistry.getRandom();
+        for (int i = 0; i < count && i < rows.length - 1; i++) {
+            int j = i + random.nextInt(rows.length - i);
+            int row = rows[i];
+            rows[i] = rows[j];
+            rows[j] = row;
+        }
+        return rows;
+    }
+}
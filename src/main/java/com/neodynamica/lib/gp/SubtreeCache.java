@@ -0,0 +1,184 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.gp;
+
+import io.jenetics.prog.op.Op;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Population-wide cache of subtree output columns.
+ * <p>
+ * Individuals in a population share many subtrees, such as <code>sin(a)</code> or
+ * <code>a*b</code>. Each operator subtree is keyed by a {@link Key} built from its operator and the
+ * keys of its children, so its output column over the dataset only has to be calculated once and
+ * can be reused by every individual evaluated while it is cached. Variables and constants are
+ * cheaper to read or broadcast than to look up, so they are never cached. The number of cached
+ * columns is bounded by a memory budget, and the least recently used column is evicted once the
+ * budget is reached.
+ * <p>
+ * Cached columns are shared between threads and must never be written to.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class SubtreeCache {
+
+    private final Map<Key, double[]> columns;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Initialise values
+     *
+     * @param memoryBudget Maximum number of bytes of cached columns
+     * @param rows Number of rows in each column
+     */
+    public SubtreeCache(long memoryBudget, int rows) {
+        final long capacity = Math.max(1, memoryBudget / ((long) Double.BYTES * Math.max(1, rows)));
+
+        this.columns = new LinkedHashMap<Key, double[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, double[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Get the cached output column of a subtree.
+     *
+     * @param key Key of the subtree
+     * @return Output column, or null if it isn't cached
+     */
+    double[] get(Key key) {
+        double[] column;
+        synchronized (this.columns) {
+            column = this.columns.get(key);
+        }
+
+        if (column == null) {
+            this.misses.increment();
+        } else {
+            this.hits.increment();
+        }
+
+        return column;
+    }
+
+    /**
+     * Cache the output column of a subtree.
+     *
+     * @param key Key of the subtree
+     * @param column Output column, which must not be modified afterwards
+     */
+    void put(Key key, double[] column) {
+        synchronized (this.columns) {
+            this.columns.put(key, column);
+        }
+    }
+
+    /**
+     * Remove every cached column.
+     */
+    public void clear() {
+        synchronized (this.columns) {
+            this.columns.clear();
+        }
+    }
+
+    /**
+     * Get the number of subtree outputs reused since the last call, and reset the count.
+     *
+     * @return Number of cache hits
+     */
+    public long takeHits() {
+        return this.hits.sumThenReset();
+    }
+
+    /**
+     * Get the number of subtree outputs calculated since the last call, and reset the count.
+     *
+     * @return Number of cache misses
+     */
+    public long takeMisses() {
+        return this.misses.sumThenReset();
+    }
+
+    /**
+     * Structural key of a subtree.
+     * <p>
+     * A key holds its node's operator (or, for a leaf, the variable index or exact constant bits)
+     * and the keys of its children, and its hash is combined from theirs when it is built. Building
+     * the key of a node is therefore constant work per child, where a canonical string would copy
+     * the whole subtree at every level.
+     */
+    static final class Key {
+
+        private final Object op;
+        private final Key[] children;
+        private final int hash;
+
+        private Key(Object op, Key[] children) {
+            this.op = op;
+            this.children = children;
+            this.hash = 31 * op.hashCode() + Arrays.hashCode(children);
+        }
+
+        /**
+         * Key of a variable.
+         *
+         * @param index Input column index of the variable
+         * @return Key
+         */
+        static Key variable(int index) {
+            return new Key(index, new Key[0]);
+        }
+
+        /**
+         * Key of a constant, by the exact bits of its value.
+         *
+         * @param value Value of the constant
+         * @return Key
+         */
+        static Key constant(double value) {
+            return new Key(Double.doubleToLongBits(value), new Key[0]);
+        }
+
+        /**
+         * Key of an operator node.
+         *
+         * @param op Operator of the node
+         * @param children Keys of the node's children, in order
+         * @return Key
+         */
+        static Key operator(Op<Double> op, Key... children) {
+            return new Key(op, children);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) other;
+            return this.hash == key.hash
+                    && this.op.equals(key.op)
+                    && Arrays.equals(this.children, key.children);
+        }
+    }
+}
@@ -10,11 +10,20 @@ import com.neodynamica.lib.sample.Dataset;
 import com.neodynamica.backendinterface.Backend;
 import com.neodynamica.backendinterface.GenerationBean;
 import com.neodynamica.lib.sample.io.JavaIdentifierConverter;
+import io.jenetics.Alterer;
+import io.jenetics.Gene;
+import io.jenetics.Genotype;
 import io.jenetics.Mutator;
 import io.jenetics.Phenotype;
 import io.jenetics.TournamentSelector;
+import io.jenetics.engine.Codec;
 import io.jenetics.engine.Engine;
 import io.jenetics.engine.EvolutionResult;
+import io.jenetics.engine.EvolutionStart;
+import io.jenetics.engine.EvolutionStream;
+import io.jenetics.engine.Evaluator;
+import io.jenetics.engine.Evaluators;
+import io.jenetics.engine.EvolutionStreamable;
 import io.jenetics.engine.Limits;
 import io.jenetics.engine.Problem;
 import io.jenetics.ext.SingleNodeCrossover;
@@ -22,6 +31,7 @@ import io.jenetics.ext.engine.AdaptiveEngine;
 import io.jenetics.ext.moea.UFTournamentSelector;
 import io.jenetics.ext.moea.Vec;
 import io.jenetics.ext.util.Tree;
+import io.jenetics.prog.ProgramChromosome;
 import io.jenetics.prog.ProgramGene;
 import io.jenetics.prog.op.EphemeralConst;
 import io.jenetics.prog.op.MathOp;
@@ -32,6 +42,7 @@ import io.jenetics.prog.regression.Error;
 import io.jenetics.util.ISeq;
 import io.jenetics.util.RandomRegistry;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -41,11 +52,17 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -57,6 +74,11 @@ import java.util.function.Supplier;
  */
 public class SymbolicRegression {
 
+    /**
+     * Number of the best programs of each generation re-scored on the full dataset when sampling
+     */
+    private static final int RESCORED_ELITES = 5;
+
     private Backend api;
     private SearchParameter searchParameter;
     private Dataset dataset;
@@ -67,16 +89,149 @@ public class SymbolicRegression {
     private Regression<Double> regression;
     private boolean multiObjective;
 
+    /**
+     * Regression error of a program, computed according to the selected EvaluationMode
+     */
+    private volatile Function<Tree<Op<Double>, ?>, Double> fitness;
+
+    private EvaluationMode evaluationMode;
+    private long subtreeCacheMemory;
+    private int fitnessCacheSize;
+    private String errorFunction;
+    private boolean linearScaling;
+
+    /**
+     * Error function of this run, resolved once per regression update
+     */
+    private ErrorKernel errorKernel;
+
+    /**
+     * Intercept and slope fitted to the output of the all-time best gene when linear scaling
+     */
+    private double[] bestScaling;
+
+    /**
+     * Chooses the rows each generation is scored on, null if every generation uses every row
+     */
+    private Subsample subsample;
+
+    /**
+     * Cache of program errors, null if disabled
+     */
+    private FitnessCache fitnessCache;
+
+    /**
+     * Cache of subtree outputs shared by the population, null if disabled
+     */
+    private SubtreeCache subtreeCache;
+
+    /**
+     * Incremental error calculation aborting hopeless programs, null if disabled
+     */
+    private EarlyAbort earlyAbort;
+
+    /**
+     * Rejects programs which may be undefined over the input ranges, null when disabled
+     */
+    private IntervalScreen intervalScreen;
+
+    /**
+     * Simplifies new offspring after crossover and mutation, null when disabled
+     */
+    private ProgramSimplifier simplifier;
+
+    /**
+     * Runs the engine's selection, alteration and filtering steps
+     */
     private Executor executor;
 
+    /**
+     * Runs fitness evaluation, which is safe to spread over threads even when seeded
+     */
+    private Executor evaluationExecutor;
+
+    /**
+     * Steps the islands of an island model
+     */
+    private Executor islandExecutor;
+    private ExecutorService islandPool;
+    private boolean seeded;
+
+    /**
+     * Evaluates the fitness of this search on a pool shared with other searches, null to use the
+     * common pool
+     */
+    private Executor sharedExecutor;
+
+    /**
+     * Random engine of this search's engine thread, null to use the RandomRegistry's
+     */
+    private Random random;
+
+    private int islandCount;
+    private int migrationInterval;
+    private int migrationSize;
+    private MigrationTopology migrationTopology;
+
+    private int constantOptimisationInterval;
+    private int constantOptimisationElites;
+    private int constantOptimisationTime;
+
+    /**
+     * Tunes the constants of the best programs on the rows currently scored, null when disabled
+     */
+    private volatile ConstantOptimiser constantOptimiser;
+
+    /**
+     * Genotype of a linear program search, null unless evolving LinearPrograms
+     */
+    private Genotype<LinearProgramGene> linearEncoding;
+
+    /**
+     * Error of linear programs on the rows currently scored, screened and cached like the fitness
+     * of trees, null unless evolving LinearPrograms
+     */
+    private volatile Function<LinearProgram, Double> linearFitness;
+
+    /**
+     * Genotype of a DAG program search, null unless evolving the programs of a ProgramDag
+     */
+    private Genotype<DagProgramGene> dagEncoding;
+
+    /**
+     * Island model being evolved, null if evolving a single population
+     */
+    private IslandEngine<ProgramGene<Double>, Double> islandEngine;
+
+    /**
+     * Connection to the coordinator of a distributed search, null for a stand-alone search
+     */
+    private IslandWorker islandWorker;
+
+    /**
+     * Turns a program received from another process into a genotype of this search
+     */
+    private Function<Tree<Op<Double>, ?>, Genotype<ProgramGene<Double>>> programDecoder;
+
+    /**
+     * Checkpoint the search carries on from, null for a search from a random population
+     */
+    private Checkpoint resumeCheckpoint;
+
+    /**
+     * Writes population checkpoints off the engine thread, null when not checkpointing
+     */
+    private CheckpointWriter checkpointWriter;
+    private int checkpointInterval;
+
     private double bestFitness;
     private Vec<double[]> mooBestFitness;
     private ProgramGene<Double> bestGene;
 
     /**
-     * stores data about each generation
+     * stores data about each generation, recent ones in memory and older ones on disk
      */
-    private List<GenerationBean> generationBeans = new ArrayList<>();
+    private final GenerationHistory generationHistory;
 
     // Limits
     private int maxGenerations;
@@ -85,6 +240,7 @@ public class SymbolicRegression {
 
     // Regression algorithm variables
     private int populationSize;
+    private int maxSolutionNodes;
     private int[] includeIntegers;
     private int[] includeDecimals;
     private int includeDecimalPlaces;
@@ -130,6 +286,13 @@ public class SymbolicRegression {
         // Set up symbolic regression
         this.setup(searchParameter);
 
+        this.generationHistory = new GenerationHistory(
+                program -> this.programDecoder.apply(program),
+                searchParameter.getHistoryFullGenerations(),
+                searchParameter.getHistorySampleInterval(),
+                searchParameter.getHistoryKeepNewBest(),
+                searchParameter.getHistoryPopulationGenerations());
+
         //TODO - maybe add another state called 'initialised'?
         this.runState = RunState.PAUSED;
     }
@@ -206,6 +369,18 @@ public class SymbolicRegression {
         this.timeLimit = this.searchParameter.getTimeLimit();
         this.steadyFitnessLimit = this.searchParameter.getSteadyFitnessLimit();
 
+        this.islandCount = this.searchParameter.getIslandCount();
+        this.migrationInterval = this.searchParameter.getMigrationInterval();
+        this.migrationSize = this.searchParameter.getMigrationSize();
+        this.migrationTopology = MigrationTopology
+                .valueOf(this.searchParameter.getMigrationTopology().toUpperCase());
+
+        this.constantOptimisationInterval = this.searchParameter.getConstantOptimisationInterval();
+        this.constantOptimisationElites = this.searchParameter.getConstantOptimisationElites();
+        this.constantOptimisationTime = this.searchParameter.getConstantOptimisationTime();
+
+        this.checkpointInterval = this.searchParameter.getCheckpointInterval();
+
         this.updateRegression();
     }
 
@@ -222,42 +397,76 @@ public class SymbolicRegression {
             // Do nothing, leave it as false and continue
         }
 
-        //if a valid seed was given, run the slower, reproducible single-threaded engine
+        //if a valid seed was given, run the reproducible engine: every step which draws random
+        //numbers (selection, alteration, filtering) runs in order on the engine thread, and only
+        //fitness evaluation runs on multiple threads. Ephemeral constants would draw their values
+        //when first evaluated, so the engine draws them for every new program beforehand
         try {
             searchParameter
                     .getSeed(); //will throw a SearchParameter exception here if no seed specified
-            // Set executor as single threaded for seeding
+            // Set executor as single threaded for seeding, evaluation stays parallel
             executor = Runnable::run;
+            seeded = true;
+            evaluationExecutor = ForkJoinPool.commonPool();
         } catch (SearchParameterException e) {
             // No valid seed exists so use default executor for multi threaded operation
             if (e.getMessage().equals("No seed was specified")) {
                 executor = ForkJoinPool.commonPool();
+                evaluationExecutor = executor;
+                seeded = false;
             } else {
                 // @TODO: Better handle complete crash here
                 throw e;
             }
         } finally {
             final Thread engineThread;
-            engineThread = new Thread(() -> {
+            // Searches sharing a process run their engine steps on their own thread, with their
+            // own random engine, and only share the evaluation pool
+            if (this.sharedExecutor != null) {
+                executor = Runnable::run;
+                evaluationExecutor = this.sharedExecutor;
+            }
+
+            // Checkpoints hold one population of writable programs
+            if (this.checkpointInterval > 0 && !multiObjective && this.islandCount <= 1
+                    && this.islandWorker == null
+                    && (this.searchParameter.getSkeleton() == null
+                        || this.searchParameter.getSkeleton().isEmpty())) {
+                this.checkpointWriter = new CheckpointWriter(
+                        this.searchParameter.getCheckpointFilePath());
+            }
+
+            // A resumed search only has the generations after its checkpoint left
+            final long generations = this.resumeCheckpoint != null
+                    ? this.maxGenerations - this.resumeCheckpoint.getGeneration()
+                    : this.maxGenerations;
+
+            final Runnable evolution = () -> {
+                // Samples draw random numbers, so the first is drawn here on the engine thread
+                if (this.subsample != null) {
+                    this.resample(this.resumeCheckpoint != null
+                            ? this.resumeCheckpoint.getGeneration()
+                            : 0);
+                }
+
                 // If multi objective
                 if (multiObjective) {
                     final Problem<Tree<Op<Double>, ?>, ProgramGene<Double>, Vec<double[]>> problem = Problem.of(prog -> {
                         return Vec.of(
                                 // The regression error
-                                regression.error(prog),
+                                this.fitness.apply(prog),
                                 // The complexity measure - number of nodes
                                 this.getModelComplexity(prog.size())
                         );
                     }, regression.codec());
 
-                    new AdaptiveEngine<ProgramGene<Double>, Vec<double[]>> (s -> Engine.builder(problem)
+                    new AdaptiveEngine<ProgramGene<Double>, Vec<double[]>> (s -> new Engine.Builder<>(
+                            Evaluators.concurrent(problem.fitness(), problem.codec(), evaluationExecutor),
+                            ConstantRealiser.factory(problem.codec().encoding()))
                         .populationSize(this.populationSize)
                         .offspringSelector(new TournamentSelector<>(this.offspringSampleSize)) // Jenetics default is Tournament Selector, used here to provide sample size
                         .survivorsSelector(UFTournamentSelector.ofVec())
-                        .alterers(
-                                new Mutator<>(this.mutatorProbability),
-                                new SingleNodeCrossover<>(this.crossoverProbability)
-                        )
+                        .alterers(this.alterer())
                         .offspringFraction(this.offspringFraction)
                         .minimizing()
                         .executor(executor)
@@ -272,22 +481,78 @@ public class SymbolicRegression {
                     .forEach(r -> {
                         onEachGeneration(r.getGeneration());
                     });
+                } else if (this.linearEncoding != null && this.islandCount <= 1
+                        && this.islandWorker == null) {
+                    // Linear programs are turned back into trees for reporting only
+                    this.islandEngine = null;
+                    this.streamFrom(this.buildLinearEngine(executor).limit(generations),
+                            this::toLinearGenotype)
+                    .limit(Limits.byExecutionTime(Duration.ofSeconds(this.timeLimit)))
+                    .limit(Limits.bySteadyFitness(this.steadyFitnessLimit))
+                    .limit(results -> !Thread.currentThread().isInterrupted())
+                    .forEach(r -> {
+                        // Early abort knows programs by the linear programs it scored
+                        this.addGenerationBean(this.toTreeResult(r,
+                                gene -> gene.getAllele().toTree()),
+                                r.getPopulation().map(
+                                        solution -> solution.getGenotype().getGene().getAllele())
+                                        .asList());
+                        onEachGeneration(r.getGeneration());
+                    });
+                } else if (this.dagEncoding != null && this.islandCount <= 1
+                        && this.islandWorker == null) {
+                    // DAG programs are scored as they are, and only copied into trees for reporting
+                    this.islandEngine = null;
+                    this.streamFrom(this.buildDagEngine(executor).limit(generations),
+                            this::toDagGenotype)
+                    .limit(Limits.byExecutionTime(Duration.ofSeconds(this.timeLimit)))
+                    .limit(Limits.bySteadyFitness(this.steadyFitnessLimit))
+                    .limit(results -> !Thread.currentThread().isInterrupted())
+                    .forEach(r -> {
+                        // Early abort knows programs by the nodes it scored, not their copies
+                        this.addGenerationBean(this.toTreeResult(r, DagProgramGene::getAllele),
+                                r.getPopulation().map(
+                                        solution -> solution.getGenotype().getGene().getAllele())
+                                        .asList());
+                        onEachGeneration(r.getGeneration());
+                    });
                 } else {
-                    new AdaptiveEngine<ProgramGene<Double>, Double> (s -> Engine.builder(regression)
-                        .populationSize(this.populationSize)
-                        .offspringSelector(new TournamentSelector<>(this.offspringSampleSize)) // Jenetics default is Tournament Selector, used here to provide sample size
-                        .survivorsSelector(new TournamentSelector<>(this.survivorsSampleSize)) // Jenetics default is Tournament Selector, used here to provide sample size
-                        .alterers(
-                                new Mutator<>(this.mutatorProbability),
-                                new SingleNodeCrossover<>(this.crossoverProbability)
-                        )
-                        .offspringFraction(this.offspringFraction)
-                        .minimizing()
-                        .executor(executor)
-                        //.mapping(EvolutionResult.toUniquePopulation(1))
-                        .build()
-                        .limit(this.maxGenerations))
-                    .stream()
+                    final EvolutionStreamable<ProgramGene<Double>, Double> streamable;
+                    if (this.islandCount > 1 || this.islandWorker != null) {
+                        // Every island steps on its own thread, unless seeded where they take turns
+                        if (seeded || this.sharedExecutor != null) {
+                            islandExecutor = Runnable::run;
+                        } else {
+                            islandPool = Executors.newFixedThreadPool(this.islandCount, runnable -> {
+                                Thread islandThread = new Thread(runnable, "island");
+                                islandThread.setDaemon(true);
+                                return islandThread;
+                            });
+                            islandExecutor = islandPool;
+                        }
+
+                        List<Engine<ProgramGene<Double>, Double>> islands = new ArrayList<>();
+                        int islandPopulation = Math.max(2, this.populationSize / this.islandCount);
+                        for (int i = 0; i < this.islandCount; i++) {
+                            islands.add(this.buildEngine(islandPopulation, Runnable::run));
+                        }
+                        if (this.islandWorker != null) {
+                            this.islandWorker.setDecoder(program -> this.programDecoder.apply(program),
+                                    this.maxSolutionNodes, this.operators,
+                                    this.dataset.getInputLabels().length);
+                        }
+                        this.islandEngine = new IslandEngine<>(islands, this.migrationTopology,
+                                this.migrationInterval, this.migrationSize, islandExecutor,
+                                this.islandWorker);
+                        streamable = this.islandEngine.limit(this.maxGenerations);
+                    } else {
+                        this.islandEngine = null;
+                        streamable = new AdaptiveEngine<ProgramGene<Double>, Double>(
+                                s -> this.buildEngine(this.populationSize, executor)
+                                        .limit(generations));
+                    }
+
+                    this.streamFrom(streamable, this.programDecoder)
                     .limit(Limits.byExecutionTime(Duration.ofSeconds(this.timeLimit)))
                     .limit(Limits.bySteadyFitness(this.steadyFitnessLimit))
                     .limit(results -> !Thread.currentThread().isInterrupted())
@@ -295,6 +560,28 @@ public class SymbolicRegression {
                     .forEach(r -> {
                         onEachGeneration(r.getGeneration());
                     });
+
+                    if (islandPool != null) {
+                        islandPool.shutdown();
+                    }
+                    if (this.islandWorker != null) {
+                        try {
+                            this.islandWorker.close();
+                        } catch (IOException e) {
+                            // Coordinator already gone, nothing left to tell it
+                        }
+                    }
+                }
+
+                // The last checkpoint offered is still written
+                final CheckpointWriter writer = this.checkpointWriter;
+                if (writer != null) {
+                    try {
+                        writer.close();
+                    } catch (InterruptedException e) {
+                        // Stopped; the writer finishes on its own
+                        Thread.currentThread().interrupt();
+                    }
                 }
 
                 // Evolution ended, let the backend know
@@ -302,13 +589,323 @@ public class SymbolicRegression {
                 this.terminated = true;
                 // @TODO: tell the api why it ended
                 api.evolutionEnded();
-            });
+            };
 
+            final Random engineRandom = this.random;
+            engineThread = new Thread(engineRandom == null
+                    ? evolution
+                    : () -> RandomRegistry.using(engineRandom, r -> evolution.run()));
             engineThread.start();
             this.thread = engineThread;
         }
     }
 
+    /**
+     * Run this search as one of several in the same process. Must be called before run().
+     *
+     * @param sharedExecutor Pool evaluating the fitness of every search, such as a queue of a
+     * {@link FairExecutor}; the engine steps then run on this search's own thread
+     * @param random Random engine used by this search only, or null to use the RandomRegistry's
+     */
+    public void setExecution(Executor sharedExecutor, Random random) {
+        this.sharedExecutor = sharedExecutor;
+        this.random = random;
+    }
+
+    /**
+     * Carry on from a checkpoint instead of a random population. Must be called before run(). The
+     * search resumes from the saved population, best solution and parameters, and draws from the
+     * checkpoint's random engine if the RandomRegistry holds it when run() is called. State kept
+     * only in memory, such as the caches and the row order of PROGRESSIVE sampling, starts afresh,
+     * so the resumed search may not make the choices the uninterrupted one would have.
+     *
+     * @param checkpoint Checkpoint of a search with these parameters
+     * @throws SearchParameterException if the search isn't single objective on one island, or has
+     * already reached maxGenerations
+     */
+    public void resumeFrom(Checkpoint checkpoint) throws SearchParameterException {
+        boolean multiObjectiveRun = false;
+        try {
+            multiObjectiveRun = this.searchParameter.getMultiObjectiveOptimisation();
+        } catch (SearchParameterException e) {
+            // Not set, so the run is single objective
+        }
+        if (multiObjectiveRun || this.islandCount > 1 || this.islandWorker != null) {
+            throw new SearchParameterException(
+                    "Only single objective searches on one island can be resumed from a checkpoint");
+        }
+        if (checkpoint.getGeneration() >= this.maxGenerations) {
+            throw new SearchParameterException("Checkpoint is of generation "
+                    + checkpoint.getGeneration() + ", the search has already ended");
+        }
+
+        this.resumeCheckpoint = checkpoint;
+        this.bestFitness = checkpoint.getBestFitness();
+        this.bestGene = checkpoint.getBest() != null
+                ? this.programDecoder.apply(checkpoint.getBest()).getGene()
+                : null;
+
+        // Pick up the threshold the checkpointed generation left for the next
+        if (this.earlyAbort != null) {
+            List<Tree<Op<Double>, ?>> programs = new ArrayList<>(checkpoint.size());
+            List<Double> populationFitness = new ArrayList<>(checkpoint.size());
+            for (int i = 0; i < checkpoint.size(); i++) {
+                programs.add(checkpoint.getProgram(i));
+                populationFitness.add(checkpoint.getFitness(i));
+            }
+            this.earlyAbort.updateThreshold(programs, populationFitness);
+        }
+    }
+
+    /**
+     * Make this search one worker of a distributed island search. Only single objective runs
+     * exchange migrants; the connection is closed when evolution ends.
+     *
+     * @param islandWorker Connection to the coordinator, or null for a stand-alone search
+     */
+    public void setIslandWorker(IslandWorker islandWorker) {
+        this.islandWorker = islandWorker;
+    }
+
+    /**
+     * Stream an engine from the checkpoint being resumed, or from a random population
+     *
+     * @param streamable - the engine
+     * @param decoder - turns a checkpointed program into a genotype of the engine
+     */
+    private <G extends Gene<?, G>> EvolutionStream<G, Double> streamFrom(
+            final EvolutionStreamable<G, Double> streamable,
+            final Function<Tree<Op<Double>, ?>, Genotype<G>> decoder) {
+        final Checkpoint checkpoint = this.resumeCheckpoint;
+        if (checkpoint == null) {
+            return streamable.stream();
+        }
+
+        // Evaluated phenotypes keep their fitness, so the population isn't scored again unless
+        // it is scored on a sample
+        final List<Phenotype<G, Double>> population = new ArrayList<>(checkpoint.size());
+        for (int i = 0; i < checkpoint.size(); i++) {
+            population.add(Phenotype.of(decoder.apply(checkpoint.getProgram(i)),
+                    checkpoint.getBirth(i), checkpoint.getFitness(i)));
+        }
+        return streamable.stream(
+                EvolutionStart.of(ISeq.of(population), checkpoint.getGeneration() + 1));
+    }
+
+    /**
+     * Build a single-objective engine evolving a population of the given size
+     *
+     * @param size - the number of individuals in the population
+     * @param engineExecutor - runs the engine's selection, alteration and filtering steps
+     */
+    private Engine<ProgramGene<Double>, Double> buildEngine(final int size,
+            final Executor engineExecutor) {
+        return new Engine.Builder<>(
+                this.rescoring(Evaluators.<Tree<Op<Double>, ?>, ProgramGene<Double>, Double>concurrent(
+                        program -> this.fitness.apply(program), regression.codec(), evaluationExecutor)),
+                ConstantRealiser.factory(regression.codec().encoding()))
+            .populationSize(size)
+            .offspringSelector(new TournamentSelector<>(this.offspringSampleSize)) // Jenetics default is Tournament Selector, used here to provide sample size
+            .survivorsSelector(new TournamentSelector<>(this.survivorsSampleSize)) // Jenetics default is Tournament Selector, used here to provide sample size
+            .alterers(this.alterer())
+            .offspringFraction(this.offspringFraction)
+            .minimizing()
+            .executor(engineExecutor)
+            //.mapping(EvolutionResult.toUniquePopulation(1))
+            .mapping(result -> this.optimiseConstants(result, gene -> gene, this.programDecoder))
+            .build();
+    }
+
+    /**
+     * Score the whole population of an engine again whenever a new sample is drawn, so survivors
+     * are compared with new offspring on the same rows
+     *
+     * @param evaluator - the engine's evaluator
+     */
+    private <G extends Gene<?, G>> Evaluator<G, Double> rescoring(
+            final Evaluator<G, Double> evaluator) {
+        final Subsample sample = this.subsample;
+        return sample != null ? sample.rescoring(evaluator) : evaluator;
+    }
+
+    /**
+     * Build a single-objective engine evolving linear programs. They are simplified and optimised
+     * like trees when enabled, through the trees they decode to
+     *
+     * @param engineExecutor - runs the engine's selection, alteration and filtering steps
+     */
+    private Engine<LinearProgramGene, Double> buildLinearEngine(final Executor engineExecutor) {
+        final Codec<LinearProgram, LinearProgramGene> codec =
+                Codec.of(this.linearEncoding, genotype -> genotype.getGene().getAllele());
+        final Alterer<LinearProgramGene, Double> alterer = Alterer.of(
+                new LinearMutator<Double>(this.mutatorProbability),
+                new LinearCrossover<Double>(this.crossoverProbability));
+        final ProgramSimplifier simplify = this.simplifier;
+        return new Engine.Builder<>(
+                this.rescoring(Evaluators.<LinearProgram, LinearProgramGene, Double>concurrent(
+                        program -> this.linearFitness.apply(program), codec, evaluationExecutor)),
+                codec.encoding())
+            .populationSize(this.populationSize)
+            .offspringSelector(new TournamentSelector<>(this.offspringSampleSize))
+            .survivorsSelector(new TournamentSelector<>(this.survivorsSampleSize))
+            .alterers(simplify != null
+                    ? alterer.andThen(simplify.alterer(gene -> gene.getAllele().toTree(),
+                            this::toLinearGenotype))
+                    : alterer)
+            .offspringFraction(this.offspringFraction)
+            .minimizing()
+            .executor(engineExecutor)
+            .mapping(result -> this.optimiseConstants(result, gene -> gene.getAllele().toTree(),
+                    this::toLinearGenotype))
+            .build();
+    }
+
+    /**
+     * Encode a program as a linear program of the search. Simplification and constant
+     * optimisation only fold, remove or retune nodes, so programs from linear programs encode
+     *
+     * @param program - the program, such as one from a checkpoint
+     */
+    private Genotype<LinearProgramGene> toLinearGenotype(final Tree<Op<Double>, ?> program) {
+        return Genotype.of(LinearProgramChromosome.of(
+                this.linearEncoding.getGene().newInstance(LinearProgram.compile(program))));
+    }
+
+    /**
+     * Build a single-objective engine evolving the programs of a ProgramDag. They are scored by
+     * the same fitness function as trees, and simplified and optimised like them when enabled
+     *
+     * @param engineExecutor - runs the engine's selection, alteration and filtering steps
+     */
+    private Engine<DagProgramGene, Double> buildDagEngine(final Executor engineExecutor) {
+        final Codec<ProgramDag.Node, DagProgramGene> codec =
+                Codec.of(this.dagEncoding, genotype -> genotype.getGene().getAllele());
+        final Alterer<DagProgramGene, Double> alterer = Alterer.of(
+                new DagMutator<Double>(this.mutatorProbability),
+                new DagCrossover<Double>(this.crossoverProbability));
+        final ProgramSimplifier simplify = this.simplifier;
+        return new Engine.Builder<>(
+                this.rescoring(Evaluators.<ProgramDag.Node, DagProgramGene, Double>concurrent(
+                        program -> this.fitness.apply(program), codec, evaluationExecutor)),
+                codec.encoding())
+            .populationSize(this.populationSize)
+            .offspringSelector(new TournamentSelector<>(this.offspringSampleSize))
+            .survivorsSelector(new TournamentSelector<>(this.survivorsSampleSize))
+            .alterers(simplify != null
+                    ? alterer.andThen(simplify.alterer(DagProgramGene::getAllele,
+                            this::toDagGenotype))
+                    : alterer)
+            .offspringFraction(this.offspringFraction)
+            .minimizing()
+            .executor(engineExecutor)
+            .mapping(result -> this.optimiseConstants(result, DagProgramGene::getAllele,
+                    this::toDagGenotype))
+            .build();
+    }
+
+    /**
+     * Store a program in the ProgramDag of the search, sharing its subtrees with the programs
+     * already there
+     *
+     * @param program - the program, such as one from a checkpoint
+     */
+    private Genotype<DagProgramGene> toDagGenotype(final Tree<Op<Double>, ?> program) {
+        final DagProgramGene gene = this.dagEncoding.getGene();
+        return Genotype.of(DagProgramChromosome.of(gene.newInstance(gene.getDag().intern(program))));
+    }
+
+    /**
+     * Turn a generation of programs held some other way into one of program trees, so it is
+     * reported like any other generation
+     *
+     * @param result - the generation
+     * @param programOf - gets the program tree of a gene
+     */
+    private <G extends Gene<?, G>> EvolutionResult<ProgramGene<Double>, Double> toTreeResult(
+            final EvolutionResult<G, Double> result,
+            final Function<G, ? extends Tree<Op<Double>, ?>> programOf) {
+        final ISeq<Phenotype<ProgramGene<Double>, Double>> population = result.getPopulation()
+                .map(solution -> Phenotype.of(
+                        this.programDecoder.apply(programOf.apply(solution.getGenotype().getGene())),
+                        solution.getGeneration(), solution.getFitness()));
+        return EvolutionResult.of(result.getOptimize(), population, result.getGeneration(),
+                result.getTotalGenerations(), result.getDurations(), result.getKillCount(),
+                result.getInvalidCount(), result.getAlterCount());
+    }
+
+    /**
+     * Build the alterer of an engine: mutation and crossover, followed by simplification of the
+     * new offspring when enabled. The constants of the new offspring are then drawn, so it happens
+     * on the engine thread rather than during evaluation
+     *
+     * @param <C> - the fitness type of the engine
+     */
+    private <C extends Comparable<? super C>> Alterer<ProgramGene<Double>, C> alterer() {
+        final Alterer<ProgramGene<Double>, C> alterer = Alterer.of(
+                new Mutator<ProgramGene<Double>, C>(this.mutatorProbability),
+                new SingleNodeCrossover<ProgramGene<Double>, C>(this.crossoverProbability));
+        final ProgramSimplifier simplify = this.simplifier;
+        return (simplify != null
+                ? alterer.andThen(simplify.alterer(this.programDecoder))
+                : alterer)
+                .andThen(ConstantRealiser.<C>alterer());
+    }
+
+    /**
+     * Every constantOptimisationInterval generations, tune the numeric constants of the best
+     * programs of a generation and put the refined programs in place of the originals.
+     *
+     * @param result - the EvolutionResult of an engine step
+     * @param programOf - gets the program tree of a gene
+     * @param decoder - builds a genotype of the engine around a refined program
+     * @return the result, with the refined programs if any improved
+     */
+    private <G extends Gene<?, G>> EvolutionResult<G, Double> optimiseConstants(
+            final EvolutionResult<G, Double> result,
+            final Function<G, ? extends Tree<Op<Double>, ?>> programOf,
+            final Function<Tree<Op<Double>, ?>, Genotype<G>> decoder) {
+        final ConstantOptimiser optimiser = this.constantOptimiser;
+        if (optimiser == null || result.getGeneration() % this.constantOptimisationInterval != 0) {
+            return result;
+        }
+
+        final List<Phenotype<G, Double>> population =
+                new ArrayList<>(result.getPopulation().asList());
+        final List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < population.size(); i++) {
+            order.add(i);
+        }
+        order.sort((a, b) -> population.get(a).compareTo(population.get(b)));
+
+        // Seeded runs are only limited by evaluations, as a deadline would make them irreproducible
+        final long deadline = seeded
+                ? Long.MAX_VALUE
+                : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.constantOptimisationTime);
+
+        final int elites = Math.min(this.constantOptimisationElites, population.size());
+        final List<CompletableFuture<ConstantOptimiser.Refined>> refining = new ArrayList<>();
+        for (int i = 0; i < elites; i++) {
+            final Tree<Op<Double>, ?> program =
+                    programOf.apply(population.get(order.get(i)).getGenotype().getGene());
+            refining.add(CompletableFuture.supplyAsync(
+                    () -> optimiser.optimise(program, deadline), evaluationExecutor));
+        }
+
+        for (int i = 0; i < elites; i++) {
+            final ConstantOptimiser.Refined refined = refining.get(i).join();
+            if (refined != null) {
+                final Phenotype<G, Double> original = population.get(order.get(i));
+                population.set(order.get(i), Phenotype.of(
+                        decoder.apply(refined.getProgram()),
+                        original.getGeneration(), refined.getError()));
+            }
+        }
+
+        return EvolutionResult.of(result.getOptimize(), ISeq.of(population),
+                result.getGeneration(), result.getTotalGenerations(), result.getDurations(),
+                result.getKillCount(), result.getInvalidCount(), result.getAlterCount());
+    }
+
     private void onEachGeneration(long generation) {
         if (this.paused) {
             //this.population = r.getPopulation();
@@ -327,11 +924,26 @@ public class SymbolicRegression {
 
     /**
      * Generates a GenerationBean based on the supplied generation, and adds it to the
-     * generationBeans list
+     * generation history
      *
      * @param result - the EvolutionResult after a generation of SymbolicRegression running.
      */
     private void addGenerationBean(final EvolutionResult<ProgramGene<Double>, Double> result) {
+        // The gene is the very program the fitness function was given
+        this.addGenerationBean(result,
+                result.getPopulation().map(solution -> solution.getGenotype().getGene()).asList());
+    }
+
+    /**
+     * Generates a GenerationBean based on the supplied generation, and adds it to the
+     * generation history
+     *
+     * @param result - the EvolutionResult after a generation of SymbolicRegression running.
+     * @param evaluated - the program of every individual as the fitness function was given it, in
+     * population order
+     */
+    private void addGenerationBean(final EvolutionResult<ProgramGene<Double>, Double> result,
+            final List<?> evaluated) {
         GenerationBean<Double> generationBean = new GenerationBean<>();
         generationBean.setIndex(result.getGeneration());
         generationBean.setWorstFitness(result.getWorstFitness());
@@ -378,10 +990,45 @@ public class SymbolicRegression {
         }
         generationBean.setFitnessStandardDeviation(Math.sqrt(deviation / numOfScores));
 
+        this.recordCacheStatistics(generationBean);
+
+        final IslandEngine<ProgramGene<Double>, Double> islands = this.islandEngine;
+        if (islands != null) {
+            this.recordIslandStatistics(generationBean, islands.islands(result.getPopulation()));
+        }
+
+        // Programs which can't beat the worst of this generation aren't worth evaluating in full
+        if (this.earlyAbort != null) {
+            List<Double> populationFitness = new ArrayList<>(evaluated.size());
+            for (Phenotype<ProgramGene<Double>, Double> solution : result.getPopulation()) {
+                populationFitness.add(solution.getFitness());
+            }
+            this.earlyAbort.updateThreshold(evaluated, populationFitness);
+        }
+
+        double generationBestFitness = result.getBestFitness();
+        ProgramGene<Double> generationBestGene = result.getBestPhenotype().getGenotype().getGene();
+
+        // Fitness on a sample is noisy, so re-score the elites on every row before reporting them
+        if (this.subsample != null) {
+            generationBestFitness = Double.POSITIVE_INFINITY;
+            int elites = Math.min(RESCORED_ELITES, populationAsList.size());
+            for (int i = 0; i < elites; i++) {
+                ProgramGene<Double> gene = populationAsList.get(i).getGenotype().getGene();
+                double error = this.regression.error(gene);
+                if (i == 0 || error < generationBestFitness) {
+                    generationBestFitness = error;
+                    generationBestGene = gene;
+                }
+            }
+
+            this.resample(result.getGeneration());
+        }
+
         //determine if all-time best fitness has improved this generation, updating if so
-        if (result.getBestFitness() < bestFitness) {
-            this.bestFitness = result.getBestFitness();
-            this.bestGene = result.getBestPhenotype().getGenotype().getGene();
+        if (generationBestFitness < bestFitness) {
+            this.bestFitness = generationBestFitness;
+            this.bestGene = generationBestGene;
             generationBean.setNewBest(true);
         } else {
             generationBean.setNewBest(false);
@@ -391,9 +1038,21 @@ public class SymbolicRegression {
         generationBean.setBestGene(this.bestGene);
         generationBean.setBestFitness(this.bestFitness);
 
+        if (this.linearScaling) {
+            if (generationBean.isNewBest() || this.bestScaling == null) {
+                this.bestScaling = this.scalingOf(this.bestGene);
+            }
+            generationBean.setLinearScaling(this.bestScaling[0], this.bestScaling[1]);
+        }
+
+        if (this.islandWorker != null) {
+            this.islandWorker.report(generationBean);
+        }
 
-        //add this generation to the list
-        generationBeans.add(generationBean);
+        this.checkpoint(result, generationBean);
+
+        //add this generation to the history
+        generationHistory.add(generationBean);
 
         //notify api that a new generation has been added
         api.newGeneration();
@@ -401,7 +1060,7 @@ public class SymbolicRegression {
 
     /**
      * Generates a GenerationBean based on the supplied generation, and adds it to the
-     * generationBeans list
+     * generation history
      *
      * @param result - the EvolutionResult after a generation of SymbolicRegression running.
      */
@@ -480,6 +1139,8 @@ public class SymbolicRegression {
                         Math.sqrt(complexityDeviation / numOfScores));
         generationBean.setFitnessStandardDeviation(standardDeviation);
 
+        this.recordCacheStatistics(generationBean);
+
         //determine if best fitness has improved this generation
         if (result.getBestFitness().dominance(mooBestFitness) > 0) {
             mooBestFitness = result.getBestFitness();
@@ -489,28 +1150,130 @@ public class SymbolicRegression {
         }
 
         generationBean.setBestGene((result.getBestPhenotype().getGenotype().getGene()));
+        if (this.linearScaling) {
+            double[] scaling = this.scalingOf(generationBean.getBestGene());
+            generationBean.setLinearScaling(scaling[0], scaling[1]);
+        }
 
-        //add this generation to the list
-        generationBeans.add(generationBean);
+        //add this generation to the history
+        generationHistory.add(generationBean);
 
         //notify api that a new generation has been added
         api.newGeneration();
     }
 
     /**
-     * Stop current evolution.
+     * Moves the fitness and subtree cache hit/miss counts, and the early abort, interval screen and
+     * simplification counts, gathered since the last generation into the GenerationBean, then empties
+     * the subtree cache ready for the next generation
+     *
+     * @param generationBean - the GenerationBean of the generation just evaluated
      */
-    public void stop() {
-        // Set run state
-        this.runState = RunState.ENDED;
+    private void recordCacheStatistics(final GenerationBean generationBean) {
+        final FitnessCache cache = this.fitnessCache;
+        if (cache != null) {
+            generationBean.setFitnessCacheHits(cache.takeHits());
+            generationBean.setFitnessCacheMisses(cache.takeMisses());
+        }
 
-        this.terminated = true;
+        final SubtreeCache subtrees = this.subtreeCache;
+        if (subtrees != null) {
+            generationBean.setSubtreeCacheHits(subtrees.takeHits());
+            generationBean.setSubtreeCacheMisses(subtrees.takeMisses());
+            subtrees.clear();
+        }
+
+        final EarlyAbort abort = this.earlyAbort;
+        if (abort != null) {
+            generationBean.setAbortedEvaluations(abort.takeAborted());
+            generationBean.setEvaluatedRows(abort.takeEvaluatedRows());
+            generationBean.setSkippedRows(abort.takeSkippedRows());
+        }
+
+        final IntervalScreen screen = this.intervalScreen;
+        if (screen != null) {
+            generationBean.setIntervalRejections(screen.takeRejections());
+        }
 
+        final ProgramSimplifier simplify = this.simplifier;
+        if (simplify != null) {
+            generationBean.setSimplifiedNodes(simplify.takeRemovedNodes());
+        }
+    }
+
+    /**
+     * Every checkpointInterval generations, hand a checkpoint of the generation to the writer, and
+     * record what checkpointing has cost, and why it stopped if it has, in the GenerationBean
+     *
+     * @param result - the EvolutionResult of the generation
+     * @param generationBean - the GenerationBean of the generation
+     */
+    private void checkpoint(final EvolutionResult<ProgramGene<Double>, Double> result,
+            final GenerationBean generationBean) {
+        final CheckpointWriter writer = this.checkpointWriter;
+        if (writer == null) {
+            return;
+        }
+
+        if (result.getGeneration() % this.checkpointInterval == 0) {
+            // Only the capture runs here; the programs are encoded and written by the writer
+            final long start = System.nanoTime();
+            writer.offer(Checkpoint.of(result.getGeneration(), result.getPopulation(),
+                    this.bestFitness, this.bestGene, this.searchParameter,
+                    this.seeded ? RandomRegistry.getRandom() : null));
+            generationBean.setCheckpointNanos(System.nanoTime() - start);
+        }
+
+        generationBean.setCheckpointBytes(writer.getLastBytes());
+        generationBean.setCheckpointWriteNanos(writer.getLastWriteNanos());
+        generationBean.setSkippedCheckpoints(writer.takeSkipped());
+
+        final IOException failure = writer.getFailure();
+        if (failure != null) {
+            generationBean.setCheckpointFailure(failure.toString());
+        }
+    }
+
+    /**
+     * Stores the best and average fitness of each island in the GenerationBean
+     *
+     * @param generationBean - the GenerationBean of the generation just evaluated
+     * @param islands - the population of each island
+     */
+    private void recordIslandStatistics(final GenerationBean generationBean,
+            final List<ISeq<Phenotype<ProgramGene<Double>, Double>>> islands) {
+        double[] best = new double[islands.size()];
+        double[] average = new double[islands.size()];
+
+        for (int i = 0; i < islands.size(); i++) {
+            best[i] = Double.POSITIVE_INFINITY;
+            double sum = 0;
+            int scores = 0;
+            for (Phenotype<ProgramGene<Double>, Double> solution : islands.get(i)) {
+                double fitness = solution.getFitness();
+                //skip over results with infinite error (e.g. those with divide by zero errors)
+                if (!Double.isNaN(fitness) && !Double.isInfinite(fitness)) {
+                    best[i] = Math.min(best[i], fitness);
+                    sum += fitness;
+                    scores++;
+                }
+            }
+            // An island without a finite score has no average, like it has no best
+            average[i] = scores > 0 ? sum / scores : Double.POSITIVE_INFINITY;
+        }
+
+        generationBean.setIslandBestFitness(best);
+        generationBean.setIslandAverageFitness(average);
+    }
+
+    /**
+     * Stop current evolution.
+     */
+    public void stop() {
         final Thread _thread = this.thread;
+        this.cancel();
 
         if (_thread != null) {
-            _thread.interrupt();
-
             try {
                 _thread.join();
             } catch (InterruptedException e) {
@@ -521,6 +1284,22 @@ public class SymbolicRegression {
         }
     }
 
+    /**
+     * Stop current evolution without waiting for it to end, such as from a thread evolution may be
+     * waiting for.
+     */
+    public void cancel() {
+        // Set run state
+        this.runState = RunState.ENDED;
+
+        this.terminated = true;
+
+        final Thread _thread = this.thread;
+        if (_thread != null) {
+            _thread.interrupt();
+        }
+    }
+
     /**
      * Pause current evolution
      */
@@ -579,12 +1358,24 @@ public class SymbolicRegression {
     }
 
     /**
-     * Get generationBeans - used by Backend
+     * Get the reason checkpoints stopped being written - used by Backend. Unlike the
+     * GenerationBeans, this includes the failure of the checkpoint written as evolution ends.
+     *
+     * @return The exception which stopped checkpointing, or null if it hasn't failed or the search
+     * isn't checkpointed
+     */
+    public IOException getCheckpointFailure() {
+        final CheckpointWriter writer = this.checkpointWriter;
+        return writer != null ? writer.getFailure() : null;
+    }
+
+    /**
+     * Get the generation history - used by Backend
      *
-     * @return List of GenerationBeans containing information about each completed generation
+     * @return GenerationBeans containing information about each completed generation
      */
-    public List<GenerationBean> getGenerationBeans() {
-        return generationBeans;
+    public GenerationHistory getGenerationHistory() {
+        return generationHistory;
     }
 
     /* ================================================
@@ -609,6 +1400,21 @@ public class SymbolicRegression {
         }
     }
 
+    /**
+     * Fit the linear scaling of a gene's output to the whole dataset
+     *
+     * @param gene - the gene whose output is scaled
+     * @return the intercept and slope
+     */
+    private double[] scalingOf(final ProgramGene<Double> gene) {
+        final Double[][] inputs = this.dataset.getInputValues();
+        final Double[] calculated = new Double[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            calculated[i] = gene.eval(inputs[i]);
+        }
+        return ErrorFunction.scaling(calculated, this.dataset.getOutputValues());
+    }
+
     /**
      * Update the instances codec Triggered by setup or if codec variables change
      */
@@ -616,14 +1422,211 @@ public class SymbolicRegression {
 
         int initialSolutionDepth = this.searchParameter.getInitialSolutionDepth();
         int maxSolutionNodes = this.searchParameter.getMaxSolutionNodes();
+        this.maxSolutionNodes = maxSolutionNodes;
 
-        ErrorFunction.setErrorType(this.searchParameter.getErrorFunction());
+        // Only the squared errors have a closed form optimal scaling
+        this.linearScaling = this.searchParameter.getLinearScaling()
+                && ErrorFunction.supportsLinearScaling(this.searchParameter.getErrorFunction());
+        this.bestScaling = null;
+
+        // Resolved here rather than per program, and held by this run only
+        final ErrorKernel kernel;
+        try {
+            kernel = ErrorFunction.kernel(this.searchParameter.getErrorFunction(),
+                    this.linearScaling);
+        } catch (IllegalArgumentException e) {
+            throw new SearchParameterException(e.getMessage());
+        }
+        this.errorKernel = kernel;
 
         this.regression = Regression.of(
                 Regression.codecOf(this.operators, this.terminals, initialSolutionDepth, ch -> ch.getRoot().size() <= maxSolutionNodes),
-                Error.of(ErrorFunction::calculateError),
+                Error.of(kernel.bind(this.dataset.getOutputValues())::error),
                 this.dataset.toSamples()
         );
+
+        // Programs from other processes use the same operators, terminals and size limit
+        final ISeq<Op<Double>> programOperators = this.operators;
+        final ISeq<Op<Double>> programTerminals = this.terminals;
+        this.programDecoder = program -> Genotype.of(ProgramChromosome.of(program,
+                ch -> ch.getRoot().size() <= maxSolutionNodes, programOperators, programTerminals));
+
+        boolean multiObjectiveRun = false;
+        try {
+            multiObjectiveRun = this.searchParameter.getMultiObjectiveOptimisation();
+        } catch (SearchParameterException e) {
+            // Not set, so the run is single objective
+        }
+
+        // Elites are re-scored on the full dataset, which is only defined for a single objective
+        Subsample sample = new Subsample(
+                SamplingMode.valueOf(this.searchParameter.getSamplingMode().toUpperCase()),
+                this.dataset, this.searchParameter.getSampleSize(), this.maxGenerations);
+        this.subsample = !multiObjectiveRun && sample.isActive() ? sample : null;
+        // Set up on every row, the first sample is only drawn once the search runs
+        Dataset scored = this.dataset;
+
+        // Programs can only be abandoned part way through when the error is a running sum, and the
+        // threshold is only meaningful against a single objective. A scaled error isn't a running
+        // sum, as the scaling depends on every row
+        int earlyAbortChunkSize = this.searchParameter.getEarlyAbortChunkSize();
+        if (earlyAbortChunkSize > 0 && !multiObjectiveRun && !this.linearScaling
+                && EarlyAbort.supports(this.searchParameter.getErrorFunction())) {
+            this.earlyAbort = new EarlyAbort(earlyAbortChunkSize,
+                    this.searchParameter.getErrorFunction(), scored);
+        } else {
+            this.earlyAbort = null;
+        }
+
+        this.evaluationMode = EvaluationMode
+                .valueOf(this.searchParameter.getEvaluationMode().toUpperCase());
+        this.subtreeCacheMemory = this.searchParameter.getSubtreeCacheMemory() * 1024L * 1024L;
+        this.fitnessCacheSize = this.searchParameter.getFitnessCacheSize();
+        this.errorFunction = this.searchParameter.getErrorFunction();
+
+        // Ranges of the whole dataset hold those of every sample, so screening stays consistent
+        this.intervalScreen = this.searchParameter.getIntervalScreen()
+                ? new IntervalScreen(this.dataset)
+                : null;
+
+        this.simplifier = this.searchParameter.getOnlineSimplification()
+                ? new ProgramSimplifier()
+                : null;
+
+        // Linear programs hold MathOps only, so a skeleton keeps the search on trees
+        if (GenomeEncoding.valueOf(this.searchParameter.getGenomeEncoding().toUpperCase())
+                == GenomeEncoding.LINEAR && !multiObjectiveRun
+                && LinearProgram.supports(this.operators.asList())) {
+            List<MathOp> linearOperators = new ArrayList<>();
+            for (Op<Double> op : this.operators) {
+                linearOperators.add((MathOp) op);
+            }
+            this.linearEncoding = Genotype.of(LinearProgramChromosome.of(LinearProgramGene.of(
+                    linearOperators, this.terminals.asList(), initialSolutionDepth,
+                    maxSolutionNodes)));
+        } else {
+            this.linearEncoding = null;
+        }
+
+        // Every program of the search is held by one store, made afresh for each run
+        if (GenomeEncoding.valueOf(this.searchParameter.getGenomeEncoding().toUpperCase())
+                == GenomeEncoding.DAG && !multiObjectiveRun) {
+            this.dagEncoding = Genotype.of(DagProgramChromosome.of(DagProgramGene.of(
+                    new ProgramDag(), this.operators.asList(), this.terminals.asList(),
+                    initialSolutionDepth, maxSolutionNodes)));
+        } else {
+            this.dagEncoding = null;
+        }
+
+        this.updateFitness(scored);
+    }
+
+    /**
+     * Build the fitness function scoring programs against the given rows, according to the
+     * selected EvaluationMode and caches
+     *
+     * @param scored - the rows programs are scored on, the full dataset unless sampling
+     */
+    private void updateFitness(final Dataset scored) {
+        // The interpreter is the fallback of every mode, so it must see the same rows
+        Regression<Double> interpreter = scored == this.dataset
+                ? this.regression
+                : Regression.of(this.regression.codec(),
+                        Error.of(this.errorKernel.bind(scored.getOutputValues())::error),
+                        scored.toSamples());
+
+        // Subtree outputs can only be shared by the column-at-a-time evaluation modes
+        if (this.subtreeCacheMemory > 0 && (this.evaluationMode == EvaluationMode.VECTORIZED
+                || this.evaluationMode == EvaluationMode.SIMD)) {
+            this.subtreeCache = new SubtreeCache(this.subtreeCacheMemory, scored.size());
+        } else {
+            this.subtreeCache = null;
+        }
+
+        Function<Tree<Op<Double>, ?>, Double> scoredFitness;
+        switch (this.evaluationMode) {
+            case COMPILED:
+                scoredFitness = new CompiledRegression(interpreter, scored, this.errorKernel,
+                        this.earlyAbort)::error;
+                break;
+            case VECTORIZED:
+                scoredFitness = new ColumnarRegression(interpreter, scored, this.errorKernel,
+                        ColumnKernels.scalar(), this.subtreeCache, this.earlyAbort)::error;
+                break;
+            case SIMD:
+                scoredFitness = new ColumnarRegression(interpreter, scored, this.errorKernel,
+                        ColumnKernels.simd(), this.subtreeCache, this.earlyAbort)::error;
+                break;
+            case PRIMITIVE:
+                scoredFitness = new LinearRegression(interpreter, scored, this.errorKernel,
+                        this.earlyAbort)::error;
+                break;
+            case INTERPRETED:
+            default:
+                scoredFitness = this.earlyAbort != null
+                        ? this.earlyAbort::error
+                        : interpreter::error;
+                break;
+        }
+
+        // Duplicate programs are common in GP populations, so only evaluate each one once
+        if (this.fitnessCacheSize > 0) {
+            this.fitnessCache = new FitnessCache(this.fitnessCacheSize, this.errorFunction,
+                    this.earlyAbort);
+            scoredFitness = this.fitnessCache.wrap(scoredFitness);
+        } else {
+            this.fitnessCache = null;
+        }
+
+        // Screened out programs never reach the cache or any rows
+        if (this.intervalScreen != null) {
+            scoredFitness = this.intervalScreen.wrap(scoredFitness);
+        }
+
+        this.fitness = scoredFitness;
+
+        // Linear programs run on the stack machine whatever the evaluation mode, and only become
+        // trees for the screen and the cache key
+        if (this.linearEncoding != null) {
+            Function<LinearProgram, Double> linearFitness = new LinearRegression(interpreter,
+                    scored, this.errorKernel, this.earlyAbort)::error;
+            if (this.fitnessCache != null) {
+                linearFitness = this.fitnessCache.wrap(linearFitness, LinearProgram::toTree);
+            }
+            if (this.intervalScreen != null) {
+                linearFitness = this.intervalScreen.wrap(linearFitness, LinearProgram::toTree);
+            }
+            this.linearFitness = linearFitness;
+        } else {
+            this.linearFitness = null;
+        }
+
+        // Constants are tuned on the same rows as fitness, without caches or early abort, so the
+        // refined errors are exact and comparable with the rest of the population. They are
+        // screened like the population, so tuning can't take a program outside its domain.
+        if (this.constantOptimisationInterval > 0) {
+            final ColumnarRegression reference = new ColumnarRegression(interpreter, scored,
+                    this.errorKernel, this.evaluationMode == EvaluationMode.SIMD
+                            ? ColumnKernels.simd() : ColumnKernels.scalar(), null, null);
+            this.constantOptimiser = new ConstantOptimiser(this.intervalScreen != null
+                    ? this.intervalScreen.screen(reference::error)
+                    : reference::error);
+        } else {
+            this.constantOptimiser = null;
+        }
+    }
+
+    /**
+     * Move on to the rows the next generation is scored on
+     *
+     * @param generation - the generation just completed
+     */
+    private void resample(final long generation) {
+        Dataset scored = this.subsample.select(generation + 1);
+        if (this.earlyAbort != null) {
+            this.earlyAbort = this.earlyAbort.withDataset(scored);
+        }
+        this.updateFitness(scored);
     }
 
     /**
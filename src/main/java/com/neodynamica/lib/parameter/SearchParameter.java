@@ -41,6 +41,29 @@ public class SearchParameter {
     private String inputColumnIndices;
     private String includeIntegers;
     private String includeDecimals;
+    private String evaluationMode;
+    private int fitnessCacheSize;
+    private int subtreeCacheMemory;
+    private int earlyAbortChunkSize;
+    private String samplingMode;
+    private int sampleSize;
+    private int islandCount;
+    private int migrationInterval;
+    private int migrationSize;
+    private String migrationTopology;
+    private int constantOptimisationInterval;
+    private int constantOptimisationElites;
+    private int constantOptimisationTime;
+    private Boolean linearScaling;
+    private Boolean intervalScreen;
+    private Boolean onlineSimplification;
+    private String genomeEncoding;
+    private int checkpointInterval;
+    private String checkpointFilePath;
+    private int historyFullGenerations;
+    private int historySampleInterval;
+    private Boolean historyKeepNewBest;
+    private int historyPopulationGenerations;
 
     private Boolean multiObjectiveOptimisation;
 
@@ -69,6 +92,29 @@ public class SearchParameter {
         this.survivorsSampleSize = -1;
         this.steadyFitnessLimit = -1;
         this.timeLimit = -1;
+        this.evaluationMode = null;
+        this.fitnessCacheSize = -1;
+        this.subtreeCacheMemory = -1;
+        this.earlyAbortChunkSize = -1;
+        this.samplingMode = null;
+        this.sampleSize = -1;
+        this.islandCount = -1;
+        this.migrationInterval = -1;
+        this.migrationSize = -1;
+        this.migrationTopology = null;
+        this.constantOptimisationInterval = -1;
+        this.constantOptimisationElites = -1;
+        this.constantOptimisationTime = -1;
+        this.linearScaling = null;
+        this.intervalScreen = null;
+        this.onlineSimplification = null;
+        this.genomeEncoding = null;
+        this.checkpointInterval = -1;
+        this.checkpointFilePath = null;
+        this.historyFullGenerations = -1;
+        this.historySampleInterval = -1;
+        this.historyKeepNewBest = null;
+        this.historyPopulationGenerations = -1;
     }
 
     /**
@@ -238,6 +284,167 @@ public class SearchParameter {
         this.timeLimit = timeLimit;
     }
 
+    /**
+     * Set the evaluationMode
+     */
+    public void setEvaluationMode(String evaluationMode) {
+        this.evaluationMode = evaluationMode;
+    }
+
+    /**
+     * Set the maximum number of cached fitness values, 0 disables the cache
+     */
+    public void setFitnessCacheSize(int fitnessCacheSize) {
+        this.fitnessCacheSize = fitnessCacheSize;
+    }
+
+    /**
+     * Set the memory budget of the subtree output cache in megabytes, 0 disables the cache
+     */
+    public void setSubtreeCacheMemory(int subtreeCacheMemory) {
+        this.subtreeCacheMemory = subtreeCacheMemory;
+    }
+
+    /**
+     * Set the number of rows evaluated between early abort checks, 0 disables early abort
+     */
+    public void setEarlyAbortChunkSize(int earlyAbortChunkSize) {
+        this.earlyAbortChunkSize = earlyAbortChunkSize;
+    }
+
+    /**
+     * Set how the rows programs are scored on are chosen each generation
+     */
+    public void setSamplingMode(String samplingMode) {
+        this.samplingMode = samplingMode;
+    }
+
+    /**
+     * Set the number of rows programs are scored on each generation when sampling
+     */
+    public void setSampleSize(int sampleSize) {
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Set the number of islands the population is split into, 1 for a single population
+     */
+    public void setIslandCount(int islandCount) {
+        this.islandCount = islandCount;
+    }
+
+    /**
+     * Set the number of generations between migrations between islands
+     */
+    public void setMigrationInterval(int migrationInterval) {
+        this.migrationInterval = migrationInterval;
+    }
+
+    /**
+     * Set the number of best solutions each island sends per migration
+     */
+    public void setMigrationSize(int migrationSize) {
+        this.migrationSize = migrationSize;
+    }
+
+    /**
+     * Set which islands migrants are sent to
+     */
+    public void setMigrationTopology(String migrationTopology) {
+        this.migrationTopology = migrationTopology;
+    }
+
+    /**
+     * Set the number of generations between constant optimisations of the best solutions, 0 to disable
+     */
+    public void setConstantOptimisationInterval(int constantOptimisationInterval) {
+        this.constantOptimisationInterval = constantOptimisationInterval;
+    }
+
+    /**
+     * Set the number of best solutions whose constants are optimised
+     */
+    public void setConstantOptimisationElites(int constantOptimisationElites) {
+        this.constantOptimisationElites = constantOptimisationElites;
+    }
+
+    /**
+     * Set the time in milliseconds each constant optimisation may take
+     */
+    public void setConstantOptimisationTime(int constantOptimisationTime) {
+        this.constantOptimisationTime = constantOptimisationTime;
+    }
+
+    /**
+     * Set whether solutions are scored after the best linear scaling of their output
+     */
+    public void setLinearScaling(Boolean linearScaling) {
+        this.linearScaling = linearScaling;
+    }
+
+    /**
+     * Set whether solutions which may be undefined over the input ranges are rejected before evaluation
+     */
+    public void setIntervalScreen(Boolean intervalScreen) {
+        this.intervalScreen = intervalScreen;
+    }
+
+    /**
+     * Set whether new offspring are algebraically simplified before evaluation
+     */
+    public void setOnlineSimplification(Boolean onlineSimplification) {
+        this.onlineSimplification = onlineSimplification;
+    }
+
+    /**
+     * Set how programs are stored and varied during the search
+     */
+    public void setGenomeEncoding(String genomeEncoding) {
+        this.genomeEncoding = genomeEncoding;
+    }
+
+    /**
+     * Set number of generations between population checkpoints, 0 for none
+     */
+    public void setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Set path of the file population checkpoints are written to
+     */
+    public void setCheckpointFilePath(String checkpointFilePath) {
+        this.checkpointFilePath = checkpointFilePath;
+    }
+
+    /**
+     * Set number of most recent generations kept in full in the generation history
+     */
+    public void setHistoryFullGenerations(int historyFullGenerations) {
+        this.historyFullGenerations = historyFullGenerations;
+    }
+
+    /**
+     * Set interval between the older generations kept in the generation history, 1 to keep all
+     */
+    public void setHistorySampleInterval(int historySampleInterval) {
+        this.historySampleInterval = historySampleInterval;
+    }
+
+    /**
+     * Set whether older generations with a new best solution are always kept in the generation history
+     */
+    public void setHistoryKeepNewBest(Boolean historyKeepNewBest) {
+        this.historyKeepNewBest = historyKeepNewBest;
+    }
+
+    /**
+     * Set number of most recent generations whose population is kept in the generation history, 0 for all
+     */
+    public void setHistoryPopulationGenerations(int historyPopulationGenerations) {
+        this.historyPopulationGenerations = historyPopulationGenerations;
+    }
+
     /**
      * Get maximum number of generations
      *
@@ -455,6 +662,237 @@ public class SearchParameter {
         return this.timeLimit;
     }
 
+    /**
+     * Get evaluationMode value
+     *
+     * @return evaluationMode value
+     */
+    public String getEvaluationMode() throws SearchParameterException {
+        EvaluationModeValidator.validate(this.evaluationMode);
+        return this.evaluationMode;
+    }
+
+    /**
+     * Get the maximum number of cached fitness values
+     *
+     * @return fitnessCacheSize value
+     */
+    public int getFitnessCacheSize() throws SearchParameterException {
+        FitnessCacheSizeValidator.validate(Integer.toString(this.fitnessCacheSize));
+        return this.fitnessCacheSize;
+    }
+
+    /**
+     * Get the memory budget of the subtree output cache in megabytes
+     *
+     * @return subtreeCacheMemory value
+     */
+    public int getSubtreeCacheMemory() throws SearchParameterException {
+        SubtreeCacheMemoryValidator.validate(Integer.toString(this.subtreeCacheMemory));
+        return this.subtreeCacheMemory;
+    }
+
+    /**
+     * Get the number of rows evaluated between early abort checks
+     *
+     * @return earlyAbortChunkSize value
+     */
+    public int getEarlyAbortChunkSize() throws SearchParameterException {
+        EarlyAbortChunkSizeValidator.validate(Integer.toString(this.earlyAbortChunkSize));
+        return this.earlyAbortChunkSize;
+    }
+
+    /**
+     * Get how the rows programs are scored on are chosen each generation
+     *
+     * @return samplingMode value
+     */
+    public String getSamplingMode() throws SearchParameterException {
+        SamplingModeValidator.validate(this.samplingMode);
+        return this.samplingMode;
+    }
+
+    /**
+     * Get the number of rows programs are scored on each generation when sampling
+     *
+     * @return sampleSize value
+     */
+    public int getSampleSize() throws SearchParameterException {
+        SampleSizeValidator.validate(Integer.toString(this.sampleSize));
+        return this.sampleSize;
+    }
+
+    /**
+     * Get the number of islands the population is split into
+     *
+     * @return islandCount value
+     */
+    public int getIslandCount() throws SearchParameterException {
+        IslandCountValidator.validate(Integer.toString(this.islandCount));
+        return this.islandCount;
+    }
+
+    /**
+     * Get the number of generations between migrations between islands
+     *
+     * @return migrationInterval value
+     */
+    public int getMigrationInterval() throws SearchParameterException {
+        MigrationIntervalValidator.validate(Integer.toString(this.migrationInterval));
+        return this.migrationInterval;
+    }
+
+    /**
+     * Get the number of best solutions each island sends per migration
+     *
+     * @return migrationSize value
+     */
+    public int getMigrationSize() throws SearchParameterException {
+        MigrationSizeValidator.validate(Integer.toString(this.migrationSize));
+        return this.migrationSize;
+    }
+
+    /**
+     * Get which islands migrants are sent to
+     *
+     * @return migrationTopology value
+     */
+    public String getMigrationTopology() throws SearchParameterException {
+        MigrationTopologyValidator.validate(this.migrationTopology);
+        return this.migrationTopology;
+    }
+
+    /**
+     * Get the number of generations between constant optimisations of the best solutions
+     *
+     * @return constantOptimisationInterval value
+     */
+    public int getConstantOptimisationInterval() throws SearchParameterException {
+        ConstantOptimisationIntervalValidator.validate(Integer.toString(this.constantOptimisationInterval));
+        return this.constantOptimisationInterval;
+    }
+
+    /**
+     * Get the number of best solutions whose constants are optimised
+     *
+     * @return constantOptimisationElites value
+     */
+    public int getConstantOptimisationElites() throws SearchParameterException {
+        ConstantOptimisationElitesValidator.validate(Integer.toString(this.constantOptimisationElites));
+        return this.constantOptimisationElites;
+    }
+
+    /**
+     * Get the time in milliseconds each constant optimisation may take
+     *
+     * @return constantOptimisationTime value
+     */
+    public int getConstantOptimisationTime() throws SearchParameterException {
+        ConstantOptimisationTimeValidator.validate(Integer.toString(this.constantOptimisationTime));
+        return this.constantOptimisationTime;
+    }
+
+    /**
+     * Get whether solutions are scored after the best linear scaling of their output
+     *
+     * @return linearScaling value
+     */
+    public Boolean getLinearScaling() throws SearchParameterException {
+        LinearScalingValidator.validate(this.linearScaling);
+        return this.linearScaling;
+    }
+
+    /**
+     * Get whether solutions which may be undefined over the input ranges are rejected before evaluation
+     *
+     * @return intervalScreen value
+     */
+    public Boolean getIntervalScreen() throws SearchParameterException {
+        IntervalScreenValidator.validate(this.intervalScreen);
+        return this.intervalScreen;
+    }
+
+    /**
+     * Get whether new offspring are algebraically simplified before evaluation
+     *
+     * @return onlineSimplification value
+     */
+    public Boolean getOnlineSimplification() throws SearchParameterException {
+        OnlineSimplificationValidator.validate(this.onlineSimplification);
+        return this.onlineSimplification;
+    }
+
+    /**
+     * Get how programs are stored and varied during the search
+     *
+     * @return genomeEncoding value
+     */
+    public String getGenomeEncoding() throws SearchParameterException {
+        GenomeEncodingValidator.validate(this.genomeEncoding);
+        return this.genomeEncoding;
+    }
+
+    /**
+     * Get number of generations between population checkpoints
+     *
+     * @return checkpointInterval value
+     */
+    public int getCheckpointInterval() throws SearchParameterException {
+        CheckpointIntervalValidator.validate(Integer.toString(this.checkpointInterval));
+        return this.checkpointInterval;
+    }
+
+    /**
+     * Get path of the file population checkpoints are written to
+     *
+     * @return checkpointFilePath value
+     */
+    public String getCheckpointFilePath() throws SearchParameterException {
+        CheckpointFilePathValidator.validate(this.checkpointFilePath);
+        return this.checkpointFilePath;
+    }
+
+    /**
+     * Get number of most recent generations kept in full in the generation history
+     *
+     * @return historyFullGenerations value
+     */
+    public int getHistoryFullGenerations() throws SearchParameterException {
+        HistoryFullGenerationsValidator.validate(Integer.toString(this.historyFullGenerations));
+        return this.historyFullGenerations;
+    }
+
+    /**
+     * Get interval between the older generations kept in the generation history
+     *
+     * @return historySampleInterval value
+     */
+    public int getHistorySampleInterval() throws SearchParameterException {
+        HistorySampleIntervalValidator.validate(Integer.toString(this.historySampleInterval));
+        return this.historySampleInterval;
+    }
+
+    /**
+     * Get whether older generations with a new best solution are always kept in the generation history
+     *
+     * @return historyKeepNewBest value
+     */
+    public Boolean getHistoryKeepNewBest() throws SearchParameterException {
+        HistoryKeepNewBestValidator.validate(this.historyKeepNewBest);
+        return this.historyKeepNewBest;
+    }
+
+    /**
+     * Get number of most recent generations whose population is kept in the generation history
+     *
+     * @return historyPopulationGenerations value
+     */
+    public int getHistoryPopulationGenerations() throws SearchParameterException {
+        HistoryPopulationGenerationsValidator.validate(
+                Integer.toString(this.historyPopulationGenerations));
+        return this.historyPopulationGenerations;
+    }
+
     public void overrideFrom(SearchParameter searchParameter) {
         for (Field p : SearchParameter.class.getDeclaredFields()) {
             try {
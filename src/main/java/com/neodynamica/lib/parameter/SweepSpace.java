@@ -0,0 +1,246 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.parameter;
+
+import com.neodynamica.lib.parameter.io.ParserUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * The values a parameter sweep tries for some SearchParameter fields.
+ * <p>
+ * A space is written as dimensions separated by ';', each a field name and either a list of values
+ * separated by '|' or, for numeric fields, a range lo..hi. For example:
+ * <pre>
+ * populationSize=100|200|400;offspringFraction=0.4..0.8;operators=add,sub,mul|add,sub,mul,div,sin
+ * </pre>
+ * A grid takes every combination of listed values; a random sample draws each value uniformly
+ * from its list or range. Configurations are maps of field name to value, applied to a
+ * SearchParameter the same way a config file is.
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public class SweepSpace {
+
+    private static final String RANGE = "..";
+
+    /**
+     * Values or range of each field, in the order given
+     */
+    private final Map<Field, String[]> dimensions;
+
+    /**
+     * Fields whose values are a range {lo, hi} rather than a list
+     */
+    private final Set<Field> ranges;
+
+    private SweepSpace(Map<Field, String[]> dimensions, Set<Field> ranges) {
+        this.dimensions = dimensions;
+        this.ranges = ranges;
+    }
+
+    /**
+     * Parse a sweep space.
+     *
+     * @param space Dimensions, as described above
+     * @return The space
+     * @throws SearchParameterException if a field isn't a SearchParameter field, or a range is given
+     * for a field which isn't numeric or isn't of the form lo..hi
+     */
+    public static SweepSpace parse(String space) throws SearchParameterException {
+        if (space == null || space.trim().isEmpty()) {
+            throw new SearchParameterException("Sweep space is empty");
+        }
+
+        Map<Field, String[]> dimensions = new LinkedHashMap<>();
+        Set<Field> ranges = new HashSet<>();
+        for (String dimension : space.split(";")) {
+            if (dimension.trim().isEmpty()) {
+                continue;
+            }
+            int separator = dimension.indexOf('=');
+            if (separator <= 0) {
+                throw new SearchParameterException("Sweep dimension must be name=values: '"
+                        + dimension + "'");
+            }
+
+            String name = dimension.substring(0, separator).trim();
+            Field field;
+            try {
+                field = SearchParameter.class.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                throw new SearchParameterException("Unknown sweep parameter: '" + name + "'");
+            }
+
+            String values = dimension.substring(separator + 1).trim();
+            if (values.contains(RANGE)) {
+                String[] bounds = values.split("\\.\\.");
+                if (!isNumeric(field) || bounds.length != 2) {
+                    throw new SearchParameterException("Invalid sweep range for " + name + ": '"
+                            + values + "'");
+                }
+                try {
+                    Double.parseDouble(bounds[0]);
+                    Double.parseDouble(bounds[1]);
+                } catch (NumberFormatException e) {
+                    throw new SearchParameterException("Invalid sweep range for " + name + ": '"
+                            + values + "'");
+                }
+                dimensions.put(field, bounds);
+                ranges.add(field);
+            } else {
+                dimensions.put(field, values.split("\\|"));
+            }
+        }
+
+        if (dimensions.isEmpty()) {
+            throw new SearchParameterException("Sweep space is empty");
+        }
+        return new SweepSpace(dimensions, ranges);
+    }
+
+    /**
+     * Every combination of the listed values.
+     *
+     * @return Configurations, the last field varying fastest
+     * @throws SearchParameterException if a dimension is a range, which can only be sampled
+     */
+    public List<Map<String, String>> grid() throws SearchParameterException {
+        List<Map<String, String>> configurations = new ArrayList<>();
+        configurations.add(new LinkedHashMap<>());
+
+        for (Map.Entry<Field, String[]> dimension : this.dimensions.entrySet()) {
+            if (this.ranges.contains(dimension.getKey())) {
+                throw new SearchParameterException("Sweep range for "
+                        + dimension.getKey().getName() + " can only be sampled, not gridded");
+            }
+
+            List<Map<String, String>> extended = new ArrayList<>();
+            for (Map<String, String> configuration : configurations) {
+                for (String value : dimension.getValue()) {
+                    Map<String, String> next = new LinkedHashMap<>(configuration);
+                    next.put(dimension.getKey().getName(), value.trim());
+                    extended.add(next);
+                }
+            }
+            configurations = extended;
+        }
+        return configurations;
+    }
+
+    /**
+     * Draw configurations at random.
+     *
+     * @param count Number of configurations
+     * @param random Source of randomness, seeded for a reproducible sweep
+     * @return Configurations
+     */
+    public List<Map<String, String>> sample(int count, Random random) {
+        List<Map<String, String>> configurations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Map<String, String> configuration = new LinkedHashMap<>();
+            for (Map.Entry<Field, String[]> dimension : this.dimensions.entrySet()) {
+                Field field = dimension.getKey();
+                String[] values = dimension.getValue();
+                String value;
+                if (this.ranges.contains(field)) {
+                    double lo = Double.parseDouble(values[0]);
+                    double hi = Double.parseDouble(values[1]);
+                    if (isIntegral(field)) {
+                        long low = (long) Math.ceil(Math.min(lo, hi));
+                        long high = (long) Math.floor(Math.max(lo, hi));
+                        value = Long.toString(low + (long) (random.nextDouble() * (high - low + 1)));
+                    } else {
+                        value = Double.toString(lo + random.nextDouble() * (hi - lo));
+                    }
+                } else {
+                    value = values[random.nextInt(values.length)].trim();
+                }
+                configuration.put(field.getName(), value);
+            }
+            configurations.add(configuration);
+        }
+        return configurations;
+    }
+
+    /**
+     * Get the names of the swept fields.
+     *
+     * @return Field names, in the order given
+     */
+    public List<String> getNames() {
+        List<String> names = new ArrayList<>();
+        for (Field field : this.dimensions.keySet()) {
+            names.add(field.getName());
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Set the fields of a configuration, and validate them with their getters.
+     *
+     * @param searchParameter Parameters to change
+     * @param configuration Field name to value
+     * @throws SearchParameterException if a field is unknown or a value invalid
+     */
+    public static void apply(SearchParameter searchParameter, Map<String, String> configuration)
+            throws SearchParameterException {
+        for (Map.Entry<String, String> entry : configuration.entrySet()) {
+            try {
+                Field p = SearchParameter.class.getDeclaredField(entry.getKey());
+                Method setter = SearchParameter.class
+                        .getMethod(ParserUtils.setterFromPropertyName(p.getName()), p.getType());
+                Method getter = SearchParameter.class
+                        .getMethod(ParserUtils.getterFromPropertyName(p.getName()));
+                String value = entry.getValue();
+
+                if (p.getType().toString().equals("int")) {
+                    setter.invoke(searchParameter, Integer.parseInt(value));
+                } else if (p.getType().toString().equals("double")) {
+                    setter.invoke(searchParameter, Double.parseDouble(value));
+                } else if (p.getType().toString().equals("long")) {
+                    setter.invoke(searchParameter, Long.parseLong(value));
+                } else if (p.getType().toString().equals("class java.lang.Boolean")) {
+                    setter.invoke(searchParameter, Boolean.parseBoolean(value));
+                } else {
+                    setter.invoke(searchParameter, value);
+                }
+
+                // Getters validate their field
+                getter.invoke(searchParameter);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SearchParameterException) {
+                    throw (SearchParameterException) e.getCause();
+                }
+                throw new SearchParameterException("Invalid sweep value for " + entry.getKey()
+                        + ": '" + entry.getValue() + "'");
+            } catch (NoSuchFieldException | NoSuchMethodException | IllegalAccessException e) {
+                throw new SearchParameterException("Unknown sweep parameter: '" + entry.getKey()
+                        + "'");
+            } catch (NumberFormatException e) {
+                throw new SearchParameterException("Invalid sweep value for " + entry.getKey()
+                        + ": '" + entry.getValue() + "'");
+            }
+        }
+    }
+
+    private static boolean isNumeric(Field field) {
+        return isIntegral(field) || field.getType() == double.class;
+    }
+
+    private static boolean isIntegral(Field field) {
+        return field.getType() == int.class || field.getType() == long.class;
+    }
+}
@@ -72,6 +72,20 @@ public class SearchParameterParser {
         return this;
     }
 
+    /**
+     * Parse search parameters from the properties of a config file, such as those written by
+     * {@link SearchParameterWriter#toProperties(SearchParameter)}, over the defaults
+     *
+     * @param config Properties to parse
+     * @return This object
+     */
+    public SearchParameterParser parse(Properties config) throws IOException, SearchParameterException {
+        this.configFilePath = null;
+        this.parse();
+        this.searchParameter.overrideFrom(propertiesToSearchParameters(config));
+        return this;
+    }
+
     /**
      * Get search parameter object
      *
@@ -26,6 +26,14 @@ public final class SearchParameterWriter {
      */
     public static void toFile(SearchParameter searchParameter, String configFilePath)
             throws IOException, SearchParameterException {
+        toProperties(searchParameter).store(new FileOutputStream(configFilePath), null);
+    }
+
+    /**
+     * Convert SearchParameter into the properties of a config file. Parameters which aren't set
+     * are left out.
+     */
+    public static Properties toProperties(SearchParameter searchParameter) {
         Properties config = new Properties();
 
         for (Field p : SearchParameter.class.getDeclaredFields()) {
@@ -42,7 +50,7 @@ public final class SearchParameterWriter {
             }
         }
 
-        config.store(new FileOutputStream(configFilePath), null);
+        return config;
     }
 
 }
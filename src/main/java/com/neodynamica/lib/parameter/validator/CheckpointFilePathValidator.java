@@ -0,0 +1,41 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.parameter.validator;
+
+import com.neodynamica.lib.parameter.SearchParameterException;
+
+import java.io.File;
+
+/**
+ * Validator to validate the checkpointFilePath value
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public final class CheckpointFilePathValidator {
+
+    /**
+     * Validate checkpoint file path. The file needn't exist, as it is created by the first
+     * checkpoint.
+     *
+     * @param value Value to be validated
+     */
+    public static void validate(String value) throws SearchParameterException {
+        //throw exception if parameter is null
+        if (value == null) {
+            throw new SearchParameterException("checkpointFilePath can not be null");
+        }
+
+        // If it was left blank, then throw an exception so it doesn't override a valid value.
+        if (value.isEmpty()) {
+            throw new SearchParameterException("checkpointFilePath not set");
+        }
+
+        // Check if value is directory
+        if (new File(value).isDirectory()) {
+            throw new SearchParameterException("Checkpoint file: '" + value + "' is a directory");
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.parameter.validator;
+
+import com.neodynamica.lib.parameter.SearchParameterException;
+
+/**
+ * Validator to validate the checkpointInterval value
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public final class CheckpointIntervalValidator {
+
+    /**
+     * Validator to validate the checkpointInterval value
+     *
+     * @param value Value to be validated
+     */
+    public static void validate(String value) throws SearchParameterException {
+        //throw exception if parameter is null
+        if (value == null) {
+            throw new SearchParameterException("checkpointInterval can not be null");
+        }
+
+        // If it was left blank, then throw an exception so it doesn't override a valid value.
+        if (value.isEmpty()) {
+            throw new SearchParameterException("checkpointInterval not set");
+        }
+
+        // Make sure the value is an integer
+        try {
+            int interval = Integer.parseInt(value);
+            if (interval < 0) {
+                throw new SearchParameterException("checkpointInterval must be 0 or greater");
+            }
+        } catch (NumberFormatException e) {
+            throw new SearchParameterException(
+                    "Invalid checkpointInterval. Only integer is accepted");
+        }
+    }
+
+}
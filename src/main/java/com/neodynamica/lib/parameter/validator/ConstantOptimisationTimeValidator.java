@@ -0,0 +1,44 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.parameter.validator;
+
+import com.neodynamica.lib.parameter.SearchParameterException;
+
+/**
+ * Validator to validate the constantOptimisationTime value
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public final class ConstantOptimisationTimeValidator {
+
+    /**
+     * Validator to validate the constantOptimisationTime value
+     *
+     * @param value Value to be validated
+     */
+    public static void validate(String value) throws SearchParameterException {
+        //throw exception if parameter is null
+        if (value == null) {
+            throw new SearchParameterException("constantOptimisationTime can not be null");
+        }
+
+        // If it was left blank, then throw an exception so it doesn't override a valid value.
+        if (value.isEmpty()) {
+            throw new SearchParameterException("constantOptimisationTime not set");
+        }
+
+        // Make sure the value is an integer
+        try {
+            int size = Integer.parseInt(value);
+            if (size < 1) {
+                throw new SearchParameterException("constantOptimisationTime must be 1 or greater");
+            }
+        } catch (NumberFormatException e) {
+            throw new SearchParameterException(
+                    "Invalid constantOptimisationTime. Only integer is accepted");
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.parameter.validator;
+
+import com.neodynamica.lib.gp.GenomeEncoding;
+import com.neodynamica.lib.parameter.SearchParameterException;
+
+/**
+ * Validator to validate genomeEncoding value
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public final class GenomeEncodingValidator {
+
+    /**
+     * Validate genome encoding.
+     *
+     * @param value Value to be validated
+     */
+    public static void validate(String value) throws SearchParameterException {
+        //throw exception if parameter is null
+        if (value == null) {
+            throw new SearchParameterException("genomeEncoding can not be null");
+        }
+
+        // If it was left blank, then throw an exception so it doesn't override a valid value.
+        if (value.isEmpty()) {
+            throw new SearchParameterException("genomeEncoding not set");
+        }
+
+        // Make sure it is a valid GenomeEncoding
+        try {
+            GenomeEncoding.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException iae) {
+            throw new SearchParameterException("Invalid genomeEncoding: '" + value + "'");
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.parameter.validator;
+
+import com.neodynamica.lib.parameter.SearchParameterException;
+
+/**
+ * Validator to validate the historyPopulationGenerations value
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public final class HistoryPopulationGenerationsValidator {
+
+    /**
+     * Validator to validate the historyPopulationGenerations value
+     *
+     * @param value Value to be validated
+     */
+    public static void validate(String value) throws SearchParameterException {
+        //throw exception if parameter is null
+        if (value == null) {
+            throw new SearchParameterException("historyPopulationGenerations can not be null");
+        }
+
+        // If it was left blank, then throw an exception so it doesn't override a valid value.
+        if (value.isEmpty()) {
+            throw new SearchParameterException("historyPopulationGenerations not set");
+        }
+
+        // Make sure the value is an integer
+        try {
+            int generations = Integer.parseInt(value);
+            if (generations < 0) {
+                throw new SearchParameterException("historyPopulationGenerations must be 0 or greater");
+            }
+        } catch (NumberFormatException e) {
+            throw new SearchParameterException(
+                    "Invalid historyPopulationGenerations. Only integer is accepted");
+        }
+    }
+
+}
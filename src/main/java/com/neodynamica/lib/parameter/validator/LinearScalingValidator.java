@@ -0,0 +1,13 @@
+package com.neodynamica.lib.parameter.validator;
+
+import com.neodynamica.lib.parameter.SearchParameterException;
+
+public class LinearScalingValidator {
+
+    public static void validate(Boolean value) throws SearchParameterException {
+        if (value == null) {
+            throw new SearchParameterException(
+                    "linearScaling must be a boolean 'true/false'");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Neodynamica System Library Copyright (c) 2019 Neodynamica - University of Newcastle
+ */
+package com.neodynamica.lib.parameter.validator;
+
+import com.neodynamica.lib.gp.SamplingMode;
+import com.neodynamica.lib.parameter.SearchParameterException;
+
+/**
+ * Validator to validate samplingMode value
+ *
+ * @version 1.0
+ * @since 2.0
+ */
+public final class SamplingModeValidator {
+
+    /**
+     * Validate sampling mode.
+     *
+     * @param value Value to be validated
+     */
+    public static void validate(String value) throws SearchParameterException {
+        //throw exception if parameter is null
+        if (value == null) {
+            throw new SearchParameterException("samplingMode can not be null");
+        }
+
+        // If it was left blank, then throw an exception so it doesn't override a valid value.
+        if (value.isEmpty()) {
+            throw new SearchParameterException("samplingMode not set");
+        }
+
+        // Make sure it is a valid SamplingMode
+        try {
+            SamplingMode.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException iae) {
+            throw new SearchParameterException("Invalid samplingMode: '" + value + "'");
+        }
+    }
+
+}
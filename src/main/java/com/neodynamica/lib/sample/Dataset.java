@@ -57,6 +57,101 @@ public class Dataset {
         return Arrays.asList(samples);
     }
 
+    /**
+     * Return input values as primitive rows, for use by evaluators that avoid boxing.
+     *
+     * @return One double[] per sample, holding the input variable values in column order
+     */
+    public double[][] toInputRows() {
+        int inputs = this.labels.length - 1;
+        double[][] rows = new double[this.values.length][inputs];
+
+        for (int i = 0; i < this.values.length; i++) {
+            for (int j = 0; j < inputs; j++) {
+                rows[i][j] = this.values[i][j];
+            }
+        }
+
+        return rows;
+    }
+
+    /**
+     * Return input values as primitive columns, for use by column-at-a-time evaluators.
+     *
+     * @return One double[] per input variable, holding that variable's value for every sample
+     */
+    public double[][] toInputColumns() {
+        int inputs = this.labels.length - 1;
+        double[][] columns = new double[inputs][this.values.length];
+
+        for (int i = 0; i < this.values.length; i++) {
+            for (int j = 0; j < inputs; j++) {
+                columns[j][i] = this.values[i][j];
+            }
+        }
+
+        return columns;
+    }
+
+    /**
+     * Return the smallest and largest value of each input variable, ignoring missing (NaN) values.
+     *
+     * @return One {min, max} pair per input variable, {-Infinity, Infinity} for a variable without
+     * any value
+     */
+    public double[][] toInputRanges() {
+        int inputs = this.labels.length - 1;
+        double[][] ranges = new double[inputs][];
+
+        for (int j = 0; j < inputs; j++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (Double[] row : this.values) {
+                if (row[j] != null && !Double.isNaN(row[j])) {
+                    min = Math.min(min, row[j]);
+                    max = Math.max(max, row[j]);
+                }
+            }
+            ranges[j] = min <= max
+                    ? new double[]{min, max}
+                    : new double[]{Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+        }
+
+        return ranges;
+    }
+
+    /**
+     * Return output values as a primitive column.
+     *
+     * @return Output (target) value of each sample
+     */
+    public double[] toOutputColumn() {
+        double[] column = new double[this.values.length];
+
+        for (int i = 0; i < this.values.length; i++) {
+            column[i] = this.values[i][this.labels.length - 1];
+        }
+
+        return column;
+    }
+
+    /**
+     * Return a dataset holding only some of this dataset's samples. The values are shared, not
+     * copied.
+     *
+     * @param rows Indices of the samples to keep, in the order they should appear
+     * @return Dataset with the same labels and symbols, holding the selected samples
+     */
+    public Dataset subset(int[] rows) {
+        Double[][] subsetValues = new Double[rows.length][];
+
+        for (int i = 0; i < rows.length; i++) {
+            subsetValues[i] = this.values[rows[i]];
+        }
+
+        return new Dataset(this.labels, this.symbols, subsetValues);
+    }
+
     /**
      * Get labels of the CSV Dataset.
      *
@@ -3,8 +3,16 @@ package com.neodynamica.userinterface.cli;
 import com.neodynamica.backendinterface.Backend;
 import com.neodynamica.backendinterface.GenerationBean;
 import com.neodynamica.backendinterface.InvalidRunStateException;
+import com.neodynamica.backendinterface.ParameterSweep;
+import com.neodynamica.lib.gp.IslandCoordinator;
+import com.neodynamica.lib.gp.MigrationTopology;
+import com.neodynamica.lib.parameter.SearchParameter;
 import com.neodynamica.lib.parameter.SearchParameterException;
+import com.neodynamica.lib.parameter.SweepSpace;
+import com.neodynamica.lib.parameter.validator.MaxSolutionNodesValidator;
+import com.neodynamica.lib.parameter.validator.MigrationTopologyValidator;
 
+import io.jenetics.prog.op.MathExpr;
 import org.apache.commons.cli.*;
 
 import java.awt.*;
@@ -15,7 +23,12 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Scanner;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
@@ -64,6 +77,42 @@ public class CLI implements PropertyChangeListener {
     private static final String SURVIVORS_SAMPLE_SIZE_OPTION = "survivorsSampleSize";
     private static final String STEADY_FITNESS_LIMIT_OPTION = "steadyFitnessLimit";
     private static final String TIME_LIMIT_OPTION = "timeLimit";
+    private static final String EVALUATION_MODE_OPTION = "evaluationMode";
+    private static final String FITNESS_CACHE_SIZE_OPTION = "fitnessCacheSize";
+    private static final String SUBTREE_CACHE_MEMORY_OPTION = "subtreeCacheMemory";
+    private static final String EARLY_ABORT_CHUNK_SIZE_OPTION = "earlyAbortChunkSize";
+    private static final String SAMPLING_MODE_OPTION = "samplingMode";
+    private static final String SAMPLE_SIZE_OPTION = "sampleSize";
+    private static final String ISLAND_COUNT_OPTION = "islandCount";
+    private static final String MIGRATION_INTERVAL_OPTION = "migrationInterval";
+    private static final String MIGRATION_SIZE_OPTION = "migrationSize";
+    private static final String MIGRATION_TOPOLOGY_OPTION = "migrationTopology";
+
+    private static final String COORDINATOR_OPTION = "coordinator";
+    private static final String COORDINATOR_ADDRESS_OPTION = "coordinatorAddress";
+    private static final String WORKERS_OPTION = "workers";
+    private static final String WORKER_OPTION = "worker";
+    private static final String CONSTANT_OPTIMISATION_INTERVAL_OPTION = "constantOptimisationInterval";
+    private static final String CONSTANT_OPTIMISATION_ELITES_OPTION = "constantOptimisationElites";
+    private static final String CONSTANT_OPTIMISATION_TIME_OPTION = "constantOptimisationTime";
+    private static final String LINEAR_SCALING_OPTION = "linearScaling";
+    private static final String INTERVAL_SCREEN_OPTION = "intervalScreen";
+    private static final String ONLINE_SIMPLIFICATION_OPTION = "onlineSimplification";
+    private static final String GENOME_ENCODING_OPTION = "genomeEncoding";
+    private static final String CHECKPOINT_INTERVAL_OPTION = "checkpointInterval";
+    private static final String CHECKPOINT_FILE_PATH_OPTION = "checkpointFilePath";
+    private static final String RESUME_OPTION = "resume";
+    private static final String HISTORY_FULL_GENERATIONS_OPTION = "historyFullGenerations";
+    private static final String HISTORY_SAMPLE_INTERVAL_OPTION = "historySampleInterval";
+    private static final String HISTORY_KEEP_NEW_BEST_OPTION = "historyKeepNewBest";
+    private static final String HISTORY_POPULATION_GENERATIONS_OPTION = "historyPopulationGenerations";
+    private static final String SWEEP_OPTION = "sweep";
+    private static final String SWEEP_SAMPLES_OPTION = "sweepSamples";
+    private static final String SWEEP_REPEATS_OPTION = "sweepRepeats";
+    private static final String SWEEP_REDUCTION_OPTION = "sweepReduction";
+    private static final String SWEEP_MIN_GENERATIONS_OPTION = "sweepMinGenerations";
+    private static final String SWEEP_TARGET_ERROR_OPTION = "sweepTargetError";
+    private static final String SWEEP_THREADS_OPTION = "sweepThreads";
 
     // symbolic regression values
     private Backend backend;
@@ -126,12 +175,34 @@ public class CLI implements PropertyChangeListener {
             return;
         }
 
+        if (commandLine.hasOption(COORDINATOR_OPTION)) {
+            runCoordinator(commandLine);
+            return;
+        }
+
         try {
             backend = new Backend();
             backend.addPropertyChangeListener(this);
 
             setSearchParameters(commandLine);
 
+            if (commandLine.hasOption(SWEEP_OPTION)) {
+                runSweep(commandLine);
+                return;
+            }
+
+            final String coordinatorAddress = commandLine.getOptionValue(WORKER_OPTION);
+            if (coordinatorAddress != null && !coordinatorAddress.isEmpty()) {
+                int separator = coordinatorAddress.lastIndexOf(':');
+                if (separator <= 0) {
+                    throw new IllegalArgumentException(
+                            "Coordinator address must be host:port, got " + coordinatorAddress);
+                }
+                printlnIndent(1, 0, "WAITING FOR COORDINATOR AT " + coordinatorAddress + " ...");
+                backend.connectToCoordinator(coordinatorAddress.substring(0, separator),
+                        Integer.parseInt(coordinatorAddress.substring(separator + 1)));
+            }
+
             if (printDataset) {
                 printlnIndent(0, "DATASET");
                 printlnIndent();
@@ -139,9 +210,16 @@ public class CLI implements PropertyChangeListener {
                 printlnIndent();
             }
 
-            printSearchParameters(1);
-            printlnIndent(1);
-            printlnIndent(1, 0, "STARTING SYMBOLIC REGRESSION >>>");
+            // A resumed search runs with the parameters of its checkpoint
+            final String resumeFilePath = commandLine.getOptionValue(RESUME_OPTION);
+            final boolean resuming = resumeFilePath != null && !resumeFilePath.isEmpty();
+            if (resuming) {
+                printlnIndent(1, 0, "RESUMING SYMBOLIC REGRESSION FROM " + resumeFilePath + " >>>");
+            } else {
+                printSearchParameters(1);
+                printlnIndent(1);
+                printlnIndent(1, 0, "STARTING SYMBOLIC REGRESSION >>>");
+            }
 
             if (isOverwritingGenerations) {
                 for (int i = 0; i < 9; i++) {
@@ -149,7 +227,11 @@ public class CLI implements PropertyChangeListener {
                 }
             }
 
-            backend.start();
+            if (resuming) {
+                backend.resumeFrom(resumeFilePath);
+            } else {
+                backend.start();
+            }
 
             while (backend.getLatestGeneration() == null ||
                     backend.getLatestGeneration().getIndex() < backend.getMaxGenerations()) {
@@ -188,6 +270,183 @@ public class CLI implements PropertyChangeListener {
         }
     }
 
+    /**
+     * Sweep search parameters over the configured search: run every configuration of the sweep
+     * space with successive halving and print the configurations ranked.
+     *
+     * @param commandLine Parsed command line holding the sweep options
+     */
+    private void runSweep(CommandLine commandLine) throws InterruptedException {
+        final List<ParameterSweep.Result> results;
+        try {
+            final SearchParameter base = backend.getSearchParameters();
+            final SweepSpace space = SweepSpace.parse(commandLine.getOptionValue(SWEEP_OPTION));
+
+            final List<Map<String, String>> configurations;
+            if (commandLine.hasOption(SWEEP_SAMPLES_OPTION)) {
+                final int samples = parseIntOption(SWEEP_SAMPLES_OPTION,
+                        commandLine.getOptionValue(SWEEP_SAMPLES_OPTION), 1);
+                Random random;
+                try {
+                    random = new Random(base.getSeed());
+                } catch (SearchParameterException e) {
+                    random = new Random();
+                }
+                configurations = space.sample(samples, random);
+            } else {
+                configurations = space.grid();
+            }
+
+            final ParameterSweep sweep = new ParameterSweep(base, configurations);
+            sweep.setRepeats(parseIntOption(SWEEP_REPEATS_OPTION,
+                    commandLine.getOptionValue(SWEEP_REPEATS_OPTION, "1"), 1));
+            sweep.setReduction(parseIntOption(SWEEP_REDUCTION_OPTION,
+                    commandLine.getOptionValue(SWEEP_REDUCTION_OPTION, "3"), 2));
+            sweep.setMinGenerations(parseIntOption(SWEEP_MIN_GENERATIONS_OPTION,
+                    commandLine.getOptionValue(SWEEP_MIN_GENERATIONS_OPTION, "1"), 1));
+            if (commandLine.hasOption(SWEEP_TARGET_ERROR_OPTION)) {
+                sweep.setTargetError(parseDoubleOption(SWEEP_TARGET_ERROR_OPTION,
+                        commandLine.getOptionValue(SWEEP_TARGET_ERROR_OPTION)));
+            }
+            if (commandLine.hasOption(SWEEP_THREADS_OPTION)) {
+                sweep.setThreads(parseIntOption(SWEEP_THREADS_OPTION,
+                        commandLine.getOptionValue(SWEEP_THREADS_OPTION), 1));
+            }
+            sweep.setRungListener((generations, count) -> printlnIndent(1, 0,
+                    "SWEEPING " + count + " CONFIGURATIONS FOR " + generations + " GENERATIONS >>>"));
+
+            printSearchParameters(1);
+            printlnIndent(1);
+            results = sweep.run();
+        } catch (SearchParameterException e) {
+            out.println(e.getMessage());
+            return;
+        }
+
+        printlnIndent(1);
+        printlnIndent(1, 0, ">>> PARAMETER SWEEP ENDED");
+        printlnIndent();
+        out.print(ParameterSweep.toTable(results));
+    }
+
+    /**
+     * Coordinate a distributed island search: relay migrants between the workers and print the
+     * merged statistics of each generation until every worker has finished.
+     *
+     * @param commandLine Parsed command line holding the coordinator options
+     */
+    private void runCoordinator(CommandLine commandLine) {
+        try {
+            final int port = parseIntOption(COORDINATOR_OPTION,
+                    commandLine.getOptionValue(COORDINATOR_OPTION), 0);
+            final int workers = parseIntOption(WORKERS_OPTION,
+                    commandLine.getOptionValue(WORKERS_OPTION, "2"), 1);
+            final InetAddress address = parseCoordinatorAddress(
+                    commandLine.getOptionValue(COORDINATOR_ADDRESS_OPTION));
+
+            final String topologyValue = commandLine.getOptionValue(MIGRATION_TOPOLOGY_OPTION,
+                    MigrationTopology.RING.name());
+            MigrationTopologyValidator.validate(topologyValue);
+            final MigrationTopology topology = MigrationTopology.valueOf(topologyValue.toUpperCase());
+
+            // Migrants larger than the workers' searches allow are refused
+            final String maxSolutionNodesValue = commandLine.getOptionValue(MAX_SOLUTION_NODES_OPTION);
+            final int maxSolutionNodes;
+            if (maxSolutionNodesValue != null && !maxSolutionNodesValue.isEmpty()) {
+                MaxSolutionNodesValidator.validate(maxSolutionNodesValue);
+                maxSolutionNodes = Integer.parseInt(maxSolutionNodesValue);
+            } else {
+                maxSolutionNodes = new Backend().getMaxSolutionNodes();
+            }
+
+            try (IslandCoordinator coordinator = new IslandCoordinator(address, port, workers,
+                    topology, maxSolutionNodes)) {
+                printlnIndent(1, 0, "WAITING FOR " + workers + " WORKERS ON "
+                        + address.getHostAddress() + " PORT " + coordinator.getPort() + " >>>");
+
+                coordinator.setListener(g -> {
+                    printlnIndent(1);
+                    printlnIndent(1, 0, "Generation " + g.getIndex());
+                    printlnIndent(1, 2, "    Best: " + g.getBestFitness());
+                    printlnIndent(1, 2, "    Mean: " + g.getAverageFitness());
+                    printlnIndent(1, 2, "   Worst: " + g.getWorstFitness());
+                });
+                coordinator.run();
+
+                printlnIndent(1);
+                printlnIndent(1, 0, ">>> DISTRIBUTED SEARCH ENDED");
+                if (coordinator.getBestProgram() != null) {
+                    printlnIndent(1);
+                    printlnIndent(0, 1, "BEST FORMULA FOUND: ");
+                    printlnIndent(0, 2, "ERROR: " + coordinator.getBestFitness());
+                    printlnIndent(0, 2, new MathExpr(coordinator.getBestProgram()).simplify().toString());
+                }
+            }
+        } catch (SearchParameterException e) {
+            out.println(e.getMessage());
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Parse an integer coordinator or sweep option, reporting an invalid value like the search
+     * parameter validators do.
+     *
+     * @param option Name of the option
+     * @param value Value given for the option
+     * @param min Smallest value allowed
+     * @return The value
+     */
+    private static int parseIntOption(String option, String value, int min)
+            throws SearchParameterException {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < min) {
+                throw new SearchParameterException(option + " must be " + min + " or greater");
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new SearchParameterException("Invalid " + option + ". Only integer is accepted");
+        }
+    }
+
+    /**
+     * Parse a decimal sweep option, reporting an invalid value like the search parameter
+     * validators do.
+     *
+     * @param option Name of the option
+     * @param value Value given for the option
+     * @return The value
+     */
+    private static double parseDoubleOption(String option, String value)
+            throws SearchParameterException {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new SearchParameterException("Invalid " + option + ". Only double is accepted");
+        }
+    }
+
+    /**
+     * Parse the address a coordinator listens on, the loopback address when none is given.
+     *
+     * @param value Host name or IP address given for the option, or null
+     * @return The address
+     */
+    private static InetAddress parseCoordinatorAddress(String value)
+            throws SearchParameterException {
+        if (value == null || value.isEmpty()) {
+            return InetAddress.getLoopbackAddress();
+        }
+        try {
+            return InetAddress.getByName(value);
+        } catch (UnknownHostException e) {
+            throw new SearchParameterException("Invalid " + COORDINATOR_ADDRESS_OPTION
+                    + ". Only a host name or IP address of this host is accepted");
+        }
+    }
+
     /**
      * Generate command line options when a help command is detected.
      *
@@ -394,7 +653,7 @@ public class CLI implements PropertyChangeListener {
                         .required(false)
                         .longOpt(SEED_OPTION)
                         .hasArg(true)
-                        .desc("Specify an integer seed for the random generator. Specifying a value for this makes the symbolic regression reproducable, running in single-threaded mode (slower). If set to 0, the seed will be randomly generated and the program will be run in multi-threaded mode." + "DEFAULT: 0")
+                        .desc("Specify an integer seed for the random generator. Specifying a value for this makes the symbolic regression reproducable, with only fitness evaluation running on multiple threads (slightly slower). If set to 0, the seed will be randomly generated and every step will be run in multi-threaded mode." + "DEFAULT: 0")
                         .build());
 
         // Multi Objective Optimisation
@@ -497,6 +756,321 @@ public class CLI implements PropertyChangeListener {
                         .desc("Specify a time limit in seconds for terminating the symbolic regression. " + "DEFAULT: '3600'")
                         .build());
 
+        // Evaluation mode
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(EVALUATION_MODE_OPTION)
+                        .hasArg(true)
+                        .desc("Specify how candidate solutions are evaluated: 'INTERPRETED' walks each solution tree for every row, 'COMPILED' compiles each solution before evaluating it, 'VECTORIZED' evaluates each node of a solution once over whole dataset columns, 'SIMD' is VECTORIZED using SIMD instructions when the jdk.incubator.vector module is available, 'PRIMITIVE' runs each solution as an instruction array over primitive doubles without boxing (COMPILED, VECTORIZED, SIMD and PRIMITIVE fall back to INTERPRETED for skeletons). " + "DEFAULT: 'INTERPRETED'")
+                        .build());
+
+        // Fitness cache size
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(FITNESS_CACHE_SIZE_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the maximum number of solution fitness values to cache, so duplicate solutions are not evaluated again. 0 disables the cache. " + "DEFAULT: '0'")
+                        .build());
+
+        // Subtree cache memory
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(SUBTREE_CACHE_MEMORY_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the memory in megabytes used to share subtree outputs between solutions within a generation, when evaluationMode is VECTORIZED or SIMD. 0 disables the cache. " + "DEFAULT: '0'")
+                        .build());
+
+        // Early abort chunk size
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(EARLY_ABORT_CHUNK_SIZE_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the number of rows evaluated between checks of whether a solution can still beat the worst solution of the previous generation. Solutions which can't are not evaluated further. Only used for single-objective runs with MSE, RMSE, MAE or WC. 0 disables early abort. " + "DEFAULT: '0'")
+                        .build());
+
+        // Sampling mode
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(SAMPLING_MODE_OPTION)
+                        .hasArg(true)
+                        .desc("Specify how the dataset rows solutions are scored on are chosen each generation. NONE: every row, RANDOM: a new random sample of sampleSize rows, INTERLEAVED: every k-th row with a different offset each generation, PROGRESSIVE: a random sample growing from sampleSize to every row by the last generation. The best solutions are always re-scored on every row. Only used for single-objective runs. " + "DEFAULT: 'NONE'")
+                        .build());
+
+        // Sample size
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(SAMPLE_SIZE_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the number of dataset rows solutions are scored on each generation (the initial number for PROGRESSIVE) when samplingMode is not NONE. " + "DEFAULT: '1000'")
+                        .build());
+
+        // Island count
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(ISLAND_COUNT_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the number of islands the population is split into. Each island evolves on its own thread and exchanges its best solutions with other islands every migrationInterval generations. 1 evolves a single population. Only used for single-objective runs. " + "DEFAULT: '1'")
+                        .build());
+
+        // Migration interval
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(MIGRATION_INTERVAL_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the number of generations between migrations when islandCount is greater than 1. " + "DEFAULT: '10'")
+                        .build());
+
+        // Migration size
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(MIGRATION_SIZE_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the number of best solutions each island sends to other islands per migration. They replace the worst solutions of the receiving island. 0 disables migration. " + "DEFAULT: '2'")
+                        .build());
+
+        // Migration topology
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(MIGRATION_TOPOLOGY_OPTION)
+                        .hasArg(true)
+                        .desc("Specify which islands migrants are sent to. RING: the next island, RANDOM: a random other island, FULLY_CONNECTED: every other island. " + "DEFAULT: 'RING'")
+                        .build());
+
+        // Coordinator
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(COORDINATOR_OPTION)
+                        .hasArg(true)
+                        .desc("Coordinate a distributed search on the given port instead of searching: relay migrants between the processes started with --worker, routed by migrationTopology, and print their combined progress.")
+                        .build());
+
+        // Coordinator address
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(COORDINATOR_ADDRESS_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the address a coordinator listens on for workers. Use 0.0.0.0 to accept workers from other hosts on every interface. " + "DEFAULT: the loopback address, workers on this host only")
+                        .build());
+
+        // Workers
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(WORKERS_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the number of worker processes a coordinator waits for before the search starts. " + "DEFAULT: '2'")
+                        .build());
+
+        // Worker
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(WORKER_OPTION)
+                        .hasArg(true)
+                        .desc("Run this search as a worker of the coordinator at host:port, exchanging migrationSize solutions with the other workers every migrationInterval generations. Only used for single-objective runs.")
+                        .build());
+
+        // Constant optimisation interval
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(CONSTANT_OPTIMISATION_INTERVAL_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the number of generations between local optimisations of the numeric constants of the best solutions. 0 disables constant optimisation. Only used for single-objective runs. " + "DEFAULT: '0'")
+                        .build());
+
+        // Constant optimisation elites
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(CONSTANT_OPTIMISATION_ELITES_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the number of best solutions (per island) whose constants are optimised when constantOptimisationInterval is not 0. " + "DEFAULT: '5'")
+                        .build());
+
+        // Constant optimisation time
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(CONSTANT_OPTIMISATION_TIME_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the time in milliseconds each constant optimisation of the best solutions may take. Seeded runs limit the number of evaluations instead, so they stay reproducible. " + "DEFAULT: '200'")
+                        .build());
+
+        // Linear scaling
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(LINEAR_SCALING_OPTION)
+                        .hasArg(false)
+                        .desc("If used, each solution is scored as a + b * solution, with a and b fitted by least squares, so the search doesn't have to find offsets and multipliers. The reported formula includes a and b. Only used with MSE and RMSE. " + "DEFAULT: 'false'")
+                        .build());
+
+        // Interval screen
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(INTERVAL_SCREEN_OPTION)
+                        .hasArg(false)
+                        .desc("If used, solutions whose operators may be undefined over the range of the input values (e.g. a division by a subtree whose range holds 0, or the log of a subtree which may be negative) get the worst error without being evaluated on any row. The number rejected is reported per generation. " + "DEFAULT: 'false'")
+                        .build());
+
+        // Online simplification
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(ONLINE_SIMPLIFICATION_OPTION)
+                        .hasArg(false)
+                        .desc("If used, new offspring are simplified after crossover and mutation: constant subexpressions are folded, identities such as x + 0 and x * 1 removed and x - x cancelled. This controls bloat. The number of nodes removed is reported per generation. " + "DEFAULT: 'false'")
+                        .build());
+
+        // Genome encoding
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(GENOME_ENCODING_OPTION)
+                        .hasArg(true)
+                        .desc("Specify how programs are stored and varied. TREE: node trees, LINEAR: post-order instruction arrays evaluated by a stack machine, varied by subtree splices. LINEAR only applies to single objective, single island runs without a skeleton, and is scored by the stack machine whatever the evaluationMode, so the subtree cache doesn't apply to it. DAG: trees sharing equal subtrees in one store, varied by subtree replacement; only applies to single objective, single island runs. " + "DEFAULT: 'TREE'")
+                        .build());
+
+        // Checkpoint interval
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(CHECKPOINT_INTERVAL_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the number of generations between checkpoints of the whole population, written to checkpointFilePath in the background so the search can be resumed with --resume. Only single objective runs on one island without a skeleton are checkpointed. 0 disables checkpoints. " + "DEFAULT: '0'")
+                        .build());
+
+        // Checkpoint file path
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(CHECKPOINT_FILE_PATH_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the file population checkpoints are written to. " + "DEFAULT: 'checkpoint.ndc'")
+                        .build());
+
+        // Resume
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(RESUME_OPTION)
+                        .hasArg(true)
+                        .desc("Resume the search checkpointed in the given file, with its parameters and population, instead of starting a new one. A seeded search also carries on with its saved random state.")
+                        .build());
+
+        // History full generations
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(HISTORY_FULL_GENERATIONS_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the number of most recent generations kept in memory in full. Older generations are written to a temporary file and read back when asked for. " + "DEFAULT: '64'")
+                        .build());
+
+        // History sample interval
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(HISTORY_SAMPLE_INTERVAL_OPTION)
+                        .hasArg(true)
+                        .desc("Specify k to keep only every k-th generation older than historyFullGenerations; the others are dropped. 1 keeps every generation. " + "DEFAULT: '1'")
+                        .build());
+
+        // History keep new best
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(HISTORY_KEEP_NEW_BEST_OPTION)
+                        .hasArg(false)
+                        .desc("If used, every generation which found a new best solution is kept, even if historySampleInterval would drop it. " + "DEFAULT: 'false'")
+                        .build());
+
+        // History population generations
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(HISTORY_POPULATION_GENERATIONS_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the number of most recent generations whose population (held by multi objective generations for the Pareto front) is kept; older generations are kept without it. 0 keeps every population. " + "DEFAULT: '0'")
+                        .build());
+
+        // Sweep
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(SWEEP_OPTION)
+                        .hasArg(true)
+                        .desc("Sweep search parameters instead of searching once: each configuration runs over the other options with successive halving, where the best configurations of each round run again for longer, and they are printed ranked with their errors and times. Dimensions are separated by ';', each a parameter and its values separated by '|' or a numeric range lo..hi, e.g. 'populationSize=100|200;offspringFraction=0.4..0.8'. Ranges need sweepSamples.")
+                        .build());
+
+        // Sweep samples
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(SWEEP_SAMPLES_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the number of configurations drawn at random from the sweep space, seeded by seed. If not used, every combination of values is run.")
+                        .build());
+
+        // Sweep repeats
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(SWEEP_REPEATS_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the number of runs of each configuration, with consecutive seeds from seed. Configurations are ranked by their median error. " + "DEFAULT: '1'")
+                        .build());
+
+        // Sweep reduction
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(SWEEP_REDUCTION_OPTION)
+                        .hasArg(true)
+                        .desc("Specify how many times fewer configurations each round of a sweep keeps, and how many times more generations they run for. The last round runs maxGenerations. " + "DEFAULT: '3'")
+                        .build());
+
+        // Sweep min generations
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(SWEEP_MIN_GENERATIONS_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the fewest generations the first round of a sweep runs for, which limits the number of rounds. " + "DEFAULT: '1'")
+                        .build());
+
+        // Sweep target error
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(SWEEP_TARGET_ERROR_OPTION)
+                        .hasArg(true)
+                        .desc("Specify an error whose time to reach is reported for each configuration of a sweep, along with how many of its runs reached it.")
+                        .build());
+
+        // Sweep threads
+        options.addOption(
+                Option.builder()
+                        .required(false)
+                        .longOpt(SWEEP_THREADS_OPTION)
+                        .hasArg(true)
+                        .desc("Specify the number of threads a sweep evaluates fitness on, which is also the number of runs at once. " + "DEFAULT: the number of processors")
+                        .build());
+
 
         return options;
     }
@@ -571,6 +1145,14 @@ public class CLI implements PropertyChangeListener {
                     printlnIndent(1, 0, ">>> SYMBOLIC REGRESSION ENDED");
                     printlnIndent(1);
                     printlnIndent(1, 1, "TOTAL RUNNING TIME: " + currentTimeString());
+                    if (backend.getCheckpointFailure() != null) {
+                        printlnIndent(1, 1, "CHECKPOINTS STOPPED: "
+                                + backend.getCheckpointFailure().getMessage());
+                    }
+                    if (newGeneration.getHistoryFailure() != null) {
+                        printlnIndent(1, 1, "GENERATION HISTORY KEPT IN MEMORY: "
+                                + newGeneration.getHistoryFailure());
+                    }
                     printlnIndent(1);
                     printlnIndent(0, 1, "BEST FORMULA FOUND: ");
                     printBest(0, 2);
@@ -802,6 +1384,29 @@ public class CLI implements PropertyChangeListener {
         printlnIndent(verbosityLevel, indentLevel, "maxGenerations: " + backend.getMaxGenerations());
         printlnIndent(verbosityLevel, indentLevel, "steadyFitnessLimit: " + backend.getSteadyFitnessLimit());
         printlnIndent(verbosityLevel, indentLevel, "timeLimit: " + backend.getTimeLimit());
+        printlnIndent(verbosityLevel, indentLevel, "evaluationMode: " + backend.getEvaluationMode());
+        printlnIndent(verbosityLevel, indentLevel, "fitnessCacheSize: " + backend.getFitnessCacheSize());
+        printlnIndent(verbosityLevel, indentLevel, "subtreeCacheMemory: " + backend.getSubtreeCacheMemory());
+        printlnIndent(verbosityLevel, indentLevel, "earlyAbortChunkSize: " + backend.getEarlyAbortChunkSize());
+        printlnIndent(verbosityLevel, indentLevel, "samplingMode: " + backend.getSamplingMode());
+        printlnIndent(verbosityLevel, indentLevel, "sampleSize: " + backend.getSampleSize());
+        printlnIndent(verbosityLevel, indentLevel, "islandCount: " + backend.getIslandCount());
+        printlnIndent(verbosityLevel, indentLevel, "migrationInterval: " + backend.getMigrationInterval());
+        printlnIndent(verbosityLevel, indentLevel, "migrationSize: " + backend.getMigrationSize());
+        printlnIndent(verbosityLevel, indentLevel, "migrationTopology: " + backend.getMigrationTopology());
+        printlnIndent(verbosityLevel, indentLevel, "constantOptimisationInterval: " + backend.getConstantOptimisationInterval());
+        printlnIndent(verbosityLevel, indentLevel, "constantOptimisationElites: " + backend.getConstantOptimisationElites());
+        printlnIndent(verbosityLevel, indentLevel, "constantOptimisationTime: " + backend.getConstantOptimisationTime());
+        printlnIndent(verbosityLevel, indentLevel, "linearScaling: " + backend.getLinearScaling());
+        printlnIndent(verbosityLevel, indentLevel, "intervalScreen: " + backend.getIntervalScreen());
+        printlnIndent(verbosityLevel, indentLevel, "onlineSimplification: " + backend.getOnlineSimplification());
+        printlnIndent(verbosityLevel, indentLevel, "genomeEncoding: " + backend.getGenomeEncoding());
+        printlnIndent(verbosityLevel, indentLevel, "checkpointInterval: " + backend.getCheckpointInterval());
+        printlnIndent(verbosityLevel, indentLevel, "checkpointFilePath: " + backend.getCheckpointFilePath());
+        printlnIndent(verbosityLevel, indentLevel, "historyFullGenerations: " + backend.getHistoryFullGenerations());
+        printlnIndent(verbosityLevel, indentLevel, "historySampleInterval: " + backend.getHistorySampleInterval());
+        printlnIndent(verbosityLevel, indentLevel, "historyKeepNewBest: " + backend.getHistoryKeepNewBest());
+        printlnIndent(verbosityLevel, indentLevel, "historyPopulationGenerations: " + backend.getHistoryPopulationGenerations());
 
     }
 
@@ -1093,6 +1698,121 @@ public class CLI implements PropertyChangeListener {
             backend.setTimeLimit(Integer.parseInt(timeLimit));
         }
 
+        final String evaluationMode = commandLine.getOptionValue(EVALUATION_MODE_OPTION);
+        if (evaluationMode != null && !evaluationMode.isEmpty()) {
+            backend.setEvaluationMode(evaluationMode);
+        }
+
+        final String fitnessCacheSize = commandLine.getOptionValue(FITNESS_CACHE_SIZE_OPTION);
+        if (fitnessCacheSize != null && !fitnessCacheSize.isEmpty()) {
+            backend.setFitnessCacheSize(Integer.parseInt(fitnessCacheSize));
+        }
+
+        final String subtreeCacheMemory = commandLine.getOptionValue(SUBTREE_CACHE_MEMORY_OPTION);
+        if (subtreeCacheMemory != null && !subtreeCacheMemory.isEmpty()) {
+            backend.setSubtreeCacheMemory(Integer.parseInt(subtreeCacheMemory));
+        }
+
+        final String earlyAbortChunkSize = commandLine.getOptionValue(EARLY_ABORT_CHUNK_SIZE_OPTION);
+        if (earlyAbortChunkSize != null && !earlyAbortChunkSize.isEmpty()) {
+            backend.setEarlyAbortChunkSize(Integer.parseInt(earlyAbortChunkSize));
+        }
+
+        final String samplingMode = commandLine.getOptionValue(SAMPLING_MODE_OPTION);
+        if (samplingMode != null && !samplingMode.isEmpty()) {
+            backend.setSamplingMode(samplingMode);
+        }
+
+        final String sampleSize = commandLine.getOptionValue(SAMPLE_SIZE_OPTION);
+        if (sampleSize != null && !sampleSize.isEmpty()) {
+            backend.setSampleSize(Integer.parseInt(sampleSize));
+        }
+
+        final String islandCount = commandLine.getOptionValue(ISLAND_COUNT_OPTION);
+        if (islandCount != null && !islandCount.isEmpty()) {
+            backend.setIslandCount(Integer.parseInt(islandCount));
+        }
+
+        final String migrationInterval = commandLine.getOptionValue(MIGRATION_INTERVAL_OPTION);
+        if (migrationInterval != null && !migrationInterval.isEmpty()) {
+            backend.setMigrationInterval(Integer.parseInt(migrationInterval));
+        }
+
+        final String migrationSize = commandLine.getOptionValue(MIGRATION_SIZE_OPTION);
+        if (migrationSize != null && !migrationSize.isEmpty()) {
+            backend.setMigrationSize(Integer.parseInt(migrationSize));
+        }
+
+        final String migrationTopology = commandLine.getOptionValue(MIGRATION_TOPOLOGY_OPTION);
+        if (migrationTopology != null && !migrationTopology.isEmpty()) {
+            backend.setMigrationTopology(migrationTopology);
+        }
+
+        final String constantOptimisationInterval = commandLine.getOptionValue(CONSTANT_OPTIMISATION_INTERVAL_OPTION);
+        if (constantOptimisationInterval != null && !constantOptimisationInterval.isEmpty()) {
+            backend.setConstantOptimisationInterval(Integer.parseInt(constantOptimisationInterval));
+        }
+
+        final String constantOptimisationElites = commandLine.getOptionValue(CONSTANT_OPTIMISATION_ELITES_OPTION);
+        if (constantOptimisationElites != null && !constantOptimisationElites.isEmpty()) {
+            backend.setConstantOptimisationElites(Integer.parseInt(constantOptimisationElites));
+        }
+
+        final String constantOptimisationTime = commandLine.getOptionValue(CONSTANT_OPTIMISATION_TIME_OPTION);
+        if (constantOptimisationTime != null && !constantOptimisationTime.isEmpty()) {
+            backend.setConstantOptimisationTime(Integer.parseInt(constantOptimisationTime));
+        }
+
+        final Boolean linearScaling = commandLine.hasOption(LINEAR_SCALING_OPTION);
+        if (linearScaling) {
+            backend.setLinearScaling(linearScaling);
+        }
+
+        final Boolean intervalScreen = commandLine.hasOption(INTERVAL_SCREEN_OPTION);
+        if (intervalScreen) {
+            backend.setIntervalScreen(intervalScreen);
+        }
+
+        final Boolean onlineSimplification = commandLine.hasOption(ONLINE_SIMPLIFICATION_OPTION);
+        if (onlineSimplification) {
+            backend.setOnlineSimplification(onlineSimplification);
+        }
+
+        final String genomeEncoding = commandLine.getOptionValue(GENOME_ENCODING_OPTION);
+        if (genomeEncoding != null && !genomeEncoding.isEmpty()) {
+            backend.setGenomeEncoding(genomeEncoding);
+        }
+
+        final String checkpointInterval = commandLine.getOptionValue(CHECKPOINT_INTERVAL_OPTION);
+        if (checkpointInterval != null && !checkpointInterval.isEmpty()) {
+            backend.setCheckpointInterval(Integer.parseInt(checkpointInterval));
+        }
+
+        final String checkpointFilePath = commandLine.getOptionValue(CHECKPOINT_FILE_PATH_OPTION);
+        if (checkpointFilePath != null && !checkpointFilePath.isEmpty()) {
+            backend.setCheckpointFilePath(checkpointFilePath);
+        }
+
+        final String historyFullGenerations = commandLine.getOptionValue(HISTORY_FULL_GENERATIONS_OPTION);
+        if (historyFullGenerations != null && !historyFullGenerations.isEmpty()) {
+            backend.setHistoryFullGenerations(Integer.parseInt(historyFullGenerations));
+        }
+
+        final String historySampleInterval = commandLine.getOptionValue(HISTORY_SAMPLE_INTERVAL_OPTION);
+        if (historySampleInterval != null && !historySampleInterval.isEmpty()) {
+            backend.setHistorySampleInterval(Integer.parseInt(historySampleInterval));
+        }
+
+        final Boolean historyKeepNewBest = commandLine.hasOption(HISTORY_KEEP_NEW_BEST_OPTION);
+        if (historyKeepNewBest) {
+            backend.setHistoryKeepNewBest(historyKeepNewBest);
+        }
+
+        final String historyPopulationGenerations = commandLine.getOptionValue(HISTORY_POPULATION_GENERATIONS_OPTION);
+        if (historyPopulationGenerations != null && !historyPopulationGenerations.isEmpty()) {
+            backend.setHistoryPopulationGenerations(Integer.parseInt(historyPopulationGenerations));
+        }
+
         final Boolean printDataset = commandLine.hasOption(PRINT_DATASET_OPTION);
         this.printDataset = printDataset;
 
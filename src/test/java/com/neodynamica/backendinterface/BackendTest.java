@@ -770,6 +770,27 @@ class BackendTest {
         }
     }
 
+    @Test
+    void predictionsFromDroppedGenerationAreRefused() throws Exception {
+        backend.setDataFilePath(TEST_CSV);
+        backend.setMaxGenerations(12);
+        backend.setPopulationSize(30);
+        // Only the last two generations and every fifth before them are held
+        backend.setHistoryFullGenerations(2);
+        backend.setHistorySampleInterval(5);
+        backend.setHistoryKeepNewBest(false);
+        try (RunManager manager = new RunManager(1, 1)) {
+            manager.submit(backend);
+            manager.awaitAll();
+        }
+
+        assertNull(backend.getGeneration(3));
+        InvalidRunStateException refused = assertThrows(InvalidRunStateException.class,
+                () -> backend.generateBestSolutionPredictionsFile("dropped.csv", 3));
+        assertTrue(refused.getMessage().contains("no longer held"));
+        assertFalse(new java.io.File("dropped.csv").exists());
+    }
+
     /* These methods are responsibility of Dataset tests
      * void getDatasetColumnLabels() {}
      * void getInputColumnLabels() {}
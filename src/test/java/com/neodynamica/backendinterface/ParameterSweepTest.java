@@ -0,0 +1,133 @@
+package com.neodynamica.backendinterface;
+
+import com.neodynamica.lib.parameter.SearchParameter;
+import com.neodynamica.lib.parameter.SweepSpace;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParameterSweepTest {
+
+    private final String TEST_CSV = "UnitTestFiles/3cxc+sin(b)-4xa.csv";
+    private final long SEED = 7;
+
+    /**
+     * returns the parameters shared by every configuration: 9 generations in full
+     */
+    private SearchParameter base() throws Exception {
+        SearchParameter base = new Backend().getSearchParameters();
+        base.setDataFilePath(TEST_CSV);
+        base.setMaxGenerations(9);
+        base.setPopulationSize(30);
+        base.setSeed(SEED);
+        return base;
+    }
+
+    /**
+     * returns nine configurations, differing in population size
+     */
+    private List<Map<String, String>> configurations() {
+        List<Map<String, String>> configurations = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            Map<String, String> configuration = new HashMap<>();
+            configuration.put("populationSize", Integer.toString(10 + 5 * i));
+            configurations.add(configuration);
+        }
+        return configurations;
+    }
+
+    /**
+     * runs a configuration alone for the given generations, as the sweep's only repeat does, and
+     * returns its best error
+     */
+    private double bestError(Map<String, String> configuration, int generations)
+            throws Exception {
+        SearchParameter parameters = new SearchParameter(base());
+        SweepSpace.apply(parameters, configuration);
+        parameters.setMaxGenerations(generations);
+        parameters.setSeed(SEED);
+
+        Backend job = new Backend(parameters);
+        try (RunManager manager = new RunManager(1, 1)) {
+            manager.submit(job);
+            manager.awaitAll();
+        }
+
+        double best = Double.POSITIVE_INFINITY;
+        GenerationBean generation;
+        while ((generation = job.getNextGeneration()) != null) {
+            best = Math.min(best, (Double) generation.getBestFitness());
+        }
+        return best;
+    }
+
+    /**
+     * returns the configurations sorted by their best error over the given generations, keeping
+     * the given order for equal errors as the sweep does
+     */
+    private List<Map<String, String>> ranked(List<Map<String, String>> configurations,
+            int generations, Map<Map<String, String>, Double> errors) throws Exception {
+        for (Map<String, String> configuration : configurations) {
+            errors.put(configuration, this.bestError(configuration, generations));
+        }
+        List<Map<String, String>> ranked = new ArrayList<>(configurations);
+        ranked.sort(Comparator.comparingDouble(errors::get));
+        return ranked;
+    }
+
+    @Test
+    void survivorsAreHalvedAndRanked() throws Exception {
+        List<Map<String, String>> configurations = this.configurations();
+        ParameterSweep sweep = new ParameterSweep(this.base(), configurations);
+        sweep.setReduction(3);
+        sweep.setThreads(2);
+
+        List<String> rungs = new ArrayList<>();
+        sweep.setRungListener((budget, survivors) -> rungs.add(budget + " x " + survivors));
+        List<ParameterSweep.Result> results = sweep.run();
+
+        // Nine configurations allow two thirdings of the 9 generation budget
+        List<String> expectedRungs = new ArrayList<>();
+        Collections.addAll(expectedRungs, "1 x 9", "3 x 3", "9 x 1");
+        assertEquals(expectedRungs, rungs);
+
+        // The top third of each rung is promoted, by the errors of seeded runs on their own
+        Map<Map<String, String>, Double> firstErrors = new HashMap<>();
+        List<Map<String, String>> first = this.ranked(configurations, 1, firstErrors);
+        Map<Map<String, String>, Double> secondErrors = new HashMap<>();
+        List<Map<String, String>> second = this.ranked(first.subList(0, 3), 3, secondErrors);
+        double lastError = this.bestError(second.get(0), 9);
+
+        // Configurations which got further rank first, then by error
+        List<Map<String, String>> expected = new ArrayList<>();
+        expected.add(second.get(0));
+        expected.addAll(second.subList(1, 3));
+        expected.addAll(first.subList(3, 9));
+
+        assertEquals(9, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            ParameterSweep.Result result = results.get(i);
+            assertEquals(expected.get(i), result.getConfiguration(), "rank " + (i + 1));
+            assertEquals(1, result.getRuns());
+
+            if (i == 0) {
+                assertEquals(9, result.getGenerations());
+                assertEquals(lastError, result.getMedianError());
+            } else if (i < 3) {
+                assertEquals(3, result.getGenerations());
+                assertEquals(secondErrors.get(expected.get(i)), result.getMedianError());
+            } else {
+                assertEquals(1, result.getGenerations());
+                assertEquals(firstErrors.get(expected.get(i)), result.getMedianError());
+            }
+            assertEquals(result.getMedianError(), result.getBestError());
+        }
+    }
+}
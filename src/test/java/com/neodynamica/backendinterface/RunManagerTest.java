@@ -0,0 +1,71 @@
+package com.neodynamica.backendinterface;
+
+import com.neodynamica.lib.gp.RunState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunManagerTest {
+
+    private final String TEST_CSV = "UnitTestFiles/3cxc+sin(b)-4xa.csv";
+
+    /**
+     * returns a seeded search of the test dataset
+     */
+    private Backend job(long seed) throws Exception {
+        Backend job = new Backend();
+        job.setDataFilePath(TEST_CSV);
+        job.setSeed(seed);
+        job.setMaxGenerations(15);
+        job.setPopulationSize(60);
+        return job;
+    }
+
+    /**
+     * runs the given jobs together and returns the best fitness and solution of each generation
+     * of each job
+     */
+    private List<List<String>> run(int workerThreads, int maxConcurrentRuns, Backend... jobs)
+            throws Exception {
+        try (RunManager manager = new RunManager(workerThreads, maxConcurrentRuns)) {
+            for (Backend job : jobs) {
+                manager.submit(job);
+            }
+            manager.awaitAll();
+        }
+
+        List<List<String>> runs = new ArrayList<>();
+        for (Backend job : jobs) {
+            assertEquals(RunState.ENDED, job.getRunState());
+
+            List<String> generations = new ArrayList<>();
+            GenerationBean generation;
+            while ((generation = job.getNextGeneration()) != null) {
+                generations.add(generation.getIndex() + ": " + generation.getBestFitness() + " "
+                        + generation.getBestSolutionParenthesesString());
+            }
+            assertFalse(generations.isEmpty());
+            runs.add(generations);
+        }
+        return runs;
+    }
+
+    @Test
+    void seededJobIsIndependentOfEvaluationThreads() throws Exception {
+        List<String> oneThread = run(1, 1, job(7)).get(0);
+        List<String> fourThreads = run(4, 1, job(7)).get(0);
+
+        assertEquals(oneThread, fourThreads);
+    }
+
+    @Test
+    void concurrentSeededJobsMatchTheSameJobsRunAlone() throws Exception {
+        List<List<String>> together = run(4, 2, job(7), job(13));
+
+        assertEquals(run(4, 1, job(7)).get(0), together.get(0));
+        assertEquals(run(4, 1, job(13)).get(0), together.get(1));
+    }
+}
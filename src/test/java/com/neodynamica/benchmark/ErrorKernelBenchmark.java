@@ -0,0 +1,141 @@
+package com.neodynamica.benchmark;
+
+import com.neodynamica.lib.gp.ErrorKernel;
+import com.neodynamica.lib.gp.ErrorKernels;
+import org.apache.commons.math3.stat.correlation.PearsonsCorrelation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The single pass {@link ErrorKernels} against the stream based error functions they replaced,
+ * which are copied here as the baseline: R² in three stream passes with Math.pow, Pearson's
+ * correlation copying both arrays before calling commons-math, and the median absolute error
+ * sorting a new array rather than selecting in a reused one. The boxed arguments the interpreted
+ * Regression passes are measured too, unboxed per call and by a kernel bound to the expected
+ * outputs.
+ * <p>
+ * Run with the gc profiler to see the allocation per operation (gc.alloc.rate.norm):
+ * <pre>
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main ErrorKernel -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorKernelBenchmark {
+
+    @Param({"1000", "100000"})
+    public int rowCount;
+
+    private Double[] boxedCalculated;
+    private Double[] boxedExpected;
+    private double[] calculated;
+    private double[] expected;
+    private ErrorKernel kernel;
+    private ErrorKernel boundKernel;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        this.calculated = new double[this.rowCount];
+        this.expected = new double[this.rowCount];
+        this.boxedCalculated = new Double[this.rowCount];
+        this.boxedExpected = new Double[this.rowCount];
+        for (int i = 0; i < this.rowCount; i++) {
+            this.expected[i] = random.nextDouble() * 100;
+            this.calculated[i] = this.expected[i] + random.nextGaussian();
+            this.boxedExpected[i] = this.expected[i];
+            this.boxedCalculated[i] = this.calculated[i];
+        }
+        this.kernel = ErrorKernels::mse;
+        this.boundKernel = this.kernel.bind(this.boxedExpected);
+    }
+
+    @Benchmark
+    public double streamRgf() {
+        double average = Arrays.stream(this.boxedExpected).mapToDouble(value -> value).average()
+                .orElse(Double.NaN);
+        double totalSquares = Arrays.stream(this.boxedExpected)
+                .mapToDouble(value -> Math.pow(value - average, 2)).sum();
+        Double[] calculated = this.boxedCalculated;
+        double residualSquares = 0;
+        for (int i = 0; i < calculated.length; i++) {
+            residualSquares += Math.pow(this.boxedExpected[i] - calculated[i], 2);
+        }
+        return 1 - residualSquares / totalSquares;
+    }
+
+    @Benchmark
+    public double fusedRgf() {
+        return ErrorKernels.rgf(this.calculated, this.expected);
+    }
+
+    @Benchmark
+    public double commonsPcc() {
+        return new PearsonsCorrelation().correlation(
+                Arrays.stream(this.boxedExpected).mapToDouble(value -> value).toArray(),
+                Arrays.stream(this.boxedCalculated).mapToDouble(value -> value).toArray());
+    }
+
+    @Benchmark
+    public double fusedPcc() {
+        return ErrorKernels.pcc(this.calculated, this.expected);
+    }
+
+    @Benchmark
+    public double sortedMed() {
+        double[] errors = new double[this.rowCount];
+        for (int i = 0; i < this.rowCount; i++) {
+            errors[i] = Math.abs(this.calculated[i] - this.expected[i]);
+        }
+        Arrays.sort(errors);
+        return errors[this.rowCount / 2];
+    }
+
+    @Benchmark
+    public double selectedMed() {
+        return ErrorKernels.med(this.calculated, this.expected);
+    }
+
+    @Benchmark
+    public double boxedMse() {
+        double sum = 0;
+        for (int i = 0; i < this.boxedExpected.length; i++) {
+            sum += (this.boxedExpected[i] - this.boxedCalculated[i])
+                    * (this.boxedExpected[i] - this.boxedCalculated[i]);
+        }
+        return sum / this.boxedExpected.length;
+    }
+
+    @Benchmark
+    public double fusedMse() {
+        return ErrorKernels.mse(this.calculated, this.expected);
+    }
+
+    @Benchmark
+    public double unboxedKernelMse() {
+        return this.kernel.error(this.boxedCalculated, this.boxedExpected);
+    }
+
+    @Benchmark
+    public double boundKernelMse() {
+        return this.boundKernel.error(this.boxedCalculated, this.boxedExpected);
+    }
+}
@@ -0,0 +1,127 @@
+package com.neodynamica.benchmark;
+
+import com.neodynamica.lib.gp.LinearProgram;
+import io.jenetics.ext.util.TreeNode;
+import io.jenetics.prog.op.Const;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Program;
+import io.jenetics.prog.op.Var;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring one program over a dataset by the boxed interpreter, as the INTERPRETED evaluation mode
+ * does, against the primitive {@link LinearProgram} stack machine of the PRIMITIVE mode. Both
+ * paths calculate the same mean squared error, from Double arrays and from double arrays.
+ * <p>
+ * Run with the gc profiler to see the allocation per operation (gc.alloc.rate.norm):
+ * <pre>
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main Evaluation -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+
+    private static final MathOp[] OPERATORS = {MathOp.ADD, MathOp.SUB, MathOp.MUL, MathOp.DIV,
+            MathOp.SIN};
+
+    @Param({"1000"})
+    public int rowCount;
+
+    @Param({"6"})
+    public int depth;
+
+    private TreeNode<Op<Double>> tree;
+    private LinearProgram program;
+    private Double[][] boxedRows;
+    private Double[] boxedExpected;
+    private double[][] rows;
+    private double[] expected;
+    private double[] calculated;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        this.tree = randomTree(random, this.depth);
+        this.program = LinearProgram.compile(this.tree);
+
+        this.boxedRows = new Double[this.rowCount][];
+        this.boxedExpected = new Double[this.rowCount];
+        this.rows = new double[this.rowCount][];
+        this.expected = new double[this.rowCount];
+        this.calculated = new double[this.rowCount];
+        for (int i = 0; i < this.rowCount; i++) {
+            double x = random.nextDouble() * 10 - 5;
+            double y = random.nextDouble() * 10 - 5;
+            this.boxedRows[i] = new Double[]{x, y};
+            this.rows[i] = new double[]{x, y};
+            this.expected[i] = x * x + Math.sin(y);
+            this.boxedExpected[i] = this.expected[i];
+        }
+    }
+
+    @Benchmark
+    public double interpreted() {
+        Double[] out = new Double[this.boxedRows.length];
+        for (int i = 0; i < this.boxedRows.length; i++) {
+            out[i] = Program.eval(this.tree, this.boxedRows[i]);
+        }
+
+        double sum = 0;
+        for (int i = 0; i < out.length; i++) {
+            sum += Math.pow(out[i] - this.boxedExpected[i], 2);
+        }
+        return sum / out.length;
+    }
+
+    @Benchmark
+    public double primitive() {
+        this.program.eval(this.rows, this.calculated);
+
+        double sum = 0;
+        for (int i = 0; i < this.calculated.length; i++) {
+            double residual = this.calculated[i] - this.expected[i];
+            sum += residual * residual;
+        }
+        return sum / this.calculated.length;
+    }
+
+    private static TreeNode<Op<Double>> randomTree(Random random, int depth) {
+        if (depth == 0 || random.nextInt(4) == 0) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    return TreeNode.of(Var.of("x", 0));
+                case 1:
+                    return TreeNode.of(Var.of("y", 1));
+                default:
+                    return TreeNode.of(Const.of((double) random.nextInt(10)));
+            }
+        }
+
+        MathOp op = OPERATORS[random.nextInt(OPERATORS.length)];
+        TreeNode<Op<Double>> node = TreeNode.of(op);
+        for (int i = 0; i < op.arity(); i++) {
+            node.attach(randomTree(random, depth - 1));
+        }
+        return node;
+    }
+}
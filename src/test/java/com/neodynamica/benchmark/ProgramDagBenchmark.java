@@ -0,0 +1,152 @@
+package com.neodynamica.benchmark;
+
+import com.neodynamica.lib.gp.ProgramDag;
+import io.jenetics.ext.util.TreeNode;
+import io.jenetics.prog.op.Const;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Var;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Materialised program trees against the hash-consed {@link ProgramDag}: the cost of storing a
+ * population, and of making an offspring by subtree replacement as crossover does.
+ * <p>
+ * Run with the gc profiler to see the allocation per operation (gc.alloc.rate.norm):
+ * <pre>
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main ProgramDag -prof gc
+ * </pre>
+ * The population benchmarks also report the nodes held per individual, which is what the heap of a
+ * population is made of.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgramDagBenchmark {
+
+    private static final MathOp[] OPERATORS = {MathOp.ADD, MathOp.SUB, MathOp.MUL, MathOp.DIV,
+            MathOp.SIN};
+
+    @Param({"1000"})
+    public int populationSize;
+
+    @Param({"6"})
+    public int depth;
+
+    private TreeNode<Op<Double>>[] trees;
+    private ProgramDag dag;
+    private ProgramDag.Node[] programs;
+    private Random random;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        this.random = new Random(42);
+        this.trees = new TreeNode[this.populationSize];
+        this.dag = new ProgramDag();
+        this.programs = new ProgramDag.Node[this.populationSize];
+        for (int i = 0; i < this.populationSize; i++) {
+            this.trees[i] = randomTree(this.random, this.depth);
+            this.programs[i] = this.dag.intern(this.trees[i]);
+        }
+    }
+
+    /**
+     * Nodes held per individual by the last population stored.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        public double nodesPerIndividual;
+    }
+
+    @Benchmark
+    public Object treePopulation(Footprint footprint) {
+        long nodes = 0;
+        TreeNode<Op<Double>>[] copies = new TreeNode[this.trees.length];
+        for (int i = 0; i < this.trees.length; i++) {
+            copies[i] = TreeNode.ofTree(this.trees[i]);
+            nodes += copies[i].size();
+        }
+        footprint.nodesPerIndividual = (double) nodes / copies.length;
+        return copies;
+    }
+
+    @Benchmark
+    public Object dagPopulation(Footprint footprint) {
+        ProgramDag store = new ProgramDag();
+        ProgramDag.Node[] stored = new ProgramDag.Node[this.trees.length];
+        for (int i = 0; i < this.trees.length; i++) {
+            stored[i] = store.intern(this.trees[i]);
+        }
+        footprint.nodesPerIndividual = (double) store.size() / stored.length;
+        return stored;
+    }
+
+    @Benchmark
+    public Object treeOffspring() {
+        TreeNode<Op<Double>> mother = this.trees[this.random.nextInt(this.trees.length)];
+        TreeNode<Op<Double>> father = this.trees[this.random.nextInt(this.trees.length)];
+
+        // Crossover on materialised trees copies the whole of both parts
+        TreeNode<Op<Double>> child = TreeNode.ofTree(mother);
+        int index = this.random.nextInt(child.size());
+        TreeNode<Op<Double>> graft = TreeNode.ofTree(
+                father.preorderStream().skip(this.random.nextInt(father.size())).findFirst().get());
+        if (index == 0) {
+            return graft;
+        }
+        TreeNode<Op<Double>> replaced = child.preorderStream().skip(index).findFirst().get();
+        TreeNode<Op<Double>> parent = replaced.getParent().get();
+        parent.replace(parent.indexOf(replaced), graft);
+        return child;
+    }
+
+    @Benchmark
+    public Object dagOffspring() {
+        ProgramDag.Node mother = this.programs[this.random.nextInt(this.programs.length)];
+        ProgramDag.Node father = this.programs[this.random.nextInt(this.programs.length)];
+
+        return this.dag.replace(mother, this.random.nextInt(mother.size()),
+                father.nodeAt(this.random.nextInt(father.size())));
+    }
+
+    private static TreeNode<Op<Double>> randomTree(Random random, int depth) {
+        if (depth == 0 || random.nextInt(4) == 0) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    return TreeNode.of(Var.of("x", 0));
+                case 1:
+                    return TreeNode.of(Var.of("y", 1));
+                default:
+                    return TreeNode.of(Const.of((double) random.nextInt(10)));
+            }
+        }
+
+        MathOp op = OPERATORS[random.nextInt(OPERATORS.length)];
+        TreeNode<Op<Double>> node = TreeNode.of(op);
+        for (int i = 0; i < op.arity(); i++) {
+            node.attach(randomTree(random, depth - 1));
+        }
+        return node;
+    }
+}
@@ -0,0 +1,193 @@
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.backendinterface.Backend;
+import com.neodynamica.backendinterface.GenerationBean;
+import com.neodynamica.backendinterface.RunManager;
+import com.neodynamica.lib.parameter.SearchParameter;
+import com.neodynamica.lib.parameter.SearchParameterException;
+import com.neodynamica.lib.parameter.io.SearchParameterParser;
+import io.jenetics.prngine.LCG64ShiftRandom;
+import io.jenetics.util.ISeq;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointTest {
+
+    @Test
+    void roundTrip() throws IOException, SearchParameterException, InterruptedException {
+        File file = File.createTempFile("checkpoint", ".ndc");
+        file.deleteOnExit();
+
+        SearchParameter parameters = new SearchParameterParser().parse().getSearchParameterObject();
+        parameters.setSeed(42);
+        parameters.setPopulationSize(321);
+        Random random = new Random(7);
+        random.nextLong();
+
+        try (CheckpointWriter writer = new CheckpointWriter(file.getPath())) {
+            writer.offer(Checkpoint.of(12, ISeq.empty(), 0.5, null, parameters, random));
+        }
+
+        Checkpoint checkpoint = Checkpoint.read(file.getPath());
+        assertEquals(12, checkpoint.getGeneration());
+        assertEquals(0.5, checkpoint.getBestFitness());
+        assertNull(checkpoint.getBest());
+        assertEquals(0, checkpoint.size());
+        assertEquals(42, checkpoint.getSearchParameter().getSeed());
+        assertEquals(321, checkpoint.getSearchParameter().getPopulationSize());
+
+        // The random engine carries on from where it was checkpointed
+        assertEquals(random.nextLong(), checkpoint.getRandom().nextLong());
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    /**
+     * Serializable like every Random, but not an engine a search uses
+     */
+    private static final class ForeignRandom extends Random {
+    }
+
+    @Test
+    void onlyRandomEnginesAreRestored() throws IOException, SearchParameterException {
+        SearchParameter parameters = new SearchParameterParser().parse().getSearchParameterObject();
+
+        // The engine of a seeded search
+        Random random = new LCG64ShiftRandom.ThreadSafe(7);
+        random.nextLong();
+        Checkpoint engine = Checkpoint.of(1, ISeq.empty(), 0.5, null, parameters, random);
+        assertEquals(random.nextLong(), engine.getRandom().nextLong());
+
+        // Any other class is refused before an object of it is created
+        Checkpoint foreign = Checkpoint.of(1, ISeq.empty(), 0.5, null, parameters,
+                new ForeignRandom());
+        assertThrows(IOException.class, foreign::getRandom);
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        File file = File.createTempFile("checkpoint", ".ndc");
+        file.deleteOnExit();
+        Files.write(file.toPath(), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertThrows(IOException.class, () -> Checkpoint.read(file.getPath()));
+    }
+
+    @Test
+    void failureIsReportedWithTheGenerations() throws Exception {
+        // A file can't be created under a regular file, whoever runs the test
+        File notDirectory = File.createTempFile("checkpoint", ".ndc");
+        notDirectory.deleteOnExit();
+
+        Backend backend = new Backend();
+        backend.setDataFilePath("UnitTestFiles/3cxc+sin(b)-4xa.csv");
+        backend.setMaxGenerations(20);
+        backend.setPopulationSize(30);
+        backend.setCheckpointInterval(1);
+        backend.setCheckpointFilePath(new File(notDirectory, "checkpoint.ndc").getPath());
+        try (RunManager manager = new RunManager(1, 1)) {
+            manager.submit(backend);
+            manager.awaitAll();
+        }
+
+        assertNotNull(backend.getCheckpointFailure());
+
+        // Once reported, every later generation reports it
+        GenerationBean last = null;
+        boolean reported = false;
+        GenerationBean generation;
+        while ((generation = backend.getNextGeneration()) != null) {
+            if (reported) {
+                assertNotNull(generation.getCheckpointFailure());
+            }
+            reported = generation.getCheckpointFailure() != null;
+            last = generation;
+        }
+        assertNotNull(last);
+        assertEquals(backend.getCheckpointFailure().toString(), last.getCheckpointFailure());
+    }
+
+    /**
+     * returns the best fitness and solution of each generation left in a search's history
+     */
+    private static List<String> generations(Backend backend) {
+        List<String> generations = new ArrayList<>();
+        GenerationBean generation;
+        while ((generation = backend.getNextGeneration()) != null) {
+            generations.add(generation.getIndex() + ": " + generation.getBestFitness() + " "
+                    + generation.getBestSolutionParenthesesString());
+        }
+        return generations;
+    }
+
+    @Test
+    void resumedSearchCarriesOnFromTheCheckpoint() throws Exception {
+        File file = File.createTempFile("checkpoint", ".ndc");
+        file.deleteOnExit();
+        File halfway = File.createTempFile("checkpoint", ".ndc");
+        halfway.deleteOnExit();
+
+        Backend uninterrupted = new Backend();
+        uninterrupted.setDataFilePath("UnitTestFiles/3cxc+sin(b)-4xa.csv");
+        uninterrupted.setSeed(7);
+        uninterrupted.setMaxGenerations(12);
+        uninterrupted.setPopulationSize(60);
+        uninterrupted.setCheckpointInterval(6);
+        uninterrupted.setCheckpointFilePath(file.getPath());
+
+        // Generations are announced on the engine thread, so holding it there keeps the
+        // checkpoint of generation 6 until it has been copied
+        uninterrupted.addPropertyChangeListener(event -> {
+            if (!"generation".equals(event.getPropertyName())
+                    || uninterrupted.getLatestGeneration().getIndex() != 6) {
+                return;
+            }
+            try {
+                for (int wait = 0; wait < 200; wait++) {
+                    try {
+                        if (Checkpoint.read(file.getPath()).getGeneration() == 6) {
+                            Files.copy(file.toPath(), halfway.toPath(),
+                                    StandardCopyOption.REPLACE_EXISTING);
+                            return;
+                        }
+                    } catch (IOException e) {
+                        // Not written yet
+                    }
+                    Thread.sleep(50);
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        try (RunManager manager = new RunManager(2, 1)) {
+            manager.submit(uninterrupted);
+            manager.awaitAll();
+        }
+        List<String> expected = generations(uninterrupted);
+        assertEquals(6, Checkpoint.read(halfway.getPath()).getGeneration());
+
+        Backend resumed = new Backend();
+        CountDownLatch ended = new CountDownLatch(1);
+        resumed.addPropertyChangeListener(event -> {
+            if ("evolutionEnded".equals(event.getPropertyName())) {
+                ended.countDown();
+            }
+        });
+        resumed.resumeFrom(halfway.getPath());
+        assertTrue(ended.await(60, TimeUnit.SECONDS));
+
+        // With the default options nothing steering the search is lost, so the generations after
+        // the checkpoint are those of the uninterrupted search
+        assertEquals(expected.subList(6, expected.size()), generations(resumed));
+    }
+}
@@ -0,0 +1,226 @@
+package com.neodynamica.lib.gp;
+
+import io.jenetics.ext.util.TreeNode;
+import io.jenetics.prog.op.Const;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Program;
+import io.jenetics.prog.op.Var;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarProgramTest {
+
+    private static final double[][] ROWS = {
+            {1.0, 2.0},
+            {-3.5, 0.25},
+            {0.0, 7.0},
+            {12.0, -4.0}
+    };
+
+    private static double[][] columns() {
+        double[][] columns = new double[2][ROWS.length];
+        for (int i = 0; i < ROWS.length; i++) {
+            columns[0][i] = ROWS[i][0];
+            columns[1][i] = ROWS[i][1];
+        }
+        return columns;
+    }
+
+    private static double[][] scratch(ColumnarProgram program) {
+        return new double[program.getStackSize()][ROWS.length];
+    }
+
+    @Test
+    void columnarEvaluationMatchesInterpreter() {
+        // sin(x) * y + (x - 2.5) / y
+        TreeNode<Op<Double>> tree = TreeNode.<Op<Double>>of(MathOp.ADD)
+                .attach(TreeNode.<Op<Double>>of(MathOp.MUL)
+                        .attach(TreeNode.<Op<Double>>of(MathOp.SIN)
+                                .attach(Var.of("x", 0)))
+                        .attach(Var.of("y", 1)))
+                .attach(TreeNode.<Op<Double>>of(MathOp.DIV)
+                        .attach(TreeNode.<Op<Double>>of(MathOp.SUB)
+                                .attach(Var.of("x", 0))
+                                .attach(Const.of(2.5)))
+                        .attach(Var.of("y", 1)));
+
+        ColumnarProgram program = ColumnarProgram.compile(tree);
+        assertNotNull(program);
+
+        double[] output = program.eval(columns(), ROWS.length, scratch(program));
+        for (int i = 0; i < ROWS.length; i++) {
+            Double expected = Program.eval(tree, ROWS[i][0], ROWS[i][1]);
+            assertEquals(expected, output[i], 0.0);
+        }
+    }
+
+    @Test
+    void simdKernelsMatchScalarKernels() {
+        // sqrt(abs(x)) * -y + min(x, y)
+        TreeNode<Op<Double>> tree = TreeNode.<Op<Double>>of(MathOp.ADD)
+                .attach(TreeNode.<Op<Double>>of(MathOp.MUL)
+                        .attach(TreeNode.<Op<Double>>of(MathOp.SQRT)
+                                .attach(TreeNode.<Op<Double>>of(MathOp.ABS)
+                                        .attach(Var.of("x", 0))))
+                        .attach(TreeNode.<Op<Double>>of(MathOp.NEG)
+                                .attach(Var.of("y", 1))))
+                .attach(TreeNode.<Op<Double>>of(MathOp.MIN)
+                        .attach(Var.of("x", 0))
+                        .attach(Var.of("y", 1)));
+
+        // Built and run by the vector profile, the SIMD kernels must be the ones compared
+        if (Boolean.getBoolean("neodynamica.vector")) {
+            assertNotSame(ColumnKernels.scalar(), ColumnKernels.simd(),
+                    "Vector API kernels weren't loaded, is jdk.incubator.vector added?");
+        }
+
+        ColumnarProgram program = ColumnarProgram.compile(tree);
+
+        // Enough rows for whole vectors and a tail on any vector width
+        int n = 37;
+        double[][] columns = new double[2][n];
+        for (int i = 0; i < n; i++) {
+            columns[0][i] = (i - 18) * 0.75;
+            columns[1][i] = Math.cos(i) * 5.0;
+        }
+
+        double[] scalar = program.eval(columns, n, new double[program.getStackSize()][n],
+                ColumnKernels.scalar());
+        double[] simd = program.eval(columns, n, new double[program.getStackSize()][n],
+                ColumnKernels.simd());
+
+        assertArrayEquals(Arrays.copyOf(scalar, n), Arrays.copyOf(simd, n), 0.0);
+    }
+
+    @Test
+    void sharedSubtreesAreReusedFromCache() {
+        // sin(x) * y  and  sin(x) + y share sin(x)
+        TreeNode<Op<Double>> product = TreeNode.<Op<Double>>of(MathOp.MUL)
+                .attach(TreeNode.<Op<Double>>of(MathOp.SIN).attach(Var.of("x", 0)))
+                .attach(Var.of("y", 1));
+        TreeNode<Op<Double>> sum = TreeNode.<Op<Double>>of(MathOp.ADD)
+                .attach(TreeNode.<Op<Double>>of(MathOp.SIN).attach(Var.of("x", 0)))
+                .attach(Var.of("y", 1));
+
+        SubtreeCache cache = new SubtreeCache(1024 * 1024, ROWS.length);
+
+        for (TreeNode<Op<Double>> tree : Arrays.asList(product, sum)) {
+            ColumnarProgram program = ColumnarProgram.compile(tree, true);
+            double[] expected = program.eval(columns(), ROWS.length, scratch(program));
+            double[] cached = program.eval(columns(), ROWS.length, ColumnKernels.scalar(), cache);
+            assertArrayEquals(expected, cached, 0.0);
+        }
+
+        // product: MUL and SIN miss; sum: ADD misses, SIN hits
+        assertEquals(1, cache.takeHits());
+        assertEquals(3, cache.takeMisses());
+    }
+
+    @Test
+    void constantsOfACachedEvaluationAreNotOverwritten() {
+        // (2 - 3) * (sin(4) + (x - 5)): both children of SUB are constants, and the constants of
+        // the right subtree are broadcast while 2 - 3 is held
+        TreeNode<Op<Double>> tree = TreeNode.<Op<Double>>of(MathOp.MUL)
+                .attach(TreeNode.<Op<Double>>of(MathOp.SUB)
+                        .attach(Const.of(2.0))
+                        .attach(Const.of(3.0)))
+                .attach(TreeNode.<Op<Double>>of(MathOp.ADD)
+                        .attach(TreeNode.<Op<Double>>of(MathOp.SIN).attach(Const.of(4.0)))
+                        .attach(TreeNode.<Op<Double>>of(MathOp.SUB)
+                                .attach(Var.of("x", 0))
+                                .attach(Const.of(5.0))));
+
+        ColumnarProgram program = ColumnarProgram.compile(tree, true);
+        double[] cached = program.eval(columns(), ROWS.length, ColumnKernels.scalar(),
+                new SubtreeCache(1024 * 1024, ROWS.length));
+        for (int i = 0; i < ROWS.length; i++) {
+            assertEquals(Program.eval(tree, ROWS[i][0], ROWS[i][1]), cached[i], 0.0);
+        }
+
+        // A single constant is broadcast to exactly the rows evaluated
+        ColumnarProgram constant = ColumnarProgram.compile(TreeNode.of(Const.of(7.0)), true);
+        assertArrayEquals(new double[]{7.0, 7.0}, constant.eval(columns(), 2,
+                ColumnKernels.scalar(), new SubtreeCache(1024 * 1024, 2)), 0.0);
+    }
+
+    @Test
+    void leavesAreNotCached() {
+        // x + 2.5: only ADD goes through the cache, the second evaluation reuses it
+        TreeNode<Op<Double>> tree = TreeNode.<Op<Double>>of(MathOp.ADD)
+                .attach(Var.of("x", 0))
+                .attach(Const.of(2.5));
+
+        SubtreeCache cache = new SubtreeCache(1024 * 1024, ROWS.length);
+        ColumnarProgram program = ColumnarProgram.compile(tree, true);
+        double[] expected = program.eval(columns(), ROWS.length, scratch(program));
+
+        assertArrayEquals(expected,
+                program.eval(columns(), ROWS.length, ColumnKernels.scalar(), cache), 0.0);
+        assertArrayEquals(expected,
+                program.eval(columns(), ROWS.length, ColumnKernels.scalar(), cache), 0.0);
+
+        assertEquals(1, cache.takeHits());
+        assertEquals(1, cache.takeMisses());
+    }
+
+    @Test
+    void subtreeKeysCompareStructurally() {
+        SubtreeCache.Key x = SubtreeCache.Key.variable(0);
+
+        assertEquals(SubtreeCache.Key.operator(MathOp.ADD, x, SubtreeCache.Key.constant(1.5)),
+                SubtreeCache.Key.operator(MathOp.ADD, SubtreeCache.Key.variable(0),
+                        SubtreeCache.Key.constant(1.5)));
+        assertNotEquals(SubtreeCache.Key.operator(MathOp.ADD, x, SubtreeCache.Key.constant(1.5)),
+                SubtreeCache.Key.operator(MathOp.ADD, x, SubtreeCache.Key.constant(1.50000001)));
+        assertNotEquals(SubtreeCache.Key.operator(MathOp.SUB, x, SubtreeCache.Key.variable(1)),
+                SubtreeCache.Key.operator(MathOp.SUB, SubtreeCache.Key.variable(1), x));
+        assertNotEquals(SubtreeCache.Key.variable(1), SubtreeCache.Key.constant(1));
+    }
+
+    @Test
+    void programsOfDifferentStackSizesShareTheThreadsStack() {
+        // (x + y) * (x - y) needs two stack slots, sqr(x) one
+        TreeNode<Op<Double>> product = TreeNode.<Op<Double>>of(MathOp.MUL)
+                .attach(TreeNode.<Op<Double>>of(MathOp.ADD)
+                        .attach(Var.of("x", 0))
+                        .attach(Var.of("y", 1)))
+                .attach(TreeNode.<Op<Double>>of(MathOp.SUB)
+                        .attach(Var.of("x", 0))
+                        .attach(Var.of("y", 1)));
+        TreeNode<Op<Double>> square = TreeNode.<Op<Double>>of(MathOp.SQR)
+                .attach(Var.of("x", 0));
+
+        for (TreeNode<Op<Double>> tree : Arrays.asList(square, product, square)) {
+            ColumnarProgram program = ColumnarProgram.compile(tree);
+            double[] output = program.eval(columns(), ROWS.length, scratch(program));
+            for (int i = 0; i < ROWS.length; i++) {
+                assertEquals(Program.eval(tree, ROWS[i][0], ROWS[i][1]), output[i], 0.0);
+            }
+        }
+    }
+
+    @Test
+    void singleConstantIsBroadcast() {
+        TreeNode<Op<Double>> tree = TreeNode.of(Const.of(3.0));
+
+        ColumnarProgram program = ColumnarProgram.compile(tree);
+        double[] output = program.eval(columns(), ROWS.length, scratch(program));
+
+        for (int i = 0; i < ROWS.length; i++) {
+            assertEquals(3.0, output[i], 0.0);
+        }
+    }
+
+    @Test
+    void skeletonCannotBeCompiled() {
+        TreeNode<Op<Double>> tree = TreeNode.<Op<Double>>of(SolutionSkeleton.createOpFromString("?+?"))
+                .attach(Var.of("x", 0))
+                .attach(Var.of("y", 1));
+
+        assertNull(ColumnarProgram.compile(tree));
+    }
+}
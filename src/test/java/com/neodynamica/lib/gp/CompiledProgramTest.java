@@ -0,0 +1,127 @@
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.lib.sample.Dataset;
+import io.jenetics.ext.util.TreeNode;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Program;
+import io.jenetics.prog.op.Var;
+import io.jenetics.prog.regression.Error;
+import io.jenetics.prog.regression.Regression;
+import io.jenetics.util.ISeq;
+import org.junit.jupiter.api.Test;
+
+import static com.neodynamica.lib.gp.ProgramTrees.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledProgramTest {
+
+    // Includes a zero, a negative and a row where x == y, so division and logs go undefined
+    private static final Double[][] ROWS = {
+            {1.0, 2.0, 3.0},
+            {-3.5, 0.25, 1.0},
+            {0.0, 7.0, 0.0},
+            {12.0, -4.0, 5.0},
+            {2.0, 2.0, 1.0}
+    };
+
+    private static final Dataset DATASET = new Dataset(
+            new String[]{"x", "y", "z"}, new String[]{"x", "y", "z"}, ROWS);
+
+    private static void assertEvaluatesLikeTheTree(TreeNode<Op<Double>> tree) {
+        CompiledProgram program = CompiledProgram.compile(tree);
+        assertNotNull(program);
+
+        for (Double[] row : ROWS) {
+            Double expected = Program.eval(tree, row[0], row[1]);
+            double actual = program.eval(new double[]{row[0], row[1]});
+            // NaN and the infinities must come out the same as well as finite values
+            assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(actual),
+                    tree + " at " + row[0] + ", " + row[1]);
+        }
+    }
+
+    @Test
+    void evaluatesLikeTheTree() {
+        // sin(x) * y + (x - 2.5) / y
+        assertEvaluatesLikeTheTree(node(MathOp.ADD,
+                node(MathOp.MUL, node(MathOp.SIN, x()), y()),
+                node(MathOp.DIV, node(MathOp.SUB, x(), constant(2.5)), y())));
+
+        // pow(abs(y), x) - max(x, neg(y)) % 3
+        assertEvaluatesLikeTheTree(node(MathOp.SUB,
+                node(MathOp.POW, node(MathOp.ABS, y()), x()),
+                node(MathOp.MOD, node(MathOp.MAX, x(), node(MathOp.NEG, y())), constant(3.0))));
+    }
+
+    @Test
+    void undefinedValuesMatchTheTree() {
+        // x / 0 is infinite or NaN, x / (x - y) divides by zero where x == y
+        assertEvaluatesLikeTheTree(node(MathOp.DIV, x(), constant(0.0)));
+        assertEvaluatesLikeTheTree(node(MathOp.DIV, y(), node(MathOp.SUB, x(), y())));
+
+        // log and sqrt of negatives are NaN, exp overflows to infinity
+        assertEvaluatesLikeTheTree(node(MathOp.ADD, node(MathOp.LOG, x()),
+                node(MathOp.SQRT, y())));
+        assertEvaluatesLikeTheTree(node(MathOp.EXP, node(MathOp.MUL, x(), constant(1000.0))));
+    }
+
+    @Test
+    void unsupportedOperationFallsBackToTheInterpreter() {
+        Op<Double> twice = Op.of("twice", 1, v -> 2.0 * v[0]);
+        TreeNode<Op<Double>> tree = node(MathOp.ADD, node(twice, x()), y());
+
+        assertNull(CompiledProgram.compile(tree));
+
+        ErrorKernel kernel = ErrorFunction.kernel("MSE", false);
+        Regression<Double> interpreter = Regression.of(
+                Regression.codecOf(ISeq.of(MathOp.ADD, twice), ISeq.of(Var.of("x", 0),
+                        Var.of("y", 1)), 3),
+                Error.of(kernel::error), DATASET.toSamples());
+        CompiledRegression compiled = new CompiledRegression(interpreter, DATASET, kernel);
+
+        assertEquals(interpreter.error(tree), compiled.error(tree), 0.0);
+    }
+
+    @Test
+    void compiledErrorMatchesInterpretedError() {
+        TreeNode<Op<Double>> tree = node(MathOp.MUL, node(MathOp.COS, x()),
+                node(MathOp.SUB, y(), constant(1.5)));
+
+        ErrorKernel kernel = ErrorFunction.kernel("MAE", false);
+        Regression<Double> interpreter = Regression.of(
+                Regression.codecOf(ISeq.of(MathOp.MUL, MathOp.SUB, MathOp.COS),
+                        ISeq.of(Var.of("x", 0), Var.of("y", 1)), 3),
+                Error.of(kernel::error), DATASET.toSamples());
+
+        assertEquals(interpreter.error(tree),
+                new CompiledRegression(interpreter, DATASET, kernel).error(tree), 1e-12);
+    }
+
+    @Test
+    void regressionsOfDifferentRowCountsShareTheThreadsBuffers() {
+        TreeNode<Op<Double>> tree = node(MathOp.ADD,
+                node(MathOp.MUL, node(MathOp.SIN, x()), y()),
+                node(MathOp.DIV, node(MathOp.SUB, x(), constant(2.5)), y()));
+        ISeq<Op<Double>> operations = ISeq.of(MathOp.ADD, MathOp.MUL, MathOp.SIN, MathOp.DIV,
+                MathOp.SUB);
+        ErrorKernel kernel = ErrorFunction.kernel("MSE", false);
+
+        // Every buffer of the thread is taken by one row count, then by the other and back
+        Dataset sample = DATASET.subset(new int[]{0, 3});
+        for (Dataset dataset : new Dataset[]{DATASET, sample, DATASET}) {
+            Regression<Double> interpreter = Regression.of(
+                    Regression.codecOf(operations, ISeq.of(Var.of("x", 0), Var.of("y", 1)), 3),
+                    Error.of(kernel::error), dataset.toSamples());
+            Regression<Double> bound = Regression.of(interpreter.codec(),
+                    Error.of(kernel.bind(dataset.getOutputValues())::error), dataset.toSamples());
+            double expected = interpreter.error(tree);
+
+            assertEquals(expected, bound.error(tree), 1e-12);
+            assertEquals(expected,
+                    new ColumnarRegression(interpreter, dataset, kernel).error(tree), 1e-12);
+            assertEquals(expected,
+                    new LinearRegression(interpreter, dataset, kernel, null).error(tree), 1e-12);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.neodynamica.lib.gp;
+
+import io.jenetics.ext.util.Tree;
+import io.jenetics.ext.util.TreeNode;
+import io.jenetics.prog.op.Const;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Program;
+import io.jenetics.prog.op.Var;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConstantOptimiserTest {
+
+    private static final double[] XS = {-2.0, -1.0, 0.0, 0.5, 1.0, 3.0};
+
+    // Mean squared error against y = 3x + 2
+    private static double error(Tree<Op<Double>, ?> program) {
+        double sum = 0;
+        for (double x : XS) {
+            double diff = Program.eval(program, x) - (3 * x + 2);
+            sum += diff * diff;
+        }
+        return sum / XS.length;
+    }
+
+    @Test
+    void constantsConvergeOnTarget() {
+        // x * 1 + 0
+        TreeNode<Op<Double>> program = TreeNode.<Op<Double>>of(MathOp.ADD)
+                .attach(TreeNode.<Op<Double>>of(MathOp.MUL)
+                        .attach(Var.of("x", 0))
+                        .attach(Const.of(1.0)))
+                .attach(Const.of(0.0));
+
+        ConstantOptimiser.Refined refined = new ConstantOptimiser(ConstantOptimiserTest::error)
+                .optimise(program, Long.MAX_VALUE);
+
+        assertNotNull(refined);
+        assertEquals(0.0, refined.getError(), 1e-6);
+        assertEquals(refined.getError(), error(refined.getProgram()), 1e-12);
+        // Structure is kept, only constants change
+        assertEquals(program.size(), refined.getProgram().size());
+    }
+
+    @Test
+    void programsWithoutConstantsAreLeftAlone() {
+        TreeNode<Op<Double>> program = TreeNode.<Op<Double>>of(MathOp.MUL)
+                .attach(Var.of("x", 0))
+                .attach(Var.of("x", 0));
+
+        assertNull(new ConstantOptimiser(ConstantOptimiserTest::error)
+                .optimise(program, Long.MAX_VALUE));
+    }
+}
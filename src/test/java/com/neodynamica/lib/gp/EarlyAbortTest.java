@@ -0,0 +1,81 @@
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.lib.sample.Dataset;
+import io.jenetics.ext.util.TreeNode;
+import io.jenetics.prog.op.Const;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Var;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EarlyAbortTest {
+
+    // y = x over six rows
+    private static final Dataset DATASET = new Dataset(
+            new String[]{"x", "y"},
+            new String[]{"x", "y"},
+            new Double[][]{{1.0, 1.0}, {2.0, 2.0}, {3.0, 3.0}, {4.0, 4.0}, {5.0, 5.0}, {6.0, 6.0}});
+
+    // x + 10, which is off by 10 on every row
+    private static final TreeNode<Op<Double>> PROGRAM = TreeNode.<Op<Double>>of(MathOp.ADD)
+            .attach(Var.of("x", 0))
+            .attach(Const.of(10.0));
+
+    // x + 1, off by 1 on every row
+    private static final TreeNode<Op<Double>> CLOSE = TreeNode.<Op<Double>>of(MathOp.ADD)
+            .attach(Var.of("x", 0))
+            .attach(Const.of(1.0));
+
+    @Test
+    void fullEvaluationWithoutThreshold() {
+        EarlyAbort earlyAbort = new EarlyAbort(2, "MAE", DATASET);
+
+        assertEquals(10.0, earlyAbort.error(PROGRAM), 1e-12);
+        assertFalse(earlyAbort.isLowerBound(PROGRAM));
+        assertEquals(0, earlyAbort.takeAborted());
+        assertEquals(6, earlyAbort.takeEvaluatedRows());
+    }
+
+    @Test
+    void hopelessProgramIsAbortedWithLowerBound() {
+        EarlyAbort earlyAbort = new EarlyAbort(2, "MAE", DATASET);
+        earlyAbort.updateThreshold(Collections.singletonList(CLOSE), Collections.singletonList(1.0));
+
+        double bound = earlyAbort.error(PROGRAM);
+
+        assertTrue(earlyAbort.isLowerBound(PROGRAM));
+        assertTrue(bound > 1.0 && bound <= 10.0);
+        assertEquals(1, earlyAbort.takeAborted());
+        assertEquals(2, earlyAbort.takeEvaluatedRows());
+        assertEquals(4, earlyAbort.takeSkippedRows());
+
+        // the lower bound must not become the next threshold
+        earlyAbort.updateThreshold(Arrays.asList(CLOSE, PROGRAM), Arrays.asList(1.0, bound));
+        assertEquals(1.0, earlyAbort.getThreshold());
+    }
+
+    @Test
+    void lowerBoundsAreTrackedByProgramNotValue() {
+        EarlyAbort earlyAbort = new EarlyAbort(2, "MAE", DATASET);
+        earlyAbort.updateThreshold(Collections.singletonList(CLOSE), Collections.singletonList(1.0));
+        double bound = earlyAbort.error(PROGRAM);
+
+        // An equal program evaluated in full with the same value isn't a lower bound
+        TreeNode<Op<Double>> exact = PROGRAM.copy();
+        assertFalse(earlyAbort.isLowerBound(exact));
+
+        earlyAbort.updateThreshold(Arrays.asList(PROGRAM, exact), Arrays.asList(bound, bound));
+        assertEquals(bound, earlyAbort.getThreshold());
+    }
+
+    @Test
+    void unsupportedErrorFunctionIsRejected() {
+        assertFalse(EarlyAbort.supports("PCC"));
+        assertThrows(IllegalArgumentException.class, () -> new EarlyAbort(2, "PCC", DATASET));
+    }
+}
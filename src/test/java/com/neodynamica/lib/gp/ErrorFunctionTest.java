@@ -4,6 +4,9 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.Random;
+
 class ErrorFunctionTest {
 
     private Double[] calculated = {1.0, 2.0, 3.0, 4.0, 5.0};
@@ -26,7 +29,7 @@ class ErrorFunctionTest {
 
     @Test
     void rgf() {
-        assertEquals(-3.125,ErrorFunction.rgf(calculated,expected));
+        assertEquals(-1.25,ErrorFunction.rgf(calculated,expected));
     }
 
     @Test
@@ -49,12 +52,97 @@ class ErrorFunctionTest {
         assertEquals(4,ErrorFunction.iqae(calculated,expected));
     }
 
+    @Test
+    void scaledMse() {
+        // expected = 1 + 2 * calculated exactly
+        assertEquals(0, ErrorFunction.scaledMse(calculated, expected), 1e-12);
+        // A constant output is scaled to the mean of expected, leaving its variance
+        assertEquals(8, ErrorFunction.scaledMse(new Double[]{2.0, 2.0, 2.0, 2.0, 2.0}, expected), 1e-12);
+    }
+
+    @Test
+    void scaling() {
+        assertArrayEquals(new double[]{1, 2}, ErrorFunction.scaling(calculated, expected), 1e-12);
+    }
+
+    @Test
+    void primitiveMatchesBoxed() {
+        double[] primitiveCalculated = {1.0, 2.0, 3.0, 4.0, 5.0};
+        double[] primitiveExpected = {3.0, 5.0, 7.0, 9.0, 11.0};
+        for (String error : ErrorFunction.supportedErrors()) {
+            ErrorKernel kernel = ErrorFunction.kernel(error, false);
+            assertEquals(kernel.error(calculated, expected),
+                    kernel.error(primitiveCalculated, primitiveExpected), 1e-12, error);
+        }
+    }
+
+    @Test
+    void boundMatchesUnbound() {
+        for (String error : ErrorFunction.supportedErrors()) {
+            ErrorKernel kernel = ErrorFunction.kernel(error, false);
+            ErrorKernel bound = kernel.bind(expected);
+            assertEquals(kernel.error(calculated, expected),
+                    bound.error(calculated, expected.clone()), 1e-12, error);
+            // The thread's buffer is reused, not left holding the last program's output
+            assertEquals(kernel.error(expected, expected), bound.error(expected, expected), 1e-12,
+                    error);
+        }
+
+        ErrorKernel bound = ErrorFunction.kernel("MSE", false).bind(expected);
+        assertThrows(IllegalArgumentException.class,
+                () -> bound.error(calculated, new Double[]{1.0}));
+        assertThrows(IllegalArgumentException.class,
+                () -> bound.error(new Double[]{1.0}, expected));
+    }
+
+    @Test
+    void selectionMatchesSorting() {
+        Random random = new Random(3);
+        for (int trial = 0; trial < 2000; trial++) {
+            boolean ties = trial % 2 == 0;
+            int length = random.nextInt(ties ? 40 : 500);
+            double[] outputs = new double[length];
+            double[] targets = new double[length];
+            for (int i = 0; i < length; i++) {
+                // Alternately few distinct values, so ties are common, and the odd undefined output
+                outputs[i] = ties
+                        ? (random.nextInt(20) == 0 ? Double.NaN : random.nextInt(8))
+                        : random.nextGaussian();
+                targets[i] = ties ? random.nextInt(8) : random.nextGaussian();
+            }
+
+            double[] sorted = new double[length];
+            for (int i = 0; i < length; i++) {
+                sorted[i] = Math.abs(outputs[i] - targets[i]);
+            }
+            Arrays.sort(sorted);
+
+            if (length > 0) {
+                assertEquals(sorted[length / 2], ErrorFunction.med(outputs, targets));
+            }
+            double middle = Arrays.stream(sorted, length / 4, length - length / 4).average()
+                    .orElse(Double.NaN);
+            assertEquals(middle, ErrorFunction.iqae(outputs, targets), 1e-12);
+        }
+    }
+
+    @Test
+    void kernelsAreIndependent() {
+        // Kernels of two runs in one JVM keep their own error function and scaling
+        ErrorKernel mae = ErrorFunction.kernel("MAE", false);
+        ErrorKernel scaled = ErrorFunction.kernel("MSE", true);
+        ErrorKernel mse = ErrorFunction.kernel("MeanSquaredError", false);
+
+        assertEquals(4, mae.error(calculated, expected));
+        assertEquals(0, scaled.error(calculated, expected), 1e-12);
+        assertEquals(18, mse.error(calculated, expected));
+    }
+
     @Test
     void invalidErrorFunction(){
         assertThrows(IllegalArgumentException.class, () ->
         {
-            ErrorFunction.setErrorType("badName");
-            ErrorFunction.calculateError(calculated,expected);
+            ErrorFunction.kernel("badName", false).error(calculated,expected);
         });
     }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.neodynamica.lib.gp;
+
+import org.apache.commons.math3.stat.correlation.PearsonsCorrelation;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorKernelsTest {
+
+    private final double[] calculated = {1.0, 2.0, 3.0, 4.0, 5.0};
+    private final double[] expected = {3.0, 5.0, 7.0, 9.0, 11.0};
+
+    @Test
+    void rgf() {
+        // SStot = 40, SSres = 90
+        assertEquals(-1.25, ErrorKernels.rgf(calculated, expected), 1e-12);
+        assertEquals(1, ErrorKernels.rgf(expected, expected), 1e-12);
+    }
+
+    @Test
+    void pccMatchesCommonsMath() {
+        Random random = new Random(7);
+        double[] x = new double[1000];
+        double[] y = new double[1000];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = 1e6 + random.nextGaussian();
+            y[i] = 3 * x[i] + random.nextGaussian();
+        }
+        assertEquals(new PearsonsCorrelation().correlation(y, x), ErrorKernels.pcc(x, y), 1e-9);
+        assertTrue(Double.isNaN(ErrorKernels.pcc(new double[]{2, 2, 2}, new double[]{1, 2, 3})));
+    }
+
+    @Test
+    void emptyInput() {
+        assertEquals(0, ErrorKernels.mse(new double[0], new double[0]));
+        assertEquals(0, ErrorKernels.mae(new double[0], new double[0]));
+        assertEquals(0, ErrorKernels.wc(new double[0], new double[0]));
+    }
+}
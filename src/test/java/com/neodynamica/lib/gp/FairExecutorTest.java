@@ -0,0 +1,84 @@
+package com.neodynamica.lib.gp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairExecutorTest {
+
+    @Test
+    void queuesTakeTurns() throws InterruptedException {
+        try (FairExecutor pool = new FairExecutor(1)) {
+            Executor blocker = pool.newQueue();
+            Executor large = pool.newQueue();
+            Executor small = pool.newQueue();
+            List<String> order = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(7);
+
+            // Hold the only worker while both queues fill up
+            blocker.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            for (int i = 0; i < 5; i++) {
+                String name = "large" + i;
+                large.execute(() -> {
+                    order.add(name);
+                    done.countDown();
+                });
+            }
+            for (int i = 0; i < 2; i++) {
+                String name = "small" + i;
+                small.execute(() -> {
+                    order.add(name);
+                    done.countDown();
+                });
+            }
+            release.countDown();
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList("large0", "small0", "large1", "small1", "large2", "large3",
+                    "large4"), order);
+        }
+    }
+
+    @Test
+    void failedTaskIsReportedAndTheWorkerCarriesOn() throws InterruptedException {
+        try (FairExecutor pool = new FairExecutor(1)) {
+            List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+            Executor queue = pool.newQueue(failures::add);
+            CountDownLatch done = new CountDownLatch(1);
+
+            // An Error, which isn't a RuntimeException, on the only worker
+            StackOverflowError overflow = new StackOverflowError();
+            queue.execute(() -> {
+                throw overflow;
+            });
+            queue.execute(done::countDown);
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(Collections.singletonList(overflow), failures);
+        }
+    }
+
+    @Test
+    void rejectsAfterClose() {
+        FairExecutor pool = new FairExecutor(2);
+        Executor queue = pool.newQueue();
+        pool.close();
+        assertThrows(RejectedExecutionException.class, () -> queue.execute(() -> { }));
+    }
+}
@@ -0,0 +1,83 @@
+package com.neodynamica.lib.gp;
+
+import io.jenetics.ext.util.Tree;
+import io.jenetics.ext.util.TreeNode;
+import io.jenetics.prog.op.Const;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Var;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FitnessCacheTest {
+
+    private static TreeNode<Op<Double>> program(double constant) {
+        return TreeNode.<Op<Double>>of(MathOp.ADD)
+                .attach(Var.of("x", 0))
+                .attach(Const.of(constant));
+    }
+
+    @Test
+    void duplicateProgramsAreOnlyEvaluatedOnce() {
+        AtomicInteger evaluations = new AtomicInteger();
+        Function<Tree<Op<Double>, ?>, Double> fitness = p -> (double) evaluations.incrementAndGet();
+
+        FitnessCache cache = new FitnessCache(10, "RMSE");
+        Function<Tree<Op<Double>, ?>, Double> cached = cache.wrap(fitness);
+
+        double first = cached.apply(program(1.5));
+        double second = cached.apply(program(1.5));
+
+        assertEquals(first, second);
+        assertEquals(1, evaluations.get());
+        assertEquals(1, cache.takeHits());
+        assertEquals(1, cache.takeMisses());
+
+        // counts are reset once taken
+        assertEquals(0, cache.takeHits());
+        assertEquals(0, cache.takeMisses());
+    }
+
+    @Test
+    void keyDistinguishesConstantsAndErrorFunctions() {
+        FitnessCache rmse = new FitnessCache(10, "RMSE");
+        FitnessCache mae = new FitnessCache(10, "MAE");
+
+        assertEquals(rmse.key(program(1.5)), rmse.key(program(1.5)));
+        assertNotEquals(rmse.key(program(1.5)), rmse.key(program(1.50000001)));
+        assertNotEquals(rmse.key(program(1.5)), mae.key(program(1.5)));
+    }
+
+    @Test
+    void leastRecentlyUsedProgramIsEvicted() {
+        AtomicInteger evaluations = new AtomicInteger();
+        Function<Tree<Op<Double>, ?>, Double> fitness = p -> (double) evaluations.incrementAndGet();
+
+        FitnessCache cache = new FitnessCache(1, "RMSE");
+        cache.error(program(1), fitness);
+        cache.error(program(2), fitness);
+        cache.error(program(1), fitness);
+
+        assertEquals(3, evaluations.get());
+    }
+
+    @Test
+    void stripesShareTheCapacity() {
+        Function<Tree<Op<Double>, ?>, Double> fitness = p -> 1.0;
+
+        FitnessCache cache = new FitnessCache(10, "RMSE");
+        for (int i = 0; i < 100; i++) {
+            cache.error(program(i), fitness);
+        }
+        for (int i = 0; i < 100; i++) {
+            cache.error(program(i), fitness);
+        }
+
+        // No more programs can be remembered than the cache holds, whichever stripes they are in
+        assertTrue(cache.takeHits() <= 10);
+    }
+}
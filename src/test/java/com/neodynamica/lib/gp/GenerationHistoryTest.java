@@ -0,0 +1,137 @@
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.backendinterface.GenerationBean;
+import io.jenetics.ext.moea.Vec;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationHistoryTest {
+
+    private static GenerationBean<Double> bean(long index) {
+        GenerationBean<Double> generationBean = new GenerationBean<>();
+        generationBean.setIndex(index);
+        generationBean.setBestFitness(1.0 / index);
+        generationBean.setAverageFitness(Double.NaN);
+        generationBean.setNewBest(index % 3 == 0);
+        generationBean.setFitnessCacheHits(index * 10);
+        generationBean.setSkippedCheckpoints(index + 2);
+        generationBean.setIslandBestFitness(new double[]{index, -index});
+        generationBean.setLinearScaling(index, 2);
+        generationBean.setInputVariableLabels(new String[]{"a", "b"});
+        return generationBean;
+    }
+
+    @Test
+    void readsBackSpilledGenerations() {
+        GenerationHistory history = new GenerationHistory(null, 2);
+        GenerationBean<Double> last = null;
+        for (int i = 1; i <= 10; i++) {
+            last = bean(i);
+            history.add(last);
+        }
+
+        assertEquals(10, history.size());
+        assertSame(last, history.getLatest());
+        assertSame(last, history.get(9));
+        assertTrue(history.getStoredBytes() > 0);
+
+        for (int i = 0; i < 8; i++) {
+            GenerationBean<?> read = history.get(i);
+            assertEquals(i + 1, read.getIndex());
+            assertEquals(1.0 / (i + 1), read.getBestFitness());
+            assertNull(read.getMedianFitness());
+            assertTrue(Double.isNaN((Double) read.getAverageFitness()));
+            assertEquals((i + 1) % 3 == 0, read.isNewBest());
+            assertEquals((i + 1) * 10, read.getFitnessCacheHits());
+            assertEquals(i + 3, read.getSkippedCheckpoints());
+            assertArrayEquals(new double[]{i + 1, -(i + 1)}, read.getIslandBestFitness());
+            assertNull(read.getIslandAverageFitness());
+            assertEquals(i + 1, read.getScalingIntercept());
+            assertEquals(2, read.getScalingSlope());
+            assertNull(read.getBestGene());
+            assertNull(read.getPopulation());
+            assertArrayEquals(new String[]{"a", "b"}, read.getInputVariableLabels());
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> history.get(10));
+
+        history.close();
+        assertSame(last, history.get(9));
+        assertThrows(IllegalStateException.class, () -> history.get(0));
+    }
+
+    @Test
+    void writeFailureIsReportedAndGenerationsStayInMemory() throws IOException {
+        // Files can't be created in a regular file
+        File notDirectory = File.createTempFile("generations", ".dir");
+        notDirectory.deleteOnExit();
+
+        GenerationHistory history = new GenerationHistory(null, 2, 1, false, 0, notDirectory);
+        List<GenerationBean<Double>> added = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            added.add(bean(i));
+            history.add(added.get(i - 1));
+        }
+
+        assertNotNull(history.getFailure());
+        assertEquals(0, history.getStoredBytes());
+
+        // Only the generations added once the tail overflowed saw the failure
+        assertNull(history.get(0).getHistoryFailure());
+        assertNull(history.get(1).getHistoryFailure());
+        for (int i = 2; i < 5; i++) {
+            assertEquals(history.getFailure().toString(), history.get(i).getHistoryFailure());
+        }
+        for (int i = 0; i < 5; i++) {
+            assertSame(added.get(i), history.get(i));
+        }
+    }
+
+    @Test
+    void dropsGenerationsOutsideRetentionPolicy() {
+        GenerationHistory history = new GenerationHistory(null, 3, 4, true, 0);
+        for (int i = 1; i <= 20; i++) {
+            history.add(bean(i));
+        }
+
+        // Only multiples of 4, new bests (multiples of 3) and the last 3 are left
+        assertEquals(20, history.size());
+        for (int i = 0; i < 20; i++) {
+            long index = i + 1;
+            boolean kept = index % 4 == 0 || index % 3 == 0 || index > 17;
+            assertEquals(kept, history.get(i) != null, "generation " + index);
+        }
+        assertEquals(12, index(history, 12));
+        assertEquals(9, history.getDroppedGenerations());
+        assertEquals(9, history.getLatest().getDroppedGenerations());
+        assertTrue(history.getSavedBytes() > 0);
+        assertEquals(history.getSavedBytes(), history.getLatest().getSavedHistoryBytes());
+        history.close();
+    }
+
+    private static long index(GenerationHistory history, int generation) {
+        return history.get(generation - 1).getIndex();
+    }
+
+    @Test
+    void keepsUnwritableGenerationsInMemory() {
+        GenerationHistory history = new GenerationHistory(null, 1);
+        GenerationBean<Object> unwritable = new GenerationBean<>();
+        unwritable.setBestFitness("not a fitness");
+        history.add(unwritable);
+        GenerationBean<Vec<double[]>> writable = new GenerationBean<>();
+        writable.setBestFitness(Vec.of(1.0, 2.0));
+        history.add(writable);
+        history.add(new GenerationBean<>());
+
+        assertSame(unwritable, history.get(0));
+        assertArrayEquals(new double[]{1, 2},
+                ((Vec<double[]>) history.get(1).getBestFitness()).data());
+        history.close();
+    }
+}
@@ -0,0 +1,88 @@
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.lib.sample.Dataset;
+import io.jenetics.ext.util.TreeNode;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import org.junit.jupiter.api.Test;
+
+import static com.neodynamica.lib.gp.ProgramTrees.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalScreenTest {
+
+    // x in [1, 4], y in [-2, 3]
+    private final IntervalScreen screen = new IntervalScreen(new Dataset(
+            new String[]{"x", "y", "z"}, new String[]{"x", "y", "z"},
+            new Double[][]{{1.0, -2.0, 0.0}, {4.0, 3.0, 0.0}}));
+
+    @Test
+    void rangesFollowIntervalArithmetic() {
+        // x * y - 1 over [1, 4] x [-2, 3]
+        double[] range = screen.range(node(MathOp.SUB, node(MathOp.MUL, x(), y()),
+                constant(1.0)));
+
+        assertArrayEquals(new double[]{-9.0, 11.0}, range);
+    }
+
+    @Test
+    void undefinedProgramsAreRejectedWithoutEvaluation() {
+        // y's range holds 0 and negatives, x's doesn't
+        assertFalse(screen.accepts(node(MathOp.DIV, x(), y())));
+        assertFalse(screen.accepts(node(MathOp.SQRT, y())));
+        assertFalse(screen.accepts(node(MathOp.LOG, node(MathOp.SUB, x(), constant(1.0)))));
+        assertTrue(screen.accepts(node(MathOp.DIV, y(), x())));
+        assertTrue(screen.accepts(node(MathOp.LOG, node(MathOp.SQR, x()))));
+
+        assertEquals(Double.POSITIVE_INFINITY,
+                screen.wrap(program -> fail("rejected programs must not be evaluated"))
+                        .apply(node(MathOp.SQRT, y())));
+        assertEquals(1, screen.takeRejections());
+        assertEquals(0, screen.takeRejections());
+    }
+
+    @Test
+    void wholeExponentsAcceptNegativeBases() {
+        // Even powers of y in [-2, 3] are at least 0, odd ones keep the sign
+        assertArrayEquals(new double[]{0.0, 9.0},
+                screen.range(node(MathOp.POW, y(), constant(2.0))));
+        assertArrayEquals(new double[]{-8.0, 27.0},
+                screen.range(node(MathOp.POW, y(), constant(3.0))));
+        assertArrayEquals(new double[]{1.0, 1.0},
+                screen.range(node(MathOp.POW, y(), constant(0.0))));
+
+        // A constant exponent needn't be a single node
+        assertTrue(screen.accepts(node(MathOp.POW, y(),
+                node(MathOp.ADD, constant(1.0), constant(1.0)))));
+
+        // Negative exponents are undefined at 0 only
+        assertFalse(screen.accepts(node(MathOp.POW, y(), constant(-1.0))));
+        assertArrayEquals(new double[]{1.0 / 16, 1.0},
+                screen.range(node(MathOp.POW, node(MathOp.NEG, x()), constant(-2.0))));
+        assertArrayEquals(new double[]{-1.0, -1.0 / 64},
+                screen.range(node(MathOp.POW, node(MathOp.NEG, x()), constant(-3.0))));
+
+        // Fractional or varying exponents of negative bases are still rejected
+        assertFalse(screen.accepts(node(MathOp.POW, y(), constant(0.5))));
+        assertFalse(screen.accepts(node(MathOp.POW, y(), x())));
+    }
+
+    @Test
+    void optimisedConstantsStayInsideTheDomain() {
+        // sqrt(y + c) is only defined over y in [-2, 3] for c >= 2
+        TreeNode<Op<Double>> program = node(MathOp.SQRT,
+                node(MathOp.ADD, y(), constant(5.0)));
+
+        // Rewards ever smaller constants, so only the screen stops c at 2
+        ConstantOptimiser.Refined refined = new ConstantOptimiser(screen.screen(
+                p -> p.childAt(0).childAt(1).getValue().apply(new Double[0])))
+                .optimise(program, Long.MAX_VALUE);
+
+        assertNotNull(refined);
+        assertTrue(screen.accepts(refined.getProgram()));
+        assertEquals(2.0, refined.getError(), 1e-3);
+
+        // Trial programs are not population members, so they aren't counted
+        assertEquals(0, screen.takeRejections());
+    }
+}
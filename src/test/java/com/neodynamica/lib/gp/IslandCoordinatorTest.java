@@ -0,0 +1,252 @@
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.backendinterface.GenerationBean;
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.ext.util.TreeNode;
+import io.jenetics.prog.ProgramChromosome;
+import io.jenetics.prog.ProgramGene;
+import io.jenetics.prog.op.Const;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Var;
+import io.jenetics.util.ISeq;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IslandCoordinatorTest {
+
+    private static final Double[] NO_ARGS = new Double[0];
+    private static final ISeq<Op<Double>> OPERATIONS = ISeq.of(MathOp.ADD, MathOp.MUL);
+    private static final ISeq<Op<Double>> TERMINALS = ISeq.of(Var.of("x", 0));
+
+    private static CompletableFuture<IslandWorker> connect(int port) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return new IslandWorker("localhost", port);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static GenerationBean<Double> generation(long index, double best, double mean,
+            double worst) {
+        GenerationBean<Double> generation = new GenerationBean<>();
+        generation.setIndex(index);
+        generation.setBestFitness(best);
+        generation.setAverageFitness(mean);
+        generation.setWorstFitness(worst);
+        return generation;
+    }
+
+    @Test
+    void generationsAreMergedOverWorkers() throws Exception {
+        List<GenerationBean<Double>> merged = new CopyOnWriteArrayList<>();
+
+        try (IslandCoordinator coordinator = new IslandCoordinator(0, 2, MigrationTopology.RING)) {
+            coordinator.setListener(merged::add);
+            CompletableFuture<IslandWorker> first = connect(coordinator.getPort());
+            CompletableFuture<IslandWorker> second = connect(coordinator.getPort());
+
+            Thread relay = new Thread(() -> {
+                try {
+                    coordinator.run();
+                } catch (IOException | InterruptedException e) {
+                    fail(e);
+                }
+            });
+            relay.start();
+
+            try (IslandWorker a = first.get(); IslandWorker b = second.get()) {
+                assertEquals(2, a.getWorkerCount());
+                assertNotEquals(a.getIndex(), b.getIndex());
+
+                a.report(generation(1, 4.0, 10.0, 20.0));
+                b.report(generation(1, 2.0, 20.0, 30.0));
+                a.report(generation(2, 3.0, 8.0, 15.0));
+            }
+            relay.join(10000);
+        }
+
+        // Generation 2 is published once worker b has finished without reporting it
+        assertEquals(2, merged.size());
+        assertEquals(1, merged.get(0).getIndex());
+        assertEquals(2.0, merged.get(0).getBestFitness());
+        assertEquals(15.0, merged.get(0).getAverageFitness());
+        assertEquals(30.0, merged.get(0).getWorstFitness());
+        assertTrue(merged.get(0).isNewBest());
+        assertEquals(2, merged.get(1).getIndex());
+        assertEquals(3.0, merged.get(1).getBestFitness());
+        assertFalse(merged.get(1).isNewBest());
+    }
+
+    private static Thread relay(IslandCoordinator coordinator) {
+        Thread relay = new Thread(() -> {
+            try {
+                coordinator.run();
+            } catch (IOException | InterruptedException e) {
+                fail(e);
+            }
+        });
+        relay.start();
+        return relay;
+    }
+
+    /**
+     * x + sender, so a received program tells which worker sent it
+     */
+    private static ISeq<Phenotype<ProgramGene<Double>, Double>> migrant(int sender) {
+        return migrant(TreeNode.<Op<Double>>of(MathOp.ADD)
+                .attach(Var.of("x", 0))
+                .attach(Const.of((double) sender)));
+    }
+
+    private static ISeq<Phenotype<ProgramGene<Double>, Double>> migrant(
+            TreeNode<Op<Double>> program) {
+        return ISeq.of(Phenotype.of(
+                Genotype.of(ProgramChromosome.of(program, OPERATIONS, TERMINALS)), 1));
+    }
+
+    /**
+     * Wait for the given number of migrants and return who sent each
+     */
+    private static Set<Integer> senders(IslandWorker worker, int expected)
+            throws InterruptedException {
+        Set<Integer> senders = new TreeSet<>();
+        List<Genotype<ProgramGene<Double>>> received = new ArrayList<>();
+        for (int wait = 0; received.size() < expected && wait < 200; wait++) {
+            received.addAll(worker.immigrate().asList());
+            Thread.sleep(50);
+        }
+        for (Genotype<ProgramGene<Double>> genotype : received) {
+            senders.add(genotype.getGene().childAt(1).getValue().apply(NO_ARGS).intValue());
+        }
+        return senders;
+    }
+
+    /**
+     * Connect three workers, have each emigrate one program and return who each one received
+     * programs from, by worker index
+     */
+    private static List<Set<Integer>> migrate(MigrationTopology topology, int perWorker)
+            throws Exception {
+        try (IslandCoordinator coordinator = new IslandCoordinator(0, 3, topology, 10)) {
+            List<CompletableFuture<IslandWorker>> connecting = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                connecting.add(connect(coordinator.getPort()));
+            }
+            Thread relay = relay(coordinator);
+
+            IslandWorker[] workers = new IslandWorker[3];
+            for (CompletableFuture<IslandWorker> worker : connecting) {
+                IslandWorker connected = worker.get();
+                connected.setDecoder(program -> Genotype.of(
+                        ProgramChromosome.of(program, OPERATIONS, TERMINALS)), 10, OPERATIONS, 1);
+                workers[connected.getIndex()] = connected;
+            }
+
+            try {
+                for (int i = 0; i < 3; i++) {
+                    workers[i].emigrate(1, migrant(i));
+                }
+
+                List<Set<Integer>> senders = new ArrayList<>();
+                for (int i = 0; i < 3; i++) {
+                    senders.add(senders(workers[i], perWorker));
+                }
+                return senders;
+            } finally {
+                for (IslandWorker worker : workers) {
+                    worker.close();
+                }
+                relay.join(10000);
+            }
+        }
+    }
+
+    @Test
+    void ringSendsMigrantsToTheNextWorker() throws Exception {
+        List<Set<Integer>> senders = migrate(MigrationTopology.RING, 1);
+
+        // Worker i receives from worker i - 1
+        assertEquals(new TreeSet<>(Arrays.asList(2)), senders.get(0));
+        assertEquals(new TreeSet<>(Arrays.asList(0)), senders.get(1));
+        assertEquals(new TreeSet<>(Arrays.asList(1)), senders.get(2));
+    }
+
+    @Test
+    void fullyConnectedSendsMigrantsToEveryOtherWorker() throws Exception {
+        List<Set<Integer>> senders = migrate(MigrationTopology.FULLY_CONNECTED, 2);
+
+        assertEquals(new TreeSet<>(Arrays.asList(1, 2)), senders.get(0));
+        assertEquals(new TreeSet<>(Arrays.asList(0, 2)), senders.get(1));
+        assertEquals(new TreeSet<>(Arrays.asList(0, 1)), senders.get(2));
+    }
+
+    @Test
+    void programsOutsideTheSearchAreDiscarded() throws Exception {
+        try (IslandCoordinator coordinator = new IslandCoordinator(0, 2, MigrationTopology.RING,
+                10)) {
+            CompletableFuture<IslandWorker> first = connect(coordinator.getPort());
+            CompletableFuture<IslandWorker> second = connect(coordinator.getPort());
+            Thread relay = relay(coordinator);
+
+            try (IslandWorker a = first.get(); IslandWorker b = second.get()) {
+                for (IslandWorker worker : Arrays.asList(a, b)) {
+                    worker.setDecoder(program -> Genotype.of(
+                            ProgramChromosome.of(program, OPERATIONS, TERMINALS)), 10, OPERATIONS, 1);
+                }
+
+                // A variable the receiving dataset lacks, an operator the search does not use
+                a.emigrate(1, migrant(TreeNode.<Op<Double>>of(MathOp.ADD)
+                        .attach(Var.of("y", 1))
+                        .attach(Const.of(5.0))));
+                a.emigrate(2, migrant(TreeNode.<Op<Double>>of(MathOp.SUB)
+                        .attach(Var.of("x", 0))
+                        .attach(Const.of(6.0))));
+                a.emigrate(3, migrant(a.getIndex()));
+
+                Set<Integer> senders = senders(b, 1);
+                Thread.sleep(200);
+                senders.addAll(senders(b, 0));
+                assertEquals(new TreeSet<>(Arrays.asList(a.getIndex())), senders);
+            }
+            relay.join(10000);
+        }
+    }
+
+    @Test
+    void clientWhichIsNotAWorkerIsDropped() throws Exception {
+        try (IslandCoordinator coordinator = new IslandCoordinator(0, 1, MigrationTopology.RING)) {
+            Thread relay = relay(coordinator);
+
+            try (Socket stranger = new Socket("localhost", coordinator.getPort())) {
+                OutputStream out = stranger.getOutputStream();
+                out.write("GET / HTTP/1.0\r\n\r\n".getBytes("US-ASCII"));
+                out.flush();
+
+                // The stranger is dropped and the real worker still gets in
+                try (IslandWorker worker = connect(coordinator.getPort()).get()) {
+                    assertEquals(0, worker.getIndex());
+                    assertEquals(1, worker.getWorkerCount());
+                }
+            }
+            relay.join(10000);
+            assertFalse(relay.isAlive());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.neodynamica.lib.gp;
+
+import io.jenetics.DoubleChromosome;
+import io.jenetics.DoubleGene;
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.engine.Engine;
+import io.jenetics.engine.EvolutionDurations;
+import io.jenetics.engine.EvolutionResult;
+import io.jenetics.prog.ProgramChromosome;
+import io.jenetics.prog.ProgramGene;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Program;
+import io.jenetics.prog.op.Var;
+import io.jenetics.util.ISeq;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IslandEngineTest {
+
+    private static IslandEngine<DoubleGene, Double> islands(int count, MigrationTopology topology,
+            int migrationSize) {
+        List<Engine<DoubleGene, Double>> engines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            engines.add(Engine.builder(
+                    (Genotype<DoubleGene> genotype) -> Math.abs(genotype.getGene().doubleValue()),
+                    Genotype.of(DoubleChromosome.of(-10, 10)))
+                    .populationSize(10)
+                    .minimizing()
+                    .executor(Runnable::run)
+                    .build());
+        }
+        return new IslandEngine<>(engines, topology, 1, migrationSize, Runnable::run);
+    }
+
+    private static double best(ISeq<Phenotype<DoubleGene, Double>> island) {
+        return island.stream().mapToDouble(Phenotype::getFitness).min().getAsDouble();
+    }
+
+    @Test
+    void resultHoldsEveryIsland() {
+        IslandEngine<DoubleGene, Double> engine = islands(3, MigrationTopology.RING, 0);
+
+        EvolutionResult<DoubleGene, Double> result = engine.limit(2).stream()
+                .reduce((first, second) -> second).get();
+
+        assertEquals(2, result.getGeneration());
+        assertEquals(30, result.getPopulation().size());
+        assertEquals(3, engine.islands(result.getPopulation()).size());
+        assertNotEquals(EvolutionDurations.ZERO, result.getDurations());
+    }
+
+    @Test
+    void fullyConnectedMigrationSpreadsTheBestIndividual() {
+        IslandEngine<DoubleGene, Double> engine = islands(4, MigrationTopology.FULLY_CONNECTED, 1);
+
+        EvolutionResult<DoubleGene, Double> result = engine.limit(1).stream().findFirst().get();
+        List<ISeq<Phenotype<DoubleGene, Double>>> populations =
+                engine.islands(result.getPopulation());
+
+        // Every island received the best of every other island
+        for (ISeq<Phenotype<DoubleGene, Double>> island : populations) {
+            assertEquals(result.getBestFitness(), best(island));
+        }
+    }
+
+    @Test
+    void programsMigrateBetweenIslands() {
+        // Programs over x, scored by how far they are from x * x at x = 3
+        ISeq<Op<Double>> operations = ISeq.of(MathOp.ADD, MathOp.MUL, MathOp.SUB);
+        ISeq<Op<Double>> terminals = ISeq.of(Var.of("x", 0));
+
+        List<Engine<ProgramGene<Double>, Double>> engines = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            engines.add(Engine.builder(
+                    (Genotype<ProgramGene<Double>> genotype) ->
+                            Math.abs(Program.eval(genotype.getGene(), 3.0) - 9.0),
+                    Genotype.of(ProgramChromosome.of(3, operations, terminals)))
+                    .populationSize(10)
+                    .minimizing()
+                    .executor(Runnable::run)
+                    .build());
+        }
+        IslandEngine<ProgramGene<Double>, Double> engine = new IslandEngine<>(engines,
+                MigrationTopology.FULLY_CONNECTED, 1, 1, Runnable::run);
+
+        EvolutionResult<ProgramGene<Double>, Double> result = engine.limit(1).stream()
+                .findFirst().get();
+        String best = result.getBestPhenotype().getGenotype().getGene().toParenthesesString();
+
+        // A copy of the best program, not just its fitness, reached every island
+        for (ISeq<Phenotype<ProgramGene<Double>, Double>> island :
+                engine.islands(result.getPopulation())) {
+            assertTrue(island.stream().anyMatch(individual ->
+                    individual.getGenotype().getGene().toParenthesesString().equals(best)));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.neodynamica.lib.gp;
+
+import io.jenetics.ext.util.Tree;
+import io.jenetics.ext.util.TreeNode;
+import io.jenetics.prog.op.Const;
+import io.jenetics.prog.op.EphemeralConst;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Var;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IslandProtocolTest {
+
+    private static final Double[] NO_ARGS = new Double[0];
+
+    // sin(x) * (y - 0.1) + 7
+    private static final TreeNode<Op<Double>> PROGRAM = TreeNode.<Op<Double>>of(MathOp.ADD)
+            .attach(TreeNode.<Op<Double>>of(MathOp.MUL)
+                    .attach(TreeNode.<Op<Double>>of(MathOp.SIN).attach(Var.of("x", 0)))
+                    .attach(TreeNode.<Op<Double>>of(MathOp.SUB)
+                            .attach(Var.of("y", 1))
+                            .attach(Const.of(0.1))))
+            .attach(EphemeralConst.of(() -> 7.0));
+
+    private static byte[] write(Tree<? extends Op<Double>, ?> program) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        IslandProtocol.writeProgram(program, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static TreeNode<Op<Double>> read(byte[] bytes, int maxSize) throws IOException {
+        return IslandProtocol.readProgram(new DataInputStream(new ByteArrayInputStream(bytes)),
+                maxSize);
+    }
+
+    private static void assertSameProgram(Tree<? extends Op<Double>, ?> expected,
+            Tree<? extends Op<Double>, ?> actual) {
+        Op<Double> op = expected.getValue();
+        if (op instanceof MathOp) {
+            assertSame(op, actual.getValue());
+        } else if (op instanceof Var) {
+            assertEquals(((Var<Double>) op).index(), ((Var<Double>) actual.getValue()).index());
+            assertEquals(op.name(), actual.getValue().name());
+        } else {
+            // Constants arrive with the exact bits of their value
+            assertEquals(Double.doubleToLongBits(op.apply(NO_ARGS)),
+                    Double.doubleToLongBits(actual.getValue().apply(NO_ARGS)));
+        }
+
+        assertEquals(expected.childCount(), actual.childCount());
+        for (int i = 0; i < expected.childCount(); i++) {
+            assertSameProgram(expected.childAt(i), actual.childAt(i));
+        }
+    }
+
+    @Test
+    void programSurvivesTheRoundTrip() throws IOException {
+        assertTrue(IslandProtocol.isWritable(PROGRAM));
+        assertSameProgram(PROGRAM, read(write(PROGRAM), PROGRAM.size()));
+    }
+
+    @Test
+    void programLargerThanTheSearchAllowsIsRejected() throws IOException {
+        byte[] bytes = write(PROGRAM);
+
+        assertThrows(IOException.class, () -> read(bytes, PROGRAM.size() - 1));
+
+        // A huge claimed size is refused before any node is read
+        byte[] huge = bytes.clone();
+        huge[0] = 0x7F;
+        assertThrows(IOException.class, () -> read(huge, IslandProtocol.MAX_PROGRAM_SIZE));
+    }
+
+    @Test
+    void malformedProgramIsRejected() throws IOException {
+        byte[] bytes = write(PROGRAM);
+
+        // Truncated
+        assertThrows(IOException.class, () -> read(Arrays.copyOf(bytes, bytes.length - 3), 100));
+
+        // Size larger than the nodes that follow
+        byte[] oversized = bytes.clone();
+        oversized[3]++;
+        assertThrows(IOException.class, () -> read(oversized, 100));
+
+        // Unknown node kind in place of the root operator
+        byte[] unknown = bytes.clone();
+        unknown[4] = 9;
+        assertThrows(IOException.class, () -> read(unknown, 100));
+    }
+
+    @Test
+    void deepProgramSurvivesTheRoundTrip() throws IOException {
+        // Far deeper than a recursive reader's stack allows
+        final int depth = IslandProtocol.MAX_PROGRAM_SIZE - 1;
+        TreeNode<Op<Double>> program = TreeNode.of(Var.of("x", 0));
+        for (int i = 0; i < depth; i++) {
+            program = TreeNode.<Op<Double>>of(MathOp.SIN).attach(program);
+        }
+
+        Tree<? extends Op<Double>, ?> node = read(write(program), IslandProtocol.MAX_PROGRAM_SIZE);
+        for (int i = 0; i < depth; i++) {
+            assertSame(MathOp.SIN, node.getValue());
+            assertEquals(1, node.childCount());
+            node = node.childAt(0);
+        }
+        assertTrue(node.getValue() instanceof Var);
+        assertTrue(node.isLeaf());
+    }
+
+    @Test
+    void programWithAnUnacceptedNodeIsSkipped() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        IslandProtocol.writeProgram(PROGRAM, out);
+        IslandProtocol.writeProgram(PROGRAM, out);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+
+        // y is refused, as by a search with a single input
+        assertNull(IslandProtocol.readProgram(in, 100,
+                op -> !(op instanceof Var) || ((Var<Double>) op).index() < 1));
+
+        // The whole program was read, so the next one follows
+        assertSameProgram(PROGRAM, IslandProtocol.readProgram(in, 100, op -> true));
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    void skeletonIsNotWritable() {
+        Op<Double> skeleton = Op.of("f", 1, v -> v[0]);
+        assertFalse(IslandProtocol.isWritable(
+                TreeNode.<Op<Double>>of(MathOp.ADD)
+                        .attach(TreeNode.<Op<Double>>of(skeleton).attach(Var.of("x", 0)))
+                        .attach(Var.of("y", 1))));
+    }
+}
@@ -0,0 +1,97 @@
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.backendinterface.Backend;
+import com.neodynamica.backendinterface.GenerationBean;
+import com.neodynamica.backendinterface.RunManager;
+import io.jenetics.ext.util.TreeNode;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import org.junit.jupiter.api.Test;
+
+import static com.neodynamica.lib.gp.ProgramTrees.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LinearProgramTest {
+
+    @Test
+    void evaluatesLikeTheTree() {
+        // sin(x) * (y - 2)
+        TreeNode<Op<Double>> tree = node(MathOp.MUL, node(MathOp.SIN, x()),
+                node(MathOp.SUB, y(), constant(2.0)));
+        LinearProgram program = LinearProgram.compile(tree);
+
+        double[][] rows = {{0.5, 3.0}, {-1.0, 0.25}};
+        double[] out = new double[rows.length];
+        program.eval(rows, out);
+
+        assertEquals(Math.sin(0.5) * (3.0 - 2.0), out[0], 1e-12);
+        assertEquals(Math.sin(-1.0) * (0.25 - 2.0), out[1], 1e-12);
+        assertEquals(6, program.size());
+        assertEquals(3, program.getStackSize());
+        assertEquals(tree, program.toTree());
+    }
+
+    @Test
+    void spliceReplacesWholeSubtrees() {
+        // Post-order: x sin y 2 - *
+        LinearProgram mother = LinearProgram.compile(node(MathOp.MUL, node(MathOp.SIN, x()),
+                node(MathOp.SUB, y(), constant(2.0))));
+        // Post-order: 3 y +
+        LinearProgram father = LinearProgram.compile(node(MathOp.ADD, constant(3.0), y()));
+
+        assertEquals(3, mother.getExtent(4));
+
+        // Replace y - 2 with the whole of father
+        LinearProgram child = mother.splice(4, father, 2);
+
+        assertEquals(node(MathOp.MUL, node(MathOp.SIN, x()), node(MathOp.ADD, constant(3.0), y())),
+                child.toTree());
+        assertEquals(6, child.getExtent(5));
+    }
+
+    @Test
+    void searchScoresLinearProgramsLikeTrees() throws Exception {
+        Backend backend = new Backend();
+        backend.setDataFilePath("UnitTestFiles/3cxc+sin(b)-4xa.csv");
+        backend.setOperators("ADD,SUB,MUL,DIV,SIN,LOG,SQRT");
+        backend.setMaxGenerations(10);
+        backend.setPopulationSize(60);
+        backend.setSeed(13);
+        backend.setGenomeEncoding("LINEAR");
+        backend.setFitnessCacheSize(1000);
+        backend.setEarlyAbortChunkSize(8);
+        backend.setIntervalScreen(true);
+        backend.setOnlineSimplification(true);
+        backend.setConstantOptimisationInterval(2);
+        try (RunManager manager = new RunManager(1, 1)) {
+            manager.submit(backend);
+            manager.awaitAll();
+        }
+
+        long cached = 0;
+        long aborted = 0;
+        long rejected = 0;
+        long simplified = 0;
+        int generations = 0;
+        double best = Double.POSITIVE_INFINITY;
+        GenerationBean generation;
+        while ((generation = backend.getNextGeneration()) != null) {
+            double fitness = (Double) generation.getBestFitness();
+            assertTrue(fitness <= best);
+            best = fitness;
+            cached += generation.getFitnessCacheHits() + generation.getFitnessCacheMisses();
+            aborted += generation.getAbortedEvaluations();
+            rejected += generation.getIntervalRejections();
+            simplified += generation.getSimplifiedNodes();
+            generations++;
+        }
+        assertEquals(10, generations);
+        assertTrue(Double.isFinite(best));
+
+        // Every scoring option applies to linear programs, not only to trees
+        assertTrue(cached > 0);
+        assertTrue(aborted > 0);
+        assertTrue(rejected > 0);
+        assertTrue(simplified > 0);
+    }
+}
@@ -0,0 +1,130 @@
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.backendinterface.Backend;
+import com.neodynamica.backendinterface.GenerationBean;
+import com.neodynamica.backendinterface.RunManager;
+import io.jenetics.prog.op.Const;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Var;
+import io.jenetics.util.MSeq;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.neodynamica.lib.gp.ProgramTrees.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgramDagTest {
+
+    private final ProgramDag dag = new ProgramDag();
+
+    @Test
+    void equalSubtreesAreStoredOnce() {
+        // sin(x) * sin(x) and sin(x) + 2
+        ProgramDag.Node product = dag.intern(node(MathOp.MUL,
+                node(MathOp.SIN, x()), node(MathOp.SIN, x())));
+        ProgramDag.Node sum = dag.intern(node(MathOp.ADD, node(MathOp.SIN, x()), constant(2.0)));
+
+        assertSame(product.childAt(0), product.childAt(1));
+        assertSame(product.childAt(0), sum.childAt(0));
+        // x, sin(x), the product, 2 and the sum
+        assertEquals(5, dag.size());
+        assertEquals(5, product.size());
+    }
+
+    @Test
+    void offspringShareUnchangedSubtrees() {
+        ProgramDag.Node parent = dag.intern(node(MathOp.SUB,
+                node(MathOp.SIN, x()), node(MathOp.COS, x())));
+
+        // Replace x inside cos(x) with 2
+        ProgramDag.Node child = dag.replace(parent, 4, dag.intern(constant(2.0)));
+
+        assertSame(parent.childAt(0), child.childAt(0));
+        assertEquals(parent.nodeAt(3).getValue(), child.nodeAt(3).getValue());
+        assertEquals(node(MathOp.SUB, node(MathOp.SIN, x()), node(MathOp.COS, constant(2.0))),
+                child.toTree());
+        assertSame(child, dag.intern(child.toTree()));
+    }
+
+    private DagProgramGene gene(int maxSize) {
+        List<Op<Double>> operators = new ArrayList<>();
+        operators.add(MathOp.ADD);
+        operators.add(MathOp.SIN);
+        List<Op<Double>> terminals = new ArrayList<>();
+        terminals.add(Var.of("x", 0));
+        terminals.add(Const.of(1.0));
+        return DagProgramGene.of(dag, operators, terminals, 4, maxSize);
+    }
+
+    @Test
+    void mutationReplacesOneSubtreeWithinTheSizeLimit() {
+        DagProgramGene parent = gene(100).newInstance(dag.intern(node(MathOp.ADD,
+                node(MathOp.SIN, x()), node(MathOp.SIN, node(MathOp.SIN, x())))));
+        DagMutator<Double> mutator = new DagMutator<>(1.0);
+        Random random = new Random(3);
+
+        for (int i = 0; i < 50; i++) {
+            DagProgramGene child = mutator.mutate(parent, random);
+            assertTrue(child.getAllele().size() <= 100);
+            assertSame(dag, child.getDag());
+            // Every node of the child is the stored one
+            assertSame(child.getAllele(), dag.intern(child.getAllele().toTree()));
+        }
+
+        // Nothing but a single node fits, so growing a subtree is dropped or shrinks the program
+        DagProgramGene small = gene(1).newInstance(dag.intern(x()));
+        for (int i = 0; i < 50; i++) {
+            assertEquals(1, mutator.mutate(small, random).getAllele().size());
+        }
+    }
+
+    @Test
+    void crossoverSwapsSharedSubtrees() {
+        DagProgramGene mother = gene(100).newInstance(dag.intern(node(MathOp.SIN, x())));
+        DagProgramGene father = gene(100).newInstance(dag.intern(node(MathOp.ADD,
+                constant(1.0), constant(1.0))));
+        MSeq<DagProgramGene> daughter = MSeq.of(mother);
+        MSeq<DagProgramGene> son = MSeq.of(father);
+
+        DagCrossover<Double> crossover = new DagCrossover<>(1.0);
+        assertEquals(2, crossover.crossover(daughter, son));
+
+        // The parents' nodes are conserved, and shared rather than copied
+        assertEquals(mother.getAllele().size() + father.getAllele().size(),
+                daughter.get(0).getAllele().size() + son.get(0).getAllele().size());
+        assertSame(daughter.get(0).getAllele(), dag.intern(daughter.get(0).getAllele().toTree()));
+        assertSame(son.get(0).getAllele(), dag.intern(son.get(0).getAllele().toTree()));
+    }
+
+    @Test
+    void searchEvolvesDagPrograms() throws Exception {
+        Backend backend = new Backend();
+        backend.setDataFilePath("UnitTestFiles/3cxc+sin(b)-4xa.csv");
+        backend.setMaxGenerations(10);
+        backend.setPopulationSize(50);
+        backend.setSeed(11);
+        backend.setGenomeEncoding("DAG");
+        try (RunManager manager = new RunManager(1, 1)) {
+            manager.submit(backend);
+            manager.awaitAll();
+        }
+
+        // Generations are reported as trees, and the best so far never gets worse
+        int generations = 0;
+        double best = Double.POSITIVE_INFINITY;
+        GenerationBean generation;
+        while ((generation = backend.getNextGeneration()) != null) {
+            double fitness = (Double) generation.getBestFitness();
+            assertTrue(fitness <= best);
+            best = fitness;
+            assertNotNull(generation.getBestSolution());
+            generations++;
+        }
+        assertEquals(10, generations);
+        assertTrue(Double.isFinite(best));
+    }
+}
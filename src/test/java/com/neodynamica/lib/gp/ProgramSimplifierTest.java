@@ -0,0 +1,36 @@
+package com.neodynamica.lib.gp;
+
+import io.jenetics.ext.util.TreeNode;
+import io.jenetics.prog.op.MathOp;
+import io.jenetics.prog.op.Op;
+import org.junit.jupiter.api.Test;
+
+import static com.neodynamica.lib.gp.ProgramTrees.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgramSimplifierTest {
+
+    private final ProgramSimplifier simplifier = new ProgramSimplifier();
+
+    @Test
+    void constantsAreFoldedAndIdentitiesRemoved() {
+        // (x * (3 - 2)) + (x - x) becomes x
+        TreeNode<Op<Double>> simplified = simplifier.simplify(node(MathOp.ADD,
+                node(MathOp.MUL, x(), node(MathOp.SUB, constant(3.0), constant(2.0))),
+                node(MathOp.SUB, x(), x())));
+
+        assertEquals(x(), simplified);
+    }
+
+    @Test
+    void undefinedFoldsAreKept() {
+        TreeNode<Op<Double>> program = node(MathOp.DIV, constant(1.0), constant(0.0));
+
+        assertEquals(3, simplifier.simplify(program).size());
+    }
+
+    @Test
+    void doubleNegationCancels() {
+        assertEquals(x(), simplifier.simplify(node(MathOp.NEG, node(MathOp.NEG, x()))));
+    }
+}
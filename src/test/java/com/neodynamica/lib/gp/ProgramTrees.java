@@ -0,0 +1,36 @@
+package com.neodynamica.lib.gp;
+
+import io.jenetics.ext.util.TreeNode;
+import io.jenetics.prog.op.Const;
+import io.jenetics.prog.op.Op;
+import io.jenetics.prog.op.Var;
+
+/**
+ * Builders of the small program trees the tests evaluate, over the variables x and y
+ */
+final class ProgramTrees {
+
+    private ProgramTrees() {
+    }
+
+    @SafeVarargs
+    static TreeNode<Op<Double>> node(Op<Double> op, TreeNode<Op<Double>>... children) {
+        TreeNode<Op<Double>> node = TreeNode.of(op);
+        for (TreeNode<Op<Double>> child : children) {
+            node.attach(child);
+        }
+        return node;
+    }
+
+    static TreeNode<Op<Double>> x() {
+        return TreeNode.of(Var.of("x", 0));
+    }
+
+    static TreeNode<Op<Double>> y() {
+        return TreeNode.of(Var.of("y", 1));
+    }
+
+    static TreeNode<Op<Double>> constant(double value) {
+        return TreeNode.of(Const.of(value));
+    }
+}
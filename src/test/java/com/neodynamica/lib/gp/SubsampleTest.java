@@ -0,0 +1,106 @@
+package com.neodynamica.lib.gp;
+
+import com.neodynamica.lib.sample.Dataset;
+import io.jenetics.DoubleChromosome;
+import io.jenetics.DoubleGene;
+import io.jenetics.Genotype;
+import io.jenetics.Phenotype;
+import io.jenetics.engine.Evaluator;
+import io.jenetics.engine.Evaluators;
+import io.jenetics.util.ISeq;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubsampleTest {
+
+    private static Dataset dataset(int rows) {
+        Double[][] values = new Double[rows][];
+        for (int i = 0; i < rows; i++) {
+            values[i] = new Double[]{(double) i, (double) i};
+        }
+        return new Dataset(new String[]{"x", "y"}, new String[]{"x", "y"}, values);
+    }
+
+    @Test
+    void interleavedSlicesCoverEveryRowOnce() {
+        Subsample subsample = new Subsample(SamplingMode.INTERLEAVED, dataset(10), 3, 100);
+        Set<Double> seen = new HashSet<>();
+        int rows = 0;
+
+        // ceil(10 / 3) = 4 slices
+        for (int generation = 1; generation <= 4; generation++) {
+            Dataset slice = subsample.select(generation);
+            for (Double[] row : slice.getValues()) {
+                seen.add(row[0]);
+            }
+            rows += slice.size();
+        }
+
+        assertEquals(10, rows);
+        assertEquals(10, seen.size());
+        assertEquals(subsample.select(1).size(), subsample.select(5).size());
+    }
+
+    @Test
+    void progressiveSampleGrowsToFullDataset() {
+        Subsample subsample = new Subsample(SamplingMode.PROGRESSIVE, dataset(100), 10, 11);
+
+        assertEquals(10, subsample.select(1).size());
+        assertEquals(55, subsample.select(6).size());
+        assertEquals(100, subsample.select(11).size());
+    }
+
+    @Test
+    void samplingIsInactiveWhenSampleCoversDataset() {
+        Dataset dataset = dataset(10);
+
+        assertFalse(new Subsample(SamplingMode.RANDOM, dataset, 10, 100).isActive());
+        assertFalse(new Subsample(SamplingMode.NONE, dataset, 3, 100).isActive());
+        assertSame(dataset, new Subsample(SamplingMode.NONE, dataset, 3, 100).select(1));
+        assertEquals(3, new Subsample(SamplingMode.RANDOM, dataset, 3, 100).select(1).size());
+    }
+
+    private static Genotype<DoubleGene> program(double value) {
+        return Genotype.of(DoubleChromosome.of(DoubleGene.of(value, 0, 10)));
+    }
+
+    @Test
+    void survivorsAreScoredAgainOnANewSample() {
+        // Slices of rows 0, 2, .. 8 and 1, 3, .. 9, averaging 4 and 5
+        Subsample subsample = new Subsample(SamplingMode.INTERLEAVED, dataset(10), 5, 100);
+        Dataset[] sample = {subsample.select(1)};
+
+        // The error of a program is how far its value is from the average x of the sample
+        AtomicInteger evaluations = new AtomicInteger();
+        Evaluator<DoubleGene, Double> evaluator = subsample.rescoring(Evaluators.<DoubleGene, Double>concurrent(
+                (Genotype<DoubleGene> genotype) -> {
+                    evaluations.incrementAndGet();
+                    double sum = 0;
+                    for (Double[] row : sample[0].getValues()) {
+                        sum += row[0];
+                    }
+                    return Math.abs(genotype.getGene().doubleValue() - sum / sample[0].size());
+                }, Runnable::run));
+
+        Phenotype<DoubleGene, Double> survivor =
+                evaluator.eval(ISeq.of(Phenotype.of(program(4), 1))).get(0);
+        assertEquals(0.0, survivor.getFitness());
+
+        // On the next sample the new program is better, though the survivor was perfect before
+        sample[0] = subsample.select(2);
+        ISeq<Phenotype<DoubleGene, Double>> generation = evaluator.eval(
+                ISeq.of(survivor, Phenotype.of(program(4.5), 2)));
+        assertEquals(1.0, generation.get(0).getFitness());
+        assertEquals(0.5, generation.get(1).getFitness());
+        assertEquals(3, evaluations.get());
+
+        // While the sample stays, evaluated individuals keep their fitness
+        assertSame(generation.get(0), evaluator.eval(generation).get(0));
+        assertEquals(3, evaluations.get());
+    }
+}
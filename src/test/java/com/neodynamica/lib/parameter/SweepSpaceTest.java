@@ -0,0 +1,46 @@
+package com.neodynamica.lib.parameter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SweepSpaceTest {
+
+    @Test
+    public void testGridTakesEveryCombination() throws SearchParameterException {
+        List<Map<String, String>> grid = SweepSpace
+                .parse("populationSize=100|200;operators=add,sub|add,sub,mul|add,mul").grid();
+
+        assertEquals(6, grid.size());
+        assertEquals("100", grid.get(0).get("populationSize"));
+        assertEquals("add,sub", grid.get(0).get("operators"));
+        assertEquals("200", grid.get(5).get("populationSize"));
+        assertEquals("add,mul", grid.get(5).get("operators"));
+    }
+
+    @Test
+    public void testSampleStaysInRange() throws SearchParameterException {
+        SweepSpace space = SweepSpace.parse("populationSize=10..20;offspringFraction=0.4..0.8");
+        for (Map<String, String> configuration : space.sample(100, new Random(1))) {
+            int populationSize = Integer.parseInt(configuration.get("populationSize"));
+            double offspringFraction = Double.parseDouble(configuration.get("offspringFraction"));
+            assertTrue(populationSize >= 10 && populationSize <= 20);
+            assertTrue(offspringFraction >= 0.4 && offspringFraction <= 0.8);
+        }
+    }
+
+    @Test
+    public void testInvalidSpaces() throws SearchParameterException {
+        assertThrows(SearchParameterException.class, () -> SweepSpace.parse("noSuchField=1|2"));
+        assertThrows(SearchParameterException.class, () -> SweepSpace.parse("operators=a..b"));
+        assertThrows(SearchParameterException.class,
+                () -> SweepSpace.parse("populationSize=10..20").grid());
+        assertThrows(SearchParameterException.class, () -> SweepSpace.apply(new SearchParameter(),
+                Collections.singletonMap("populationSize", "many")));
+    }
+}
@@ -116,6 +116,19 @@ class DatasetTest {
 
     }
 
-
-
-}
\ No newline at end of file
+    @Test
+    void testInputRanges() {
+        Dataset dataset = new Dataset(new String[]{"a", "b", "c"}, new String[]{"a", "b", "c"},
+                new Double[][]{
+                        {1.0, -2.0, 0.0},
+                        {-3.0, Double.NaN, 0.0},
+                        {2.5, 4.0, 0.0}});
+
+        double[][] ranges = dataset.toInputRanges();
+
+        assertArrayEquals(new double[]{-3.0, 2.5}, ranges[0]);
+        // Missing values are ignored
+        assertArrayEquals(new double[]{-2.0, 4.0}, ranges[1]);
+        assertEquals(2, ranges.length);
+    }
+}
@@ -63,6 +63,29 @@ public class CLITestStrings {
                     "    maxGenerations: 5" + lineSeparator() +
                     "    steadyFitnessLimit: 5678" + lineSeparator() +
                     "    timeLimit: 3321" + lineSeparator() +
+                    "    evaluationMode: INTERPRETED" + lineSeparator() +
+                    "    fitnessCacheSize: 0" + lineSeparator() +
+                    "    subtreeCacheMemory: 0" + lineSeparator() +
+                    "    earlyAbortChunkSize: 0" + lineSeparator() +
+                    "    samplingMode: NONE" + lineSeparator() +
+                    "    sampleSize: 1000" + lineSeparator() +
+                    "    islandCount: 1" + lineSeparator() +
+                    "    migrationInterval: 10" + lineSeparator() +
+                    "    migrationSize: 2" + lineSeparator() +
+                    "    migrationTopology: RING" + lineSeparator() +
+                    "    constantOptimisationInterval: 0" + lineSeparator() +
+                    "    constantOptimisationElites: 5" + lineSeparator() +
+                    "    constantOptimisationTime: 200" + lineSeparator() +
+                    "    linearScaling: false" + lineSeparator() +
+                    "    intervalScreen: false" + lineSeparator() +
+                    "    onlineSimplification: false" + lineSeparator() +
+                    "    genomeEncoding: TREE" + lineSeparator() +
+                    "    checkpointInterval: 0" + lineSeparator() +
+                    "    checkpointFilePath: checkpoint.ndc" + lineSeparator() +
+                    "    historyFullGenerations: 64" + lineSeparator() +
+                    "    historySampleInterval: 1" + lineSeparator() +
+                    "    historyKeepNewBest: false" + lineSeparator() +
+                    "    historyPopulationGenerations: 0" + lineSeparator() +
                     lineSeparator() +
                     "STARTING SYMBOLIC REGRESSION >>>";
 
@@ -89,6 +112,29 @@ public class CLITestStrings {
                     "    maxGenerations: 1" + lineSeparator() +
                     "    steadyFitnessLimit: 99998" + lineSeparator() +
                     "    timeLimit: 3601" + lineSeparator() +
+                    "    evaluationMode: INTERPRETED" + lineSeparator() +
+                    "    fitnessCacheSize: 0" + lineSeparator() +
+                    "    subtreeCacheMemory: 0" + lineSeparator() +
+                    "    earlyAbortChunkSize: 0" + lineSeparator() +
+                    "    samplingMode: NONE" + lineSeparator() +
+                    "    sampleSize: 1000" + lineSeparator() +
+                    "    islandCount: 1" + lineSeparator() +
+                    "    migrationInterval: 10" + lineSeparator() +
+                    "    migrationSize: 2" + lineSeparator() +
+                    "    migrationTopology: RING" + lineSeparator() +
+                    "    constantOptimisationInterval: 0" + lineSeparator() +
+                    "    constantOptimisationElites: 5" + lineSeparator() +
+                    "    constantOptimisationTime: 200" + lineSeparator() +
+                    "    linearScaling: false" + lineSeparator() +
+                    "    intervalScreen: false" + lineSeparator() +
+                    "    onlineSimplification: false" + lineSeparator() +
+                    "    genomeEncoding: TREE" + lineSeparator() +
+                    "    checkpointInterval: 0" + lineSeparator() +
+                    "    checkpointFilePath: checkpoint.ndc" + lineSeparator() +
+                    "    historyFullGenerations: 64" + lineSeparator() +
+                    "    historySampleInterval: 1" + lineSeparator() +
+                    "    historyKeepNewBest: false" + lineSeparator() +
+                    "    historyPopulationGenerations: 0" + lineSeparator() +
                     lineSeparator() +
                     "STARTING SYMBOLIC REGRESSION >>>";
 
@@ -119,6 +165,29 @@ public class CLITestStrings {
                     "    maxGenerations: 3" + lineSeparator() +
                     "    steadyFitnessLimit: 99999" + lineSeparator() +
                     "    timeLimit: 3600" + lineSeparator() +
+                    "    evaluationMode: INTERPRETED" + lineSeparator() +
+                    "    fitnessCacheSize: 0" + lineSeparator() +
+                    "    subtreeCacheMemory: 0" + lineSeparator() +
+                    "    earlyAbortChunkSize: 0" + lineSeparator() +
+                    "    samplingMode: NONE" + lineSeparator() +
+                    "    sampleSize: 1000" + lineSeparator() +
+                    "    islandCount: 1" + lineSeparator() +
+                    "    migrationInterval: 10" + lineSeparator() +
+                    "    migrationSize: 2" + lineSeparator() +
+                    "    migrationTopology: RING" + lineSeparator() +
+                    "    constantOptimisationInterval: 0" + lineSeparator() +
+                    "    constantOptimisationElites: 5" + lineSeparator() +
+                    "    constantOptimisationTime: 200" + lineSeparator() +
+                    "    linearScaling: false" + lineSeparator() +
+                    "    intervalScreen: false" + lineSeparator() +
+                    "    onlineSimplification: false" + lineSeparator() +
+                    "    genomeEncoding: TREE" + lineSeparator() +
+                    "    checkpointInterval: 0" + lineSeparator() +
+                    "    checkpointFilePath: checkpoint.ndc" + lineSeparator() +
+                    "    historyFullGenerations: 64" + lineSeparator() +
+                    "    historySampleInterval: 1" + lineSeparator() +
+                    "    historyKeepNewBest: false" + lineSeparator() +
+                    "    historyPopulationGenerations: 0" + lineSeparator() +
                     "" + lineSeparator() +
                     "STARTING SYMBOLIC REGRESSION >>>" + lineSeparator() +
                     "" + lineSeparator() +